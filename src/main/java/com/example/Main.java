@@ -1,9 +1,22 @@
 package com.example;
 
 import com.example.domain.Persona;
+import com.example.load.HttpLoadTestClient;
+import com.example.load.WorkloadDriver;
+import com.example.load.WorkloadTrace;
+import com.example.replication.MutationLog;
+import com.example.replication.ReadReplica;
+import com.example.replication.ReplicationLeader;
+import com.example.server.SocialNetworkServer;
+import com.example.service.AsyncSocialNetwork;
 import com.example.service.SocialNetwork;
 import com.example.service.SocialNetworkImpl;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
@@ -15,15 +28,152 @@ import java.util.Set;
  * by creating users, establishing connections, and displaying various network
  * properties such as friends, connection paths, and levels.
  * </p>
+ * <p>
+ * It can also run the network as a service or load-test a running service:
+ * <ul>
+ *   <li>{@code server [port] [logFile]} - starts an empty network behind
+ *       {@link SocialNetworkServer} (port 8080 by default); with a log file, the network is a
+ *       {@link ReplicationLeader} that records its mutations there</li>
+ *   <li>{@code replica logFile [port]} - serves a {@link ReadReplica} that follows the log
+ *       of a leader running on the same host (port 8081 by default)</li>
+ *   <li>{@code loadtest [baseUri] [concurrency] [seconds] [users]} - seeds the server with
+ *       users and runs {@link HttpLoadTestClient} against it</li>
+ *   <li>{@code workload [opsPerSecond] [seconds] [users] [threads] [platform|virtual] [traceFile]} -
+ *       replays the default operation mix, or a recorded trace, against an in-process network
+ *       with {@link WorkloadDriver}</li>
+ * </ul>
+ * </p>
  */
 public class Main {
 
     /**
      * Main method to demonstrate the social network functionality.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments: empty for the demonstration, or a mode
+     *             ({@code server}, {@code replica}, {@code loadtest} or {@code workload}) followed
+     *             by its options
+     * @throws Exception if the server or the load test fails
+     */
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "demo";
+        switch (mode) {
+            case "server" -> runServer(args.length > 1 ? Integer.parseInt(args[1]) : 8080,
+                    args.length > 2 ? Path.of(args[2]) : null);
+            case "replica" -> runReplica(Path.of(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 8081);
+            case "loadtest" -> runLoadTest(
+                    URI.create(args.length > 1 ? args[1] : "http://localhost:8080"),
+                    args.length > 2 ? Integer.parseInt(args[2]) : 64,
+                    Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 10),
+                    args.length > 4 ? Integer.parseInt(args[4]) : 1000);
+            case "workload" -> runWorkload(
+                    args.length > 1 ? Double.parseDouble(args[1]) : 20_000,
+                    Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10),
+                    args.length > 3 ? Integer.parseInt(args[3]) : 100_000,
+                    args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors(),
+                    WorkloadDriver.ThreadMode.valueOf((args.length > 5 ? args[5] : "platform").toUpperCase()),
+                    args.length > 6 ? Path.of(args[6]) : null);
+            default -> runDemo();
+        }
+    }
+
+    /**
+     * Starts the HTTP server and returns; the server keeps the process alive.
+     *
+     * @param port    the port to listen on
+     * @param logFile the mutation log to write as a replication leader, or null for none
+     * @throws IOException if the port cannot be bound or the log cannot be created
+     */
+    private static void runServer(int port, Path logFile) throws IOException {
+        SocialNetwork delegate = logFile == null
+                ? new SocialNetworkImpl()
+                : new ReplicationLeader(new SocialNetworkImpl(), new MutationLog.Writer(logFile));
+        serve(delegate, port, "Social network server");
+    }
+
+    /**
+     * Starts a read replica that follows a leader's log and serves it over HTTP.
+     *
+     * @param logFile the leader's mutation log
+     * @param port    the port to listen on
+     * @throws IOException if the port cannot be bound or the log cannot be opened
+     */
+    private static void runReplica(Path logFile, int port) throws IOException {
+        ReadReplica replica = new ReadReplica(logFile);
+        replica.start(Duration.ofMillis(10));
+        serve(replica, port, "Read replica");
+    }
+
+    private static void serve(SocialNetwork delegate, int port, String description) throws IOException {
+        // Read by the JDK server when the first one is created; an explicit -D setting wins
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        AsyncSocialNetwork network = new AsyncSocialNetwork(delegate);
+        SocialNetworkServer server = new SocialNetworkServer(network, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            network.close();
+            if (delegate instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    System.err.println("Failed to close " + description + ": " + e.getMessage());
+                }
+            }
+        }));
+        server.start();
+        System.out.println(description + " listening on port " + server.getPort());
+    }
+
+    /**
+     * Seeds a running server with users and generates load against it.
+     *
+     * @param baseUri     the base URI of the server
+     * @param concurrency the number of concurrent workers
+     * @param duration    how long to generate load
+     * @param users       the number of users to register
+     * @throws IOException if seeding fails
+     * @throws InterruptedException if interrupted
+     */
+    private static void runLoadTest(URI baseUri, int concurrency, Duration duration, int users)
+            throws IOException, InterruptedException {
+        HttpLoadTestClient client = new HttpLoadTestClient(baseUri, concurrency, duration, users);
+        System.out.println("Seeding " + users + " users...");
+        client.seed(5);
+        System.out.println("Running load test with " + concurrency + " workers for " + duration.toSeconds() + "s...");
+        client.run().print(System.out);
+    }
+
+    /**
+     * Populates an in-process network and replays a workload against it.
+     *
+     * @param rate      the mean operations per second of a synthetic trace
+     * @param duration  the time span of a synthetic trace
+     * @param users     the number of users to register
+     * @param threads   the maximum number of concurrent operations
+     * @param mode      the kind of threads to run the operations on
+     * @param traceFile a recorded trace to replay instead of a synthetic one, or null
+     * @throws IOException if the trace file cannot be read
+     * @throws InterruptedException if interrupted
+     */
+    private static void runWorkload(double rate, Duration duration, int users, int threads,
+                                    WorkloadDriver.ThreadMode mode, Path traceFile)
+            throws IOException, InterruptedException {
+        SocialNetwork network = new SocialNetworkImpl();
+        System.out.println("Populating " + users + " users...");
+        WorkloadDriver.populate(network, users, 10, 42);
+        WorkloadTrace trace = traceFile != null
+                ? WorkloadTrace.read(traceFile)
+                : WorkloadTrace.synthetic(WorkloadTrace.Mix.DEFAULT, users, rate, duration, 7);
+        System.out.println("Replaying " + trace.size() + " operations on " + threads + " " + mode
+                + " threads...");
+        new WorkloadDriver(network, mode, threads, true).run(trace).print(System.out);
+    }
+
+    /**
+     * Runs the console demonstration.
      */
-    public static void main(String[] args) {
+    private static void runDemo() {
         System.out.println("Social Network Demonstration");
         System.out.println("===========================");
         
@@ -0,0 +1,363 @@
+package com.example.analytics;
+
+import com.example.graph.GraphSnapshot;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Network health metrics computed over a {@link GraphSnapshot}.
+ * <p>
+ * Every pass splits the users into contiguous blocks of ordinals and processes the blocks in
+ * parallel on the common fork/join pool. Working on contiguous ranges keeps each worker
+ * scanning adjacent regions of the CSR arrays, which is what makes the passes cache-friendly.
+ * Progress is reported to a {@link ProgressListener} after each block.
+ * </p>
+ * <p>
+ * The available passes are:
+ * <ul>
+ *   <li>degree histogram - O(V)</li>
+ *   <li>triangle counting with degree ordering and sorted merge intersection - O(E^1.5)</li>
+ *   <li>connected components with a lock-free union-find - O(E α(V))</li>
+ * </ul>
+ * {@link #computeMetrics()} runs all of them and combines the results into
+ * {@link NetworkMetrics}, including local and global clustering coefficients.
+ * </p>
+ */
+public final class GraphAnalytics {
+
+    /**
+     * The passes that report progress.
+     */
+    public enum Phase {
+        /** Counting the friends of every user. */
+        DEGREES,
+        /** Ordering the graph by degree before counting triangles. */
+        ORIENTATION,
+        /** Counting triangles through every user. */
+        TRIANGLES,
+        /** Finding connected components. */
+        COMPONENTS,
+        /** Iterating PageRank scores, reported once per iteration. */
+        PAGE_RANK,
+        /** Building reach sketches, reported once per radius. */
+        REACH
+    }
+
+    /**
+     * Number of consecutive users processed as one unit of parallel work.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    private final GraphSnapshot graph;
+    private final ProgressListener listener;
+
+    /**
+     * Creates an analytics runner that does not report progress.
+     *
+     * @param graph the graph to analyze
+     */
+    public GraphAnalytics(GraphSnapshot graph) {
+        this(graph, ProgressListener.NONE);
+    }
+
+    /**
+     * Creates an analytics runner.
+     *
+     * @param graph    the graph to analyze
+     * @param listener the listener to notify as the passes progress
+     */
+    public GraphAnalytics(GraphSnapshot graph, ProgressListener listener) {
+        this.graph = Objects.requireNonNull(graph, "Graph cannot be null");
+        this.listener = Objects.requireNonNull(listener, "Listener cannot be null");
+    }
+
+    /**
+     * Runs every pass and collects the results.
+     *
+     * @return the metrics of the graph
+     */
+    public NetworkMetrics computeMetrics() {
+        long[] histogram = degreeHistogram();
+        long[] triangles = trianglesPerUser();
+        int[] components = componentSizes();
+
+        int largest = 0;
+        int componentCount = 0;
+        for (int size : components) {
+            if (size > 0) {
+                componentCount++;
+                largest = Math.max(largest, size);
+            }
+        }
+        return new NetworkMetrics(graph, histogram, triangles, largest, componentCount);
+    }
+
+    /**
+     * Counts how many users have each degree.
+     *
+     * @return an array where entry {@code d} is the number of users with exactly {@code d} friends
+     */
+    public long[] degreeHistogram() {
+        int n = graph.userCount();
+        int maxDegree = IntStream.range(0, n).parallel().map(graph::degree).max().orElse(0);
+        Progress progress = new Progress(Phase.DEGREES, n);
+
+        return IntStream.range(0, blockCount(n)).parallel()
+                .mapToObj(block -> {
+                    long[] local = new long[maxDegree + 1];
+                    int end = blockEnd(block, n);
+                    for (int u = blockStart(block); u < end; u++) {
+                        local[graph.degree(u)]++;
+                    }
+                    progress.advance(end - blockStart(block));
+                    return local;
+                })
+                .reduce(new long[maxDegree + 1], (left, right) -> {
+                    long[] merged = new long[left.length];
+                    for (int d = 0; d < merged.length; d++) {
+                        merged[d] = left[d] + right[d];
+                    }
+                    return merged;
+                });
+    }
+
+    /**
+     * Counts the triangles every user takes part in.
+     * <p>
+     * Each friendship is oriented from the endpoint with the lower degree to the one with the
+     * higher degree (ties broken by ordinal). Every triangle then has exactly one vertex from
+     * which both other vertices are forward neighbors, so it is found exactly once by merging
+     * the sorted forward lists of that vertex and of each of its forward neighbors. Orienting
+     * towards high-degree users keeps forward lists short, which bounds the work by
+     * O(E^1.5) even for graphs with very large hubs.
+     * </p>
+     * <p>
+     * A triangle adds to the counts of three users that may lie in any block, and hubs close
+     * triangles in almost every block. Instead of sharing one array of atomic counters, each
+     * worker of the common pool counts into a private array and the arrays are summed once at
+     * the end, so the counting loop does no atomic operation and no cache line bounces between
+     * workers. This takes O(P * V) memory for P workers.
+     * </p>
+     *
+     * @return an array where entry {@code u} is the number of triangles containing user {@code u}
+     */
+    public long[] trianglesPerUser() {
+        int n = graph.userCount();
+        int[] forwardOffsets = new int[n + 1];
+        int[] forwardTargets = orient(forwardOffsets);
+
+        int blocks = blockCount(n);
+        int workers = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), blocks));
+        AtomicInteger nextBlock = new AtomicInteger();
+        Progress progress = new Progress(Phase.TRIANGLES, n);
+
+        // Each worker counts into its own array and claims blocks until none are left, so the
+        // counts of hubs, which close triangles in every block, are never contended
+        long[][] partial = IntStream.range(0, workers).parallel().mapToObj(worker -> {
+            long[] triangles = new long[n];
+            for (int block = nextBlock.getAndIncrement(); block < blocks; block = nextBlock.getAndIncrement()) {
+                int end = blockEnd(block, n);
+                for (int u = blockStart(block); u < end; u++) {
+                    int uStart = forwardOffsets[u];
+                    int uEnd = forwardOffsets[u + 1];
+                    long found = 0;
+                    for (int e = uStart; e < uEnd; e++) {
+                        int v = forwardTargets[e];
+                        // Merge intersection of the two sorted forward lists
+                        int i = uStart;
+                        int j = forwardOffsets[v];
+                        int jEnd = forwardOffsets[v + 1];
+                        long common = 0;
+                        while (i < uEnd && j < jEnd) {
+                            int a = forwardTargets[i];
+                            int b = forwardTargets[j];
+                            if (a < b) {
+                                i++;
+                            } else if (a > b) {
+                                j++;
+                            } else {
+                                triangles[a]++;
+                                common++;
+                                i++;
+                                j++;
+                            }
+                        }
+                        triangles[v] += common;
+                        found += common;
+                    }
+                    triangles[u] += found;
+                }
+                progress.advance(end - blockStart(block));
+            }
+            return triangles;
+        }).toArray(long[][]::new);
+
+        long[] result = partial[0];
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int end = blockEnd(block, n);
+            for (int worker = 1; worker < partial.length; worker++) {
+                long[] counts = partial[worker];
+                for (int u = blockStart(block); u < end; u++) {
+                    result[u] += counts[u];
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Finds the connected components of the graph.
+     * <p>
+     * Friendships are merged in parallel with a lock-free union-find: roots are linked with a
+     * compare-and-set from the larger ordinal to the smaller one, and paths are halved while
+     * searching for roots.
+     * </p>
+     *
+     * @return an array where entry {@code r} is the size of the component whose smallest ordinal
+     *         is {@code r}, or 0 if {@code r} is not the smallest ordinal of its component
+     */
+    public int[] componentSizes() {
+        int n = graph.userCount();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int u = 0; u < n; u++) {
+            parent.set(u, u);
+        }
+        Progress progress = new Progress(Phase.COMPONENTS, n);
+
+        IntStream.range(0, blockCount(n)).parallel().forEach(block -> {
+            int end = blockEnd(block, n);
+            for (int u = blockStart(block); u < end; u++) {
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    int v = graph.target(e);
+                    if (u < v) {
+                        union(parent, u, v);
+                    }
+                }
+            }
+            progress.advance(end - blockStart(block));
+        });
+
+        int[] sizes = new int[n];
+        for (int u = 0; u < n; u++) {
+            sizes[find(parent, u)]++;
+        }
+        return sizes;
+    }
+
+    /**
+     * Builds the degree-ordered forward adjacency used by triangle counting.
+     *
+     * @param forwardOffsets filled with the CSR offsets of the forward lists
+     * @return the forward targets, each row sorted by ordinal
+     */
+    private int[] orient(int[] forwardOffsets) {
+        int n = graph.userCount();
+        Progress progress = new Progress(Phase.ORIENTATION, 2L * n);
+
+        IntStream.range(0, blockCount(n)).parallel().forEach(block -> {
+            int end = blockEnd(block, n);
+            for (int u = blockStart(block); u < end; u++) {
+                int count = 0;
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    if (precedes(u, graph.target(e))) {
+                        count++;
+                    }
+                }
+                forwardOffsets[u + 1] = count;
+            }
+            progress.advance(end - blockStart(block));
+        });
+        for (int u = 0; u < n; u++) {
+            forwardOffsets[u + 1] += forwardOffsets[u];
+        }
+
+        int[] forwardTargets = new int[forwardOffsets[n]];
+        IntStream.range(0, blockCount(n)).parallel().forEach(block -> {
+            int end = blockEnd(block, n);
+            for (int u = blockStart(block); u < end; u++) {
+                int next = forwardOffsets[u];
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    int v = graph.target(e);
+                    if (precedes(u, v)) {
+                        forwardTargets[next++] = v;
+                    }
+                }
+            }
+            progress.advance(end - blockStart(block));
+        });
+        return forwardTargets;
+    }
+
+    /**
+     * Returns whether {@code u} comes before {@code v} in the degree ordering.
+     */
+    private boolean precedes(int u, int v) {
+        int du = graph.degree(u);
+        int dv = graph.degree(v);
+        return du < dv || (du == dv && u < v);
+    }
+
+    private static int find(AtomicIntegerArray parent, int u) {
+        int p = parent.get(u);
+        while (p != u) {
+            int grandparent = parent.get(p);
+            parent.compareAndSet(u, p, grandparent);
+            u = p;
+            p = parent.get(u);
+        }
+        return u;
+    }
+
+    private static void union(AtomicIntegerArray parent, int u, int v) {
+        while (true) {
+            int ru = find(parent, u);
+            int rv = find(parent, v);
+            if (ru == rv) {
+                return;
+            }
+            if (ru < rv) {
+                int tmp = ru;
+                ru = rv;
+                rv = tmp;
+            }
+            if (parent.compareAndSet(ru, ru, rv)) {
+                return;
+            }
+        }
+    }
+
+    private static int blockCount(int n) {
+        return (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    private static int blockStart(int block) {
+        return block * BLOCK_SIZE;
+    }
+
+    private static int blockEnd(int block, int n) {
+        return Math.min(n, (block + 1) * BLOCK_SIZE);
+    }
+
+    /**
+     * Accumulates completed work for one pass and forwards it to the listener.
+     */
+    private final class Progress {
+        private final Phase phase;
+        private final long total;
+        private final AtomicLong completed = new AtomicLong();
+
+        Progress(Phase phase, long total) {
+            this.phase = phase;
+            this.total = total;
+        }
+
+        void advance(long amount) {
+            listener.onProgress(phase, completed.addAndGet(amount), total);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.analytics;
+
+import com.example.domain.Persona;
+import com.example.exceptions.UserNotFoundException;
+import com.example.graph.GraphSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Influence scores produced by {@link PageRank}.
+ * <p>
+ * Scores are stored in a {@code double[]} indexed by the ordinals of the ranked
+ * {@link GraphSnapshot}, so looking up a user costs one ID lookup and one array read, and no
+ * score is ever boxed.
+ * </p>
+ */
+public final class InfluenceScores {
+
+    /**
+     * A user together with their score.
+     *
+     * @param user  the user
+     * @param score the influence score of the user
+     */
+    public record Entry(Persona user, double score) {
+    }
+
+    private final GraphSnapshot graph;
+    private final double[] scores;
+    private final int iterations;
+    private final boolean converged;
+
+    InfluenceScores(GraphSnapshot graph, double[] scores, int iterations, boolean converged) {
+        this.graph = graph;
+        this.scores = scores;
+        this.iterations = iterations;
+        this.converged = converged;
+    }
+
+    /**
+     * Returns the score of a user.
+     *
+     * @param id the ID of the user
+     * @return the influence score of the user
+     * @throws UserNotFoundException if the user is not part of the ranked graph
+     */
+    public double getScore(String id) {
+        int ordinal = graph.ordinalOf(id);
+        if (ordinal < 0) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        return scores[ordinal];
+    }
+
+    /**
+     * Returns the {@code k} users with the highest scores, highest first.
+     * <p>
+     * Time Complexity: O(V log k) - a bounded min-heap of ordinals is maintained while
+     * scanning the score array once.
+     * </p>
+     *
+     * @param k the number of users to return
+     * @return up to {@code k} entries ordered by descending score
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public List<Entry> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative: " + k);
+        }
+        int capacity = Math.min(k, scores.length);
+        int[] heap = new int[capacity];
+        int size = 0;
+
+        for (int u = 0; u < scores.length; u++) {
+            if (size < capacity) {
+                heap[size] = u;
+                siftUp(heap, size++);
+            } else if (capacity > 0 && isHigher(u, heap[0])) {
+                heap[0] = u;
+                siftDown(heap, size);
+            }
+        }
+
+        // Pop the heap into descending order
+        Entry[] result = new Entry[size];
+        for (int i = size - 1; i >= 0; i--) {
+            int ordinal = heap[0];
+            result[i] = new Entry(graph.user(ordinal), scores[ordinal]);
+            heap[0] = heap[i];
+            siftDown(heap, i);
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Returns a copy of the scores indexed by snapshot ordinal.
+     *
+     * @return the score of every user
+     */
+    public double[] toArray() {
+        return scores.clone();
+    }
+
+    /**
+     * Returns the number of iterations that were run.
+     *
+     * @return the iteration count
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns whether the iteration converged before reaching the maximum number of iterations.
+     *
+     * @return true if the scores converged within the tolerance
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Orders users by score, breaking ties in favor of the lower ordinal.
+     */
+    private boolean isHigher(int u, int v) {
+        return scores[u] > scores[v] || (scores[u] == scores[v] && u < v);
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int item = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isHigher(heap[parent], item)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = item;
+    }
+
+    private void siftDown(int[] heap, int size) {
+        int index = 0;
+        if (size == 0) {
+            return;
+        }
+        int item = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isHigher(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!isHigher(item, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = item;
+    }
+}
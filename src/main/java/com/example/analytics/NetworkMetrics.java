@@ -0,0 +1,183 @@
+package com.example.analytics;
+
+import com.example.exceptions.UserNotFoundException;
+import com.example.graph.GraphSnapshot;
+
+/**
+ * Health metrics of a friendship graph, as computed by {@link GraphAnalytics}.
+ * <p>
+ * Per-user values are kept in primitive arrays indexed by the ordinals of the analyzed
+ * {@link GraphSnapshot}, and can be looked up either by ordinal or by user ID.
+ * </p>
+ */
+public final class NetworkMetrics {
+
+    private final GraphSnapshot graph;
+    private final long[] degreeHistogram;
+    private final long[] triangles;
+    private final long triangleCount;
+    private final long wedgeCount;
+    private final int largestComponentSize;
+    private final int componentCount;
+
+    /**
+     * Creates the metrics from the results of the individual passes.
+     *
+     * @param graph                the analyzed graph
+     * @param degreeHistogram      the number of users per degree
+     * @param triangles            the number of triangles per user
+     * @param largestComponentSize the number of users in the largest connected component
+     * @param componentCount       the number of connected components
+     */
+    NetworkMetrics(GraphSnapshot graph, long[] degreeHistogram, long[] triangles,
+                   int largestComponentSize, int componentCount) {
+        this.graph = graph;
+        this.degreeHistogram = degreeHistogram;
+        this.triangles = triangles;
+        this.largestComponentSize = largestComponentSize;
+        this.componentCount = componentCount;
+
+        long perUserSum = 0;
+        for (long count : triangles) {
+            perUserSum += count;
+        }
+        // Every triangle is counted once at each of its three vertices
+        this.triangleCount = perUserSum / 3;
+
+        long wedges = 0;
+        for (int degree = 2; degree < degreeHistogram.length; degree++) {
+            wedges += degreeHistogram[degree] * ((long) degree * (degree - 1) / 2);
+        }
+        this.wedgeCount = wedges;
+    }
+
+    /**
+     * Returns the number of users in the analyzed graph.
+     *
+     * @return the number of users
+     */
+    public int getUserCount() {
+        return graph.userCount();
+    }
+
+    /**
+     * Returns the number of friendships in the analyzed graph.
+     *
+     * @return the number of undirected edges
+     */
+    public long getEdgeCount() {
+        return graph.edgeCount();
+    }
+
+    /**
+     * Returns the degree histogram.
+     *
+     * @return a copy of the histogram, where entry {@code d} is the number of users with
+     *         exactly {@code d} friends
+     */
+    public long[] getDegreeHistogram() {
+        return degreeHistogram.clone();
+    }
+
+    /**
+     * Returns the total number of triangles (groups of three mutual friends).
+     *
+     * @return the number of triangles
+     */
+    public long getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Returns the number of triangles a user takes part in.
+     *
+     * @param id the ID of the user
+     * @return the number of triangles containing the user
+     * @throws UserNotFoundException if the user is not part of the analyzed graph
+     */
+    public long getTriangles(String id) {
+        return triangles[ordinalOf(id)];
+    }
+
+    /**
+     * Returns the local clustering coefficient of a user.
+     * <p>
+     * This is the fraction of pairs of the user's friends that are friends themselves.
+     * Users with fewer than two friends have a coefficient of 0.
+     * </p>
+     *
+     * @param id the ID of the user
+     * @return the local clustering coefficient, between 0 and 1
+     * @throws UserNotFoundException if the user is not part of the analyzed graph
+     */
+    public double getLocalClustering(String id) {
+        return localClustering(ordinalOf(id));
+    }
+
+    /**
+     * Returns the average of the local clustering coefficients of all users.
+     * <p>
+     * Users with fewer than two friends contribute a coefficient of 0.
+     * </p>
+     *
+     * @return the average clustering coefficient, or 0 for an empty graph
+     */
+    public double getAverageClustering() {
+        int n = graph.userCount();
+        if (n == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int u = 0; u < n; u++) {
+            sum += localClustering(u);
+        }
+        return sum / n;
+    }
+
+    /**
+     * Returns the global clustering coefficient (transitivity) of the graph.
+     * <p>
+     * This is three times the number of triangles divided by the number of connected
+     * triples (pairs of friends sharing a common friend).
+     * </p>
+     *
+     * @return the global clustering coefficient, or 0 if the graph has no connected triples
+     */
+    public double getGlobalClustering() {
+        return wedgeCount == 0 ? 0.0 : 3.0 * triangleCount / wedgeCount;
+    }
+
+    /**
+     * Returns the number of users in the largest connected component.
+     *
+     * @return the size of the largest component
+     */
+    public int getLargestComponentSize() {
+        return largestComponentSize;
+    }
+
+    /**
+     * Returns the number of connected components, counting isolated users as components.
+     *
+     * @return the number of components
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    private double localClustering(int ordinal) {
+        long degree = graph.degree(ordinal);
+        if (degree < 2) {
+            return 0.0;
+        }
+        return 2.0 * triangles[ordinal] / (degree * (degree - 1));
+    }
+
+    private int ordinalOf(String id) {
+        int ordinal = graph.ordinalOf(id);
+        if (ordinal < 0) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        return ordinal;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.analytics;
+
+/**
+ * Receives progress updates from long-running analytics passes.
+ * <p>
+ * Passes run in parallel, so a listener is called from several worker threads and must be
+ * thread-safe. Updates are reported once per processed block of users, not once per user,
+ * which keeps the notification overhead negligible even on very large graphs.
+ * </p>
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * A listener that ignores every update.
+     */
+    ProgressListener NONE = (phase, completed, total) -> { };
+
+    /**
+     * Called after a block of work has been completed.
+     *
+     * @param phase     the pass that made progress
+     * @param completed the number of users processed so far in this pass
+     * @param total     the total number of users the pass will process
+     */
+    void onProgress(GraphAnalytics.Phase phase, long completed, long total);
+}
@@ -0,0 +1,519 @@
+package com.example.analytics;
+
+import com.example.events.ChangeEvent;
+import com.example.events.ChangeEventHandler;
+import com.example.exceptions.UserNotFoundException;
+import com.example.graph.AdaptiveIntSet;
+import com.example.graph.GraphSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Approximate number of users within 1 to k hops of every user, kept as HyperLogLog sketches.
+ * <p>
+ * Counting the users within k hops exactly takes a BFS per user, O(V (V + E)) for the whole
+ * network. HyperANF instead gives every user a HyperLogLog sketch of its ball of radius h,
+ * for h = 1..k. The ball of radius h is the union of the balls of radius h - 1 of the user
+ * and its friends, and the union of two sketches is the register-wise maximum. So all balls
+ * of one radius are built in a single O(V + E) pass over the adjacency from the previous
+ * radius, and the whole computation takes k passes. Passes are split into blocks of users
+ * that run in parallel; each block writes only the sketches of its own users, so no
+ * synchronization is needed.
+ * </p>
+ * <p>
+ * A sketch has 2<sup>p</sup> one-byte registers, for a relative standard error of about
+ * 1.04 / sqrt(2<sup>p</sup>), 13% with the default precision of {@value #DEFAULT_PRECISION}.
+ * The registers of one radius are packed eight to a {@code long} in a single array indexed by
+ * ordinal, without any object per user. A union then handles eight registers at a time with
+ * a word-wide maximum, and a network of V users costs k * V * 2<sup>p</sup> bytes. An
+ * estimate reads one sketch, O(2<sup>p</sup>), which does not depend on the size of the
+ * network.
+ * </p>
+ * <p>
+ * The sketches are kept up to date incrementally from the change feed of the network:
+ * subscribe to it, build the sketches from a snapshot, and pass the sketches to
+ * {@link com.example.events.ChangeEventRingBuffer.Subscription#poll(ChangeEventHandler, int)}.
+ * A new connection grows the balls of its endpoints, and only the sketches that actually
+ * change are propagated to the next radius, so an edge inside a dense cluster usually touches
+ * only a handful of users. Unions are idempotent, so events that the snapshot already
+ * includes can be applied again safely. Updates must come from a single thread; estimates can
+ * be read concurrently and see every register either before or after an update.
+ * </p>
+ */
+public final class ReachSketches implements ChangeEventHandler {
+
+    /**
+     * The default number of register index bits: 64 registers per sketch.
+     */
+    public static final int DEFAULT_PRECISION = 6;
+
+    /**
+     * The smallest supported precision: 16 registers per sketch.
+     */
+    public static final int MIN_PRECISION = 4;
+
+    /**
+     * The largest supported precision: 65536 registers per sketch.
+     */
+    public static final int MAX_PRECISION = 16;
+
+    private static final int BLOCK_SIZE = 4096;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * 2<sup>-r</sup> for every register value r.
+     */
+    private static final double[] INVERSE_POWERS = new double[65];
+
+    static {
+        for (int r = 0; r < INVERSE_POWERS.length; r++) {
+            INVERSE_POWERS[r] = Math.scalb(1.0, -r);
+        }
+    }
+
+    private final int maxHops;
+    private final int precision;
+    private final int registers;
+    private final int words;
+    private final double alphaMM;
+
+    /**
+     * The graph the sketches were built from; connections added later are kept in {@link #added}.
+     */
+    private final GraphSnapshot base;
+
+    /**
+     * Connections added since the snapshot, indexed by ordinal; null for users without any.
+     * Only touched by the updating thread.
+     */
+    private final List<AdaptiveIntSet> added = new ArrayList<>();
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+
+    /**
+     * The registers of every radius h at index h - 1, {@link #words} longs per user.
+     * Replaced by larger copies as users are added.
+     */
+    private volatile long[][] sketches;
+
+    private int userCount;
+
+    private ReachSketches(GraphSnapshot base, int maxHops, int precision) {
+        this.base = base;
+        this.maxHops = maxHops;
+        this.precision = precision;
+        this.registers = 1 << precision;
+        this.words = registers / Long.BYTES;
+        double alpha = switch (registers) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1.0 + 1.079 / registers);
+        };
+        this.alphaMM = alpha * registers * registers;
+        this.userCount = base.userCount();
+        long length = (long) userCount * words;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many users for precision " + precision + ": " + userCount);
+        }
+        long[][] allocated = new long[maxHops][];
+        for (int hop = 0; hop < maxHops; hop++) {
+            allocated[hop] = new long[(int) length];
+        }
+        this.sketches = allocated;
+        for (int u = 0; u < userCount; u++) {
+            ordinals.put(base.user(u).getId(), u);
+            added.add(null);
+        }
+    }
+
+    /**
+     * Builds the sketches of every user for 1 to {@code maxHops} hops with the default precision.
+     *
+     * @param graph   the graph to sketch
+     * @param maxHops the largest radius to sketch
+     * @return the sketches
+     * @throws IllegalArgumentException if {@code maxHops} is not positive
+     */
+    public static ReachSketches fromSnapshot(GraphSnapshot graph, int maxHops) {
+        return fromSnapshot(graph, maxHops, DEFAULT_PRECISION, ProgressListener.NONE);
+    }
+
+    /**
+     * Builds the sketches of every user for 1 to {@code maxHops} hops.
+     * <p>
+     * Time Complexity: O(k (V + E) 2<sup>p</sup> / 8) for k hops and precision p, spread over
+     * the common fork-join pool.
+     * </p>
+     *
+     * @param graph     the graph to sketch
+     * @param maxHops   the largest radius to sketch
+     * @param precision the number of register index bits, between {@value #MIN_PRECISION} and
+     *                  {@value #MAX_PRECISION}
+     * @param listener  notified after each radius with the number of completed radii
+     * @return the sketches
+     * @throws IllegalArgumentException if a parameter is out of range, or the network is too
+     *                                  large for one array of registers per radius
+     */
+    public static ReachSketches fromSnapshot(GraphSnapshot graph, int maxHops, int precision,
+                                             ProgressListener listener) {
+        Objects.requireNonNull(graph, "Graph cannot be null");
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        if (maxHops < 1) {
+            throw new IllegalArgumentException("Maximum hops must be positive: " + maxHops);
+        }
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and "
+                    + MAX_PRECISION + ": " + precision);
+        }
+        ReachSketches reach = new ReachSketches(graph, maxHops, precision);
+        reach.computeAll(listener);
+        return reach;
+    }
+
+    /**
+     * Runs one union pass per radius.
+     */
+    private void computeAll(ProgressListener listener) {
+        int n = base.userCount();
+        int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[][] all = sketches;
+        for (int hop = 1; hop <= maxHops; hop++) {
+            long[] target = all[hop - 1];
+            long[] previous = hop > 1 ? all[hop - 2] : null;
+            IntStream.range(0, blocks).parallel().forEach(block -> {
+                int end = Math.min(n, (block + 1) * BLOCK_SIZE);
+                for (int u = block * BLOCK_SIZE; u < end; u++) {
+                    if (previous == null) {
+                        addHash(target, u, u);
+                    } else {
+                        System.arraycopy(previous, u * words, target, u * words, words);
+                    }
+                    for (int edge = base.edgeStart(u); edge < base.edgeEnd(u); edge++) {
+                        union(target, u, previous, base.target(edge));
+                    }
+                }
+            });
+            listener.onProgress(GraphAnalytics.Phase.REACH, hop, maxHops);
+        }
+    }
+
+    /**
+     * Returns the approximate number of other users within {@code hops} hops of a user.
+     * <p>
+     * Time Complexity: O(2<sup>p</sup>) - one ID lookup and one pass over the sketch.
+     * </p>
+     *
+     * @param id   the ID of the user
+     * @param hops the radius, between 0 and {@link #getMaxHops()}
+     * @return the estimated number of users reachable within {@code hops} hops, excluding the
+     *         user itself
+     * @throws UserNotFoundException if the user is not known to the sketches
+     * @throws IllegalArgumentException if {@code hops} is out of range
+     */
+    public long estimateReach(String id, int hops) {
+        if (hops < 0 || hops > maxHops) {
+            throw new IllegalArgumentException("Hops must be between 0 and " + maxHops + ": " + hops);
+        }
+        int user = ordinalOf(id);
+        if (hops == 0) {
+            return 0;
+        }
+        return Math.max(0, Math.round(estimate(sketches[hops - 1], user)) - 1);
+    }
+
+    /**
+     * Returns the largest radius that was sketched.
+     *
+     * @return the number of hops
+     */
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+    /**
+     * Returns the expected relative error of an estimate, one standard deviation.
+     *
+     * @return 1.04 / sqrt(2<sup>p</sup>)
+     */
+    public double getRelativeStandardError() {
+        return 1.04 / Math.sqrt(registers);
+    }
+
+    /**
+     * Returns the memory held by the registers.
+     *
+     * @return the size of the register arrays in bytes
+     */
+    public long sizeInBytes() {
+        long total = 0;
+        for (long[] hop : sketches) {
+            total += (long) hop.length * Long.BYTES;
+        }
+        return total;
+    }
+
+    /**
+     * Adds a user without connections. Adding a known user does nothing.
+     * <p>
+     * Time Complexity: O(k) amortized; the register arrays grow by half when full.
+     * </p>
+     *
+     * @param id the ID of the user
+     */
+    public void addUser(String id) {
+        Objects.requireNonNull(id, "ID cannot be null");
+        if (ordinals.containsKey(id)) {
+            return;
+        }
+        int user = userCount;
+        long[][] all = ensureCapacity(user + 1);
+        for (long[] hop : all) {
+            addHash(hop, user, user);
+        }
+        added.add(null);
+        userCount++;
+        // Published last, so a reader that finds the ordinal also finds its registers
+        ordinals.put(id, user);
+    }
+
+    /**
+     * Adds a connection and refreshes every sketch it changes.
+     * <p>
+     * For each radius h, the new connection adds the ball of radius h - 1 of each endpoint to
+     * the other, and every sketch that changed at radius h - 1 is merged into its own user and
+     * its friends at radius h. Propagation stops at users whose sketch does not change, so the
+     * cost depends on how much the estimates move, not on the size of the network.
+     * </p>
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @throws UserNotFoundException if either user is not known to the sketches
+     * @throws IllegalArgumentException if both IDs are the same
+     */
+    public void addConnection(String id1, String id2) {
+        int user1 = ordinalOf(id1);
+        int user2 = ordinalOf(id2);
+        if (user1 == user2) {
+            throw new IllegalArgumentException("Cannot connect a user to themselves");
+        }
+        if (!isBaseConnection(user1, user2)) {
+            addedOf(user1).add(user2);
+            addedOf(user2).add(user1);
+        }
+
+        long[][] all = sketches;
+        AdaptiveIntSet changed = new AdaptiveIntSet();
+        for (int hop = 1; hop <= maxHops; hop++) {
+            long[] target = all[hop - 1];
+            long[] previous = hop > 1 ? all[hop - 2] : null;
+            AdaptiveIntSet next = new AdaptiveIntSet();
+            if (union(target, user1, previous, user2)) {
+                next.add(user1);
+            }
+            if (union(target, user2, previous, user1)) {
+                next.add(user2);
+            }
+            for (int slot = 0; slot < changed.slotCount(); slot++) {
+                int source = changed.slotAt(slot);
+                if (source == AdaptiveIntSet.EMPTY_SLOT) {
+                    continue;
+                }
+                if (union(target, source, previous, source)) {
+                    next.add(source);
+                }
+                if (source < base.userCount()) {
+                    for (int edge = base.edgeStart(source); edge < base.edgeEnd(source); edge++) {
+                        int friend = base.target(edge);
+                        if (union(target, friend, previous, source)) {
+                            next.add(friend);
+                        }
+                    }
+                }
+                AdaptiveIntSet extra = added.get(source);
+                if (extra != null) {
+                    for (int extraSlot = 0; extraSlot < extra.slotCount(); extraSlot++) {
+                        int friend = extra.slotAt(extraSlot);
+                        if (friend != AdaptiveIntSet.EMPTY_SLOT && union(target, friend, previous, source)) {
+                            next.add(friend);
+                        }
+                    }
+                }
+            }
+            changed = next;
+        }
+    }
+
+    /**
+     * Applies a change event of the network.
+     * <p>
+     * Registrations add users, and connections add connections. A connection between users
+     * whose registration was missed, for example because the feed overwrote it, registers them
+     * first, so a lossy feed degrades the estimates instead of failing.
+     * </p>
+     *
+     * @param event      the event to apply
+     * @param endOfBatch ignored
+     */
+    @Override
+    public void onEvent(ChangeEvent event, boolean endOfBatch) {
+        switch (event.getType()) {
+            case USER_REGISTERED -> addUser(event.getUser().getId());
+            case CONNECTION_CREATED -> {
+                addUser(event.getId1());
+                addUser(event.getId2());
+                addConnection(event.getId1(), event.getId2());
+            }
+        }
+    }
+
+    private int ordinalOf(String id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal == null) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        return ordinal;
+    }
+
+    private AdaptiveIntSet addedOf(int user) {
+        AdaptiveIntSet extra = added.get(user);
+        if (extra == null) {
+            extra = new AdaptiveIntSet();
+            added.set(user, extra);
+        }
+        return extra;
+    }
+
+    /**
+     * Returns whether the snapshot already holds a connection, by binary search in its row.
+     */
+    private boolean isBaseConnection(int user1, int user2) {
+        if (user1 >= base.userCount() || user2 >= base.userCount()) {
+            return false;
+        }
+        int low = base.edgeStart(user1);
+        int high = base.edgeEnd(user1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int friend = base.target(middle);
+            if (friend < user2) {
+                low = middle + 1;
+            } else if (friend > user2) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Grows the register arrays to hold at least {@code users} users.
+     */
+    private long[][] ensureCapacity(int users) {
+        long[][] all = sketches;
+        if ((long) users * words <= all[0].length) {
+            return all;
+        }
+        long length = Math.max((long) users * words, (long) all[0].length * 3 / 2 + words);
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many users for precision " + precision + ": " + users);
+        }
+        long[][] grown = new long[maxHops][];
+        for (int hop = 0; hop < maxHops; hop++) {
+            grown[hop] = Arrays.copyOf(all[hop], (int) length);
+        }
+        sketches = grown;
+        return grown;
+    }
+
+    /**
+     * Merges the ball of {@code source} at the previous radius into the sketch of {@code user}.
+     *
+     * @param target   the registers of the radius being built
+     * @param user     the ordinal whose sketch grows
+     * @param previous the registers of the previous radius, or null for radius 0, whose balls
+     *                 hold just their own user
+     * @param source   the ordinal whose ball is merged
+     * @return whether any register of {@code user} changed
+     */
+    private boolean union(long[] target, int user, long[] previous, int source) {
+        if (previous == null) {
+            return addHash(target, user, source);
+        }
+        int to = user * words;
+        int from = source * words;
+        long changed = 0;
+        for (int w = 0; w < words; w++) {
+            long a = target[to + w];
+            long b = previous[from + w];
+            // Registers stay below 128, so the high bit of every byte is free: the borrow into
+            // it tells which bytes of a are at least those of b
+            long aAtLeastB = (((a | HIGH_BITS) - b) & HIGH_BITS) >>> 7;
+            long mask = aAtLeastB * 0xFF;
+            long max = (a & mask) | (b & ~mask);
+            changed |= max ^ a;
+            target[to + w] = max;
+        }
+        return changed != 0;
+    }
+
+    /**
+     * Adds the hash of an ordinal to the sketch of a user.
+     *
+     * @return whether the register changed
+     */
+    private boolean addHash(long[] target, int user, int ordinal) {
+        long hash = mix(ordinal);
+        int register = (int) (hash >>> (Long.SIZE - precision));
+        // Leading zeros of the remaining bits, plus one; the sentinel bit caps the value
+        long rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        int word = user * words + register / Long.BYTES;
+        int shift = (register % Long.BYTES) * Byte.SIZE;
+        long current = (target[word] >>> shift) & 0xFF;
+        if (rank <= current) {
+            return false;
+        }
+        target[word] = (target[word] & ~(0xFFL << shift)) | (rank << shift);
+        return true;
+    }
+
+    /**
+     * Estimates the cardinality of one sketch, with linear counting for small cardinalities.
+     */
+    private double estimate(long[] hop, int user) {
+        double sum = 0.0;
+        int zeros = 0;
+        int from = user * words;
+        for (int w = 0; w < words; w++) {
+            long word = hop[from + w];
+            for (int b = 0; b < Long.BYTES; b++) {
+                int value = (int) (word >>> (b * Byte.SIZE)) & 0xFF;
+                sum += INVERSE_POWERS[value];
+                zeros += value == 0 ? 1 : 0;
+            }
+        }
+        double raw = alphaMM / sum;
+        if (raw <= 2.5 * registers && zeros > 0) {
+            return registers * Math.log((double) registers / zeros);
+        }
+        return raw;
+    }
+
+    /**
+     * The SplitMix64 generator seeded with the ordinal, which spreads consecutive ordinals
+     * over all bits and never maps ordinal 0 to 0.
+     */
+    private static long mix(int ordinal) {
+        long z = (ordinal + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
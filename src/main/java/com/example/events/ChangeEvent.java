@@ -0,0 +1,98 @@
+package com.example.events;
+
+import com.example.domain.Persona;
+
+/**
+ * A mutation of the social network, as delivered by a {@link ChangeEventRingBuffer}.
+ * <p>
+ * Events are preallocated slots that are reused as the ring buffer wraps around, so they are
+ * mutable and only valid for the duration of the {@link ChangeEventHandler} callback that
+ * receives them. Handlers that need to keep an event must copy the fields they need.
+ * </p>
+ */
+public final class ChangeEvent {
+
+    /**
+     * The kinds of mutation that are published.
+     */
+    public enum Type {
+        /** A user was registered; {@link #getUser()} holds the new user. */
+        USER_REGISTERED,
+        /** Two users were connected; {@link #getId1()} and {@link #getId2()} hold their IDs. */
+        CONNECTION_CREATED
+    }
+
+    long sequence = -1;
+    Type type;
+    Persona user;
+    String id1;
+    String id2;
+
+    ChangeEvent() {
+    }
+
+    /**
+     * Returns the position of this event in the feed. Sequences start at 0 and increase by one
+     * for every published event, so gaps reveal events a subscriber has missed.
+     *
+     * @return the sequence number of the event
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the kind of mutation.
+     *
+     * @return the event type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the registered user of a {@link Type#USER_REGISTERED} event.
+     *
+     * @return the user, or null for other event types
+     */
+    public Persona getUser() {
+        return user;
+    }
+
+    /**
+     * Returns the ID of the user the event is about: the registered user, or the first user of
+     * a connection.
+     *
+     * @return the first user ID
+     */
+    public String getId1() {
+        return id1;
+    }
+
+    /**
+     * Returns the ID of the second user of a {@link Type#CONNECTION_CREATED} event.
+     *
+     * @return the second user ID, or null for other event types
+     */
+    public String getId2() {
+        return id2;
+    }
+
+    void copyFrom(ChangeEvent other) {
+        this.sequence = other.sequence;
+        this.type = other.type;
+        this.user = other.user;
+        this.id1 = other.id1;
+        this.id2 = other.id2;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", id1='" + id1 + '\'' +
+                ", id2='" + id2 + '\'' +
+                '}';
+    }
+}
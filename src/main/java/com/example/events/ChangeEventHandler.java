@@ -0,0 +1,17 @@
+package com.example.events;
+
+/**
+ * Callback that receives the events drained by a {@link ChangeEventRingBuffer.Subscription}.
+ */
+@FunctionalInterface
+public interface ChangeEventHandler {
+
+    /**
+     * Handles one event.
+     *
+     * @param event      the event; only valid until this method returns
+     * @param endOfBatch true for the last event of the current batch, which is a good moment
+     *                   to flush work that was accumulated across the batch
+     */
+    void onEvent(ChangeEvent event, boolean endOfBatch);
+}
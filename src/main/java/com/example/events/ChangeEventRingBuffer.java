@@ -0,0 +1,298 @@
+package com.example.events;
+
+import com.example.domain.Persona;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated, lock-free ring buffer that carries the change feed of a social network.
+ * <p>
+ * The design follows the LMAX Disruptor: all event slots are allocated up front and reused
+ * as the sequence wraps around, the producer publishes by advancing a single sequence
+ * counter, and every subscriber keeps its own cursor and drains events in batches. Publishing
+ * therefore costs a few plain field writes and one ordered store - no allocation, no lock, and
+ * no signal to wake up consumers.
+ * </p>
+ * <p>
+ * The buffer has a single producer: events must be published by one thread at a time, which
+ * is the case when the network's mutations are serialized (as {@code AsyncSocialNetwork}
+ * does). Any number of subscribers can consume concurrently, each from its own thread.
+ * </p>
+ * <p>
+ * When the producer gets a full buffer ahead of the slowest subscriber, the
+ * {@link BackpressurePolicy} decides what happens: either the producer waits for that
+ * subscriber, or it overwrites the oldest events and the lagging subscriber skips ahead and
+ * records how many events it missed.
+ * </p>
+ */
+public final class ChangeEventRingBuffer {
+
+    /**
+     * What the producer does when the buffer is full.
+     */
+    public enum BackpressurePolicy {
+        /** Wait until the slowest subscriber has consumed the oldest event. No event is lost. */
+        BLOCK,
+        /** Overwrite the oldest event. Publishing never waits, but slow subscribers lose events. */
+        OVERWRITE
+    }
+
+    /**
+     * Number of busy-spin iterations before a blocked producer starts parking.
+     */
+    private static final int SPIN_TRIES = 100;
+
+    private static final VarHandle SLOT_SEQUENCE;
+
+    static {
+        try {
+            SLOT_SEQUENCE = MethodHandles.lookup().findVarHandle(ChangeEvent.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ChangeEvent[] slots;
+    private final int mask;
+    private final BackpressurePolicy policy;
+
+    /**
+     * Sequence of the last published event, or -1 before the first one.
+     */
+    private final AtomicLong published = new AtomicLong(-1);
+
+    /**
+     * Sequence of the next event to publish. Only accessed by the producer.
+     */
+    private long next;
+
+    /**
+     * Cached lower bound of the subscriber cursors, so the producer only rescans the
+     * subscribers when it gets close to the slowest one. Only accessed by the producer.
+     */
+    private long cachedGate = Long.MIN_VALUE;
+
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    /**
+     * Creates a ring buffer.
+     *
+     * @param capacity the number of events the buffer holds; must be a power of two
+     * @param policy   what the producer does when the buffer is full
+     * @throws IllegalArgumentException if the capacity is not a positive power of two
+     */
+    public ChangeEventRingBuffer(int capacity, BackpressurePolicy policy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+        }
+        this.policy = Objects.requireNonNull(policy, "Policy cannot be null");
+        this.slots = new ChangeEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ChangeEvent();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Publishes a {@link ChangeEvent.Type#USER_REGISTERED} event.
+     *
+     * @param user the registered user
+     */
+    public void publishUserRegistered(Persona user) {
+        publish(ChangeEvent.Type.USER_REGISTERED, user, user.getId(), null);
+    }
+
+    /**
+     * Publishes a {@link ChangeEvent.Type#CONNECTION_CREATED} event.
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     */
+    public void publishConnectionCreated(String id1, String id2) {
+        publish(ChangeEvent.Type.CONNECTION_CREATED, null, id1, id2);
+    }
+
+    /**
+     * Creates a subscriber that receives every event published from now on.
+     *
+     * @return the new subscription
+     */
+    public synchronized Subscription subscribe() {
+        Subscription subscription = new Subscription(published.get() + 1);
+        Subscription[] current = subscriptions;
+        Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscription;
+        subscriptions = updated;
+        return subscription;
+    }
+
+    /**
+     * Returns the sequence of the last published event.
+     *
+     * @return the last published sequence, or -1 if nothing has been published
+     */
+    public long getPublishedSequence() {
+        return published.get();
+    }
+
+    /**
+     * Returns the number of events the buffer holds.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    private void publish(ChangeEvent.Type type, Persona user, String id1, String id2) {
+        long sequence = next++;
+        if (policy == BackpressurePolicy.BLOCK) {
+            awaitCapacity(sequence);
+        }
+
+        ChangeEvent slot = slots[(int) (sequence & mask)];
+        // Mark the slot as being written, so readers racing with an overwrite discard it
+        SLOT_SEQUENCE.setOpaque(slot, -1L);
+        VarHandle.storeStoreFence();
+        slot.type = type;
+        slot.user = user;
+        slot.id1 = id1;
+        slot.id2 = id2;
+        SLOT_SEQUENCE.setRelease(slot, sequence);
+        published.setRelease(sequence);
+    }
+
+    /**
+     * Waits until every subscriber has consumed the event that {@code sequence} will replace.
+     */
+    private void awaitCapacity(long sequence) {
+        long wrapPoint = sequence - slots.length;
+        if (cachedGate > wrapPoint) {
+            return;
+        }
+        int tries = 0;
+        long gate;
+        while ((gate = minimumCursor()) <= wrapPoint) {
+            if (tries++ < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1_000);
+            }
+        }
+        // Without subscribers the gate is unbounded, but a subscriber may join at any time and
+        // start at the next sequence, so the cached bound must not exceed it
+        cachedGate = Math.min(gate, sequence);
+    }
+
+    private long minimumCursor() {
+        long minimum = Long.MAX_VALUE;
+        for (Subscription subscription : subscriptions) {
+            minimum = Math.min(minimum, subscription.cursor.get());
+        }
+        return minimum;
+    }
+
+    private synchronized void remove(Subscription subscription) {
+        subscriptions = Arrays.stream(subscriptions)
+                .filter(s -> s != subscription)
+                .toArray(Subscription[]::new);
+    }
+
+    /**
+     * A consumer of the feed with its own position.
+     * <p>
+     * A subscription must be drained by one thread at a time. Subscribers that stop consuming
+     * must {@link #close()} their subscription, otherwise a {@link BackpressurePolicy#BLOCK}
+     * buffer will eventually stall the producer.
+     * </p>
+     */
+    public final class Subscription implements AutoCloseable {
+
+        /**
+         * Sequence of the next event to read.
+         */
+        private final AtomicLong cursor;
+        private final ChangeEvent scratch = new ChangeEvent();
+        private long missed;
+
+        private Subscription(long start) {
+            this.cursor = new AtomicLong(start);
+        }
+
+        /**
+         * Delivers up to {@code maxBatch} available events to a handler without waiting.
+         * <p>
+         * The cursor is advanced once per batch. If the subscriber has fallen more than a full
+         * buffer behind an {@link BackpressurePolicy#OVERWRITE} producer, it first skips to the
+         * oldest event still in the buffer and adds the skipped events to
+         * {@link #getMissedEvents()}. An overwrite that happens during the batch ends it early.
+         * </p>
+         *
+         * @param handler  the handler to call for each event
+         * @param maxBatch the maximum number of events to deliver
+         * @return the number of events delivered
+         */
+        public int poll(ChangeEventHandler handler, int maxBatch) {
+            long available = published.get();
+            long sequence = cursor.get();
+            if (sequence > available || maxBatch < 1) {
+                return 0;
+            }
+            if (available - sequence >= slots.length) {
+                long oldest = available - slots.length + 1;
+                missed += oldest - sequence;
+                sequence = oldest;
+            }
+
+            long end = Math.min(available, sequence + maxBatch - 1);
+            int delivered = 0;
+            for (; sequence <= end; sequence++) {
+                ChangeEvent slot = slots[(int) (sequence & mask)];
+                long before = (long) SLOT_SEQUENCE.getAcquire(slot);
+                scratch.copyFrom(slot);
+                VarHandle.loadLoadFence();
+                long after = (long) SLOT_SEQUENCE.getAcquire(slot);
+                if (before != sequence || after != sequence) {
+                    // Overwritten while reading; the next poll skips to the oldest event
+                    break;
+                }
+                handler.onEvent(scratch, sequence == end);
+                delivered++;
+            }
+            cursor.set(sequence);
+            return delivered;
+        }
+
+        /**
+         * Returns the number of published events this subscriber has not consumed yet.
+         *
+         * @return the lag in events
+         */
+        public long getLag() {
+            return published.get() + 1 - cursor.get();
+        }
+
+        /**
+         * Returns the number of events this subscriber lost because they were overwritten
+         * before it consumed them.
+         *
+         * @return the number of missed events; always 0 for a blocking buffer
+         */
+        public long getMissedEvents() {
+            return missed;
+        }
+
+        /**
+         * Stops this subscription, so the producer no longer waits for it.
+         */
+        @Override
+        public void close() {
+            remove(this);
+        }
+    }
+}
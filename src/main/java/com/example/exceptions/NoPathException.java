@@ -5,6 +5,10 @@ package com.example.exceptions;
  * <p>
  * This is an unchecked exception as it represents a programming error that should be handled at development time.
  * </p>
+ * <p>
+ * Stack-trace capture can be turned off with {@link StackTraces}, which makes the exception
+ * cheap to throw from hot loops.
+ * </p>
  * 
  * <pre>
  * Example usage:
@@ -33,4 +37,14 @@ public class NoPathException extends RuntimeException {
     public NoPathException(String message, Throwable cause) {
         super(message, cause);
     }
-}
\ No newline at end of file
+
+    /**
+     * Captures the stack trace unless disabled through {@link StackTraces}.
+     *
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return StackTraces.isCaptureEnabled() ? super.fillInStackTrace() : this;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.exceptions;
+
+/**
+ * Switch for stack-trace capture in the exceptions that report expected query outcomes.
+ * <p>
+ * {@link NoPathException} and {@link UserNotFoundException} describe ordinary answers rather
+ * than bugs, and a caller probing many pairs may throw thousands of them per second. Walking
+ * the stack is by far the most expensive part of creating them, so it can be turned off, either
+ * at startup with {@code -D}{@value #CAPTURE_PROPERTY}{@code =false} or at runtime with
+ * {@link #setCaptureEnabled(boolean)}. Capture is enabled by default, which keeps debugging
+ * unchanged.
+ * </p>
+ * <p>
+ * Callers that do not need exceptions at all should prefer the exception-free query methods,
+ * such as {@code SocialNetwork.findConnectionPath(String, String)}.
+ * </p>
+ */
+public final class StackTraces {
+
+    /**
+     * System property read at startup; {@code false} disables stack-trace capture.
+     */
+    public static final String CAPTURE_PROPERTY = "socialnetwork.exceptions.stackTraces";
+
+    private static volatile boolean captureEnabled =
+            !"false".equalsIgnoreCase(System.getProperty(CAPTURE_PROPERTY));
+
+    private StackTraces() {
+    }
+
+    /**
+     * Returns whether query exceptions capture a stack trace.
+     *
+     * @return true if stack traces are captured
+     */
+    public static boolean isCaptureEnabled() {
+        return captureEnabled;
+    }
+
+    /**
+     * Enables or disables stack-trace capture for exceptions created from now on.
+     *
+     * @param enabled true to capture stack traces, false to skip them
+     */
+    public static void setCaptureEnabled(boolean enabled) {
+        captureEnabled = enabled;
+    }
+}
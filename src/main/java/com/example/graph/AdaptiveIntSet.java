@@ -0,0 +1,355 @@
+package com.example.graph;
+
+import java.util.Arrays;
+
+/**
+ * Set of non-negative {@code int}s whose representation adapts to its size, used to store the
+ * neighbors of a user as registration ordinals.
+ * <p>
+ * Degrees in a social network are heavily skewed: most users have a few dozen friends, a few
+ * have millions. A small set is therefore kept as a sorted array that grows by doubling, which
+ * costs four bytes per element, answers {@link #contains(int)} by binary search and keeps
+ * insertion cheap while the array is short. Once the set grows past
+ * {@value #PROMOTION_THRESHOLD} elements, it is promoted to an open-addressing hash table with
+ * linear probing, so membership tests and insertions stay O(1) for hubs. Neither form boxes
+ * its elements or allocates per insertion.
+ * </p>
+ * <p>
+ * Elements can be read without allocating through {@link #slotCount()} and
+ * {@link #slotAt(int)}. In the sorted form, slots hold the elements in ascending order; in the
+ * hashed form, they hold the elements in table order, with {@link #EMPTY_SLOT} in unused slots.
+ * The set does not support removal, and it is not safe for concurrent modification.
+ * </p>
+ */
+public final class AdaptiveIntSet {
+
+    /**
+     * Largest size kept as a sorted array; the set is promoted to a hash table beyond it.
+     */
+    public static final int PROMOTION_THRESHOLD = 64;
+
+    /**
+     * Value of an unused slot in the hashed form.
+     */
+    public static final int EMPTY_SLOT = -1;
+
+    private static final int[] NO_ELEMENTS = new int[0];
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Sorted elements in {@code [0, size)} in the sorted form, or the hash table in the hashed form.
+     */
+    private int[] elements = NO_ELEMENTS;
+    private int size;
+    private boolean hashed;
+
+    /**
+     * Adds an element.
+     * <p>
+     * Time Complexity: O(log n + n) in the sorted form, where the linear part is a single
+     * {@code arraycopy} over at most {@value #PROMOTION_THRESHOLD} elements; O(1) expected in
+     * the hashed form.
+     * </p>
+     *
+     * @param value the element to add
+     * @return true if the element was added, false if it was already present
+     * @throws IllegalArgumentException if the value is negative
+     */
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Elements must be non-negative: " + value);
+        }
+        if (hashed) {
+            if (!insertHashed(elements, value)) {
+                return false;
+            }
+            size++;
+            if (size * 3L > elements.length * 2L) {
+                rehash(elements.length * 2);
+            }
+            return true;
+        }
+
+        int index = Arrays.binarySearch(elements, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        if (size == PROMOTION_THRESHOLD) {
+            rehash(PROMOTION_THRESHOLD * 4);
+            return add(value);
+        }
+        int insertion = -index - 1;
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+        System.arraycopy(elements, insertion, elements, insertion + 1, size - insertion);
+        elements[insertion] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns whether an element is present.
+     * <p>
+     * Time Complexity: O(log n) in the sorted form, O(1) expected in the hashed form.
+     * </p>
+     *
+     * @param value the element to look for
+     * @return true if the set contains the element
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        if (!hashed) {
+            return Arrays.binarySearch(elements, 0, size, value) >= 0;
+        }
+        int mask = elements.length - 1;
+        for (int slot = hash(value) & mask; ; slot = (slot + 1) & mask) {
+            int current = elements[slot];
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY_SLOT) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the array behind the set: at least the size in the sorted form, or
+     * the number of hash table slots in the hashed form.
+     *
+     * @return the allocated capacity in elements
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the size of the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the set has been promoted to its hashed form.
+     *
+     * @return true for a hash table, false for a sorted array
+     */
+    public boolean isHashed() {
+        return hashed;
+    }
+
+    /**
+     * Returns the number of slots to scan with {@link #slotAt(int)}.
+     *
+     * @return the size in the sorted form, or the table length in the hashed form
+     */
+    public int slotCount() {
+        return hashed ? elements.length : size;
+    }
+
+    /**
+     * Returns the content of a slot.
+     *
+     * @param index the slot index, between 0 and {@link #slotCount()} exclusive
+     * @return the element in the slot, or {@link #EMPTY_SLOT} for an unused slot
+     */
+    public int slotAt(int index) {
+        return elements[index];
+    }
+
+    /**
+     * Returns the elements in a new array.
+     *
+     * @return the elements, in ascending order in the sorted form and in table order otherwise
+     */
+    public int[] toArray() {
+        if (!hashed) {
+            return Arrays.copyOf(elements, size);
+        }
+        int[] result = new int[size];
+        int i = 0;
+        for (int value : elements) {
+            if (value != EMPTY_SLOT) {
+                result[i++] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the elements this set has in common with another.
+     * <p>
+     * The kernel depends on the forms of the two sets. Two sorted sets are intersected with
+     * {@link SortedIntersection}, which merges or gallops depending on their size ratio. When
+     * either set is hashed, the smaller set is scanned and each element is probed in the larger
+     * one, so the cost follows the smaller degree.
+     * </p>
+     * <p>
+     * Time Complexity: O(min(m + n, m log(n / m))) for two sorted sets, O(m) expected
+     * otherwise, for sets of m &lt;= n elements.
+     * </p>
+     *
+     * @param other the other set
+     * @return the size of the intersection
+     */
+    public int countCommon(AdaptiveIntSet other) {
+        return intersect(other, null);
+    }
+
+    /**
+     * Writes the elements this set has in common with another to {@code out}.
+     * <p>
+     * Uses the same kernels as {@link #countCommon(AdaptiveIntSet)}. The elements are written
+     * in ascending order when both sets are sorted, and in table order otherwise.
+     * </p>
+     *
+     * @param other the other set
+     * @param out   the destination, with room for the smaller of the two sets, or null to
+     *              only count the common elements
+     * @return the number of common elements
+     */
+    public int intersect(AdaptiveIntSet other, int[] out) {
+        if (!hashed && !other.hashed) {
+            return out == null
+                    ? SortedIntersection.count(elements, 0, size, other.elements, 0, other.size)
+                    : SortedIntersection.intersect(elements, 0, size, other.elements, 0, other.size, out);
+        }
+        AdaptiveIntSet small = size <= other.size ? this : other;
+        AdaptiveIntSet large = small == this ? other : this;
+        int found = 0;
+        for (int slot = 0; slot < small.slotCount(); slot++) {
+            int value = small.elements[slot];
+            if (value != EMPTY_SLOT && large.contains(value)) {
+                if (out != null) {
+                    out[found] = value;
+                }
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Sets the bit of every element in a bitmap that covers a range of values.
+     * <p>
+     * Bit {@code v - base} of the bitmap stands for value {@code v}. Together with
+     * {@link #countMarked(long[], int)}, this intersects one set with many others: the bitmap is
+     * filled once, then each other set is checked with one bit test per element.
+     * </p>
+     *
+     * @param bitmap the bitmap, covering every element of this set
+     * @param base   the value of bit 0
+     */
+    public void markInto(long[] bitmap, int base) {
+        for (int slot = 0; slot < slotCount(); slot++) {
+            int value = elements[slot];
+            if (value != EMPTY_SLOT) {
+                int bit = value - base;
+                bitmap[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * Counts the elements whose bit is set in a bitmap filled by {@link #markInto(long[], int)}.
+     * <p>
+     * Time Complexity: O(n), with one bit test per element.
+     * </p>
+     *
+     * @param bitmap the bitmap
+     * @param base   the value of bit 0
+     * @return the number of elements marked in the bitmap
+     */
+    public int countMarked(long[] bitmap, int base) {
+        long limit = (long) bitmap.length << 6;
+        int found = 0;
+        for (int slot = 0; slot < slotCount(); slot++) {
+            int value = elements[slot];
+            long bit = (long) value - base;
+            if (value != EMPTY_SLOT && bit >= 0 && bit < limit) {
+                found += (int) (bitmap[(int) (bit >>> 6)] >>> bit) & 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the smallest element.
+     *
+     * @return the minimum, or {@link Integer#MAX_VALUE} if the set is empty
+     */
+    public int min() {
+        if (!hashed) {
+            return size == 0 ? Integer.MAX_VALUE : elements[0];
+        }
+        int min = Integer.MAX_VALUE;
+        for (int value : elements) {
+            if (value != EMPTY_SLOT && value < min) {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Returns the largest element.
+     *
+     * @return the maximum, or {@link #EMPTY_SLOT} if the set is empty
+     */
+    public int max() {
+        if (!hashed) {
+            return size == 0 ? EMPTY_SLOT : elements[size - 1];
+        }
+        int max = EMPTY_SLOT;
+        for (int value : elements) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private void rehash(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY_SLOT);
+        if (hashed) {
+            for (int value : elements) {
+                if (value != EMPTY_SLOT) {
+                    insertHashed(table, value);
+                }
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                insertHashed(table, elements[i]);
+            }
+        }
+        elements = table;
+        hashed = true;
+    }
+
+    private static boolean insertHashed(int[] table, int value) {
+        int mask = table.length - 1;
+        for (int slot = hash(value) & mask; ; slot = (slot + 1) & mask) {
+            int current = table[slot];
+            if (current == value) {
+                return false;
+            }
+            if (current == EMPTY_SLOT) {
+                table[slot] = value;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Spreads consecutive ordinals across the table (Fibonacci hashing).
+     */
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,537 @@
+package com.example.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * An immutable adjacency structure that stores sorted neighbor ordinals as variable-length
+ * encoded gaps.
+ * <p>
+ * In a {@link GraphSnapshot}, every neighbor costs four bytes. Neighbors are sorted, though,
+ * so each row can be stored as its first ordinal followed by the differences between
+ * consecutive ordinals. Gaps are much smaller than ordinals, and are written in the varint
+ * encoding: seven bits per byte, with the high bit set on every byte but the last. A gap
+ * below 128 takes one byte, a gap below 16384 two. How much is saved depends on the gaps:
+ * the closer the ordinals of friends, the better the compression, which is why renumbering
+ * users for locality pays off twice.
+ * </p>
+ * <p>
+ * Varints can only be decoded sequentially, so rows longer than the skip interval carry a
+ * table of skip pointers: for every {@code skipInterval}-th neighbor, its ordinal and the
+ * position of the gap that follows it. {@link Cursor#seek(int)} binary-searches that table to
+ * jump close to the wanted ordinal, which keeps galloping intersections fast on hub rows.
+ * </p>
+ * <p>
+ * The layout is the same in memory and on disk, so a graph written with {@link #writeTo(Path)}
+ * is used in place after {@link #open(Path)}, through memory-mapped buffers, without
+ * decoding or copying:
+ * </p>
+ * <pre>
+ * header   magic, version, user count, skip interval, entry count, chunk shift   (32 bytes)
+ * offsets  (userCount + 1) longs: start of each row in the data section
+ * data     rows, each: varint degree, skip table (int ordinal, int gap position) * k, gaps
+ * </pre>
+ * <p>
+ * A {@link ByteBuffer} cannot hold more than 2 GiB, so the data section is split into chunks
+ * of {@code 2^chunkShift} bytes (1 GiB by default), and a row that would straddle two chunks
+ * starts at the next chunk instead. The offsets are held in a single buffer, which limits a
+ * graph to about 268 million users.
+ * </p>
+ * <p>
+ * Instances are immutable and safe to share between threads; {@link Cursor}s are not.
+ * </p>
+ */
+public final class CompressedGraph {
+
+    /**
+     * Number of neighbors between two skip pointers unless configured otherwise.
+     */
+    public static final int DEFAULT_SKIP_INTERVAL = 64;
+
+    /**
+     * Value returned by {@link Cursor#next()} and {@link Cursor#seek(int)} past the last neighbor.
+     */
+    public static final int NO_MORE = -1;
+
+    static final int MAGIC = 0x534E4341;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int DEFAULT_CHUNK_SHIFT = 30;
+    private static final int SKIP_ENTRY_BYTES = 8;
+
+    private final int userCount;
+    private final long entryCount;
+    private final int skipInterval;
+    private final int chunkShift;
+    private final ByteBuffer offsetBytes;
+    private final LongBuffer offsets;
+    private final ByteBuffer[] chunks;
+
+    private CompressedGraph(int userCount, long entryCount, int skipInterval, int chunkShift,
+                            ByteBuffer offsetBytes, ByteBuffer[] chunks) {
+        this.userCount = userCount;
+        this.entryCount = entryCount;
+        this.skipInterval = skipInterval;
+        this.chunkShift = chunkShift;
+        this.offsetBytes = offsetBytes;
+        this.offsets = offsetBytes.duplicate().clear().asLongBuffer();
+        this.chunks = chunks;
+    }
+
+    /**
+     * Compresses the adjacency of a snapshot.
+     * <p>
+     * Time Complexity: O(V + E) - every row is encoded twice, once to size it and once to
+     * write it.
+     * </p>
+     *
+     * @param graph the snapshot to compress
+     * @return the compressed graph, held on the heap
+     */
+    public static CompressedGraph fromSnapshot(GraphSnapshot graph) {
+        return fromSnapshot(graph, DEFAULT_SKIP_INTERVAL, DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Compresses the adjacency of a snapshot with an explicit layout.
+     *
+     * @param graph        the snapshot to compress
+     * @param skipInterval the number of neighbors between two skip pointers
+     * @param chunkShift   the base-2 logarithm of the chunk size, at most 30
+     * @return the compressed graph, held on the heap
+     * @throws IllegalArgumentException if a parameter is out of range, or a row does not fit
+     *                                  in a chunk
+     */
+    static CompressedGraph fromSnapshot(GraphSnapshot graph, int skipInterval, int chunkShift) {
+        Objects.requireNonNull(graph, "Graph cannot be null");
+        if (skipInterval < 1) {
+            throw new IllegalArgumentException("Skip interval must be positive: " + skipInterval);
+        }
+        if (chunkShift < 4 || chunkShift > DEFAULT_CHUNK_SHIFT) {
+            throw new IllegalArgumentException("Chunk shift must be between 4 and 30: " + chunkShift);
+        }
+        int n = graph.userCount();
+        long chunkSize = 1L << chunkShift;
+        ByteBuffer offsetBytes = ByteBuffer.allocate(offsetTableBytes(n));
+        LongBuffer offsets = offsetBytes.duplicate().asLongBuffer();
+
+        // First pass: size every row and place it, never across a chunk boundary
+        long position = 0;
+        for (int u = 0; u < n; u++) {
+            int size = encodedSize(graph, u, skipInterval);
+            if (size > chunkSize) {
+                throw new IllegalArgumentException("Row of user " + u + " needs " + size
+                        + " bytes, more than a chunk of " + chunkSize);
+            }
+            long used = position & (chunkSize - 1);
+            if (used + size > chunkSize) {
+                position += chunkSize - used;
+            }
+            offsets.put(u, position);
+            position += size;
+        }
+        offsets.put(n, position);
+
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(position, chunkShift)];
+        for (int k = 0; k < chunks.length; k++) {
+            chunks[k] = ByteBuffer.allocate((int) Math.min(chunkSize, position - ((long) k << chunkShift)));
+        }
+
+        // Second pass: encode every row in place
+        for (int u = 0; u < n; u++) {
+            long start = offsets.get(u);
+            encodeRow(graph, u, skipInterval, chunks[(int) (start >>> chunkShift)],
+                    (int) (start & (chunkSize - 1)));
+        }
+        long entries = 2 * graph.edgeCount();
+        return new CompressedGraph(n, entries, skipInterval, chunkShift, offsetBytes, chunks);
+    }
+
+    /**
+     * Maps a graph written by {@link #writeTo(Path)}.
+     * <p>
+     * The file is mapped read-only and used in place: opening it costs no decoding, and pages
+     * are loaded on demand by the operating system. The mapping stays valid after the method
+     * returns, until the graph is garbage collected.
+     * </p>
+     *
+     * @param file the file to map
+     * @return the compressed graph, backed by the file
+     * @throws IOException if the file cannot be read, or is not a compressed graph
+     */
+    public static CompressedGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a compressed graph: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported compressed graph version " + version + ": " + file);
+            }
+            int n = header.getInt();
+            int skipInterval = header.getInt();
+            long entries = header.getLong();
+            int chunkShift = header.getInt();
+
+            ByteBuffer offsetBytes = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, offsetTableBytes(n));
+            long dataBytes = offsetBytes.getLong(n * Long.BYTES);
+            long dataStart = HEADER_BYTES + (long) offsetTableBytes(n);
+            if (dataStart + dataBytes > channel.size()) {
+                throw new IOException("Truncated compressed graph: " + file);
+            }
+            ByteBuffer[] chunks = new ByteBuffer[chunkCount(dataBytes, chunkShift)];
+            for (int k = 0; k < chunks.length; k++) {
+                long chunkStart = (long) k << chunkShift;
+                chunks[k] = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + chunkStart,
+                        Math.min(1L << chunkShift, dataBytes - chunkStart));
+            }
+            return new CompressedGraph(n, entries, skipInterval, chunkShift, offsetBytes, chunks);
+        }
+    }
+
+    /**
+     * Writes the graph to a file in the layout {@link #open(Path)} maps.
+     *
+     * @param file the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(userCount)
+                    .putInt(skipInterval)
+                    .putLong(entryCount)
+                    .putInt(chunkShift)
+                    .putInt(0)
+                    .flip();
+            writeFully(channel, header, 0);
+            writeFully(channel, offsetBytes.duplicate().clear(), HEADER_BYTES);
+            long dataStart = HEADER_BYTES + (long) offsetTableBytes(userCount);
+            for (int k = 0; k < chunks.length; k++) {
+                writeFully(channel, chunks[k].duplicate().clear(), dataStart + ((long) k << chunkShift));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of users.
+     *
+     * @return the number of rows
+     */
+    public int userCount() {
+        return userCount;
+    }
+
+    /**
+     * Returns the number of undirected friendships.
+     *
+     * @return the number of edges, each friendship counted once
+     */
+    public long edgeCount() {
+        return entryCount / 2;
+    }
+
+    /**
+     * Returns the size of the layout, which is both the heap footprint of a graph built with
+     * {@link #fromSnapshot(GraphSnapshot)} and the length of the file written by
+     * {@link #writeTo(Path)}.
+     *
+     * @return the size in bytes of the header, the offsets and the data
+     */
+    public long sizeInBytes() {
+        return HEADER_BYTES + (long) offsetTableBytes(userCount) + offsets.get(userCount);
+    }
+
+    /**
+     * Returns the number of friends of a user.
+     * <p>
+     * Time Complexity: O(1) - the degree is the first varint of the row.
+     * </p>
+     *
+     * @param ordinal the ordinal of the user
+     * @return the degree of the user
+     */
+    public int degree(int ordinal) {
+        long start = offsets.get(ordinal);
+        ByteBuffer chunk = chunks[(int) (start >>> chunkShift)];
+        int position = (int) (start & ((1L << chunkShift) - 1));
+        int b = chunk.get(position++);
+        int value = b & 0x7F;
+        for (int shift = 7; b < 0; shift += 7) {
+            b = chunk.get(position++);
+            value |= (b & 0x7F) << shift;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes the neighbors of a user.
+     *
+     * @param ordinal the ordinal of the user
+     * @return the neighbor ordinals, sorted ascending
+     */
+    public int[] neighbors(int ordinal) {
+        Cursor cursor = cursor();
+        cursor.reset(ordinal);
+        int[] result = new int[cursor.remaining()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = cursor.next();
+        }
+        return result;
+    }
+
+    /**
+     * Counts the friends two users have in common.
+     * <p>
+     * Rows of similar length are merged; when one row is at least
+     * {@value SortedIntersection#GALLOP_RATIO} times longer, each neighbor of the shorter one
+     * is looked up in it with {@link Cursor#seek(int)}, which uses the skip pointers.
+     * </p>
+     * <p>
+     * Time Complexity: O(m + n) for a merge, O(m (s + log(n / s))) with skip pointers, for
+     * rows of m &lt;= n neighbors and a skip interval s.
+     * </p>
+     *
+     * @param ordinal1 the ordinal of the first user
+     * @param ordinal2 the ordinal of the second user
+     * @return the number of mutual friends
+     */
+    public int countCommon(int ordinal1, int ordinal2) {
+        Cursor small = cursor();
+        Cursor large = cursor();
+        small.reset(ordinal1);
+        large.reset(ordinal2);
+        if (small.remaining() > large.remaining()) {
+            Cursor swap = small;
+            small = large;
+            large = swap;
+        }
+        int found = 0;
+        if ((long) small.remaining() * SortedIntersection.GALLOP_RATIO <= large.remaining()) {
+            // candidate is the smallest neighbor of the large row not below the last value
+            int candidate = Integer.MIN_VALUE;
+            for (int value = small.next(); value != NO_MORE; value = small.next()) {
+                if (candidate < value) {
+                    candidate = large.seek(value);
+                    if (candidate == NO_MORE) {
+                        break;
+                    }
+                }
+                found += candidate == value ? 1 : 0;
+            }
+            return found;
+        }
+        int x = small.next();
+        int y = large.next();
+        while (x != NO_MORE && y != NO_MORE) {
+            if (x == y) {
+                found++;
+                x = small.next();
+                y = large.next();
+            } else if (x < y) {
+                x = small.next();
+            } else {
+                y = large.next();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Creates a cursor over the rows of this graph.
+     *
+     * @return a new cursor, positioned on no row until {@link Cursor#reset(int)} is called
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Reusable, allocation-free decoder of one row at a time.
+     * <p>
+     * A BFS keeps one cursor and {@linkplain #reset(int) resets} it on every dequeued user,
+     * so decoding allocates nothing. A cursor must not be shared between threads.
+     * </p>
+     */
+    public final class Cursor {
+        private ByteBuffer chunk;
+        private int position;
+        private int gapStart;
+        private int skipTable;
+        private int skipCount;
+        private int degree;
+        private int consumed;
+        private int current;
+
+        private Cursor() {
+        }
+
+        /**
+         * Positions the cursor before the first neighbor of a user.
+         *
+         * @param ordinal the ordinal of the user
+         */
+        public void reset(int ordinal) {
+            long start = offsets.get(ordinal);
+            chunk = chunks[(int) (start >>> chunkShift)];
+            position = (int) (start & ((1L << chunkShift) - 1));
+            degree = readVarint();
+            skipCount = degree == 0 ? 0 : (degree - 1) / skipInterval;
+            skipTable = position;
+            gapStart = skipTable + skipCount * SKIP_ENTRY_BYTES;
+            position = gapStart;
+            consumed = 0;
+            current = 0;
+        }
+
+        /**
+         * Returns the number of neighbors not returned yet.
+         *
+         * @return the remaining neighbors of the current row
+         */
+        public int remaining() {
+            return degree - consumed;
+        }
+
+        /**
+         * Returns the next neighbor.
+         *
+         * @return the next neighbor ordinal, or {@link #NO_MORE} at the end of the row
+         */
+        public int next() {
+            if (consumed == degree) {
+                return NO_MORE;
+            }
+            int gap = readVarint();
+            current = consumed == 0 ? gap : current + gap;
+            consumed++;
+            return current;
+        }
+
+        /**
+         * Skips to the first remaining neighbor that is at least {@code target}, and returns it.
+         * <p>
+         * The skip table is binary-searched for the last pointer below the target that is ahead
+         * of the cursor; decoding resumes from there, so at most one skip interval of gaps is
+         * decoded.
+         * </p>
+         *
+         * @param target the smallest ordinal to return
+         * @return the neighbor found, or {@link #NO_MORE} if every remaining neighbor is smaller
+         */
+        public int seek(int target) {
+            // Pointer j covers neighbor j * skipInterval; only pointers ahead of the cursor help
+            int low = (consumed + skipInterval - 1) / skipInterval;
+            low = Math.max(low, 1);
+            int high = skipCount;
+            int best = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (chunk.getInt(skipTable + (middle - 1) * SKIP_ENTRY_BYTES) < target) {
+                    best = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (best > 0) {
+                int entry = skipTable + (best - 1) * SKIP_ENTRY_BYTES;
+                current = chunk.getInt(entry);
+                position = gapStart + chunk.getInt(entry + Integer.BYTES);
+                consumed = best * skipInterval + 1;
+            }
+            for (int value = next(); value != NO_MORE; value = next()) {
+                if (value >= target) {
+                    return value;
+                }
+            }
+            return NO_MORE;
+        }
+
+        private int readVarint() {
+            int b = chunk.get(position++);
+            int value = b & 0x7F;
+            for (int shift = 7; b < 0; shift += 7) {
+                b = chunk.get(position++);
+                value |= (b & 0x7F) << shift;
+            }
+            return value;
+        }
+    }
+
+    private static int encodedSize(GraphSnapshot graph, int user, int skipInterval) {
+        int degree = graph.degree(user);
+        int size = varintSize(degree) + (degree == 0 ? 0 : (degree - 1) / skipInterval * SKIP_ENTRY_BYTES);
+        int previous = 0;
+        for (int edge = graph.edgeStart(user); edge < graph.edgeEnd(user); edge++) {
+            int target = graph.target(edge);
+            size += varintSize(target - previous);
+            previous = target;
+        }
+        return size;
+    }
+
+    private static void encodeRow(GraphSnapshot graph, int user, int skipInterval, ByteBuffer chunk, int start) {
+        int degree = graph.degree(user);
+        int position = writeVarint(chunk, start, degree);
+        int skipTable = position;
+        int gapStart = skipTable + (degree == 0 ? 0 : (degree - 1) / skipInterval * SKIP_ENTRY_BYTES);
+        position = gapStart;
+        int previous = 0;
+        for (int i = 0; i < degree; i++) {
+            int target = graph.target(graph.edgeStart(user) + i);
+            position = writeVarint(chunk, position, target - previous);
+            previous = target;
+            if (i > 0 && i % skipInterval == 0) {
+                int entry = skipTable + (i / skipInterval - 1) * SKIP_ENTRY_BYTES;
+                chunk.putInt(entry, target);
+                chunk.putInt(entry + Integer.BYTES, position - gapStart);
+            }
+        }
+    }
+
+    private static int writeVarint(ByteBuffer buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put(position++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(position++, (byte) value);
+        return position;
+    }
+
+    private static int varintSize(int value) {
+        // One byte per started group of seven significant bits
+        return Math.max(1, (38 - Integer.numberOfLeadingZeros(value)) / 7);
+    }
+
+    private static int offsetTableBytes(int userCount) {
+        long bytes = (userCount + 1L) * Long.BYTES;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many users for one offset table: " + userCount);
+        }
+        return (int) bytes;
+    }
+
+    private static int chunkCount(long dataBytes, int chunkShift) {
+        return (int) ((dataBytes + (1L << chunkShift) - 1) >>> chunkShift);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
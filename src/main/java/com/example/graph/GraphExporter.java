@@ -0,0 +1,487 @@
+package com.example.graph;
+
+import com.example.domain.Persona;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Writes a {@link GraphSnapshot} to files for offline tools: users as CSV, friendships as a
+ * CSV edge list, or both as GraphML.
+ * <p>
+ * Every friendship is written once, from the row of its endpoint with the smaller ordinal;
+ * rows are sorted, so the other half of each row is skipped with a binary search.
+ * </p>
+ * <p>
+ * The users are split into partitions of {@value #PARTITION_SIZE} consecutive ordinals that
+ * are encoded in parallel. The output of a partition is not known in advance, so an export
+ * runs in two passes. The first pass encodes every partition without writing anything, only
+ * to measure its length in bytes; a prefix sum of the lengths gives each partition its
+ * offset in the file. The second pass encodes every partition again, straight into a direct
+ * {@link ByteBuffer}, and flushes the buffer with positional {@link FileChannel} writes
+ * whenever it fills up. Workers never wait for each other and the file is identical to a
+ * sequential export. Encoding is cheap next to disk I/O, so measuring first costs little.
+ * </p>
+ * <p>
+ * Heap use does not grow with the output: strings and dates are encoded to UTF-8 directly
+ * into the buffers, one buffer of {@code bufferSize} bytes is allocated outside the heap per
+ * worker and reused across partitions and exports, and the only other state is one offset
+ * per partition.
+ * </p>
+ */
+public final class GraphExporter {
+
+    /**
+     * Size of each worker's direct buffer unless configured otherwise.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Number of consecutive users encoded as one unit of parallel work.
+     */
+    static final int PARTITION_SIZE = 4096;
+
+    /**
+     * Longest sequence a single put may need: an escaped character such as {@code &quot;}.
+     */
+    private static final int MAX_PUT = 6;
+
+    private static final byte[] USERS_HEADER = ascii("id,name,birthDate,city,registrationDate\n");
+    private static final byte[] EDGES_HEADER = ascii("source,target\n");
+    private static final byte[] GRAPHML_HEADER = ascii("""
+            <?xml version="1.0" encoding="UTF-8"?>
+            <graphml xmlns="http://graphml.graphdrawing.org/xmlns">
+              <key id="name" for="node" attr.name="name" attr.type="string"/>
+              <key id="birthDate" for="node" attr.name="birthDate" attr.type="string"/>
+              <key id="city" for="node" attr.name="city" attr.type="string"/>
+              <key id="registrationDate" for="node" attr.name="registrationDate" attr.type="string"/>
+              <graph id="network" edgedefault="undirected">
+            """);
+    private static final byte[] GRAPHML_FOOTER = ascii("""
+              </graph>
+            </graphml>
+            """);
+    private static final byte[] NODE_START = ascii("    <node id=\"");
+    private static final byte[] NAME_START = ascii("\">\n      <data key=\"name\">");
+    private static final byte[] BIRTH_DATE_START = ascii("</data>\n      <data key=\"birthDate\">");
+    private static final byte[] CITY_START = ascii("</data>\n      <data key=\"city\">");
+    private static final byte[] REGISTRATION_START = ascii("</data>\n      <data key=\"registrationDate\">");
+    private static final byte[] NODE_END = ascii("</data>\n    </node>\n");
+    private static final byte[] EDGE_START = ascii("    <edge source=\"");
+    private static final byte[] EDGE_TARGET = ascii("\" target=\"");
+    private static final byte[] EDGE_END = ascii("\"/>\n");
+
+    private final GraphSnapshot graph;
+    private final int bufferSize;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates an exporter with the default buffer size.
+     *
+     * @param graph the graph to export
+     */
+    public GraphExporter(GraphSnapshot graph) {
+        this(graph, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an exporter.
+     *
+     * @param graph      the graph to export
+     * @param bufferSize the size of each worker's direct buffer, in bytes
+     * @throws IllegalArgumentException if the buffer size is below 64 bytes
+     */
+    public GraphExporter(GraphSnapshot graph, int bufferSize) {
+        this.graph = Objects.requireNonNull(graph, "Graph cannot be null");
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer size must be at least 64 bytes: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Writes every user as a CSV record: ID, name, birth date, city and registration date,
+     * after a header line. Fields are quoted when they contain a comma, a quote or a line
+     * break, and dates are in ISO-8601 format.
+     * <p>
+     * Time Complexity: O(V) over the total length of the user fields, in parallel.
+     * </p>
+     *
+     * @param file the file to create or replace
+     * @return the number of bytes written
+     * @throws IOException if the file cannot be written
+     */
+    public long writeUsersCsv(Path file) throws IOException {
+        return export(file, USERS_HEADER, new byte[0], this::encodeUserRecords);
+    }
+
+    /**
+     * Writes every friendship once as a CSV record with the IDs of both users, after a header
+     * line. The user with the smaller ordinal comes first.
+     * <p>
+     * Time Complexity: O(V log d + E), in parallel.
+     * </p>
+     *
+     * @param file the file to create or replace
+     * @return the number of bytes written
+     * @throws IOException if the file cannot be written
+     */
+    public long writeEdgeList(Path file) throws IOException {
+        return export(file, EDGES_HEADER, new byte[0], this::encodeEdgeRecords);
+    }
+
+    /**
+     * Writes the users and every friendship once as an undirected GraphML graph. Users become
+     * nodes whose ID is the user ID, with name, birth date, city and registration date as data
+     * fields; all nodes are written before the edges.
+     * <p>
+     * Time Complexity: O(V log d + E), in parallel.
+     * </p>
+     *
+     * @param file the file to create or replace
+     * @return the number of bytes written
+     * @throws IOException if the file cannot be written
+     */
+    public long writeGraphMl(Path file) throws IOException {
+        return export(file, GRAPHML_HEADER, GRAPHML_FOOTER, this::encodeNodes, this::encodeEdges);
+    }
+
+    /**
+     * Encodes the output of one section for the users in {@code [from, to)}.
+     */
+    @FunctionalInterface
+    private interface SectionEncoder {
+        void encode(Encoder out, int from, int to);
+    }
+
+    /**
+     * Runs the measuring and the writing pass over every partition of every section.
+     */
+    private long export(Path file, byte[] header, byte[] footer, SectionEncoder... sections)
+            throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        int partitions = (graph.userCount() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        int jobs = partitions * sections.length;
+
+        // First pass: the encoded length of every partition, turned into file offsets
+        long[] offsets = new long[jobs + 1];
+        IntStream.range(0, jobs).parallel().forEach(job ->
+                offsets[job + 1] = encode(null, 0, sections[job / partitions], job % partitions));
+        offsets[0] = header.length;
+        for (int job = 0; job < jobs; job++) {
+            offsets[job + 1] += offsets[job];
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.wrap(header), 0);
+            // Second pass: every partition writes at its own offset
+            IntStream.range(0, jobs).parallel().forEach(job -> {
+                long length = encode(channel, offsets[job], sections[job / partitions], job % partitions);
+                if (length != offsets[job + 1] - offsets[job]) {
+                    throw new IllegalStateException("Partition " + job + " changed length between passes");
+                }
+            });
+            writeFully(channel, ByteBuffer.wrap(footer), offsets[jobs]);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return offsets[jobs] + footer.length;
+    }
+
+    /**
+     * Encodes one partition with a pooled buffer.
+     *
+     * @param channel  the file to write to, or null to only measure
+     * @param position the file offset of the partition
+     * @return the encoded length of the partition
+     */
+    private long encode(FileChannel channel, long position, SectionEncoder section, int partition) {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        try {
+            Encoder out = new Encoder(buffer, channel, position);
+            int from = partition * PARTITION_SIZE;
+            section.encode(out, from, Math.min(graph.userCount(), from + PARTITION_SIZE));
+            return out.finish();
+        } finally {
+            buffer.clear();
+            buffers.offer(buffer);
+        }
+    }
+
+    private void encodeUserRecords(Encoder out, int from, int to) {
+        for (int u = from; u < to; u++) {
+            Persona user = graph.user(u);
+            out.putCsv(user.getId());
+            out.put((byte) ',');
+            out.putCsv(user.getName());
+            out.put((byte) ',');
+            out.putDate(user.getBirthDate());
+            out.put((byte) ',');
+            out.putCsv(user.getCity());
+            out.put((byte) ',');
+            out.putDate(user.getRegistrationDate());
+            out.put((byte) '\n');
+        }
+    }
+
+    private void encodeEdgeRecords(Encoder out, int from, int to) {
+        for (int u = from; u < to; u++) {
+            String id = graph.user(u).getId();
+            for (int edge = firstEdgeAbove(u); edge < graph.edgeEnd(u); edge++) {
+                out.putCsv(id);
+                out.put((byte) ',');
+                out.putCsv(graph.user(graph.target(edge)).getId());
+                out.put((byte) '\n');
+            }
+        }
+    }
+
+    private void encodeNodes(Encoder out, int from, int to) {
+        for (int u = from; u < to; u++) {
+            Persona user = graph.user(u);
+            out.put(NODE_START);
+            out.putXml(user.getId());
+            out.put(NAME_START);
+            out.putXml(user.getName());
+            out.put(BIRTH_DATE_START);
+            out.putDate(user.getBirthDate());
+            out.put(CITY_START);
+            out.putXml(user.getCity());
+            out.put(REGISTRATION_START);
+            out.putDate(user.getRegistrationDate());
+            out.put(NODE_END);
+        }
+    }
+
+    private void encodeEdges(Encoder out, int from, int to) {
+        for (int u = from; u < to; u++) {
+            String id = graph.user(u).getId();
+            for (int edge = firstEdgeAbove(u); edge < graph.edgeEnd(u); edge++) {
+                out.put(EDGE_START);
+                out.putXml(id);
+                out.put(EDGE_TARGET);
+                out.putXml(graph.user(graph.target(edge)).getId());
+                out.put(EDGE_END);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the first neighbor of {@code u} with a larger ordinal.
+     */
+    private int firstEdgeAbove(int u) {
+        int low = graph.edgeStart(u);
+        int high = graph.edgeEnd(u);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (graph.target(middle) <= u) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Encodes text into a buffer and flushes it to its place in the file when it fills up, or
+     * only counts the bytes when there is no file.
+     */
+    private static final class Encoder {
+        private final ByteBuffer buffer;
+        private final FileChannel channel;
+        private final long start;
+        private long position;
+
+        Encoder(ByteBuffer buffer, FileChannel channel, long position) {
+            this.buffer = buffer;
+            this.channel = channel;
+            this.start = position;
+            this.position = position;
+        }
+
+        void put(byte value) {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        void put(byte[] bytes) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        /**
+         * Writes a CSV field, quoted and with doubled quotes if it contains a separator.
+         */
+        void putCsv(String text) {
+            boolean quoted = false;
+            for (int i = 0; i < text.length() && !quoted; i++) {
+                char c = text.charAt(i);
+                quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quoted) {
+                putUtf8(text, false);
+                return;
+            }
+            put((byte) '"');
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    put((byte) '"');
+                }
+                i = putChar(text, i, false);
+            }
+            put((byte) '"');
+        }
+
+        /**
+         * Writes text with the five XML special characters escaped. Characters that XML 1.0
+         * does not allow at all, the C0 controls other than tab, line feed and carriage return
+         * and the noncharacters U+FFFE and U+FFFF, are replaced with {@code ?}.
+         */
+        void putXml(String text) {
+            putUtf8(text, true);
+        }
+
+        /**
+         * Writes a date as {@code yyyy-MM-dd} without creating a string for years 0 to 9999.
+         */
+        void putDate(LocalDate date) {
+            int year = date.getYear();
+            if (year < 0 || year > 9999) {
+                putUtf8(date.toString(), false);
+                return;
+            }
+            ensure(10);
+            putDigits(year, 4);
+            buffer.put((byte) '-');
+            putDigits(date.getMonthValue(), 2);
+            buffer.put((byte) '-');
+            putDigits(date.getDayOfMonth(), 2);
+        }
+
+        private void putDigits(int value, int digits) {
+            for (int divisor = digits == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+                buffer.put((byte) ('0' + value / divisor % 10));
+            }
+        }
+
+        private void putUtf8(String text, boolean xml) {
+            for (int i = 0; i < text.length(); i++) {
+                i = putChar(text, i, xml);
+            }
+        }
+
+        /**
+         * Writes the character at {@code index}, or the surrogate pair starting there.
+         *
+         * @return the index of the last char consumed
+         */
+        private int putChar(String text, int index, boolean xml) {
+            ensure(MAX_PUT);
+            char c = text.charAt(index);
+            if (c < 0x80) {
+                if (xml && (c == '&' || c == '<' || c == '>' || c == '"' || c == '\'')) {
+                    putEntity(c);
+                } else if (xml && c < 0x20 && c != '\t' && c != '\n' && c != '\r') {
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) c);
+                }
+                return index;
+            }
+            if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+                return index;
+            }
+            if (Character.isHighSurrogate(c) && index + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(index + 1));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+                return index + 1;
+            }
+            if (Character.isSurrogate(c) || xml && c >= 0xFFFE) {
+                // Unpaired surrogates are replaced, as String.getBytes does
+                buffer.put((byte) '?');
+                return index;
+            }
+            buffer.put((byte) (0xE0 | c >> 12));
+            buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | c & 0x3F));
+            return index;
+        }
+
+        private void putEntity(char c) {
+            String entity = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> "&apos;";
+            };
+            for (int i = 0; i < entity.length(); i++) {
+                buffer.put((byte) entity.charAt(i));
+            }
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            int length = buffer.remaining();
+            if (channel != null) {
+                writeFully(channel, buffer, position);
+            }
+            position += length;
+            buffer.clear();
+        }
+
+        /**
+         * Flushes what is left and returns the number of bytes encoded since construction.
+         */
+        long finish() {
+            flush();
+            return position - start;
+        }
+    }
+}
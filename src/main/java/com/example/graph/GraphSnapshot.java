@@ -0,0 +1,213 @@
+package com.example.graph;
+
+import com.example.domain.Persona;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable, array-based copy of the friendship graph.
+ * <p>
+ * The snapshot uses the Compressed Sparse Row (CSR) layout: every user is identified by an
+ * ordinal {@code 0..n-1}, the neighbors of all users are concatenated into one {@code int}
+ * array, and an offsets array records where the neighbors of each user start. The neighbors
+ * of a user are sorted by ordinal. Because each friendship is undirected, it appears twice:
+ * once in the row of each endpoint.
+ * </p>
+ * <p>
+ * Compared with the adjacency of the service, one {@link AdaptiveIntSet} of friend ordinals
+ * per user, this layout holds all neighbors in a single array with no per-user object, always
+ * keeps each row sorted, and is immutable, so it can be shared freely between threads. It is
+ * the input format of the analytics passes.
+ * </p>
+ */
+public final class GraphSnapshot {
+
+    private final Persona[] users;
+    private final int[] offsets;
+    private final int[] targets;
+    private volatile Map<String, Integer> ordinals;
+
+    /**
+     * Creates a snapshot from CSR arrays.
+     * <p>
+     * The arrays are not copied; the caller must not modify them afterwards.
+     * </p>
+     *
+     * @param users   the users indexed by ordinal
+     * @param offsets the start of each user's row in {@code targets}, followed by
+     *                {@code targets.length}
+     * @param targets the neighbor ordinals of every user, each row sorted ascending
+     * @throws NullPointerException if any array is null
+     * @throws IllegalArgumentException if the array lengths are inconsistent
+     */
+    public GraphSnapshot(Persona[] users, int[] offsets, int[] targets) {
+        this.users = Objects.requireNonNull(users, "Users cannot be null");
+        this.offsets = Objects.requireNonNull(offsets, "Offsets cannot be null");
+        this.targets = Objects.requireNonNull(targets, "Targets cannot be null");
+        if (offsets.length != users.length + 1 || offsets[users.length] != targets.length) {
+            throw new IllegalArgumentException("Offsets do not match the number of users and targets");
+        }
+    }
+
+    /**
+     * Builds a snapshot from per-user neighbor lists.
+     * <p>
+     * Each row is copied and sorted, so the lists may be in any order.
+     * </p>
+     *
+     * @param users     the users indexed by ordinal
+     * @param neighbors the neighbor ordinals of each user, indexed by ordinal
+     * @return the snapshot
+     */
+    public static GraphSnapshot fromAdjacency(List<Persona> users, List<int[]> neighbors) {
+        int n = users.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + neighbors.get(u).length;
+        }
+
+        int[] targets = new int[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            int[] row = neighbors.get(u);
+            System.arraycopy(row, 0, targets, offsets[u], row.length);
+            Arrays.sort(targets, offsets[u], offsets[u + 1]);
+        }
+        return new GraphSnapshot(users.toArray(new Persona[0]), offsets, targets);
+    }
+
+    /**
+     * Returns the number of users in the snapshot.
+     *
+     * @return the number of users
+     */
+    public int userCount() {
+        return users.length;
+    }
+
+    /**
+     * Returns the number of undirected friendships in the snapshot.
+     *
+     * @return the number of edges, each friendship counted once
+     */
+    public long edgeCount() {
+        return targets.length / 2;
+    }
+
+    /**
+     * Returns the user with the given ordinal.
+     *
+     * @param ordinal the ordinal of the user
+     * @return the user
+     */
+    public Persona user(int ordinal) {
+        return users[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the user with the given ID.
+     * <p>
+     * The ID index is built on first use.
+     * </p>
+     *
+     * @param id the ID of the user
+     * @return the ordinal of the user, or -1 if the user is not part of the snapshot
+     */
+    public int ordinalOf(String id) {
+        Map<String, Integer> index = ordinals;
+        if (index == null) {
+            index = new HashMap<>(users.length * 2);
+            for (int u = 0; u < users.length; u++) {
+                index.put(users[u].getId(), u);
+            }
+            ordinals = index;
+        }
+        return index.getOrDefault(id, -1);
+    }
+
+    /**
+     * Returns the number of friends of a user.
+     *
+     * @param ordinal the ordinal of the user
+     * @return the degree of the user
+     */
+    public int degree(int ordinal) {
+        return offsets[ordinal + 1] - offsets[ordinal];
+    }
+
+    /**
+     * Returns the position in the edge array at which the row of a user starts.
+     *
+     * @param ordinal the ordinal of the user
+     * @return the index of the user's first neighbor, for use with {@link #target(int)}
+     */
+    public int edgeStart(int ordinal) {
+        return offsets[ordinal];
+    }
+
+    /**
+     * Returns the position in the edge array just past the row of a user.
+     *
+     * @param ordinal the ordinal of the user
+     * @return the index after the user's last neighbor, for use with {@link #target(int)}
+     */
+    public int edgeEnd(int ordinal) {
+        return offsets[ordinal + 1];
+    }
+
+    /**
+     * Returns the neighbor stored at a position of the edge array.
+     *
+     * @param edge an index between {@link #edgeStart(int)} and {@link #edgeEnd(int)} of some user
+     * @return the ordinal of the neighbor
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Returns a copy of the sorted neighbor ordinals of a user.
+     *
+     * @param ordinal the ordinal of the user
+     * @return the neighbor ordinals, sorted ascending
+     */
+    public int[] neighbors(int ordinal) {
+        return Arrays.copyOfRange(targets, offsets[ordinal], offsets[ordinal + 1]);
+    }
+
+    /**
+     * Returns a copy of the snapshot with the users renumbered.
+     * <p>
+     * Time Complexity: O(V + E log d), as every row is relabeled and sorted again.
+     * </p>
+     *
+     * @param order the current ordinal of the user that gets each new ordinal, as computed by
+     *              {@link GraphReordering#computeOrder(GraphSnapshot, GraphReordering.Strategy)}
+     * @return the renumbered snapshot
+     * @throws IllegalArgumentException if {@code order} is not a permutation of the ordinals
+     */
+    public GraphSnapshot reorder(int[] order) {
+        if (order.length != users.length) {
+            throw new IllegalArgumentException("Order has " + order.length + " entries for " + users.length + " users");
+        }
+        int[] rank = GraphReordering.inverse(order);
+        Persona[] reorderedUsers = new Persona[users.length];
+        int[] reorderedOffsets = new int[users.length + 1];
+        int[] reorderedTargets = new int[targets.length];
+        for (int u = 0; u < users.length; u++) {
+            int previous = order[u];
+            reorderedUsers[u] = users[previous];
+            int start = reorderedOffsets[u];
+            int end = start + degree(previous);
+            for (int edge = offsets[previous], i = start; i < end; edge++, i++) {
+                reorderedTargets[i] = rank[targets[edge]];
+            }
+            Arrays.sort(reorderedTargets, start, end);
+            reorderedOffsets[u + 1] = end;
+        }
+        return new GraphSnapshot(reorderedUsers, reorderedOffsets, reorderedTargets);
+    }
+}
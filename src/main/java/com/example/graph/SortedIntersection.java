@@ -0,0 +1,162 @@
+package com.example.graph;
+
+/**
+ * Intersection kernels for sorted, duplicate-free {@code int} arrays, such as the neighbor
+ * rows of a {@link GraphSnapshot} or the sorted form of an {@link AdaptiveIntSet}.
+ * <p>
+ * Two strategies are used depending on the ratio of the input sizes:
+ * </p>
+ * <ul>
+ *   <li><b>Merge</b> walks both arrays once, in O(m + n). The loop advances both cursors
+ *       without data-dependent branches, which the JIT compiles to conditional moves, so it
+ *       does not suffer from branch mispredictions on random data.</li>
+ *   <li><b>Galloping</b> looks up each element of the smaller array in the larger one with an
+ *       exponential search followed by a binary search, starting where the previous lookup
+ *       ended, in O(m log(n / m)). It wins when one array is much larger than the other.</li>
+ * </ul>
+ * <p>
+ * {@link #count(int[], int, int, int[], int, int)} and
+ * {@link #intersect(int[], int, int, int[], int, int, int[])} pick the strategy themselves.
+ * </p>
+ */
+public final class SortedIntersection {
+
+    /**
+     * Size ratio from which galloping is used instead of merging.
+     */
+    public static final int GALLOP_RATIO = 16;
+
+    private SortedIntersection() {
+    }
+
+    /**
+     * Counts the values present in both ranges.
+     * <p>
+     * Time Complexity: O(min(m + n, m log(n / m))) for ranges of m &lt;= n elements.
+     * </p>
+     *
+     * @param a     the first sorted array
+     * @param aFrom the start of the first range, inclusive
+     * @param aTo   the end of the first range, exclusive
+     * @param b     the second sorted array
+     * @param bFrom the start of the second range, inclusive
+     * @param bTo   the end of the second range, exclusive
+     * @return the size of the intersection
+     */
+    public static int count(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+        int aLength = aTo - aFrom;
+        int bLength = bTo - bFrom;
+        if (aLength > bLength) {
+            return count(b, bFrom, bTo, a, aFrom, aTo);
+        }
+        if (aLength == 0) {
+            return 0;
+        }
+        if ((long) aLength * GALLOP_RATIO <= bLength) {
+            return gallop(a, aFrom, aTo, b, bFrom, bTo, null);
+        }
+        return mergeCount(a, aFrom, aTo, b, bFrom, bTo);
+    }
+
+    /**
+     * Writes the values present in both ranges to {@code out}, in ascending order.
+     * <p>
+     * Time Complexity: O(min(m + n, m log(n / m))) for ranges of m &lt;= n elements.
+     * </p>
+     *
+     * @param a     the first sorted array
+     * @param aFrom the start of the first range, inclusive
+     * @param aTo   the end of the first range, exclusive
+     * @param b     the second sorted array
+     * @param bFrom the start of the second range, inclusive
+     * @param bTo   the end of the second range, exclusive
+     * @param out   the destination, with room for the smaller range
+     * @return the number of values written
+     */
+    public static int intersect(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] out) {
+        int aLength = aTo - aFrom;
+        int bLength = bTo - bFrom;
+        if (aLength > bLength) {
+            return intersect(b, bFrom, bTo, a, aFrom, aTo, out);
+        }
+        if (aLength == 0) {
+            return 0;
+        }
+        if ((long) aLength * GALLOP_RATIO <= bLength) {
+            return gallop(a, aFrom, aTo, b, bFrom, bTo, out);
+        }
+        int i = aFrom;
+        int j = bFrom;
+        int found = 0;
+        while (i < aTo && j < bTo) {
+            int x = a[i];
+            int y = b[j];
+            if (x == y) {
+                out[found++] = x;
+            }
+            i += x <= y ? 1 : 0;
+            j += x >= y ? 1 : 0;
+        }
+        return found;
+    }
+
+    /**
+     * Counts the common values with a branch-free merge.
+     */
+    static int mergeCount(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+        int i = aFrom;
+        int j = bFrom;
+        int found = 0;
+        while (i < aTo && j < bTo) {
+            int x = a[i];
+            int y = b[j];
+            found += x == y ? 1 : 0;
+            i += x <= y ? 1 : 0;
+            j += x >= y ? 1 : 0;
+        }
+        return found;
+    }
+
+    /**
+     * Looks up every value of the small range in the large one by galloping.
+     *
+     * @param out the destination of the common values, or null to only count them
+     * @return the number of common values
+     */
+    static int gallop(int[] small, int smallFrom, int smallTo, int[] large, int largeFrom, int largeTo,
+                      int[] out) {
+        int found = 0;
+        int low = largeFrom;
+        for (int i = smallFrom; i < smallTo && low < largeTo; i++) {
+            int value = small[i];
+            // Exponential search for a window [low, high] whose end is at least the value
+            int step = 1;
+            int high = low;
+            while (high < largeTo && large[high] < value) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            if (high >= largeTo) {
+                high = largeTo - 1;
+            }
+            // Binary search for the first position holding at least the value
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (large[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            if (low < largeTo && large[low] == value) {
+                if (out != null) {
+                    out[found] = value;
+                }
+                found++;
+                low++;
+            }
+        }
+        return found;
+    }
+}
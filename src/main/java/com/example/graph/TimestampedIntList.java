@@ -0,0 +1,147 @@
+package com.example.graph;
+
+import java.util.Arrays;
+
+/**
+ * List of {@code int} values, each with a {@code long} timestamp, kept sorted by timestamp.
+ * <p>
+ * It stores the connections of a user in the order they were created, as the ordinals of the
+ * friends and the epoch milliseconds of each connection. The values known at a point in time
+ * are then always a prefix of the list, found by a binary search over the timestamps, so a
+ * historical view costs O(log n) plus the size of the view instead of a replay of the
+ * history. Values and timestamps live in two parallel primitive arrays that grow by doubling,
+ * for twelve bytes per element and no per-element objects.
+ * </p>
+ * <p>
+ * Elements are normally added in timestamp order and then land at the end of the list. An
+ * element with an earlier timestamp, for example a backfilled connection, is inserted at its
+ * place in the order. The list does not support removal, and it is not safe for concurrent
+ * modification.
+ * </p>
+ */
+public final class TimestampedIntList {
+
+    private static final int[] NO_VALUES = new int[0];
+    private static final long[] NO_TIMES = new long[0];
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] values = NO_VALUES;
+    private long[] times = NO_TIMES;
+    private int size;
+
+    /**
+     * Adds a value after every element whose timestamp is not later.
+     * <p>
+     * Time Complexity: O(1) amortized when timestamps arrive in order; O(log n + n) for an
+     * element with an earlier timestamp, where the linear part is a single {@code arraycopy}.
+     * </p>
+     *
+     * @param value the value to add
+     * @param time  the timestamp of the value
+     */
+    public void add(int value, long time) {
+        if (size == values.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            values = Arrays.copyOf(values, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+        int index = size == 0 || times[size - 1] <= time ? size : countUpTo(time);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        System.arraycopy(times, index, times, index + 1, size - index);
+        values[index] = value;
+        times[index] = time;
+        size++;
+    }
+
+    /**
+     * Returns the number of elements whose timestamp is at most {@code time}; they are the
+     * first elements of the list.
+     * <p>
+     * Time Complexity: O(log n).
+     * </p>
+     *
+     * @param time the inclusive upper bound
+     * @return the length of the prefix with timestamps up to {@code time}
+     */
+    public int countUpTo(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the timestamp of the first element with a given value.
+     * <p>
+     * Time Complexity: O(n).
+     * </p>
+     *
+     * @param value the value to look for
+     * @return the timestamp of the value, or {@link Long#MIN_VALUE} if it is not in the list
+     */
+    public long timeOf(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return times[i];
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns the value at a position.
+     *
+     * @param index a position below {@link #size()}
+     * @return the value
+     */
+    public int valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the timestamp at a position.
+     *
+     * @param index a position below {@link #size()}
+     * @return the timestamp
+     */
+    public long timeAt(int index) {
+        return times[index];
+    }
+
+    /**
+     * Returns the length of the two arrays behind the list.
+     *
+     * @return the allocated capacity in elements
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the size of the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Replaces every value {@code v} with {@code mapping[v]}, keeping the timestamps and the
+     * order, as needed when the ordinals are renumbered.
+     *
+     * @param mapping the new value of each old value
+     */
+    public void relabel(int[] mapping) {
+        for (int i = 0; i < size; i++) {
+            values[i] = mapping[values[i]];
+        }
+    }
+}
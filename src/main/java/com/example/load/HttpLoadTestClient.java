@@ -0,0 +1,221 @@
+package com.example.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for {@link com.example.server.SocialNetworkServer}.
+ * <p>
+ * A fixed number of virtual-thread workers send requests back to back for a given duration,
+ * choosing between the friends, path and level endpoints for random pairs of users. The
+ * latency of every request is recorded per endpoint in a {@link LatencyHistogram}, and the
+ * final {@link Report} shows the throughput together with median and tail latencies.
+ * </p>
+ * <p>
+ * The client expects users with IDs {@code "1"} to {@code "userCount"}; {@link #seed(int)}
+ * can create them, with random friendships, through the server's own endpoints.
+ * </p>
+ */
+public class HttpLoadTestClient {
+
+    private static final String[] ENDPOINTS = {"friends", "path", "level"};
+
+    private final URI baseUri;
+    private final int concurrency;
+    private final Duration duration;
+    private final int userCount;
+    private final HttpClient client;
+
+    /**
+     * Creates a load-test client.
+     *
+     * @param baseUri     the base URI of the server, such as {@code http://localhost:8080}
+     * @param concurrency the number of concurrent workers
+     * @param duration    how long to generate load
+     * @param userCount   the number of users to pick request parameters from
+     * @throws IllegalArgumentException if {@code concurrency} or {@code userCount} is not positive
+     */
+    public HttpLoadTestClient(URI baseUri, int concurrency, Duration duration, int userCount) {
+        if (concurrency < 1 || userCount < 1) {
+            throw new IllegalArgumentException("Concurrency and user count must be positive");
+        }
+        this.baseUri = Objects.requireNonNull(baseUri, "Base URI cannot be null");
+        this.duration = Objects.requireNonNull(duration, "Duration cannot be null");
+        this.concurrency = concurrency;
+        this.userCount = userCount;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Registers the users the load test expects and connects each of them to random friends.
+     *
+     * @param friendsPerUser the number of connections to attempt per user
+     * @throws IOException if a request fails
+     * @throws InterruptedException if interrupted while seeding
+     */
+    public void seed(int friendsPerUser) throws IOException, InterruptedException {
+        for (int id = 1; id <= userCount; id++) {
+            post("/users", "{\"id\":\"" + id + "\",\"name\":\"User " + id + "\",\"birthDate\":\"1990-01-01\","
+                    + "\"city\":\"Barcelona\",\"registrationDate\":\"" + LocalDate.of(2023, 1, 1) + "\"}");
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int id = 1; id <= userCount; id++) {
+            for (int i = 0; i < friendsPerUser; i++) {
+                int friend = 1 + random.nextInt(userCount);
+                if (friend != id) {
+                    // Duplicates are rejected with 409 and simply ignored
+                    post("/connections", "{\"id1\":\"" + id + "\",\"id2\":\"" + friend + "\"}");
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates load for the configured duration.
+     *
+     * @return the throughput and latency report
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public Report run() throws InterruptedException {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            histograms.put(endpoint, new LatencyHistogram());
+        }
+        LongAdder errors = new LongAdder();
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                SplittableRandom random = new SplittableRandom(worker);
+                running.add(workers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        String endpoint = ENDPOINTS[random.nextInt(ENDPOINTS.length)];
+                        URI uri = uriFor(endpoint, 1 + random.nextInt(userCount), 1 + random.nextInt(userCount));
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                errors.increment();
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        histograms.get(endpoint).record(System.nanoTime() - sent);
+                    }
+                }));
+            }
+            for (Future<?> future : running) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    errors.increment();
+                }
+            }
+        }
+        return new Report(Duration.ofNanos(System.nanoTime() - start), histograms, errors.sum());
+    }
+
+    private URI uriFor(String endpoint, int from, int to) {
+        return switch (endpoint) {
+            case "friends" -> baseUri.resolve("/users/" + from + "/friends?limit=50");
+            case "path" -> baseUri.resolve("/path?from=" + from + "&to=" + to);
+            default -> baseUri.resolve("/level?from=" + from + "&to=" + to);
+        };
+    }
+
+    private void post(String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * Results of a load-test run.
+     */
+    public static final class Report {
+        private final Duration elapsed;
+        private final Map<String, LatencyHistogram> histograms;
+        private final long errors;
+
+        Report(Duration elapsed, Map<String, LatencyHistogram> histograms, long errors) {
+            this.elapsed = elapsed;
+            this.histograms = histograms;
+            this.errors = errors;
+        }
+
+        /**
+         * Returns the number of completed requests.
+         *
+         * @return the request count across all endpoints
+         */
+        public long getRequests() {
+            return histograms.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+        }
+
+        /**
+         * Returns the number of requests that failed with a server error or an I/O error.
+         *
+         * @return the error count
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns the completed requests per second.
+         *
+         * @return the throughput
+         */
+        public double getThroughput() {
+            return getRequests() / (elapsed.toNanos() / 1e9);
+        }
+
+        /**
+         * Returns the latency histogram of one endpoint.
+         *
+         * @param endpoint {@code "friends"}, {@code "path"} or {@code "level"}
+         * @return the histogram, or null for an unknown endpoint
+         */
+        public LatencyHistogram getLatencies(String endpoint) {
+            return histograms.get(endpoint);
+        }
+
+        /**
+         * Prints the report.
+         *
+         * @param out the stream to print to
+         */
+        public void print(PrintStream out) {
+            out.printf("Requests: %d in %.1fs (%.0f req/s), errors: %d%n",
+                    getRequests(), elapsed.toNanos() / 1e9, getThroughput(), errors);
+            histograms.forEach((endpoint, histogram) -> out.printf("  %-8s %s%n", endpoint, histogram.summary()));
+        }
+    }
+}
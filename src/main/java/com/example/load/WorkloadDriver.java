@@ -0,0 +1,322 @@
+package com.example.load;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.exceptions.NoPathException;
+import com.example.exceptions.UserNotFoundException;
+import com.example.service.SocialNetwork;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-loop load generator that replays a {@link WorkloadTrace} against any {@link SocialNetwork}
+ * in the same process.
+ * <p>
+ * A single dispatcher thread hands every operation to the workers at the start time the trace
+ * gives it, without waiting for earlier operations to complete. Latency is measured from that
+ * intended start, not from the moment a worker picked the operation up, so time spent queued
+ * behind slow operations is part of the result. A closed-loop generator such as
+ * {@link HttpLoadTestClient} instead waits for each response before sending the next request:
+ * when the system stalls, it stops sending, and the requests that would have arrived during
+ * the stall are never measured. This coordinated omission hides exactly the tail latencies a
+ * capacity test is meant to find. The service time, from pick-up to completion, is reported
+ * next to the latency, so the difference shows how much of it was queueing.
+ * </p>
+ * <p>
+ * Operations run on a fixed pool of platform threads, or each on its own virtual thread with
+ * at most the same number running at once. When the network only allows concurrent reads,
+ * as {@link com.example.service.SocialNetworkImpl} does, the driver applies connections under
+ * a write lock and queries under a read lock, the same policy as
+ * {@link com.example.service.AsyncSocialNetwork}.
+ * </p>
+ */
+public class WorkloadDriver {
+
+    /**
+     * Kind of threads that execute the operations.
+     */
+    public enum ThreadMode {
+        /** A fixed pool of platform threads; waiting operations queue in the pool. */
+        PLATFORM,
+        /** One virtual thread per operation; waiting operations queue for a permit. */
+        VIRTUAL
+    }
+
+    private static final WorkloadTrace.Type[] TYPES = WorkloadTrace.Type.values();
+
+    private final SocialNetwork network;
+    private final ThreadMode threadMode;
+    private final int threads;
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    /**
+     * Creates a driver.
+     *
+     * @param network         the network to run the operations against
+     * @param threadMode      the kind of threads to run the operations on
+     * @param threads         the maximum number of operations running at the same time
+     * @param exclusiveWrites whether to run connections exclusively and queries concurrently,
+     *                        for networks that are not safe for concurrent mutations; false
+     *                        runs everything concurrently
+     * @throws IllegalArgumentException if {@code threads} is not positive
+     */
+    public WorkloadDriver(SocialNetwork network, ThreadMode threadMode, int threads, boolean exclusiveWrites) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.network = Objects.requireNonNull(network, "Network cannot be null");
+        this.threadMode = Objects.requireNonNull(threadMode, "Thread mode cannot be null");
+        this.threads = threads;
+        ReentrantReadWriteLock lock = exclusiveWrites ? new ReentrantReadWriteLock() : null;
+        this.readLock = lock == null ? null : lock.readLock();
+        this.writeLock = lock == null ? null : lock.writeLock();
+    }
+
+    /**
+     * Registers users {@code "1"} to {@code "userCount"}, the IDs used by
+     * {@link WorkloadTrace#synthetic}, and connects each of them to random friends.
+     *
+     * @param network        the network to populate
+     * @param userCount      the number of users to register
+     * @param friendsPerUser the number of connections to attempt per user
+     * @param seed           the seed of the random generator
+     */
+    public static void populate(SocialNetwork network, int userCount, int friendsPerUser, long seed) {
+        for (int id = 1; id <= userCount; id++) {
+            network.registerUser(new Persona(String.valueOf(id), "User " + id, LocalDate.of(1990, 1, 1),
+                    "Barcelona", LocalDate.of(2023, 1, 1)));
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int id = 1; id <= userCount; id++) {
+            for (int i = 0; i < friendsPerUser; i++) {
+                int friend = 1 + random.nextInt(userCount);
+                if (friend != id) {
+                    try {
+                        network.connect(String.valueOf(id), String.valueOf(friend));
+                    } catch (ConnectionAlreadyExistsException e) {
+                        // Random picks may repeat a friendship
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays a trace and waits until every operation has completed.
+     * <p>
+     * Missing users, existing connections and unconnected pairs are normal outcomes of a
+     * replayed trace: they are counted as rejected and their latency is recorded like any
+     * other. Any other exception is counted as an error.
+     * </p>
+     *
+     * @param trace the operations to run
+     * @return the latency report
+     * @throws InterruptedException if interrupted while dispatching or waiting
+     */
+    public Report run(WorkloadTrace trace) throws InterruptedException {
+        Objects.requireNonNull(trace, "Trace cannot be null");
+        Map<WorkloadTrace.Type, Outcomes> outcomes = new EnumMap<>(WorkloadTrace.Type.class);
+        for (WorkloadTrace.Type type : TYPES) {
+            outcomes.put(type, new Outcomes());
+        }
+        LatencyHistogram dispatchLag = new LatencyHistogram();
+        Semaphore permits = new Semaphore(threads);
+
+        long start = System.nanoTime();
+        try (ExecutorService workers = threadMode == ThreadMode.PLATFORM
+                ? Executors.newFixedThreadPool(threads)
+                : Executors.newVirtualThreadPerTaskExecutor()) {
+            for (WorkloadTrace.Operation operation : trace.getOperations()) {
+                long intended = start + operation.offsetNanos();
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (Thread.interrupted()) {
+                    workers.shutdownNow();
+                    throw new InterruptedException("Interrupted while dispatching the trace");
+                }
+                dispatchLag.record(System.nanoTime() - intended);
+                Outcomes outcome = outcomes.get(operation.type());
+                workers.execute(() -> {
+                    if (threadMode == ThreadMode.VIRTUAL) {
+                        permits.acquireUninterruptibly();
+                    }
+                    try {
+                        execute(operation, intended, outcome);
+                    } finally {
+                        if (threadMode == ThreadMode.VIRTUAL) {
+                            permits.release();
+                        }
+                    }
+                });
+            }
+        }
+        return new Report(Duration.ofNanos(System.nanoTime() - start), trace.getDuration(), outcomes, dispatchLag);
+    }
+
+    private void execute(WorkloadTrace.Operation operation, long intended, Outcomes outcome) {
+        long started = System.nanoTime();
+        Lock lock = operation.type() == WorkloadTrace.Type.CONNECT ? writeLock : readLock;
+        if (lock != null) {
+            lock.lock();
+        }
+        try {
+            switch (operation.type()) {
+                case CONNECT -> network.connect(operation.id1(), operation.id2());
+                case GET_FRIENDS -> network.getFriends(operation.id1());
+                case PATH -> network.getConnectionPathBetween(operation.id1(), operation.id2());
+                case LEVEL -> network.getConnectionLevelBetween(operation.id1(), operation.id2());
+            }
+        } catch (UserNotFoundException | ConnectionAlreadyExistsException | NoPathException e) {
+            outcome.rejected.increment();
+        } catch (RuntimeException e) {
+            outcome.errors.increment();
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+        long completed = System.nanoTime();
+        outcome.latency.record(completed - intended);
+        outcome.service.record(completed - started);
+    }
+
+    /**
+     * Latencies and outcome counts of one operation type.
+     */
+    private static final class Outcomes {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram service = new LatencyHistogram();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * Results of a replay.
+     */
+    public static final class Report {
+        private final Duration elapsed;
+        private final Duration scheduled;
+        private final Map<WorkloadTrace.Type, Outcomes> outcomes;
+        private final LatencyHistogram dispatchLag;
+
+        Report(Duration elapsed, Duration scheduled, Map<WorkloadTrace.Type, Outcomes> outcomes,
+               LatencyHistogram dispatchLag) {
+            this.elapsed = elapsed;
+            this.scheduled = scheduled;
+            this.outcomes = outcomes;
+            this.dispatchLag = dispatchLag;
+        }
+
+        /**
+         * Returns the number of completed operations.
+         *
+         * @return the operation count across all types
+         */
+        public long getOperations() {
+            return outcomes.values().stream().mapToLong(outcome -> outcome.latency.getCount()).sum();
+        }
+
+        /**
+         * Returns the completed operations per second, over the time until the last one completed.
+         *
+         * @return the throughput
+         */
+        public double getThroughput() {
+            return getOperations() / (elapsed.toNanos() / 1e9);
+        }
+
+        /**
+         * Returns the time from the start of the run until the last operation completed. When
+         * it is much longer than the trace, the network could not keep up with the arrival rate.
+         *
+         * @return the elapsed time
+         */
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        /**
+         * Returns the latency of one operation type, from its intended start to its completion.
+         *
+         * @param type the operation type
+         * @return the histogram
+         */
+        public LatencyHistogram getLatencies(WorkloadTrace.Type type) {
+            return outcomes.get(type).latency;
+        }
+
+        /**
+         * Returns the service time of one operation type, from the moment a worker started it
+         * to its completion.
+         *
+         * @param type the operation type
+         * @return the histogram
+         */
+        public LatencyHistogram getServiceTimes(WorkloadTrace.Type type) {
+            return outcomes.get(type).service;
+        }
+
+        /**
+         * Returns the number of operations of one type that failed with an expected exception:
+         * a missing user, an existing connection or an unconnected pair.
+         *
+         * @param type the operation type
+         * @return the rejected count
+         */
+        public long getRejected(WorkloadTrace.Type type) {
+            return outcomes.get(type).rejected.sum();
+        }
+
+        /**
+         * Returns the number of operations of one type that failed with an unexpected exception.
+         *
+         * @param type the operation type
+         * @return the error count
+         */
+        public long getErrors(WorkloadTrace.Type type) {
+            return outcomes.get(type).errors.sum();
+        }
+
+        /**
+         * Returns how late the dispatcher handed operations to the workers. It should stay in
+         * the microseconds; if not, the driver itself limits the arrival rate.
+         *
+         * @return the histogram of dispatch delays
+         */
+        public LatencyHistogram getDispatchLag() {
+            return dispatchLag;
+        }
+
+        /**
+         * Prints the report.
+         *
+         * @param out the stream to print to
+         */
+        public void print(PrintStream out) {
+            out.printf("Operations: %d in %.1fs for a %.1fs trace (%.0f ops/s), dispatch lag p99=%.3fms%n",
+                    getOperations(), elapsed.toNanos() / 1e9, scheduled.toNanos() / 1e9, getThroughput(),
+                    dispatchLag.getPercentileNanos(99) / 1e6);
+            outcomes.forEach((type, outcome) -> {
+                out.printf("  %-11s rejected=%d errors=%d%n", type, outcome.rejected.sum(), outcome.errors.sum());
+                out.printf("    latency %s%n", outcome.latency.summary());
+                out.printf("    service %s%n", outcome.service.summary());
+            });
+        }
+    }
+}
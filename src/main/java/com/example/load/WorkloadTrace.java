@@ -0,0 +1,272 @@
+package com.example.load;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Sequence of network operations, each with the time at which it should start.
+ * <p>
+ * A trace is either generated from an operation {@link Mix} with Poisson arrivals, or read
+ * from a file recorded earlier. Start times are offsets from the beginning of the run, so a
+ * {@link WorkloadDriver} can issue every operation on schedule whether or not the previous
+ * ones have completed, and {@link #speedUp(double)} replays the same sequence at a higher or
+ * lower arrival rate.
+ * </p>
+ * <p>
+ * The file format is one operation per line, {@code offsetNanos,TYPE,id1,id2}, where
+ * {@code id2} is empty for {@link Type#GET_FRIENDS}. IDs are written as is, so they must not
+ * contain commas or line breaks.
+ * </p>
+ */
+public final class WorkloadTrace {
+
+    /**
+     * Kinds of operations a trace can contain.
+     */
+    public enum Type {
+        /** {@code connect(id1, id2)}. */
+        CONNECT,
+        /** {@code getFriends(id1)}. */
+        GET_FRIENDS,
+        /** {@code getConnectionPathBetween(id1, id2)}. */
+        PATH,
+        /** {@code getConnectionLevelBetween(id1, id2)}. */
+        LEVEL
+    }
+
+    /**
+     * One operation of a trace.
+     *
+     * @param offsetNanos the intended start, in nanoseconds after the start of the run
+     * @param type        the kind of operation
+     * @param id1         the ID of the first user
+     * @param id2         the ID of the second user, or null for {@link Type#GET_FRIENDS}
+     */
+    public record Operation(long offsetNanos, Type type, String id1, String id2) {
+    }
+
+    /**
+     * Relative frequency of each operation type. The weights do not have to sum to 100.
+     *
+     * @param connect    the weight of {@link Type#CONNECT}
+     * @param getFriends the weight of {@link Type#GET_FRIENDS}
+     * @param path       the weight of {@link Type#PATH}
+     * @param level      the weight of {@link Type#LEVEL}
+     */
+    public record Mix(double connect, double getFriends, double path, double level) {
+
+        /**
+         * The production mix: 5% connections, 60% friend lists and 35% path and level queries.
+         */
+        public static final Mix DEFAULT = new Mix(5, 60, 17.5, 17.5);
+
+        /**
+         * Validates the weights.
+         *
+         * @throws IllegalArgumentException if a weight is negative or all weights are zero
+         */
+        public Mix {
+            if (!(connect >= 0 && getFriends >= 0 && path >= 0 && level >= 0)
+                    || connect + getFriends + path + level <= 0) {
+                throw new IllegalArgumentException("Weights must be non-negative with a positive sum");
+            }
+        }
+
+        private Type pick(double uniform) {
+            double point = uniform * (connect + getFriends + path + level);
+            if (point < connect) {
+                return Type.CONNECT;
+            }
+            if (point < connect + getFriends) {
+                return Type.GET_FRIENDS;
+            }
+            return point < connect + getFriends + path ? Type.PATH : Type.LEVEL;
+        }
+    }
+
+    private final List<Operation> operations;
+
+    private WorkloadTrace(List<Operation> operations) {
+        this.operations = Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * Creates a trace from a list of operations.
+     *
+     * @param operations the operations, sorted by start offset
+     * @return the trace
+     * @throws IllegalArgumentException if the offsets are negative or not sorted
+     */
+    public static WorkloadTrace of(List<Operation> operations) {
+        List<Operation> copy = new ArrayList<>(operations.size());
+        long previous = 0;
+        for (Operation operation : operations) {
+            Objects.requireNonNull(operation.type(), "Type cannot be null");
+            Objects.requireNonNull(operation.id1(), "ID cannot be null");
+            if (operation.offsetNanos() < previous) {
+                throw new IllegalArgumentException("Offsets must be non-negative and sorted: " + operation);
+            }
+            previous = operation.offsetNanos();
+            copy.add(operation);
+        }
+        return new WorkloadTrace(copy);
+    }
+
+    /**
+     * Generates a trace of random operations between users {@code "1"} to {@code "userCount"},
+     * arriving as a Poisson process: the gaps between start times are exponentially
+     * distributed, as for independent clients, rather than evenly spaced.
+     *
+     * @param mix           the relative frequency of each operation type
+     * @param userCount     the number of users to pick IDs from
+     * @param ratePerSecond the mean number of operations started per second
+     * @param duration      the time span the operations are spread over
+     * @param seed          the seed of the random generator, for reproducible traces
+     * @return the trace
+     * @throws IllegalArgumentException if there are fewer than two users or the rate is not positive
+     */
+    public static WorkloadTrace synthetic(Mix mix, int userCount, double ratePerSecond,
+                                          Duration duration, long seed) {
+        Objects.requireNonNull(mix, "Mix cannot be null");
+        if (userCount < 2 || !(ratePerSecond > 0)) {
+            throw new IllegalArgumentException("User count must be at least 2 and the rate positive");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        double meanGapNanos = 1e9 / ratePerSecond;
+        long end = duration.toNanos();
+        List<Operation> operations = new ArrayList<>();
+        double offset = -meanGapNanos * Math.log(1 - random.nextDouble());
+        while (offset < end) {
+            Type type = mix.pick(random.nextDouble());
+            int from = 1 + random.nextInt(userCount);
+            int to = 1 + random.nextInt(userCount - 1);
+            if (to >= from) {
+                to++;
+            }
+            operations.add(new Operation((long) offset, type, String.valueOf(from),
+                    type == Type.GET_FRIENDS ? null : String.valueOf(to)));
+            offset -= meanGapNanos * Math.log(1 - random.nextDouble());
+        }
+        return new WorkloadTrace(operations);
+    }
+
+    /**
+     * Reads a trace written by {@link #write(Path)}.
+     *
+     * @param file the trace file
+     * @return the trace
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is malformed or the offsets are not sorted
+     */
+    public static WorkloadTrace read(Path file) throws IOException {
+        List<Operation> operations = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length != 4) {
+                    throw new IllegalArgumentException("Malformed trace line: " + line);
+                }
+                try {
+                    operations.add(new Operation(Long.parseLong(fields[0]), Type.valueOf(fields[1]),
+                            fields[2], fields[3].isEmpty() ? null : fields[3]));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Malformed trace line: " + line, e);
+                }
+            }
+        }
+        return of(operations);
+    }
+
+    /**
+     * Writes the trace in the format read by {@link #read(Path)}.
+     *
+     * @param file the file to create or replace
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if an ID contains a comma or a line break
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Operation operation : operations) {
+                writer.write(Long.toString(operation.offsetNanos()));
+                writer.write(',');
+                writer.write(operation.type().name());
+                writer.write(',');
+                writer.write(checkId(operation.id1()));
+                writer.write(',');
+                if (operation.id2() != null) {
+                    writer.write(checkId(operation.id2()));
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String checkId(String id) {
+        if (id.indexOf(',') >= 0 || id.indexOf('\n') >= 0 || id.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("IDs in a trace file cannot contain commas or line breaks: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the same operations with start offsets divided by a factor, which multiplies the
+     * arrival rate by that factor.
+     *
+     * @param factor how many times faster to replay; below 1 replays slower
+     * @return the rescaled trace
+     * @throws IllegalArgumentException if the factor is not positive
+     */
+    public WorkloadTrace speedUp(double factor) {
+        if (!(factor > 0)) {
+            throw new IllegalArgumentException("Speed-up factor must be positive: " + factor);
+        }
+        List<Operation> scaled = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            scaled.add(new Operation((long) (operation.offsetNanos() / factor), operation.type(),
+                    operation.id1(), operation.id2()));
+        }
+        return new WorkloadTrace(scaled);
+    }
+
+    /**
+     * Returns the operations in start order.
+     *
+     * @return an unmodifiable list of the operations
+     */
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Returns the number of operations.
+     *
+     * @return the size of the trace
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Returns the start offset of the last operation.
+     *
+     * @return the time span of the trace
+     */
+    public Duration getDuration() {
+        return operations.isEmpty() ? Duration.ZERO
+                : Duration.ofNanos(operations.get(operations.size() - 1).offsetNanos());
+    }
+}
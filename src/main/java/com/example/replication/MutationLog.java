@@ -0,0 +1,295 @@
+package com.example.replication;
+
+import com.example.domain.Persona;
+import com.example.service.SocialNetwork;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Append-only file of network mutations, written by a leader and tailed by read replicas.
+ * <p>
+ * Every {@code registerUser} and {@code connect} accepted by the leader becomes one record
+ * with a log sequence number (LSN). LSNs start at 1 and increase by one per record, so a
+ * writer can remember the LSN of its last write and later ask a replica to have applied at
+ * least that far.
+ * </p>
+ * <p>
+ * The file starts with a fixed header holding the LSN of the last committed record and the
+ * file offset where committed data ends. The writer appends a record first and updates the
+ * header afterwards, so the header acts as the commit point: readers never look past the
+ * committed offset and therefore never see a partially written record. Readers in other
+ * processes on the same host follow the same file through the operating system's page cache;
+ * the log is not forced to disk.
+ * </p>
+ * <p>
+ * Record layout (big-endian): {@code int length}, {@code long lsn}, {@code byte type},
+ * followed by the fields of the mutation. Strings are stored as a length-prefixed UTF-8
+ * sequence and dates as their epoch day.
+ * </p>
+ */
+public final class MutationLog {
+
+    static final int HEADER_SIZE = 16;
+    private static final byte USER_REGISTERED = 1;
+    private static final byte CONNECTION_CREATED = 2;
+
+    private MutationLog() {
+    }
+
+    /**
+     * Appends mutations to a log file. Not safe for concurrent use.
+     */
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        private ByteBuffer record = ByteBuffer.allocate(256);
+        private long lsn;
+        private long end;
+
+        /**
+         * Creates a new, empty log, replacing any existing file.
+         *
+         * @param file the log file
+         * @throws IOException if the file cannot be created
+         */
+        public Writer(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING);
+            this.end = HEADER_SIZE;
+            writeHeader();
+        }
+
+        /**
+         * Appends a user registration.
+         *
+         * @param user the registered user
+         * @return the LSN of the record
+         */
+        public long appendUserRegistered(Persona user) {
+            beginRecord(USER_REGISTERED);
+            putString(user.getId());
+            putString(user.getName());
+            putDate(user.getBirthDate());
+            putString(user.getCity());
+            putDate(user.getRegistrationDate());
+            return commitRecord();
+        }
+
+        /**
+         * Appends a new connection.
+         *
+         * @param id1 the ID of the first user
+         * @param id2 the ID of the second user
+         * @return the LSN of the record
+         */
+        public long appendConnectionCreated(String id1, String id2) {
+            beginRecord(CONNECTION_CREATED);
+            putString(id1);
+            putString(id2);
+            return commitRecord();
+        }
+
+        /**
+         * Returns the LSN of the last committed record.
+         *
+         * @return the last LSN, or 0 if the log is empty
+         */
+        public long getLastLsn() {
+            return lsn;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void beginRecord(byte type) {
+            record.clear();
+            record.putInt(0).putLong(lsn + 1).put(type);
+        }
+
+        private long commitRecord() {
+            record.putInt(0, record.position() - Integer.BYTES);
+            record.flip();
+            try {
+                while (record.hasRemaining()) {
+                    end += channel.write(record, end);
+                }
+                lsn++;
+                writeHeader();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot append to mutation log", e);
+            }
+            return lsn;
+        }
+
+        private void writeHeader() throws IOException {
+            header.clear();
+            header.putLong(lsn).putLong(end).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+
+        private void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(Integer.BYTES + bytes.length);
+            record.putInt(bytes.length).put(bytes);
+        }
+
+        private void putDate(LocalDate date) {
+            ensureCapacity(Long.BYTES);
+            record.putLong(date.toEpochDay());
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (record.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+                record.flip();
+                record = larger.put(record);
+            }
+        }
+    }
+
+    /**
+     * Reads committed mutations from a log file and replays them onto a network.
+     * Not safe for concurrent use.
+     */
+    public static final class Reader implements AutoCloseable {
+        private static final int CHUNK_SIZE = 64 * 1024;
+
+        private final FileChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        private ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        private long position = HEADER_SIZE;
+        private long appliedLsn;
+
+        /**
+         * Opens a log for reading from its first record.
+         *
+         * @param file the log file
+         * @throws IOException if the file cannot be opened
+         */
+        public Reader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        }
+
+        /**
+         * Returns the LSN of the last committed record in the log.
+         *
+         * @return the leader's last LSN
+         * @throws UncheckedIOException if the header cannot be read
+         */
+        public long readCommittedLsn() {
+            readHeader();
+            return header.getLong(0);
+        }
+
+        /**
+         * Returns the LSN of the last record replayed by this reader.
+         *
+         * @return the applied LSN, or 0 if nothing has been replayed
+         */
+        public long getAppliedLsn() {
+            return appliedLsn;
+        }
+
+        /**
+         * Replays up to {@code maxRecords} committed records that this reader has not seen yet.
+         *
+         * @param target     the network to apply the mutations to
+         * @param maxRecords the maximum number of records to replay
+         * @return the number of records replayed
+         * @throws UncheckedIOException if the log cannot be read
+         */
+        public int replay(SocialNetwork target, int maxRecords) {
+            readHeader();
+            long committedEnd = header.getLong(Long.BYTES);
+            int replayed = 0;
+            while (replayed < maxRecords && position < committedEnd) {
+                fill(committedEnd);
+                while (replayed < maxRecords && chunk.remaining() >= Integer.BYTES
+                        && chunk.remaining() >= Integer.BYTES + chunk.getInt(chunk.position())) {
+                    int length = chunk.getInt();
+                    int next = chunk.position() + length;
+                    apply(target);
+                    chunk.position(next);
+                    position += Integer.BYTES + length;
+                    replayed++;
+                }
+            }
+            return replayed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        /**
+         * Loads the committed bytes after the current position into the chunk buffer,
+         * growing it if a single record is larger than the buffer.
+         */
+        private void fill(long committedEnd) {
+            int available = (int) Math.min(committedEnd - position, Integer.MAX_VALUE);
+            chunk.clear();
+            try {
+                if (available >= Integer.BYTES) {
+                    ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+                    channel.read(length, position);
+                    int needed = Integer.BYTES + length.getInt(0);
+                    if (needed > chunk.capacity()) {
+                        chunk = ByteBuffer.allocate(needed);
+                    }
+                }
+                chunk.limit(Math.min(chunk.capacity(), available));
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, position + chunk.position()) < 0) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read mutation log", e);
+            }
+            chunk.flip();
+        }
+
+        private void apply(SocialNetwork target) {
+            long lsn = chunk.getLong();
+            byte type = chunk.get();
+            switch (type) {
+                case USER_REGISTERED -> target.registerUser(new Persona(getString(), getString(),
+                        LocalDate.ofEpochDay(chunk.getLong()), getString(), LocalDate.ofEpochDay(chunk.getLong())));
+                case CONNECTION_CREATED -> target.connect(getString(), getString());
+                default -> throw new IllegalStateException("Unknown mutation type " + type + " at LSN " + lsn);
+            }
+            appliedLsn = lsn;
+        }
+
+        private String getString() {
+            byte[] bytes = new byte[chunk.getInt()];
+            chunk.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void readHeader() {
+            header.clear();
+            try {
+                while (header.hasRemaining()) {
+                    if (channel.read(header, header.position()) < 0) {
+                        throw new IllegalStateException("Mutation log header is incomplete");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read mutation log", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.replication;
+
+import com.example.domain.Persona;
+import com.example.graph.GraphSnapshot;
+import com.example.service.ClosestConnection;
+import com.example.service.ConnectionResult;
+import com.example.service.MemoryStats;
+import com.example.service.Neighborhood;
+import com.example.service.SocialNetwork;
+import com.example.service.SocialNetworkImpl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-only copy of a leader's network, kept up to date by replaying its {@link MutationLog}.
+ * <p>
+ * The replica tails the log file, which may be written by another process on the same host,
+ * and applies new records to a private {@link SocialNetworkImpl} in batches. Each batch is
+ * applied under the write side of a read-write lock, so queries see a consistent state and
+ * the locking cost is paid once per batch rather than once per record. Queries run
+ * concurrently under the read side of the lock; returned collections are copies.
+ * </p>
+ * <p>
+ * Records are applied either by a background follower started with {@link #start(Duration)},
+ * or on demand by {@link #catchUp()} and {@link #awaitLsn(long, Duration)}. Mutations are
+ * rejected with {@link UnsupportedOperationException}; they must go to the leader.
+ * </p>
+ */
+public class ReadReplica implements SocialNetwork, AutoCloseable {
+
+    /**
+     * Default maximum number of records applied under one acquisition of the write lock.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private static final long AWAIT_PARK_NANOS = 100_000;
+
+    private final MutationLog.Reader reader;
+    private final SocialNetworkImpl state = new SocialNetworkImpl();
+    private final Lock readLock;
+    private final Lock writeLock;
+    private final int batchSize;
+    private volatile long appliedLsn;
+    private volatile Thread follower;
+
+    /**
+     * Creates a replica that applies up to {@value #DEFAULT_BATCH_SIZE} records per batch.
+     *
+     * @param logFile the leader's log file
+     * @throws IOException if the log cannot be opened
+     */
+    public ReadReplica(Path logFile) throws IOException {
+        this(logFile, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a replica.
+     *
+     * @param logFile   the leader's log file
+     * @param batchSize the maximum number of records applied under one lock acquisition
+     * @throws IOException if the log cannot be opened
+     * @throws IllegalArgumentException if {@code batchSize} is not positive
+     */
+    public ReadReplica(Path logFile, int batchSize) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.reader = new MutationLog.Reader(Objects.requireNonNull(logFile, "Log file cannot be null"));
+        this.batchSize = batchSize;
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+    /**
+     * Starts a background virtual thread that applies new records as they are committed.
+     * The follower checks the log again after {@code pollInterval} whenever it finds nothing.
+     *
+     * @param pollInterval how long to wait when the replica is up to date
+     * @throws IllegalStateException if the follower is already running
+     */
+    public synchronized void start(Duration pollInterval) {
+        if (follower != null) {
+            throw new IllegalStateException("Replica is already following the log");
+        }
+        long intervalNanos = pollInterval.toNanos();
+        follower = Thread.ofVirtual().name("replica-follower").start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (catchUp() == 0) {
+                    LockSupport.parkNanos(intervalNanos);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies every record committed so far, one batch at a time.
+     *
+     * @return the number of records applied
+     */
+    public int catchUp() {
+        int total = 0;
+        int applied;
+        do {
+            applied = applyBatch();
+            total += applied;
+        } while (applied == batchSize);
+        return total;
+    }
+
+    /**
+     * Waits until this replica has applied the record with the given LSN.
+     * <p>
+     * Passing the leader's {@link ReplicationLeader#getLastLsn()} after a write gives
+     * read-your-writes consistency: queries issued after this method returns true observe
+     * that write. The caller helps apply records while it waits, so this works with or
+     * without a background follower.
+     * </p>
+     *
+     * @param lsn     the LSN that must have been applied
+     * @param timeout the maximum time to wait
+     * @return true if the replica has reached the LSN, false if the timeout expired first
+     */
+    public boolean awaitLsn(long lsn, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (appliedLsn < lsn) {
+            if (catchUp() == 0) {
+                if (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) {
+                    return appliedLsn >= lsn;
+                }
+                LockSupport.parkNanos(AWAIT_PARK_NANOS);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the LSN of the last record this replica has applied.
+     *
+     * @return the applied LSN, or 0 if nothing has been applied
+     */
+    public long getAppliedLsn() {
+        return appliedLsn;
+    }
+
+    /**
+     * Returns the LSN of the last record committed by the leader.
+     *
+     * @return the leader's last LSN
+     */
+    public long getLeaderLsn() {
+        synchronized (reader) {
+            return reader.readCommittedLsn();
+        }
+    }
+
+    /**
+     * Returns how many committed records this replica has not applied yet.
+     *
+     * @return the replication lag in records
+     */
+    public long getReplicationLag() {
+        long applied = appliedLsn;
+        return Math.max(0, getLeaderLsn() - applied);
+    }
+
+    /**
+     * Returns the estimated heap footprint of the replicated state. The figures are running
+     * totals, so this can be polled at any time without taking the read lock.
+     *
+     * @return the estimated footprint
+     */
+    public MemoryStats memoryStats() {
+        return state.memoryStats();
+    }
+
+    @Override
+    public void registerUser(Persona user) {
+        throw new UnsupportedOperationException("Read replicas are read-only; register users on the leader");
+    }
+
+    @Override
+    public void connect(String id1, String id2) {
+        throw new UnsupportedOperationException("Read replicas are read-only; connect users on the leader");
+    }
+
+    @Override
+    public Set<Persona> getFriends(String id) {
+        return read(() -> Collections.unmodifiableSet(new LinkedHashSet<>(state.getFriends(id))));
+    }
+
+    @Override
+    public Set<Persona> getMutualFriends(String id1, String id2) {
+        // The set is built for this call and immutable, so it needs no copy
+        return read(() -> state.getMutualFriends(id1, id2));
+    }
+
+    @Override
+    public int countMutualFriends(String id1, String id2) {
+        return read(() -> state.countMutualFriends(id1, id2));
+    }
+
+    @Override
+    public int[] countMutualFriends(String id, List<String> others) {
+        return read(() -> state.countMutualFriends(id, others));
+    }
+
+    @Override
+    public List<Persona> getConnectionPathBetween(String id1, String id2) {
+        return read(() -> state.getConnectionPathBetween(id1, id2));
+    }
+
+    @Override
+    public int getConnectionLevelBetween(String id1, String id2) {
+        return read(() -> state.getConnectionLevelBetween(id1, id2));
+    }
+
+    @Override
+    public ConnectionResult<List<Persona>> findConnectionPath(String id1, String id2) {
+        return read(() -> state.findConnectionPath(id1, id2));
+    }
+
+    @Override
+    public ConnectionResult<Integer> findConnectionLevel(String id1, String id2) {
+        return read(() -> state.findConnectionLevel(id1, id2));
+    }
+
+    @Override
+    public Set<Persona> getUsersOrderedByRegistration() {
+        return read(() -> Collections.unmodifiableSet(new LinkedHashSet<>(state.getUsersOrderedByRegistration())));
+    }
+
+    @Override
+    public int[] getDistancesFrom(String id, int maxDepth) {
+        return read(() -> state.getDistancesFrom(id, maxDepth));
+    }
+
+    @Override
+    public Neighborhood getNeighborhood(String id, int maxDepth) {
+        return read(() -> state.getNeighborhood(id, maxDepth));
+    }
+
+    @Override
+    public void findClosestConnections(String id, Collection<String> targetIds, int maxDepth,
+                                       Consumer<? super ClosestConnection> consumer) {
+        read(() -> {
+            state.findClosestConnections(id, targetIds, maxDepth, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public GraphSnapshot snapshot() {
+        return read(state::snapshot);
+    }
+
+    /**
+     * Stops the background follower, if any, and closes the log.
+     *
+     * @throws IOException if closing the log file fails
+     */
+    @Override
+    public void close() throws IOException {
+        Thread running;
+        synchronized (this) {
+            running = follower;
+            follower = null;
+        }
+        if (running != null) {
+            running.interrupt();
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (reader) {
+            reader.close();
+        }
+    }
+
+    private int applyBatch() {
+        synchronized (reader) {
+            if (reader.readCommittedLsn() <= reader.getAppliedLsn()) {
+                // Nothing new: do not block readers for an empty batch
+                return 0;
+            }
+            writeLock.lock();
+            try {
+                int applied = reader.replay(state, batchSize);
+                appliedLsn = reader.getAppliedLsn();
+                return applied;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private <T> T read(Supplier<T> query) {
+        readLock.lock();
+        try {
+            return query.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.replication;
+
+import com.example.domain.Persona;
+import com.example.graph.GraphSnapshot;
+import com.example.service.ClosestConnection;
+import com.example.service.ConnectionResult;
+import com.example.service.Neighborhood;
+import com.example.service.SocialNetwork;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Client-side view of a leader and its read replicas that behaves like a single network.
+ * <p>
+ * Mutations go to the {@link ReplicationLeader}; queries are spread round-robin over the
+ * {@link ReadReplica}s, so read throughput grows with the number of replicas. The view
+ * remembers the LSN of its own last write and only lets a replica answer once it has applied
+ * that LSN, which gives read-your-writes consistency for everything done through the same
+ * instance. A replica that cannot catch up within the read timeout is skipped and the query
+ * falls back to the leader.
+ * </p>
+ */
+public class ReplicatedSocialNetwork implements SocialNetwork {
+
+    /**
+     * Default time a query waits for a replica to reach the session's last write.
+     */
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofMillis(100);
+
+    private final ReplicationLeader leader;
+    private final List<ReadReplica> replicas;
+    private final Duration readTimeout;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile long sessionLsn;
+
+    /**
+     * Creates a view with the {@linkplain #DEFAULT_READ_TIMEOUT default read timeout}.
+     *
+     * @param leader   the leader that accepts mutations
+     * @param replicas the replicas that serve queries; if empty, the leader serves them
+     */
+    public ReplicatedSocialNetwork(ReplicationLeader leader, List<ReadReplica> replicas) {
+        this(leader, replicas, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Creates a view.
+     *
+     * @param leader      the leader that accepts mutations
+     * @param replicas    the replicas that serve queries; if empty, the leader serves them
+     * @param readTimeout how long a query waits for a replica to reach the session's last write
+     */
+    public ReplicatedSocialNetwork(ReplicationLeader leader, List<ReadReplica> replicas, Duration readTimeout) {
+        this.leader = Objects.requireNonNull(leader, "Leader cannot be null");
+        this.replicas = List.copyOf(replicas);
+        this.readTimeout = Objects.requireNonNull(readTimeout, "Read timeout cannot be null");
+    }
+
+    /**
+     * Returns the LSN of the last write made through this view.
+     *
+     * @return the session LSN, or 0 before the first write
+     */
+    public long getSessionLsn() {
+        return sessionLsn;
+    }
+
+    @Override
+    public void registerUser(Persona user) {
+        leader.registerUser(user);
+        sessionLsn = leader.getLastLsn();
+    }
+
+    @Override
+    public void connect(String id1, String id2) {
+        leader.connect(id1, id2);
+        sessionLsn = leader.getLastLsn();
+    }
+
+    @Override
+    public Set<Persona> getFriends(String id) {
+        return read(network -> network.getFriends(id));
+    }
+
+    @Override
+    public Set<Persona> getMutualFriends(String id1, String id2) {
+        return read(network -> network.getMutualFriends(id1, id2));
+    }
+
+    @Override
+    public int countMutualFriends(String id1, String id2) {
+        return read(network -> network.countMutualFriends(id1, id2));
+    }
+
+    @Override
+    public int[] countMutualFriends(String id, List<String> others) {
+        return read(network -> network.countMutualFriends(id, others));
+    }
+
+    @Override
+    public List<Persona> getConnectionPathBetween(String id1, String id2) {
+        return read(network -> network.getConnectionPathBetween(id1, id2));
+    }
+
+    @Override
+    public int getConnectionLevelBetween(String id1, String id2) {
+        return read(network -> network.getConnectionLevelBetween(id1, id2));
+    }
+
+    @Override
+    public ConnectionResult<List<Persona>> findConnectionPath(String id1, String id2) {
+        return read(network -> network.findConnectionPath(id1, id2));
+    }
+
+    @Override
+    public ConnectionResult<Integer> findConnectionLevel(String id1, String id2) {
+        return read(network -> network.findConnectionLevel(id1, id2));
+    }
+
+    @Override
+    public Set<Persona> getUsersOrderedByRegistration() {
+        return read(SocialNetwork::getUsersOrderedByRegistration);
+    }
+
+    @Override
+    public int[] getDistancesFrom(String id, int maxDepth) {
+        return read(network -> network.getDistancesFrom(id, maxDepth));
+    }
+
+    @Override
+    public Neighborhood getNeighborhood(String id, int maxDepth) {
+        return read(network -> network.getNeighborhood(id, maxDepth));
+    }
+
+    @Override
+    public void findClosestConnections(String id, Collection<String> targetIds, int maxDepth,
+                                       Consumer<? super ClosestConnection> consumer) {
+        read(network -> {
+            network.findClosestConnections(id, targetIds, maxDepth, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public GraphSnapshot snapshot() {
+        return read(SocialNetwork::snapshot);
+    }
+
+    private <T> T read(Function<SocialNetwork, T> query) {
+        if (!replicas.isEmpty()) {
+            ReadReplica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.awaitLsn(sessionLsn, readTimeout)) {
+                return query.apply(replica);
+            }
+        }
+        return query.apply(leader);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.replication;
+
+import com.example.domain.Persona;
+import com.example.graph.GraphSnapshot;
+import com.example.service.ClosestConnection;
+import com.example.service.ConnectionResult;
+import com.example.service.Neighborhood;
+import com.example.service.SocialNetwork;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * {@link SocialNetwork} that records every accepted mutation in a {@link MutationLog}, so that
+ * {@link ReadReplica}s can follow it.
+ * <p>
+ * Mutations are applied to the wrapped network first; only those that succeed are appended
+ * to the log, so replicas never see a registration or connection the leader rejected. Reads
+ * are served by the wrapped network directly. Like the network it wraps, the leader is not
+ * safe for concurrent use.
+ * </p>
+ */
+public class ReplicationLeader implements SocialNetwork, AutoCloseable {
+
+    private final SocialNetwork delegate;
+    private final MutationLog.Writer log;
+
+    /**
+     * Creates a leader.
+     *
+     * @param delegate the network that holds the leader's state; it must be empty and must not
+     *                 be modified except through this leader
+     * @param log      the log to append mutations to
+     */
+    public ReplicationLeader(SocialNetwork delegate, MutationLog.Writer log) {
+        this.delegate = Objects.requireNonNull(delegate, "Delegate cannot be null");
+        this.log = Objects.requireNonNull(log, "Log cannot be null");
+    }
+
+    /**
+     * Returns the LSN of the last mutation written to the log. A client that passes this
+     * value to {@link ReadReplica#awaitLsn(long, java.time.Duration)} reads its own writes.
+     *
+     * @return the last LSN, or 0 if nothing has been written
+     */
+    public long getLastLsn() {
+        return log.getLastLsn();
+    }
+
+    @Override
+    public void registerUser(Persona user) {
+        delegate.registerUser(user);
+        log.appendUserRegistered(user);
+    }
+
+    @Override
+    public void connect(String id1, String id2) {
+        delegate.connect(id1, id2);
+        log.appendConnectionCreated(id1, id2);
+    }
+
+    @Override
+    public Set<Persona> getFriends(String id) {
+        return delegate.getFriends(id);
+    }
+
+    @Override
+    public Set<Persona> getMutualFriends(String id1, String id2) {
+        return delegate.getMutualFriends(id1, id2);
+    }
+
+    @Override
+    public int countMutualFriends(String id1, String id2) {
+        return delegate.countMutualFriends(id1, id2);
+    }
+
+    @Override
+    public int[] countMutualFriends(String id, List<String> others) {
+        return delegate.countMutualFriends(id, others);
+    }
+
+    @Override
+    public List<Persona> getConnectionPathBetween(String id1, String id2) {
+        return delegate.getConnectionPathBetween(id1, id2);
+    }
+
+    @Override
+    public int getConnectionLevelBetween(String id1, String id2) {
+        return delegate.getConnectionLevelBetween(id1, id2);
+    }
+
+    @Override
+    public ConnectionResult<List<Persona>> findConnectionPath(String id1, String id2) {
+        return delegate.findConnectionPath(id1, id2);
+    }
+
+    @Override
+    public ConnectionResult<Integer> findConnectionLevel(String id1, String id2) {
+        return delegate.findConnectionLevel(id1, id2);
+    }
+
+    @Override
+    public Set<Persona> getUsersOrderedByRegistration() {
+        return delegate.getUsersOrderedByRegistration();
+    }
+
+    @Override
+    public int[] getDistancesFrom(String id, int maxDepth) {
+        return delegate.getDistancesFrom(id, maxDepth);
+    }
+
+    @Override
+    public Neighborhood getNeighborhood(String id, int maxDepth) {
+        return delegate.getNeighborhood(id, maxDepth);
+    }
+
+    @Override
+    public void findClosestConnections(String id, Collection<String> targetIds, int maxDepth,
+                                       Consumer<? super ClosestConnection> consumer) {
+        delegate.findClosestConnections(id, targetIds, maxDepth, consumer);
+    }
+
+    @Override
+    public GraphSnapshot snapshot() {
+        return delegate.snapshot();
+    }
+
+    /**
+     * Closes the log.
+     *
+     * @throws IOException if closing the log file fails
+     */
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
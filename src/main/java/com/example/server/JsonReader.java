@@ -0,0 +1,161 @@
+package com.example.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON decoder for the flat request bodies accepted by {@link SocialNetworkServer}.
+ * <p>
+ * Only a single object whose members are strings, numbers, booleans or {@code null} is
+ * supported; nested objects and arrays are rejected. Non-string values are returned in their
+ * textual form.
+ * </p>
+ */
+final class JsonReader {
+
+    private final Reader in;
+    private int peeked = -2;
+
+    private JsonReader(InputStream in) {
+        this.in = new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a flat JSON object.
+     *
+     * @param in the stream containing the object
+     * @return the members of the object, with {@code null} values omitted
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is not a flat JSON object
+     */
+    static Map<String, String> readFlatObject(InputStream in) throws IOException {
+        return new JsonReader(in).readObject();
+    }
+
+    private Map<String, String> readObject() throws IOException {
+        Map<String, String> members = new HashMap<>();
+        expect('{');
+        if (peekSignificant() == '}') {
+            read();
+            return members;
+        }
+        while (true) {
+            expect('"');
+            String name = readString();
+            expect(':');
+            String value = readValue();
+            if (value != null) {
+                members.put(name, value);
+            }
+            int c = nextSignificant();
+            if (c == '}') {
+                return members;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("Expected ',' or '}' in JSON object");
+            }
+        }
+    }
+
+    private String readValue() throws IOException {
+        int c = nextSignificant();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            throw new IllegalArgumentException("Nested JSON values are not supported");
+        }
+        StringBuilder literal = new StringBuilder();
+        while (c != -1 && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+            literal.append((char) c);
+            c = peek();
+            if (c != ',' && c != '}') {
+                read();
+            }
+        }
+        if (literal.isEmpty()) {
+            throw new IllegalArgumentException("Missing JSON value");
+        }
+        return literal.toString().equals("null") ? null : literal.toString();
+    }
+
+    private String readString() throws IOException {
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new IllegalArgumentException("Unterminated JSON string");
+            }
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\') {
+                int escaped = read();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append((char) escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw new IllegalArgumentException("Invalid unicode escape in JSON string");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        value.append((char) code);
+                    }
+                    default -> throw new IllegalArgumentException("Invalid escape in JSON string");
+                }
+            } else {
+                value.append((char) c);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (nextSignificant() != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' in JSON input");
+        }
+    }
+
+    private int nextSignificant() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && Character.isWhitespace(c));
+        return c;
+    }
+
+    private int peekSignificant() throws IOException {
+        while (Character.isWhitespace(peek())) {
+            read();
+        }
+        return peek();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.server;
+
+import com.example.domain.Persona;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Minimal streaming JSON encoder that writes UTF-8 bytes straight into an output stream.
+ * <p>
+ * Values are encoded character by character into a reusable byte buffer, so encoding a
+ * response never builds an intermediate {@code String} or {@code StringBuilder}: names and
+ * string values are escaped as they are copied, numbers and dates are written digit by digit.
+ * The buffer is flushed to the underlying stream whenever it fills up, which keeps the memory
+ * used per response constant regardless of how many users are written.
+ * </p>
+ * <p>
+ * Commas between members and elements are inserted automatically. The writer does not
+ * validate the overall structure; callers are expected to balance {@code begin}/{@code end}
+ * calls and to write a name before each value inside an object.
+ * </p>
+ */
+public final class JsonWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_DEPTH = 32;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    /**
+     * Whether the container at each nesting level still expects its first entry.
+     */
+    private final boolean[] first = new boolean[MAX_DEPTH];
+    private int depth;
+
+    /**
+     * Set after a member name, so the following value is not preceded by a comma.
+     */
+    private boolean afterName;
+
+    /**
+     * Creates a writer.
+     *
+     * @param out the stream to write to; it is flushed but not closed by {@link #flush()}
+     */
+    public JsonWriter(OutputStream out) {
+        this.out = out;
+        this.first[0] = true;
+    }
+
+    /**
+     * Starts a JSON object.
+     *
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * Ends the current JSON object.
+     *
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * Starts a JSON array.
+     *
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * Ends the current JSON array.
+     *
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next object member.
+     *
+     * @param name the member name
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        writeQuoted(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or {@code null}.
+     *
+     * @param value the value to write
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            writeAscii("null");
+        } else {
+            writeQuoted(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a number value.
+     *
+     * @param value the value to write
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value the value to write
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        writeAscii(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a date as an ISO-8601 string ({@code "yyyy-MM-dd"}).
+     *
+     * @param date the date to write
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter value(LocalDate date) throws IOException {
+        separate();
+        writeByte('"');
+        writePadded(date.getYear(), 4);
+        writeByte('-');
+        writePadded(date.getMonthValue(), 2);
+        writeByte('-');
+        writePadded(date.getDayOfMonth(), 2);
+        writeByte('"');
+        return this;
+    }
+
+    /**
+     * Writes a user as a JSON object with all of its fields.
+     *
+     * @param user the user to write
+     * @return this writer
+     * @throws IOException if writing to the stream fails
+     */
+    public JsonWriter value(Persona user) throws IOException {
+        beginObject();
+        name("id").value(user.getId());
+        name("name").value(user.getName());
+        name("birthDate").value(user.getBirthDate());
+        name("city").value(user.getCity());
+        name("registrationDate").value(user.getRegistrationDate());
+        return endObject();
+    }
+
+    /**
+     * Writes any buffered bytes to the underlying stream and flushes it.
+     *
+     * @throws IOException if writing to the stream fails
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        writeByte(bracket);
+        if (++depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nesting deeper than " + MAX_DEPTH);
+        }
+        first[depth] = true;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        depth--;
+        writeByte(bracket);
+        return this;
+    }
+
+    /**
+     * Writes the comma that separates this entry from the previous one, if needed.
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+        } else if (first[depth]) {
+            first[depth] = false;
+        } else {
+            writeByte(',');
+        }
+    }
+
+    private void writeQuoted(String value) throws IOException {
+        writeByte('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writeByte('\\');
+                writeByte(c);
+            } else if (c < 0x20) {
+                writeByte('\\');
+                writeByte('u');
+                writeByte('0');
+                writeByte('0');
+                writeByte(HEX[c >> 4]);
+                writeByte(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                writeByte(c);
+            } else if (c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeByte(0xF0 | (codePoint >> 18));
+                writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeByte(0x80 | (codePoint & 0x3F));
+            } else {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            writeByte((int) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private void writePadded(int value, int digits) throws IOException {
+        int divisor = 1;
+        for (int i = 1; i < digits; i++) {
+            divisor *= 10;
+        }
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            writeByte('0' + (value / divisor) % 10);
+        }
+    }
+
+    private void writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            writeByte(text.charAt(i));
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
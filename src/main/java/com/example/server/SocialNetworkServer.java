@@ -0,0 +1,411 @@
+package com.example.server;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.exceptions.NoPathException;
+import com.example.exceptions.UserAlreadyExistsException;
+import com.example.exceptions.UserNotFoundException;
+import com.example.service.AsyncSocialNetwork;
+import com.example.service.TraversalBudgetExceededException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Embedded HTTP/JSON server exposing a social network as a service.
+ * <p>
+ * The server is built on the JDK's {@code com.sun.net.httpserver} package and handles every
+ * request on its own virtual thread, so a slow path query never blocks other requests. All
+ * operations go through an {@link AsyncSocialNetwork}, which provides thread safety, bounded
+ * traversal concurrency and coalescing of identical in-flight queries.
+ * </p>
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code POST /users} - registers the user described by the JSON body
+ *       ({@code id}, {@code name}, {@code birthDate}, {@code city}, {@code registrationDate})</li>
+ *   <li>{@code POST /connections} - connects the users {@code id1} and {@code id2} of the JSON body</li>
+ *   <li>{@code GET /users/{id}/friends?offset=0&limit=50} - one page of a user's friends</li>
+ *   <li>{@code GET /path?from={id}&to={id}} - the shortest path between two users</li>
+ *   <li>{@code GET /level?from={id}&to={id}} - the degree of connection between two users</li>
+ * </ul>
+ * Responses are encoded with {@link JsonWriter} directly into the response stream. Errors are
+ * returned as {@code {"error": ..., "message": ...}} with a 400, 404, 405, 409, 503, 504 or 500 status.
+ * </p> * <p>
+ * Responses are small and written in more than one segment, so without {@code TCP_NODELAY}
+ * each one can wait for the client's delayed ACK. The JDK server only enables it when the JVM
+ * is started with {@code -Dsun.net.httpserver.nodelay=true}, which {@code Main} sets for its
+ * server modes.
+ * </p>
+ */
+public class SocialNetworkServer implements AutoCloseable {
+
+    /**
+     * Default deadline for path and level queries.
+     */
+    public static final Duration DEFAULT_QUERY_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Default page size for friend lists.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final AsyncSocialNetwork network;
+    private final Duration queryTimeout;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server with the default query timeout. The server is not started.
+     *
+     * @param network the network to serve
+     * @param address the address to bind to; use port 0 for an ephemeral port
+     * @throws IOException if the address cannot be bound
+     */
+    public SocialNetworkServer(AsyncSocialNetwork network, InetSocketAddress address) throws IOException {
+        this(network, address, DEFAULT_QUERY_TIMEOUT);
+    }
+
+    /**
+     * Creates a server. The server is not started.
+     *
+     * @param network      the network to serve
+     * @param address      the address to bind to; use port 0 for an ephemeral port
+     * @param queryTimeout the deadline for path and level queries
+     * @throws IOException if the address cannot be bound
+     */
+    public SocialNetworkServer(AsyncSocialNetwork network, InetSocketAddress address, Duration queryTimeout)
+            throws IOException {
+        this.network = Objects.requireNonNull(network, "Network cannot be null");
+        this.queryTimeout = Objects.requireNonNull(queryTimeout, "Query timeout cannot be null");
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/users", handler(this::handleUsers));
+        this.server.createContext("/connections", handler(this::handleConnections));
+        this.server.createContext("/path", handler(this::handlePath));
+        this.server.createContext("/level", handler(this::handleLevel));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, waiting briefly for in-flight exchanges to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+
+    private void handleUsers(HttpExchange exchange) throws Exception {
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/users") || path.equals("/users/")) {
+            requireMethod(exchange, "POST");
+            Map<String, String> body = readBody(exchange);
+            Persona user = new Persona(
+                    required(body, "id"),
+                    required(body, "name"),
+                    LocalDate.parse(required(body, "birthDate")),
+                    required(body, "city"),
+                    LocalDate.parse(required(body, "registrationDate")));
+            await(network.registerUser(user));
+            respond(exchange, 201, json -> json.beginObject().name("id").value(user.getId()).endObject());
+            return;
+        }
+
+        String[] segments = path.split("/");
+        if (segments.length == 4 && segments[3].equals("friends")) {
+            requireMethod(exchange, "GET");
+            Map<String, String> query = parseQuery(exchange);
+            int offset = intParameter(query, "offset", 0);
+            int limit = Math.min(intParameter(query, "limit", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+            Set<Persona> friends = await(network.getFriends(decode(segments[2])));
+            respond(exchange, 200, json -> {
+                json.beginObject();
+                json.name("total").value(friends.size());
+                json.name("offset").value(offset);
+                json.name("friends").beginArray();
+                Iterator<Persona> iterator = friends.iterator();
+                for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+                    iterator.next();
+                }
+                for (int written = 0; written < limit && iterator.hasNext(); written++) {
+                    json.value(iterator.next());
+                }
+                json.endArray();
+                json.endObject();
+            });
+            return;
+        }
+        throw new NotFoundException("No endpoint for " + path);
+    }
+
+    private void handleConnections(HttpExchange exchange) throws Exception {
+        requireMethod(exchange, "POST");
+        Map<String, String> body = readBody(exchange);
+        String id1 = required(body, "id1");
+        String id2 = required(body, "id2");
+        await(network.connect(id1, id2));
+        respond(exchange, 201, json -> json.beginObject()
+                .name("id1").value(id1)
+                .name("id2").value(id2)
+                .endObject());
+    }
+
+    private void handlePath(HttpExchange exchange) throws Exception {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = parseQuery(exchange);
+        List<Persona> path = await(network.getConnectionPathBetween(
+                required(query, "from"), required(query, "to"), queryTimeout));
+        respond(exchange, 200, json -> {
+            json.beginObject();
+            json.name("level").value(path.size() - 1);
+            json.name("path").beginArray();
+            for (Persona user : path) {
+                json.value(user);
+            }
+            json.endArray();
+            json.endObject();
+        });
+    }
+
+    private void handleLevel(HttpExchange exchange) throws Exception {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = parseQuery(exchange);
+        int level = await(network.getConnectionLevelBetween(
+                required(query, "from"), required(query, "to"), queryTimeout));
+        respond(exchange, 200, json -> json.beginObject().name("level").value(level).endObject());
+    }
+
+    /**
+     * Wraps an endpoint so that every exception is turned into a JSON error response.
+     */
+    private HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            try (exchange) {
+                try {
+                    endpoint.handle(exchange);
+                } catch (Exception e) {
+                    respondError(exchange, e);
+                }
+            }
+        };
+    }
+
+    private void respondError(HttpExchange exchange, Exception failure) throws IOException {
+        int status;
+        String error;
+        if (failure instanceof UserNotFoundException || failure instanceof NotFoundException) {
+            status = 404;
+            error = "NOT_FOUND";
+        } else if (failure instanceof NoPathException) {
+            status = 404;
+            error = "NO_PATH";
+        } else if (failure instanceof UserAlreadyExistsException
+                || failure instanceof ConnectionAlreadyExistsException) {
+            status = 409;
+            error = "CONFLICT";
+        } else if (failure instanceof MethodNotAllowedException
+                || failure instanceof UnsupportedOperationException) {
+            status = 405;
+            error = "METHOD_NOT_ALLOWED";
+        } else if (failure instanceof IllegalArgumentException
+                || failure instanceof NullPointerException
+                || failure instanceof DateTimeParseException) {
+            status = 400;
+            error = "BAD_REQUEST";
+        } else if (failure instanceof TraversalBudgetExceededException) {
+            status = 503;
+            error = "BUDGET_EXCEEDED";
+        } else if (failure instanceof TimeoutException) {
+            status = 504;
+            error = "TIMEOUT";
+        } else {
+            status = 500;
+            error = "INTERNAL_ERROR";
+        }
+        respond(exchange, status, json -> json.beginObject()
+                .name("error").value(error)
+                .name("message").value(failure.getMessage())
+                .endObject());
+    }
+
+    private static void respond(HttpExchange exchange, int status, Body body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ResponseStream out = new ResponseStream(exchange, status);
+        JsonWriter json = new JsonWriter(out);
+        body.write(json);
+        out.finishing = true;
+        json.flush();
+    }
+
+    /**
+     * Waits for an asynchronous operation, unwrapping the exception it failed with.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+            throw new MethodNotAllowedException("Expected " + method + " but was " + exchange.getRequestMethod());
+        }
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return JsonReader.readFlatObject(in);
+        }
+    }
+
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(decode(pair.substring(0, separator)), decode(pair.substring(separator + 1)));
+            }
+        }
+        return parameters;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String required(Map<String, String> values, String name) {
+        String value = values.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing required parameter '" + name + "'");
+        }
+        return value;
+    }
+
+    private static int intParameter(Map<String, String> values, String name, int defaultValue) {
+        String value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        int parsed = Integer.parseInt(value);
+        if (parsed < 0) {
+            throw new IllegalArgumentException("Parameter '" + name + "' cannot be negative");
+        }
+        return parsed;
+    }
+
+    /**
+     * Response body stream that decides between a fixed length and chunked encoding.
+     * <p>
+     * Headers are sent on the first write. If that write is the final flush of the
+     * {@link JsonWriter}, the whole body fits in the writer's buffer and is sent with a fixed
+     * {@code Content-Length} in one piece. Otherwise the body is larger than the buffer and is
+     * streamed with chunked encoding as it is encoded.
+     * </p>
+     */
+    private static final class ResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final int status;
+        private OutputStream body;
+        boolean finishing;
+
+        ResponseStream(HttpExchange exchange, int status) {
+            this.exchange = exchange;
+            this.status = status;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (body == null) {
+                exchange.sendResponseHeaders(status, finishing ? length : 0);
+                body = exchange.getResponseBody();
+            }
+            body.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (body == null) {
+                // Empty body
+                exchange.sendResponseHeaders(status, -1);
+                body = exchange.getResponseBody();
+            }
+            body.flush();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        void handle(HttpExchange exchange) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private static final class NotFoundException extends RuntimeException {
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class MethodNotAllowedException extends RuntimeException {
+        MethodNotAllowedException(String message) {
+            super(message);
+        }
+    }
+}
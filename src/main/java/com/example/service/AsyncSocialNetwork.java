@@ -0,0 +1,369 @@
+package com.example.service;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.exceptions.NoPathException;
+import com.example.exceptions.UserAlreadyExistsException;
+import com.example.exceptions.UserNotFoundException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous, thread-safe facade over a {@link SocialNetwork}.
+ * <p>
+ * Every operation runs on its own virtual thread and returns a {@link CompletableFuture}, so
+ * thousands of concurrent callers cost only a few kilobytes each. The facade adds three
+ * things on top of the wrapped network:
+ * <ul>
+ *   <li><b>Thread safety:</b> a {@link ReadWriteLock} lets queries run concurrently while
+ *       registrations and connections are applied exclusively. All access to the wrapped
+ *       network must therefore go through this facade.</li>
+ *   <li><b>Bounded traversals:</b> path and level queries run a full BFS, so at most
+ *       {@code maxConcurrentTraversals} of them execute at the same time; the others wait
+ *       for a permit without holding a platform thread.</li>
+ *   <li><b>Request coalescing:</b> identical path or level queries that arrive while the
+ *       same query is still running share a single BFS instead of starting a new one.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Cancelling a returned future, or letting its deadline expire, detaches that caller from the
+ * shared traversal. Once no caller is waiting for a traversal any more, its virtual thread is
+ * interrupted; {@link SocialNetworkImpl} checks the interrupt status while it searches, so
+ * abandoned work stops early instead of running to completion.
+ * </p>
+ */
+public class AsyncSocialNetwork implements AutoCloseable {
+
+    /**
+     * Key under which identical path queries are coalesced. Level queries are answered from
+     * the path, so they share the same traversal as path queries for the same pair of users.
+     */
+    private record PathQuery(String id1, String id2) {
+    }
+
+    private final SocialNetwork delegate;
+    private final ExecutorService executor;
+    private final Semaphore traversalPermits;
+    private final Lock readLock;
+    private final Lock writeLock;
+    private final ConcurrentMap<PathQuery, InFlight<List<Persona>>> inFlightPaths;
+
+    /**
+     * Creates a facade that allows one concurrent traversal per available processor.
+     *
+     * @param delegate the network to wrap; it must not be accessed except through this facade
+     */
+    public AsyncSocialNetwork(SocialNetwork delegate) {
+        this(delegate, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a facade.
+     *
+     * @param delegate                the network to wrap; it must not be accessed except through
+     *                                this facade
+     * @param maxConcurrentTraversals the maximum number of path or level queries that may run
+     *                                at the same time
+     * @throws IllegalArgumentException if {@code maxConcurrentTraversals} is not positive
+     */
+    public AsyncSocialNetwork(SocialNetwork delegate, int maxConcurrentTraversals) {
+        if (maxConcurrentTraversals < 1) {
+            throw new IllegalArgumentException(
+                    "Maximum concurrent traversals must be positive: " + maxConcurrentTraversals);
+        }
+        this.delegate = Objects.requireNonNull(delegate, "Delegate cannot be null");
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.traversalPermits = new Semaphore(maxConcurrentTraversals);
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+        this.inFlightPaths = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers a new user asynchronously.
+     *
+     * @param user the user to register
+     * @return a future completed once the user is registered, or completed exceptionally with
+     *         {@link UserAlreadyExistsException} or {@link NullPointerException}
+     * @see SocialNetwork#registerUser(Persona)
+     */
+    public CompletableFuture<Void> registerUser(Persona user) {
+        return supply(writeLock, () -> {
+            delegate.registerUser(user);
+            return null;
+        });
+    }
+
+    /**
+     * Creates a bidirectional connection between two users asynchronously.
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return a future completed once the connection exists, or completed exceptionally with
+     *         {@link UserNotFoundException}, {@link ConnectionAlreadyExistsException} or
+     *         {@link IllegalArgumentException}
+     * @see SocialNetwork#connect(String, String)
+     */
+    public CompletableFuture<Void> connect(String id1, String id2) {
+        return supply(writeLock, () -> {
+            delegate.connect(id1, id2);
+            return null;
+        });
+    }
+
+    /**
+     * Retrieves the friends of a user asynchronously.
+     * <p>
+     * The returned set is a copy taken while holding the read lock, so it can be iterated
+     * safely while other callers keep connecting users. Its iteration order is the order of
+     * the wrapped network (by name and then by ID).
+     * </p>
+     *
+     * @param id the ID of the user
+     * @return a future with an unmodifiable snapshot of the user's friends, or completed
+     *         exceptionally with {@link UserNotFoundException}
+     * @see SocialNetwork#getFriends(String)
+     */
+    public CompletableFuture<Set<Persona>> getFriends(String id) {
+        return supply(readLock, () -> Collections.unmodifiableSet(new LinkedHashSet<>(delegate.getFriends(id))));
+    }
+
+    /**
+     * Finds the shortest path between two users asynchronously, without a deadline.
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return a future with the path, or completed exceptionally with
+     *         {@link UserNotFoundException} or {@link NoPathException}
+     * @see SocialNetwork#getConnectionPathBetween(String, String)
+     */
+    public CompletableFuture<List<Persona>> getConnectionPathBetween(String id1, String id2) {
+        return coalescedPath(id1, id2);
+    }
+
+    /**
+     * Finds the shortest path between two users asynchronously, giving up after a deadline.
+     * <p>
+     * If the path is not found within {@code timeout}, the future completes exceptionally with
+     * a {@link java.util.concurrent.TimeoutException}, and the traversal is interrupted unless
+     * another caller is still waiting for the same query.
+     * </p>
+     *
+     * @param id1     the ID of the first user
+     * @param id2     the ID of the second user
+     * @param timeout the maximum time to wait for the result
+     * @return a future with the path
+     */
+    public CompletableFuture<List<Persona>> getConnectionPathBetween(String id1, String id2, Duration timeout) {
+        return withDeadline(coalescedPath(id1, id2), timeout);
+    }
+
+    /**
+     * Calculates the degree of connection between two users asynchronously, without a deadline.
+     * <p>
+     * Level queries share their traversal with path queries for the same pair of users.
+     * </p>
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return a future with the degree of connection, or completed exceptionally with
+     *         {@link UserNotFoundException} or {@link NoPathException}
+     * @see SocialNetwork#getConnectionLevelBetween(String, String)
+     */
+    public CompletableFuture<Integer> getConnectionLevelBetween(String id1, String id2) {
+        return toLevel(coalescedPath(id1, id2));
+    }
+
+    /**
+     * Calculates the degree of connection between two users asynchronously, giving up after
+     * a deadline.
+     *
+     * @param id1     the ID of the first user
+     * @param id2     the ID of the second user
+     * @param timeout the maximum time to wait for the result
+     * @return a future with the degree of connection
+     * @see #getConnectionPathBetween(String, String, Duration)
+     */
+    public CompletableFuture<Integer> getConnectionLevelBetween(String id1, String id2, Duration timeout) {
+        return withDeadline(toLevel(coalescedPath(id1, id2)), timeout);
+    }
+
+    /**
+     * Stops accepting new work and interrupts running operations.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs an operation on a virtual thread while holding the given lock.
+     */
+    private <T> CompletableFuture<T> supply(Lock lock, Supplier<T> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            lock.lock();
+            try {
+                result.complete(operation.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                lock.unlock();
+            }
+        });
+        result.whenComplete((value, failure) -> {
+            if (failure instanceof CancellationException) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Joins the in-flight traversal for a pair of users, or starts a new one.
+     */
+    private CompletableFuture<List<Persona>> coalescedPath(String id1, String id2) {
+        PathQuery query = new PathQuery(id1, id2);
+        while (true) {
+            InFlight<List<Persona>> candidate = new InFlight<>();
+            InFlight<List<Persona>> shared = inFlightPaths.computeIfAbsent(query, key -> candidate);
+            if (shared == candidate) {
+                start(query, candidate);
+                return candidate.attach();
+            }
+            CompletableFuture<List<Persona>> subscription = shared.trySubscribe();
+            if (subscription != null) {
+                return subscription;
+            }
+            // The traversal was abandoned by all callers; remove it and start over
+            inFlightPaths.remove(query, shared);
+        }
+    }
+
+    /**
+     * Submits the traversal of a newly created in-flight query.
+     */
+    private void start(PathQuery query, InFlight<List<Persona>> inFlight) {
+        inFlight.result.whenComplete((path, failure) -> inFlightPaths.remove(query, inFlight));
+        inFlight.task = executor.submit(() -> {
+            try {
+                traversalPermits.acquire();
+            } catch (InterruptedException e) {
+                inFlight.result.completeExceptionally(new CancellationException("Traversal cancelled"));
+                return;
+            }
+            readLock.lock();
+            try {
+                inFlight.result.complete(delegate.getConnectionPathBetween(query.id1(), query.id2()));
+            } catch (RuntimeException e) {
+                inFlight.result.completeExceptionally(e);
+            } finally {
+                readLock.unlock();
+                traversalPermits.release();
+            }
+        });
+    }
+
+    private static CompletableFuture<Integer> toLevel(CompletableFuture<List<Persona>> path) {
+        CompletableFuture<Integer> level = path.thenApply(list -> list.size() - 1);
+        // A level future that is cancelled or times out releases its path subscription
+        level.whenComplete((value, failure) -> {
+            if (failure != null && !path.isDone()) {
+                path.cancel(true);
+            }
+        });
+        return level;
+    }
+
+    private static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, Duration timeout) {
+        Objects.requireNonNull(timeout, "Timeout cannot be null");
+        future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    /**
+     * A traversal shared by every caller that asked for the same query while it was running.
+     * <p>
+     * Each caller receives its own future. When a caller's future completes before the shared
+     * result (because it was cancelled or timed out), the caller is unsubscribed, and the
+     * traversal is interrupted when the last subscriber leaves.
+     * </p>
+     */
+    private static final class InFlight<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        /**
+         * Starts at one, accounting for the caller that creates the traversal, so that
+         * concurrent callers can never observe a new traversal as abandoned.
+         */
+        private final AtomicInteger subscribers = new AtomicInteger(1);
+        private volatile Future<?> task;
+
+        /**
+         * Subscribes a further caller, unless every previous caller has already left.
+         *
+         * @return the caller's future, or null if the traversal has been abandoned
+         */
+        CompletableFuture<T> trySubscribe() {
+            int current;
+            do {
+                current = subscribers.get();
+                if (current == 0) {
+                    return null;
+                }
+            } while (!subscribers.compareAndSet(current, current + 1));
+            return attach();
+        }
+
+        /**
+         * Creates the future of an already counted subscriber.
+         */
+        CompletableFuture<T> attach() {
+            CompletableFuture<T> caller = new CompletableFuture<>();
+            result.whenComplete((value, failure) -> {
+                if (failure == null) {
+                    caller.complete(value);
+                } else {
+                    caller.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure);
+                }
+            });
+            caller.whenComplete((value, failure) -> {
+                if (!result.isDone()) {
+                    unsubscribe();
+                }
+            });
+            return caller;
+        }
+
+        private void unsubscribe() {
+            if (subscribers.decrementAndGet() == 0) {
+                Future<?> running = task;
+                if (running != null) {
+                    running.cancel(true);
+                }
+                result.completeExceptionally(new CancellationException("Traversal abandoned by all callers"));
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.service;
+
+import com.example.domain.Persona;
+
+import java.util.List;
+
+/**
+ * How a source user reaches one of a set of candidate users, as found by
+ * {@link SocialNetwork#findClosestConnections}.
+ *
+ * @param target the candidate user that was reached
+ * @param level  the number of hops from the source to the target; 0 if the target is the source
+ * @param path   one shortest path from the source to the target, both included; the user before
+ *               the target is the friend the target is "connected via"
+ */
+public record ClosestConnection(Persona target, int level, List<Persona> path) {
+}
@@ -0,0 +1,98 @@
+package com.example.service;
+
+import com.example.exceptions.NoPathException;
+import com.example.exceptions.UserNotFoundException;
+
+/**
+ * Outcome of a connection query that reports every expected outcome as a value.
+ * <p>
+ * Batch jobs that probe many pairs of users treat "no path" and "unknown user" as ordinary
+ * answers. Reporting them with exceptions costs a message string and a stack trace per
+ * probe, which can dominate the cost of the query itself. The query methods returning this
+ * type, such as {@link SocialNetwork#findConnectionPath(String, String)}, throw nothing for
+ * those outcomes; callers handle them with a pattern-matching {@code switch}:
+ * </p>
+ * <pre>
+ * switch (network.findConnectionLevel(viewer, profile)) {
+ *     case ConnectionResult.Found&lt;Integer&gt; found -&gt; show(found.value());
+ *     case ConnectionResult.NoPath&lt;Integer&gt; noPath -&gt; showNotConnected();
+ *     case ConnectionResult.UnknownUser&lt;Integer&gt; unknown -&gt; skip(unknown.id());
+ *     case ConnectionResult.BudgetExceeded&lt;Integer&gt; exceeded -&gt; showTooFar();
+ * }
+ * </pre>
+ *
+ * @param <T> the type of the answer when a connection is found
+ */
+public sealed interface ConnectionResult<T> {
+
+    /**
+     * The users are connected.
+     *
+     * @param value the answer: the path or the connection level
+     * @param <T>   the type of the answer
+     */
+    record Found<T>(T value) implements ConnectionResult<T> {
+    }
+
+    /**
+     * Both users exist, but the search exhausted the source's component without reaching the
+     * target.
+     *
+     * @param <T> the type of the answer when a connection is found
+     */
+    record NoPath<T>() implements ConnectionResult<T> {
+    }
+
+    /**
+     * One of the users does not exist.
+     *
+     * @param id  the ID that was not found
+     * @param <T> the type of the answer when a connection is found
+     */
+    record UnknownUser<T>(String id) implements ConnectionResult<T> {
+    }
+
+    /**
+     * The search ran out of its {@link TraversalBudget} before it could answer.
+     *
+     * @param limit   the limit the search ran into
+     * @param visited the number of users the search visited before it stopped
+     * @param <T>     the type of the answer when a connection is found
+     */
+    record BudgetExceeded<T>(TraversalBudget.Limit limit, int visited) implements ConnectionResult<T> {
+    }
+
+    /**
+     * Returns whether the users are connected.
+     *
+     * @return true for a {@link Found} result
+     */
+    default boolean isFound() {
+        return this instanceof Found<T>;
+    }
+
+    /**
+     * Returns the answer, or throws the exception the throwing query methods would have thrown.
+     * <p>
+     * This bridges the two styles when a caller wants the exceptions after all. The exceptions
+     * are only created here, on the failure path.
+     * </p>
+     *
+     * @return the answer of a {@link Found} result
+     * @throws NoPathException for a {@link NoPath} result
+     * @throws UserNotFoundException for an {@link UnknownUser} result
+     * @throws TraversalBudgetExceededException for a {@link BudgetExceeded} result
+     */
+    default T orElseThrow() {
+        return switch (this) {
+            case Found<T> found -> found.value();
+            case NoPath<T> noPath -> throw new NoPathException("No path exists between the users");
+            case UnknownUser<T> unknown ->
+                    throw new UserNotFoundException("User with ID " + unknown.id() + " not found");
+            case BudgetExceeded<T> exceeded -> throw new TraversalBudgetExceededException(
+                    exceeded.limit(), exceeded.visited(),
+                    "Traversal budget exceeded (" + exceeded.limit() + ") after visiting "
+                            + exceeded.visited() + " users");
+        };
+    }
+}
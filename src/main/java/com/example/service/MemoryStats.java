@@ -0,0 +1,479 @@
+package com.example.service;
+
+import com.example.domain.Persona;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimated heap footprint of a {@link SocialNetworkImpl}, broken down by component.
+ * <p>
+ * The estimates follow the object layout of a 64-bit HotSpot JVM with compressed references:
+ * 12-byte object headers, 16-byte array headers, 4-byte references and sizes rounded up to
+ * 8 bytes. Strings are counted with compact strings, at one byte per character when all their
+ * characters are Latin-1 and two otherwise. Lists indexed by ordinal are counted at their
+ * size, not their possibly larger capacity. The figures are meant for capacity planning and
+ * for comparing storage layouts; a heap dump remains the reference for exact numbers.
+ * </p>
+ * <p>
+ * Besides the totals, the stats keep the distribution of the per-user adjacency cost, the
+ * connection set of one user with its backing array, as a histogram with power-of-two buckets.
+ * It shows how much of the adjacency memory goes to the many small sets and how much to the
+ * few hubs.
+ * </p>
+ *
+ * @see SocialNetworkImpl#memoryStats()
+ */
+public final class MemoryStats {
+
+    static final int OBJECT_HEADER_BYTES = 12;
+    static final int ARRAY_HEADER_BYTES = 16;
+    static final int REFERENCE_BYTES = 4;
+
+    /**
+     * Size of a {@code String}: header, value reference, hash, coder and hash-is-zero flag.
+     */
+    private static final long STRING_BYTES = align(OBJECT_HEADER_BYTES + REFERENCE_BYTES + 4 + 1 + 1);
+
+    /**
+     * Size of a {@code LocalDate}: header, an {@code int} year and two {@code short}s.
+     */
+    private static final long DATE_BYTES = align(OBJECT_HEADER_BYTES + 4 + 2 + 2);
+
+    /**
+     * Size of a {@link Persona}: header and five references.
+     */
+    private static final long PERSONA_BYTES = align(OBJECT_HEADER_BYTES + 5 * REFERENCE_BYTES);
+
+    /**
+     * Size of a {@code HashMap.Node}: header, hash, and key, value and next references.
+     */
+    private static final long MAP_NODE_BYTES = align(OBJECT_HEADER_BYTES + 4 + 3 * REFERENCE_BYTES);
+
+    /**
+     * Size of the {@code HashMap} itself: four references, three {@code int}s and a float.
+     */
+    private static final long MAP_BYTES = align(OBJECT_HEADER_BYTES + 4 * REFERENCE_BYTES + 3 * 4 + 4);
+
+    /**
+     * Size of an {@code Integer}; values up to 127 come from the shared cache and cost nothing.
+     */
+    private static final long INTEGER_BYTES = align(OBJECT_HEADER_BYTES + 4);
+    private static final int INTEGER_CACHE_HIGH = 127;
+
+    /**
+     * Size of an {@code ArrayList}: header, size, modification count and array reference.
+     */
+    private static final long LIST_BYTES = align(OBJECT_HEADER_BYTES + 4 + 4 + REFERENCE_BYTES);
+
+    /**
+     * Size of an {@code AdaptiveIntSet}: header, array reference, size and hashed flag.
+     */
+    private static final long INT_SET_BYTES = align(OBJECT_HEADER_BYTES + REFERENCE_BYTES + 4 + 1);
+
+    /**
+     * Size of a {@code TimestampedIntList}: header, two array references and size.
+     */
+    private static final long TIMELINE_BYTES = align(OBJECT_HEADER_BYTES + 2 * REFERENCE_BYTES + 4);
+
+    /**
+     * Size of a cached friend view: header, array reference and enclosing-instance reference.
+     */
+    private static final long FRIEND_VIEW_BYTES = align(OBJECT_HEADER_BYTES + 2 * REFERENCE_BYTES);
+
+    /**
+     * Size of the registration positions sorted by date: header and two array references.
+     */
+    private static final long REGISTRATION_INDEX_BYTES = align(OBJECT_HEADER_BYTES + 2 * REFERENCE_BYTES);
+
+    private final int userCount;
+    private final long connectionCount;
+    private final long userRecordBytes;
+    private final long idIndexBytes;
+    private final long adjacencyBytes;
+    private final long connectionHistoryBytes;
+    private final long friendCacheBytes;
+    private final long traversalCacheBytes;
+    private final long registrationIndexBytes;
+    private final long[] adjacencyHistogram;
+    private final long maxAdjacencyBytes;
+
+    MemoryStats(int userCount, long connectionCount, long userRecordBytes, long idIndexBytes,
+                long adjacencyBytes, long connectionHistoryBytes, long friendCacheBytes,
+                long traversalCacheBytes, long registrationIndexBytes, long[] adjacencyHistogram,
+                long maxAdjacencyBytes) {
+        this.userCount = userCount;
+        this.connectionCount = connectionCount;
+        this.userRecordBytes = userRecordBytes;
+        this.idIndexBytes = idIndexBytes;
+        this.adjacencyBytes = adjacencyBytes;
+        this.connectionHistoryBytes = connectionHistoryBytes;
+        this.friendCacheBytes = friendCacheBytes;
+        this.traversalCacheBytes = traversalCacheBytes;
+        this.registrationIndexBytes = registrationIndexBytes;
+        this.adjacencyHistogram = adjacencyHistogram;
+        this.maxAdjacencyBytes = maxAdjacencyBytes;
+    }
+
+    /**
+     * Returns the number of registered users.
+     *
+     * @return the user count
+     */
+    public int getUserCount() {
+        return userCount;
+    }
+
+    /**
+     * Returns the number of connections, each counted once.
+     *
+     * @return the connection count
+     */
+    public long getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     * Returns the size of the user records: every {@link Persona} with its strings and dates,
+     * and the list that indexes them by ordinal.
+     *
+     * @return the estimated bytes
+     */
+    public long getUserRecordBytes() {
+        return userRecordBytes;
+    }
+
+    /**
+     * Returns the size of the index from user ID to ordinal: the hash table, its nodes and the
+     * boxed ordinals. The ID strings are shared with the user records and counted there.
+     *
+     * @return the estimated bytes
+     */
+    public long getIdIndexBytes() {
+        return idIndexBytes;
+    }
+
+    /**
+     * Returns the size of the connection sets of all users and the list that holds them.
+     *
+     * @return the estimated bytes
+     */
+    public long getAdjacencyBytes() {
+        return adjacencyBytes;
+    }
+
+    /**
+     * Returns the size of the time-sorted connection lists that serve the as-of queries.
+     *
+     * @return the estimated bytes
+     */
+    public long getConnectionHistoryBytes() {
+        return connectionHistoryBytes;
+    }
+
+    /**
+     * Returns the size of the cached, sorted friend lists built by {@code getFriends}.
+     *
+     * @return the estimated bytes
+     */
+    public long getFriendCacheBytes() {
+        return friendCacheBytes;
+    }
+
+    /**
+     * Returns the size of the idle BFS working memory kept for reuse by path and level queries.
+     *
+     * @return the estimated bytes
+     */
+    public long getTraversalCacheBytes() {
+        return traversalCacheBytes;
+    }
+
+    /**
+     * Returns the size of the registration indexes: the registration date of each user, which
+     * serves the as-of queries, the users sorted by date, which only exists once a user has
+     * registered with an earlier date than the users before, and the mapping between ordinals
+     * and registration positions, which only exists once the users have been reordered for
+     * locality.
+     *
+     * @return the estimated bytes
+     */
+    public long getRegistrationIndexBytes() {
+        return registrationIndexBytes;
+    }
+
+    /**
+     * Returns the sum of all components.
+     *
+     * @return the estimated bytes
+     */
+    public long getTotalBytes() {
+        return userRecordBytes + idIndexBytes + adjacencyBytes + connectionHistoryBytes
+                + friendCacheBytes + traversalCacheBytes + registrationIndexBytes;
+    }
+
+    /**
+     * Returns the distribution of the per-user adjacency cost: element {@code i} is the number
+     * of users whose connection set costs between {@code 2^i} and {@code 2^(i+1) - 1} bytes.
+     *
+     * @return a copy of the 64 histogram buckets
+     */
+    public long[] getAdjacencyHistogram() {
+        return adjacencyHistogram.clone();
+    }
+
+    /**
+     * Returns an upper bound of the adjacency cost of the given share of users, taken from the
+     * histogram bucket it falls in.
+     *
+     * @param percentile the share of users, between 0 and 100
+     * @return the bytes that at least {@code percentile} percent of users do not exceed, or 0
+     *         if there are no users
+     * @throws IllegalArgumentException if the percentile is outside {@code [0, 100]}
+     */
+    public long getAdjacencyBytesAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long rank = (long) Math.ceil(percentile / 100 * userCount);
+        long seen = 0;
+        for (int bucket = 0; bucket < adjacencyHistogram.length; bucket++) {
+            seen += adjacencyHistogram[bucket];
+            if (seen > 0 && seen >= rank) {
+                return Math.min(maxAdjacencyBytes, (2L << bucket) - 1);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the adjacency cost of the user with the largest connection set.
+     *
+     * @return the estimated bytes, or 0 if there are no users
+     */
+    public long getMaxAdjacencyBytes() {
+        return maxAdjacencyBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryStats{users=" + userCount
+                + ", connections=" + connectionCount
+                + ", userRecords=" + userRecordBytes
+                + ", idIndex=" + idIndexBytes
+                + ", adjacency=" + adjacencyBytes
+                + ", connectionHistory=" + connectionHistoryBytes
+                + ", friendCache=" + friendCacheBytes
+                + ", traversalCache=" + traversalCacheBytes
+                + ", registrationIndex=" + registrationIndexBytes
+                + ", total=" + getTotalBytes()
+                + ", adjacencyP50=" + getAdjacencyBytesAtPercentile(50)
+                + ", adjacencyP99=" + getAdjacencyBytesAtPercentile(99)
+                + ", adjacencyMax=" + maxAdjacencyBytes
+                + ", adjacencyHistogram=" + Arrays.toString(adjacencyHistogram) + '}';
+    }
+
+    /**
+     * Running totals of the components, kept up to date by the mutations of a
+     * {@link SocialNetworkImpl} so that {@link SocialNetworkImpl#memoryStats()} costs O(1).
+     * <p>
+     * The network reports every user it registers, every connection it adds and every change
+     * in the capacity of a connection set or a time-sorted connection list. Those updates
+     * come from the single thread allowed to mutate the network, so the totals are plain
+     * volatile fields. Friend views are cached by readers, possibly concurrently, so their
+     * total is a {@link LongAdder}; a view is counted only by the reader whose compare-and-set
+     * installs it. Any thread may call {@link #snapshot} at any time: every figure is current, though
+     * a mutation running meanwhile may be reflected in some figures and not yet in others.
+     * </p>
+     */
+    static final class Accumulator {
+        private final AtomicLongArray adjacencyHistogram = new AtomicLongArray(Long.SIZE);
+        private final LongAdder friendCacheBytes = new LongAdder();
+        private volatile int userCount;
+        private volatile long connectionCount;
+        private volatile long userRecordBytes;
+        private volatile long adjacencyBytes;
+        private volatile long connectionHistoryBytes;
+        private volatile long registrationDateBytes;
+        private volatile long maxAdjacencyBytes;
+
+        /**
+         * Adds a newly registered user, with an empty connection set and connection list.
+         *
+         * @param user the user
+         */
+        void userAdded(Persona user) {
+            userRecordBytes += userRecordBytes(user);
+            long adjacency = adjacencyCost(0);
+            adjacencyBytes += adjacency;
+            adjacencyHistogram.incrementAndGet(bucket(adjacency));
+            maxAdjacencyBytes = Math.max(maxAdjacencyBytes, adjacency);
+            connectionHistoryBytes += timelineCost(0);
+            friendCacheBytes.add(REFERENCE_BYTES);
+            userCount++;
+        }
+
+        /**
+         * Counts a new connection between two users.
+         */
+        void connectionAdded() {
+            connectionCount++;
+        }
+
+        /**
+         * Moves the connection set of one user from one capacity to another. Connection sets
+         * never shrink, so the largest one is never replaced by a smaller one.
+         *
+         * @param oldCapacity the previous length of the array behind the set
+         * @param newCapacity the current length of the array behind the set
+         */
+        void adjacencyResized(int oldCapacity, int newCapacity) {
+            if (oldCapacity == newCapacity) {
+                return;
+            }
+            long before = adjacencyCost(oldCapacity);
+            long after = adjacencyCost(newCapacity);
+            adjacencyBytes += after - before;
+            adjacencyHistogram.decrementAndGet(bucket(before));
+            adjacencyHistogram.incrementAndGet(bucket(after));
+            maxAdjacencyBytes = Math.max(maxAdjacencyBytes, after);
+        }
+
+        /**
+         * Moves the time-sorted connection list of one user from one capacity to another.
+         *
+         * @param oldCapacity the previous length of the arrays behind the list
+         * @param newCapacity the current length of the arrays behind the list
+         */
+        void timelineResized(int oldCapacity, int newCapacity) {
+            if (oldCapacity != newCapacity) {
+                connectionHistoryBytes += timelineCost(newCapacity) - timelineCost(oldCapacity);
+            }
+        }
+
+        /**
+         * Moves the registration dates of the users from one capacity to another.
+         *
+         * @param oldCapacity the previous length of the array of dates
+         * @param newCapacity the current length of the array of dates
+         */
+        void registrationDatesResized(int oldCapacity, int newCapacity) {
+            if (oldCapacity != newCapacity) {
+                registrationDateBytes += arrayBytes(newCapacity, 8) - arrayBytes(oldCapacity, 8);
+            }
+        }
+
+        /**
+         * Adds a friend view that has just been cached.
+         *
+         * @param size the number of friends in the view
+         */
+        void friendViewCached(int size) {
+            friendCacheBytes.add(friendViewCost(size));
+        }
+
+        /**
+         * Removes a cached friend view that has just been invalidated.
+         *
+         * @param size the number of friends in the view
+         */
+        void friendViewDropped(int size) {
+            friendCacheBytes.add(-friendViewCost(size));
+        }
+
+        /**
+         * Returns the current totals.
+         *
+         * @param traversalCacheBytes the size of the idle traversal contexts
+         * @param reorderedUsers      the length of the registration order, or -1 if the users
+         *                            have never been reordered
+         * @param sortedRegistrations the length of the registration positions sorted by date,
+         *                            or -1 if no backdated registration required them
+         * @return the stats
+         */
+        MemoryStats snapshot(long traversalCacheBytes, int reorderedUsers, int sortedRegistrations) {
+            int users = userCount;
+            long listBytes = LIST_BYTES + ARRAY_HEADER_BYTES;
+            long registrationIndex = registrationDateBytes
+                    + (reorderedUsers < 0 ? 0 : 2 * arrayBytes(reorderedUsers, 4))
+                    + (sortedRegistrations < 0 ? 0 : REGISTRATION_INDEX_BYTES
+                            + arrayBytes(sortedRegistrations, 4) + arrayBytes(sortedRegistrations, 8));
+            long[] histogram = new long[adjacencyHistogram.length()];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = adjacencyHistogram.get(i);
+            }
+            return new MemoryStats(users, connectionCount,
+                    userRecordBytes + align(listBytes + (long) users * REFERENCE_BYTES),
+                    idIndexBytes(users), adjacencyBytes + listBytes,
+                    connectionHistoryBytes + listBytes, friendCacheBytes.sum() + listBytes,
+                    traversalCacheBytes, registrationIndex, histogram, maxAdjacencyBytes);
+        }
+
+        private static long adjacencyCost(int capacity) {
+            return REFERENCE_BYTES + INT_SET_BYTES + arrayBytes(capacity, 4);
+        }
+
+        private static long timelineCost(int capacity) {
+            return REFERENCE_BYTES + TIMELINE_BYTES + arrayBytes(capacity, 4) + arrayBytes(capacity, 8);
+        }
+
+        private static long friendViewCost(int size) {
+            return FRIEND_VIEW_BYTES + arrayBytes(size, REFERENCE_BYTES);
+        }
+
+        private static int bucket(long bytes) {
+            return 63 - Long.numberOfLeadingZeros(bytes);
+        }
+    }
+
+    /**
+     * Returns the size of one user record: the {@link Persona}, its three strings and two dates.
+     *
+     * @param user the user
+     * @return the estimated bytes
+     */
+    static long userRecordBytes(Persona user) {
+        return PERSONA_BYTES + stringBytes(user.getId()) + stringBytes(user.getName())
+                + stringBytes(user.getCity()) + 2 * DATE_BYTES;
+    }
+
+    /**
+     * Returns the size of the ID index of a network: a {@code HashMap} grown by doubling from
+     * 16 buckets at the default load factor, with one node and one boxed ordinal per user.
+     */
+    private static long idIndexBytes(int userCount) {
+        long buckets = 16;
+        while (userCount > buckets * 3 / 4) {
+            buckets <<= 1;
+        }
+        long boxed = Math.max(0, userCount - (INTEGER_CACHE_HIGH + 1));
+        return MAP_BYTES + align(ARRAY_HEADER_BYTES + buckets * REFERENCE_BYTES)
+                + userCount * MAP_NODE_BYTES + boxed * INTEGER_BYTES;
+    }
+
+    /**
+     * Returns the size of an array, or 0 for an empty one, since empty arrays are shared.
+     *
+     * @param length       the number of elements
+     * @param elementBytes the size of one element
+     * @return the estimated bytes
+     */
+    static long arrayBytes(int length, int elementBytes) {
+        return length == 0 ? 0 : align(ARRAY_HEADER_BYTES + (long) length * elementBytes);
+    }
+
+    private static long stringBytes(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length() && bytesPerChar == 1; i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+            }
+        }
+        return STRING_BYTES + align(ARRAY_HEADER_BYTES + (long) value.length() * bytesPerChar);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.service;
+
+import com.example.domain.Persona;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The users reachable from a source user within a bounded number of hops.
+ * <p>
+ * A neighborhood is produced by a single Breadth-First Search and keeps its members
+ * in BFS order, grouped by level: level 0 holds only the source, level 1 its direct
+ * friends, level 2 the friends of friends that are not direct friends, and so on.
+ * The members are stored in one flat array together with the offset at which each
+ * level starts, so no per-level collections are allocated.
+ * </p>
+ *
+ * @see SocialNetwork#getNeighborhood(String, int)
+ */
+public final class Neighborhood {
+
+    private final int maxDepth;
+    private final Persona[] members;
+    private final int[] levelStarts;
+
+    /**
+     * Creates a neighborhood from the result of a BFS.
+     *
+     * @param maxDepth    the depth cap the traversal ran with
+     * @param members     the reached users in BFS order, starting with the source
+     * @param levelStarts the index in {@code members} at which each level starts, followed
+     *                    by the total number of members
+     */
+    Neighborhood(int maxDepth, Persona[] members, int[] levelStarts) {
+        this.maxDepth = maxDepth;
+        this.members = members;
+        this.levelStarts = levelStarts;
+    }
+
+    /**
+     * Returns the user the traversal started from.
+     *
+     * @return the source user
+     */
+    public Persona getSource() {
+        return members[0];
+    }
+
+    /**
+     * Returns the depth cap the neighborhood was computed with.
+     *
+     * @return the maximum number of hops
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns the deepest level that contains at least one user.
+     *
+     * @return the depth of the farthest reached user, 0 if the source has no friends
+     */
+    public int getDepth() {
+        return levelStarts.length - 2;
+    }
+
+    /**
+     * Returns the users found exactly {@code depth} hops away from the source.
+     *
+     * @param depth the level to return
+     * @return an unmodifiable list of the users at that level, empty if none were reached
+     */
+    public List<Persona> getLevel(int depth) {
+        if (depth < 0 || depth > getDepth()) {
+            return List.of();
+        }
+        return List.of(members).subList(levelStarts[depth], levelStarts[depth + 1]);
+    }
+
+    /**
+     * Returns the number of users found exactly {@code depth} hops away from the source.
+     *
+     * @param depth the level to count
+     * @return the number of users at that level
+     */
+    public int getCountAtLevel(int depth) {
+        if (depth < 0 || depth > getDepth()) {
+            return 0;
+        }
+        return levelStarts[depth + 1] - levelStarts[depth];
+    }
+
+    /**
+     * Returns the number of users at every level, indexed by depth.
+     * <p>
+     * Entry 0 is always 1 (the source itself).
+     * </p>
+     *
+     * @return a new array with one count per reached level
+     */
+    public int[] getCountsPerLevel() {
+        int[] counts = new int[levelStarts.length - 1];
+        for (int depth = 0; depth < counts.length; depth++) {
+            counts[depth] = levelStarts[depth + 1] - levelStarts[depth];
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the number of users within reach, excluding the source.
+     *
+     * @return the size of the neighborhood
+     */
+    public int size() {
+        return members.length - 1;
+    }
+
+    /**
+     * Streams the users within reach in BFS order, nearest levels first.
+     * <p>
+     * The source itself is not part of the stream.
+     * </p>
+     *
+     * @return a stream over the neighborhood members
+     */
+    public Stream<Persona> stream() {
+        return Arrays.stream(members, 1, members.length);
+    }
+}
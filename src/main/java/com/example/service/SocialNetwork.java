@@ -5,9 +5,21 @@ import com.example.exceptions.ConnectionAlreadyExistsException;
 import com.example.exceptions.NoPathException;
 import com.example.exceptions.UserAlreadyExistsException;
 import com.example.exceptions.UserNotFoundException;
+import com.example.graph.GraphSnapshot;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * This interface defines the core operations of a simple social network.
@@ -35,6 +47,12 @@ import java.util.Set;
  */
 public interface SocialNetwork {
 
+    /**
+     * Distance reported by {@link #getDistancesFrom(String, int)} for users that cannot be
+     * reached from the source within the requested number of hops.
+     */
+    int UNREACHABLE = -1;
+
     /**
      * Registers a new user in the social network.
      * <p>
@@ -67,21 +85,78 @@ public interface SocialNetwork {
     /**
      * Retrieves the set of users directly connected to the user with the given ID.
      * <p>
-     * Time Complexity: O(1) - Accessing the connections of a user from a HashMap
-     * is a constant time operation.
+     * Time Complexity: O(1) when the sorted view of the user is cached, otherwise
+     * O(d log d) to sort the d friends of the user into a new view.
      * </p>
      * <p>
-     * Implementation Note: The returned set should be a TreeSet which orders connections
-     * by name and then by ID. This ensures a consistent presentation of connections
-     * and demonstrates proper use of Comparator-based ordering in sorted collections.
+     * Implementation Note: The returned set is immutable and iterates the connections by
+     * name and then by ID. {@link SocialNetworkImpl} returns a snapshot, cached until the
+     * user's next connection, which does not reflect connections created after it was built.
      * </p>
      *
      * @param id the ID of the user
-     * @return a set of users directly connected to the user
+     * @return an immutable set of the users directly connected to the user
      * @throws UserNotFoundException if the user does not exist
      */
     Set<Persona> getFriends(String id);
 
+    /**
+     * Retrieves the users who are friends with both given users.
+     * <p>
+     * The result is ordered like {@link #getFriends(String)}: by name and then by ID.
+     * </p>
+     * <p>
+     * Time Complexity: O(d1 + d2) for users with d1 and d2 friends, using
+     * {@link Set#retainAll(java.util.Collection)} on a copy of the first user's friends.
+     * </p>
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return an unmodifiable set of the mutual friends
+     * @throws UserNotFoundException if either user does not exist
+     */
+    default Set<Persona> getMutualFriends(String id1, String id2) {
+        Set<Persona> mutual = new LinkedHashSet<>(getFriends(id1));
+        mutual.retainAll(getFriends(id2));
+        return Collections.unmodifiableSet(mutual);
+    }
+
+    /**
+     * Counts the users who are friends with both given users.
+     * <p>
+     * Time Complexity: O(d1 + d2), as for {@link #getMutualFriends(String, String)}.
+     * </p>
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return the number of mutual friends
+     * @throws UserNotFoundException if either user does not exist
+     */
+    default int countMutualFriends(String id1, String id2) {
+        return getMutualFriends(id1, id2).size();
+    }
+
+    /**
+     * Counts the mutual friends of one user with each of many others, such as the profiles
+     * shown on one page.
+     * <p>
+     * Time Complexity: O(k * (d + d')) for k other users with up to d' friends each, when
+     * computed pair by pair.
+     * </p>
+     *
+     * @param id     the ID of the user
+     * @param others the IDs of the other users
+     * @return the number of mutual friends with each other user, in the order of {@code others}
+     * @throws UserNotFoundException if any user does not exist
+     */
+    default int[] countMutualFriends(String id, List<String> others) {
+        int[] counts = new int[others.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = countMutualFriends(id, others.get(i));
+        }
+        return counts;
+    }
+
     /**
      * Finds the shortest path (list of users) between two users.
      * <p>
@@ -120,6 +195,81 @@ public interface SocialNetwork {
      */
     int getConnectionLevelBetween(String id1, String id2);
 
+    /**
+     * Finds the shortest path between two users, reporting every outcome as a value.
+     * <p>
+     * This is the exception-free counterpart of {@link #getConnectionPathBetween(String, String)}
+     * for callers that probe many pairs, where missing users and unconnected pairs are normal.
+     * </p>
+     * <p>
+     * Time Complexity: O(V + E), as for {@link #getConnectionPathBetween(String, String)}.
+     * </p>
+     *
+     * @implSpec
+     * The default implementation calls {@link #getConnectionPathBetween(String, String)} and
+     * converts its exceptions, so it still pays for them; implementations should override it.
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return the path from id1 to id2 (inclusive), or the reason there is none
+     */
+    default ConnectionResult<List<Persona>> findConnectionPath(String id1, String id2) {
+        try {
+            return new ConnectionResult.Found<>(getConnectionPathBetween(id1, id2));
+        } catch (UserNotFoundException e) {
+            return new ConnectionResult.UnknownUser<>(missingUserOf(id1, id2));
+        } catch (NoPathException e) {
+            return new ConnectionResult.NoPath<>();
+        } catch (TraversalBudgetExceededException e) {
+            return new ConnectionResult.BudgetExceeded<>(e.getLimit(), e.getVisited());
+        }
+    }
+
+    /**
+     * Calculates the degree of connection between two users, reporting every outcome as a value.
+     * <p>
+     * This is the exception-free counterpart of {@link #getConnectionLevelBetween(String, String)}.
+     * </p>
+     * <p>
+     * Time Complexity: O(V + E), as for {@link #getConnectionLevelBetween(String, String)}.
+     * </p>
+     *
+     * @implSpec
+     * The default implementation calls {@link #getConnectionLevelBetween(String, String)} and
+     * converts its exceptions, so it still pays for them; implementations should override it.
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return the degree of connection between the users, or the reason there is none
+     */
+    default ConnectionResult<Integer> findConnectionLevel(String id1, String id2) {
+        try {
+            return new ConnectionResult.Found<>(getConnectionLevelBetween(id1, id2));
+        } catch (UserNotFoundException e) {
+            return new ConnectionResult.UnknownUser<>(missingUserOf(id1, id2));
+        } catch (NoPathException e) {
+            return new ConnectionResult.NoPath<>();
+        } catch (TraversalBudgetExceededException e) {
+            return new ConnectionResult.BudgetExceeded<>(e.getLimit(), e.getVisited());
+        }
+    }
+
+    /**
+     * Tells which of two users is missing, after a query reported that one of them is.
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return id1 if it does not exist, id2 otherwise
+     */
+    private String missingUserOf(String id1, String id2) {
+        try {
+            getFriends(id1);
+            return id2;
+        } catch (UserNotFoundException e) {
+            return id1;
+        }
+    }
+
     /**
      * Retrieves all users in the order they registered.
      *
@@ -137,4 +287,236 @@ public interface SocialNetwork {
      * @return a set of users ordered by their registration date (insertion order)
      */
     Set<Persona> getUsersOrderedByRegistration();
-}
\ No newline at end of file
+
+    /**
+     * Computes the number of hops from one user to every registered user in a single traversal.
+     * <p>
+     * The returned array is indexed by registration order: position {@code i} holds the
+     * distance to the {@code i}-th user returned by {@link #getUsersOrderedByRegistration()}.
+     * The source has distance 0, and users that cannot be reached within {@code maxDepth}
+     * hops hold {@link #UNREACHABLE}.
+     * </p>
+     * <p>
+     * Time Complexity: O(V + E) for one BFS, instead of the O(V * (V + E)) it takes to call
+     * {@link #getConnectionLevelBetween(String, String)} once per target. The depth cap stops
+     * the traversal as soon as the last allowed level has been reached.
+     * </p>
+     *
+     * @param id       the ID of the source user
+     * @param maxDepth the maximum number of hops to follow; use {@link Integer#MAX_VALUE}
+     *                 for no limit
+     * @return an array with one distance per registered user, in registration order
+     * @throws UserNotFoundException if the user does not exist
+     * @throws IllegalArgumentException if {@code maxDepth} is negative
+     */
+    default int[] getDistancesFrom(String id, int maxDepth) {
+        Neighborhood neighborhood = getNeighborhood(id, maxDepth);
+
+        Map<Persona, Integer> distances = new HashMap<>();
+        for (int depth = 0; depth <= neighborhood.getDepth(); depth++) {
+            for (Persona user : neighborhood.getLevel(depth)) {
+                distances.put(user, depth);
+            }
+        }
+
+        Set<Persona> users = getUsersOrderedByRegistration();
+        int[] result = new int[users.size()];
+        int index = 0;
+        for (Persona user : users) {
+            result[index++] = distances.getOrDefault(user, UNREACHABLE);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves every user within {@code maxDepth} hops of the given user, grouped by level.
+     * <p>
+     * This answers questions such as "everyone within 2 hops of this user" with a single
+     * Breadth-First Search. The result also reports how many users were found at each level.
+     * </p>
+     * <p>
+     * Time Complexity: O(V + E) in the worst case, but only the part of the graph within
+     * {@code maxDepth} hops of the source is visited.
+     * </p>
+     *
+     * @param id       the ID of the source user
+     * @param maxDepth the maximum number of hops to follow; use {@link Integer#MAX_VALUE}
+     *                 for no limit
+     * @return the neighborhood of the user
+     * @throws UserNotFoundException if the user does not exist
+     * @throws IllegalArgumentException if {@code maxDepth} is negative
+     */
+    default Neighborhood getNeighborhood(String id, int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Maximum depth cannot be negative: " + maxDepth);
+        }
+
+        List<Persona> members = new ArrayList<>();
+        List<Integer> levelStarts = new ArrayList<>();
+        Set<Persona> visited = new HashSet<>();
+        Queue<Persona> level = new ArrayDeque<>();
+
+        Persona source = null;
+        for (Persona user : getUsersOrderedByRegistration()) {
+            if (user.getId().equals(id)) {
+                source = user;
+                break;
+            }
+        }
+        if (source == null) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+
+        level.add(source);
+        visited.add(source);
+        for (int depth = 0; !level.isEmpty(); depth++) {
+            levelStarts.add(members.size());
+            members.addAll(level);
+            if (depth == maxDepth) {
+                break;
+            }
+
+            Queue<Persona> next = new ArrayDeque<>();
+            for (Persona current : level) {
+                for (Persona neighbor : getFriends(current.getId())) {
+                    if (visited.add(neighbor)) {
+                        next.add(neighbor);
+                    }
+                }
+            }
+            level = next;
+        }
+        levelStarts.add(members.size());
+
+        return new Neighborhood(maxDepth,
+                members.toArray(new Persona[0]),
+                levelStarts.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Finds how a user reaches each of a set of candidate users, with a single traversal.
+     * <p>
+     * This answers "connected via X" for a page of search results without one path query per
+     * result. A Breadth-First Search from the source stops as soon as every candidate has been
+     * found or the depth cap has been reached. Each candidate is passed to {@code consumer} the
+     * moment the search reaches it, so results arrive nearest first, ties in discovery order,
+     * and a caller can render the closest ones before the search is over. Candidates that are
+     * not registered, or not within {@code maxDepth} hops, are not reported; duplicate IDs are
+     * reported once, and the source itself at level 0. The consumer runs inside the search, so
+     * it must not modify the network.
+     * </p>
+     * <p>
+     * Time Complexity: O(V + E) in the worst case, but only the part of the graph within the
+     * distance of the farthest candidate, capped at {@code maxDepth} hops, is visited.
+     * </p>
+     *
+     * @param id        the ID of the source user
+     * @param targetIds the IDs of the candidate users
+     * @param maxDepth  the maximum number of hops to follow; use {@link Integer#MAX_VALUE}
+     *                  for no limit
+     * @param consumer  receives one result per candidate reached, in order of distance
+     * @throws UserNotFoundException if the source user does not exist
+     * @throws IllegalArgumentException if {@code maxDepth} is negative
+     */
+    default void findClosestConnections(String id, Collection<String> targetIds, int maxDepth,
+                                        Consumer<? super ClosestConnection> consumer) {
+        Objects.requireNonNull(targetIds, "Target IDs cannot be null");
+        Objects.requireNonNull(consumer, "Consumer cannot be null");
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Maximum depth cannot be negative: " + maxDepth);
+        }
+
+        Persona source = null;
+        for (Persona user : getUsersOrderedByRegistration()) {
+            if (user.getId().equals(id)) {
+                source = user;
+                break;
+            }
+        }
+        if (source == null) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+
+        Set<String> pending = new HashSet<>(targetIds);
+        Map<Persona, Persona> parents = new HashMap<>();
+        parents.put(source, source);
+        if (pending.remove(source.getId())) {
+            consumer.accept(new ClosestConnection(source, 0, List.of(source)));
+        }
+        Queue<Persona> level = new ArrayDeque<>(List.of(source));
+        for (int depth = 1; depth <= maxDepth && !pending.isEmpty() && !level.isEmpty(); depth++) {
+            Queue<Persona> next = new ArrayDeque<>();
+            for (Persona current : level) {
+                for (Persona neighbor : getFriends(current.getId())) {
+                    if (parents.putIfAbsent(neighbor, current) == null) {
+                        next.add(neighbor);
+                        if (pending.remove(neighbor.getId())) {
+                            List<Persona> path = new ArrayList<>();
+                            for (Persona step = neighbor; step != source; step = parents.get(step)) {
+                                path.add(step);
+                            }
+                            path.add(source);
+                            Collections.reverse(path);
+                            consumer.accept(new ClosestConnection(neighbor, depth, path));
+                            if (pending.isEmpty()) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+            level = next;
+        }
+    }
+
+    /**
+     * Finds how a user reaches each of a set of candidate users, as a list ordered by distance.
+     * <p>
+     * This collects the results of
+     * {@link #findClosestConnections(String, Collection, int, Consumer)}, for callers that need
+     * all of them at once.
+     * </p>
+     *
+     * @param id        the ID of the source user
+     * @param targetIds the IDs of the candidate users
+     * @param maxDepth  the maximum number of hops to follow; use {@link Integer#MAX_VALUE}
+     *                  for no limit
+     * @return one result per candidate reached, nearest first
+     * @throws UserNotFoundException if the source user does not exist
+     * @throws IllegalArgumentException if {@code maxDepth} is negative
+     */
+    default List<ClosestConnection> getClosestConnections(String id, Collection<String> targetIds, int maxDepth) {
+        List<ClosestConnection> results = new ArrayList<>();
+        findClosestConnections(id, targetIds, maxDepth, results::add);
+        return results;
+    }
+
+    /**
+     * Copies the current friendship graph into an immutable, array-based snapshot.
+     * <p>
+     * Users are numbered by registration order, so ordinal {@code i} in the snapshot is the
+     * {@code i}-th user returned by {@link #getUsersOrderedByRegistration()}. Later changes to
+     * the network are not reflected in the snapshot, which makes it a safe input for
+     * long-running or parallel analytics.
+     * </p>
+     * <p>
+     * Time Complexity: O(V + E log E) - every friendship is copied once per endpoint and each
+     * row is sorted by ordinal.
+     * </p>
+     *
+     * @return a snapshot of the graph
+     */
+    default GraphSnapshot snapshot() {
+        List<Persona> users = new ArrayList<>(getUsersOrderedByRegistration());
+        Map<Persona, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            ordinals.put(users.get(i), i);
+        }
+
+        List<int[]> neighbors = new ArrayList<>(users.size());
+        for (Persona user : users) {
+            neighbors.add(getFriends(user.getId()).stream().mapToInt(ordinals::get).toArray());
+        }
+        return GraphSnapshot.fromAdjacency(users, neighbors);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events emitted by {@link SocialNetworkImpl}.
+ * <p>
+ * The events put domain operations in the same recording as GC pauses, lock contention and
+ * I/O, so a slow path query can be matched with whatever the JVM was doing at the time. Each
+ * event type has a default duration threshold and only operations that take at least that
+ * long are recorded. Thresholds are configured like those of built-in events, by event name:
+ * </p>
+ * <pre>
+ * java -XX:StartFlightRecording:com.example.PathSearch#threshold=50ms,filename=rec.jfr ...
+ * recording.enable("com.example.PathSearch").withThreshold(Duration.ofMillis(50));
+ * </pre>
+ * <p>
+ * When no recording is running, JFR leaves the event classes uninstrumented: {@code begin()},
+ * {@code end()} and {@code shouldCommit()} do nothing, the JIT removes the event allocation,
+ * and the fields are only filled in once an event is actually going to be committed.
+ * </p>
+ */
+final class SocialNetworkEvents {
+
+    /**
+     * Name of the {@link PathSearch} event.
+     */
+    static final String PATH_SEARCH = "com.example.PathSearch";
+
+    /**
+     * Name of the {@link Connect} event.
+     */
+    static final String CONNECT = "com.example.Connect";
+
+    /**
+     * Name of the {@link RegisterUser} event.
+     */
+    static final String REGISTER_USER = "com.example.RegisterUser";
+
+    private SocialNetworkEvents() {
+    }
+
+    /**
+     * A BFS run by a path or level query.
+     */
+    @Name(PATH_SEARCH)
+    @Label("Path Search")
+    @Category({"Social Network", "Queries"})
+    @Description("Breadth-first search between two users for a path or level query")
+    @Threshold("10 ms")
+    static final class PathSearch extends Event {
+
+        @Label("Source ID")
+        String sourceId;
+
+        @Label("Target ID")
+        String targetId;
+
+        @Label("Visited Users")
+        @Description("Users reached by the search, including the source")
+        int visited;
+
+        @Label("Path Length")
+        @Description("Number of connections on the shortest path, or -1 if none was found")
+        int pathLength;
+
+        @Label("Outcome")
+        @Description("FOUND, NO_PATH or BUDGET_EXCEEDED")
+        String outcome;
+
+        @Label("Budget Limit")
+        @Description("The traversal budget limit that stopped the search, if any")
+        String budgetLimit;
+    }
+
+    /**
+     * A successful connection between two users.
+     */
+    @Name(CONNECT)
+    @Label("Connect")
+    @Category({"Social Network", "Mutations"})
+    @Description("New connection between two users")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class Connect extends Event {
+
+        @Label("First User ID")
+        String userId1;
+
+        @Label("Second User ID")
+        String userId2;
+
+        @Label("First User Degree")
+        @Description("Number of friends of the first user after the connection")
+        int degree1;
+
+        @Label("Second User Degree")
+        @Description("Number of friends of the second user after the connection")
+        int degree2;
+    }
+
+    /**
+     * A successful user registration.
+     */
+    @Name(REGISTER_USER)
+    @Label("Register User")
+    @Category({"Social Network", "Mutations"})
+    @Description("Registration of a new user")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class RegisterUser extends Event {
+
+        @Label("User ID")
+        String userId;
+
+        @Label("User Count")
+        @Description("Number of registered users after the registration")
+        int userCount;
+    }
+}
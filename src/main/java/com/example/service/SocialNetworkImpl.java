@@ -1,12 +1,24 @@
 package com.example.service;
 
 import com.example.domain.Persona;
+import com.example.events.ChangeEventRingBuffer;
 import com.example.exceptions.ConnectionAlreadyExistsException;
 import com.example.exceptions.NoPathException;
 import com.example.exceptions.UserAlreadyExistsException;
 import com.example.exceptions.UserNotFoundException;
+import com.example.graph.AdaptiveIntSet;
+import com.example.graph.GraphReordering;
+import com.example.graph.GraphSnapshot;
+import com.example.graph.TimestampedIntList;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
  * Implementation of the SocialNetwork interface.
@@ -15,99 +27,589 @@ import java.util.*;
  * <ul>
  *   <li>Users are represented as vertices</li>
  *   <li>Connections between users are represented as edges</li>
- *   <li>A LinkedHashMap is used to maintain insertion order of users</li>
- *   <li>TreeSet is used to store connections sorted by name and then by ID</li>
+ *   <li>Every user gets a dense ordinal, and ArrayLists indexed by ordinal hold the users and
+ *       their connections. Ordinals follow registration order until
+ *       {@link #reorderForLocality(GraphReordering.Strategy)} renumbers the users so that
+ *       friends get nearby ordinals</li>
+ *   <li>Connections are stored as sets of ordinals that adapt to the degree of the user: a
+ *       small sorted {@code int} array for ordinary users, promoted to a primitive hash set
+ *       for hubs (see {@link AdaptiveIntSet})</li>
+ *   <li>The name-then-ID order of {@link #getFriends(String)} is produced when friends are read,
+ *       instead of being maintained by a TreeSet on every connection</li>
+ *   <li>Every connection records its creation time, and the connections of each user are also
+ *       kept sorted by that time, so the network can be queried as of a past date</li>
  * </ul>
  * </p>
+ * <p>
+ * Registrations, connections and path searches are reported to Java Flight Recorder as the
+ * custom events described in {@link SocialNetworkEvents}, with per-event duration thresholds.
+ * </p>
  *
  * @see SocialNetwork
  */
 public class SocialNetworkImpl implements SocialNetwork {
 
     /**
-     * Map of users to their connections.
+     * Index from user ID to ordinal.
+     * <p>
+     * The ordinal gives every user a dense integer identifier, so traversals can track their
+     * state in primitive arrays instead of hash-based collections keyed by {@link Persona}.
+     * It is the position of the user in registration order, unless the users have been
+     * reordered for locality.
+     * </p>
+     */
+    private final Map<String, Integer> ordinals;
+
+    /**
+     * Users indexed by their ordinal.
+     * <p>
+     * ArrayList preserves insertion order, which helps in implementing
+     * the {@link #getUsersOrderedByRegistration()} method. After a reordering, the users
+     * registered before it are found through {@link #registrationOrder}.
+     * </p>
+     */
+    private final List<Persona> users;
+
+    /**
+     * Ordinal of each user registered before the last reordering, indexed by registration
+     * position, or null if the users have never been reordered.
+     * <p>
+     * A reordering only permutes the users that exist when it runs. Users registered later
+     * are appended, so their ordinal is their registration position and they need no entry.
+     * </p>
+     */
+    private int[] registrationOrder;
+
+    /**
+     * Inverse of {@link #registrationOrder}: the registration position of each ordinal below
+     * its length, or null if the users have never been reordered.
+     */
+    private int[] registrationPositions;
+
+    /**
+     * Registration date of each user as an epoch day, indexed by registration position.
+     * <p>
+     * The array is append-only, so a registration costs O(1) amortized whatever its date.
+     * Users normally register in date order, and then the users registered up to a day are a
+     * prefix of the registration order, found by a binary search in
+     * {@link #getUsersOrderedByRegistration(LocalDate)}.
+     * </p>
+     */
+    private long[] registrationDays = NO_DAYS;
+
+    /**
+     * Length of the prefix of {@link #registrationDays} that is in ascending date order. It
+     * equals the number of users until a user registers with an earlier date than the
+     * previous one.
+     */
+    private int registrationDaysSorted;
+
+    /**
+     * Registration positions sorted by date, built by the first as-of listing after a backdated
+     * registration and rebuilt once more users have registered, or null if never needed.
+     */
+    private volatile RegistrationIndex registrationIndex;
+
+    /**
+     * Connections of each user as the ordinals of its friends, indexed by ordinal.
+     * <p>
+     * Compared with a {@code TreeSet<Persona>} per user, which costs a tree node of several
+     * dozen bytes per friend and a {@code String} comparison per tree level on every insert,
+     * an {@link AdaptiveIntSet} costs four to about eight bytes per friend and inserts with a
+     * primitive binary search or hash probe.
+     * </p>
+     */
+    private final List<AdaptiveIntSet> adjacency;
+
+    /**
+     * Connections of each user in creation order, as friend ordinals with the creation time in
+     * epoch milliseconds, indexed by ordinal.
+     * <p>
+     * The connections that existed at a point in time are a prefix of each list, so the
+     * as-of queries such as {@link #getFriends(String, LocalDate)} find them with a binary
+     * search instead of replaying the history. This costs twelve more bytes per friend on top
+     * of {@link #adjacency}, which stays the structure for duplicate checks and current-state
+     * traversals.
+     * </p>
+     */
+    private final List<TimestampedIntList> timelines;
+
+    /**
+     * Source of connection times, whose zone also defines the days of the as-of queries.
+     */
+    private final Clock clock;
+
+    /**
+     * Cached result of {@link #getFriends(String)} for each user, indexed by ordinal, or null
+     * when it has to be rebuilt.
      * <p>
-     * LinkedHashMap preserves insertion order, which helps in implementing
-     * the {@link #getUsersOrderedByRegistration()} method.
+     * Connection sets are stored in ordinal order, which is cheap to maintain, while callers
+     * want friends in name-then-ID order. Instead of paying for that order on every
+     * {@link #connect(String, String)}, the sorted view is built on the first read and kept
+     * until the next connection of the user invalidates it. Write-heavy users never pay for
+     * sorting, and repeated reads of a stable friend list cost a single lookup.
      * </p>
+     * <p>
+     * Concurrent readers may race to fill the same entry. Each of them builds an equal,
+     * immutable view, but only the first to install its view with a compare-and-set keeps it
+     * and counts it in {@link #memoryStats()}; the others return the installed view, so the
+     * cache holds exactly one view per user. The array only grows in
+     * {@link #registerUser(Persona)}, which never runs concurrently with a read.
+     * </p>
+     */
+    private AtomicReferenceArray<FriendSet> friendViews;
+
+    /**
+     * Reusable BFS working memory, so that traversals do not allocate per query.
+     */
+    private final TraversalContext.Pool traversalContexts = new TraversalContext.Pool();
+
+    /**
+     * Budget applied to path and level queries that do not pass one explicitly.
+     */
+    private volatile TraversalBudget defaultTraversalBudget = TraversalBudget.UNLIMITED;
+
+    /**
+     * Number of queries stopped by each {@link TraversalBudget.Limit}, indexed by ordinal.
+     * LongAdder keeps the counters cheap to update from many concurrent queries.
+     */
+    private final LongAdder[] budgetHits = new LongAdder[TraversalBudget.Limit.values().length];
+
+    /**
+     * Feed that receives an event for every successful mutation, or null if none.
+     */
+    private final ChangeEventRingBuffer changeFeed;
+
+    /**
+     * Running totals behind {@link #memoryStats()}, updated by every mutation and friend view.
      */
-    private final LinkedHashMap<Persona, Set<Persona>> connections;
+    private final MemoryStats.Accumulator memory = new MemoryStats.Accumulator();
 
     /**
      * Constructs a new empty social network.
      */
     public SocialNetworkImpl() {
-        this.connections = new LinkedHashMap<>();
+        this(null);
+    }
+
+    /**
+     * Constructs a new empty social network that publishes its mutations to a change feed.
+     * <p>
+     * An event is published after each successful {@link #registerUser(Persona)} and
+     * {@link #connect(String, String)}. The ring buffer has a single producer, so mutations
+     * must not run concurrently - which the network requires anyway.
+     * </p>
+     *
+     * @param changeFeed the ring buffer to publish to, or null to publish nothing
+     */
+    public SocialNetworkImpl(ChangeEventRingBuffer changeFeed) {
+        this(changeFeed, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new empty social network with a clock for connection times.
+     * <p>
+     * {@link #connect(String, String)} stamps each connection with {@link Clock#instant()},
+     * and the as-of queries interpret dates in the zone of the clock.
+     * </p>
+     *
+     * @param changeFeed the ring buffer to publish to, or null to publish nothing
+     * @param clock      the source of connection times
+     */
+    public SocialNetworkImpl(ChangeEventRingBuffer changeFeed, Clock clock) {
+        this.ordinals = new HashMap<>();
+        this.users = new ArrayList<>();
+        this.adjacency = new ArrayList<>();
+        this.timelines = new ArrayList<>();
+        this.friendViews = new AtomicReferenceArray<>(INITIAL_USER_CAPACITY);
+        this.changeFeed = changeFeed;
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        for (int i = 0; i < budgetHits.length; i++) {
+            budgetHits[i] = new LongAdder();
+        }
     }
 
     /**
      * Comparator for ordering users by name and then by ID.
      * <p>
-     * This provides a total ordering of users for the TreeSet.
+     * This provides a total ordering of users for the sorted friend views.
      * </p>
      */
     private static final Comparator<Persona> PERSONA_COMPARATOR = Comparator
             .comparing(Persona::getName)
             .thenComparing(Persona::getId);
 
+    /**
+     * Initial number of entries of the friend view cache, which doubles as users register.
+     */
+    private static final int INITIAL_USER_CAPACITY = 16;
+
+    /**
+     * Number of visited users between two checks of the interrupt status and of the deadline
+     * during a traversal. Must be a power of two.
+     */
+    private static final int INTERRUPT_CHECK_INTERVAL = 1024;
+
+    /**
+     * Smallest batch for which {@link #countMutualFriends(String, List)} builds a bitmap.
+     */
+    private static final int BITMAP_MIN_BATCH = 4;
+
+    /**
+     * Largest bitmap, in 64-bit words per friend, that {@link #countMutualFriends(String, List)}
+     * builds; sparser friend sets are intersected pair by pair.
+     */
+    private static final int BITMAP_WORDS_PER_FRIEND = 4;
+
+    /**
+     * Number of connection levels, starting at 0, whose found results are shared instances.
+     */
+    private static final int CACHED_LEVEL_RESULTS = 64;
+
+    private static final ConnectionResult.Found<?>[] LEVEL_RESULTS =
+            new ConnectionResult.Found<?>[CACHED_LEVEL_RESULTS];
+
+    private static final ConnectionResult.NoPath<?> NO_PATH = new ConnectionResult.NoPath<>();
+
+    private static final long[] NO_DAYS = new long[0];
+
+    /**
+     * Cutoff of a search over the current connections rather than a past state.
+     */
+    private static final long NOW = Long.MAX_VALUE;
+
+    static {
+        for (int level = 0; level < CACHED_LEVEL_RESULTS; level++) {
+            LEVEL_RESULTS[level] = new ConnectionResult.Found<>(level);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * 
      * @implNote 
-     * The implementation uses a LinkedHashMap to store users and their connections.
-     * The put operation in a HashMap has O(1) average time complexity.
+     * The implementation assigns the next ordinal to the user and appends it to the
+     * ordinal-indexed lists and its registration date to the date index, even if the date is
+     * earlier than the last one. The put operation in a HashMap has O(1) average time
+     * complexity, and the new connection set allocates nothing until the first friend is added.
      */
     @Override
     public void registerUser(Persona user) {
         Objects.requireNonNull(user, "User cannot be null");
+        SocialNetworkEvents.RegisterUser event = new SocialNetworkEvents.RegisterUser();
+        event.begin();
         
-        if (connections.containsKey(user)) {
+        if (ordinals.containsKey(user.getId())) {
             throw new UserAlreadyExistsException("User with ID " + user.getId() + " already exists");
         }
         
-        connections.put(user, new TreeSet<>(PERSONA_COMPARATOR));
+        addRegistrationDay(users.size(), user.getRegistrationDate().toEpochDay());
+        ordinals.put(user.getId(), users.size());
+        users.add(user);
+        adjacency.add(new AdaptiveIntSet());
+        timelines.add(new TimestampedIntList());
+        if (users.size() > friendViews.length()) {
+            growFriendViews(friendViews.length() * 2);
+        }
+        memory.userAdded(user);
+        if (changeFeed != null) {
+            changeFeed.publishUserRegistered(user);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.userId = user.getId();
+            event.userCount = users.size();
+            event.commit();
+        }
     }
 
     /**
      * {@inheritDoc}
      * 
      * @implNote 
-     * The implementation creates a bidirectional connection by adding each user
-     * to the other's connection set. Time complexity is dominated by the TreeSet
-     * operations which are O(log n).
+     * The implementation creates a bidirectional connection by adding the ordinal of each
+     * user to the other's connection set. The first insert also detects an existing
+     * connection, so no separate lookup is needed. Time complexity is O(log d) for users
+     * stored as sorted arrays and O(1) expected for promoted hubs, with primitive comparisons
+     * only. The connection is stamped with the time of the network's clock.
      */
     @Override
     public void connect(String id1, String id2) {
+        connect(id1, id2, clock.instant());
+    }
+
+    /**
+     * Creates a connection between two users with an explicit creation time.
+     * <p>
+     * This is meant for imports and backfills of historical connections. A creation time
+     * earlier than that of existing connections is inserted at its place in the time order
+     * of both users. A creation time before the later registration date of the two users is
+     * moved to the start of that day in the zone of the clock, so the as-of queries never
+     * return a friend that was not registered yet.
+     * </p>
+     * <p>
+     * Time Complexity: as {@link #connect(String, String)}, plus O(1) amortized to append to
+     * the time-sorted connections, or O(d) to insert an out-of-order time.
+     * </p>
+     *
+     * @param id1       the ID of the first user
+     * @param id2       the ID of the second user
+     * @param createdAt the creation time of the connection
+     * @throws UserNotFoundException if either user does not exist
+     * @throws ConnectionAlreadyExistsException if the users are already connected
+     * @throws IllegalArgumentException if both IDs are the same
+     * @throws NullPointerException if the creation time is null
+     */
+    public void connect(String id1, String id2, Instant createdAt) {
+        Objects.requireNonNull(createdAt, "Creation time cannot be null");
         if (id1.equals(id2)) {
             throw new IllegalArgumentException("Cannot connect a user to themselves");
         }
+        SocialNetworkEvents.Connect event = new SocialNetworkEvents.Connect();
+        event.begin();
         
-        Persona user1 = findUserById(id1);
-        Persona user2 = findUserById(id2);
+        int user1 = findOrdinalById(id1);
+        int user2 = findOrdinalById(id2);
         
-        Set<Persona> user1Connections = connections.get(user1);
-        Set<Persona> user2Connections = connections.get(user2);
-        
-        if (user1Connections.contains(user2)) {
+        AdaptiveIntSet friends1 = adjacency.get(user1);
+        AdaptiveIntSet friends2 = adjacency.get(user2);
+        int capacity1 = friends1.capacity();
+        if (!friends1.add(user2)) {
             throw new ConnectionAlreadyExistsException(
                     "Connection between users " + id1 + " and " + id2 + " already exists");
         }
-        
-        user1Connections.add(user2);
-        user2Connections.add(user1);
+        int capacity2 = friends2.capacity();
+        friends2.add(user1);
+        memory.adjacencyResized(capacity1, friends1.capacity());
+        memory.adjacencyResized(capacity2, friends2.capacity());
+
+        long time = Math.max(createdAt.toEpochMilli(), Math.max(registeredAt(user1), registeredAt(user2)));
+        addToTimeline(user1, user2, time);
+        addToTimeline(user2, user1, time);
+        dropFriendView(user1);
+        dropFriendView(user2);
+        memory.connectionAdded();
+        if (changeFeed != null) {
+            changeFeed.publishConnectionCreated(id1, id2);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.userId1 = id1;
+            event.userId2 = id2;
+            event.degree1 = friends1.size();
+            event.degree2 = friends2.size();
+            event.commit();
+        }
     }
 
     /**
      * {@inheritDoc}
      * 
      * @implNote 
-     * The implementation simply returns the connection set for the user.
-     * HashMap lookup is O(1).
+     * The implementation returns the cached sorted view of the user, which is O(1). After a
+     * new connection, the first call rebuilds the view by resolving the friend ordinals to
+     * users and sorting them with the name-then-ID comparator, which is O(d log d) for a user
+     * with d friends. The result is an immutable snapshot backed by the sorted array; later
+     * connections are not reflected in it.
      */
     @Override
     public Set<Persona> getFriends(String id) {
-        Persona user = findUserById(id);
-        return Collections.unmodifiableSet(connections.get(user));
+        int user = findOrdinalById(id);
+        FriendSet view = friendViews.get(user);
+        if (view == null) {
+            FriendSet built = buildFriendView(user);
+            view = friendViews.compareAndExchange(user, null, built);
+            if (view == null) {
+                view = built;
+                memory.friendViewCached(built.size());
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Replaces the friend view cache with a larger copy.
+     *
+     * @param capacity the new number of entries
+     */
+    private void addRegistrationDay(int position, long day) {
+        if (position == registrationDays.length) {
+            int capacity = Math.max(INITIAL_USER_CAPACITY, position * 2);
+            registrationDays = Arrays.copyOf(registrationDays, capacity);
+            memory.registrationDatesResized(position, capacity);
+        }
+        registrationDays[position] = day;
+        if (registrationDaysSorted == position && (position == 0 || registrationDays[position - 1] <= day)) {
+            registrationDaysSorted++;
+        }
+    }
+
+    private void growFriendViews(int capacity) {
+        AtomicReferenceArray<FriendSet> grown = new AtomicReferenceArray<>(capacity);
+        for (int user = 0; user < friendViews.length(); user++) {
+            grown.setPlain(user, friendViews.getPlain(user));
+        }
+        friendViews = grown;
+    }
+
+    /**
+     * Appends a connection to the time-sorted list of a user, accounting for its growth.
+     */
+    private void addToTimeline(int user, int friend, long time) {
+        TimestampedIntList timeline = timelines.get(user);
+        int capacity = timeline.capacity();
+        timeline.add(friend, time);
+        memory.timelineResized(capacity, timeline.capacity());
+    }
+
+    /**
+     * Invalidates the cached friend view of a user, if any.
+     */
+    private void dropFriendView(int user) {
+        FriendSet view = friendViews.getAndSet(user, null);
+        if (view != null) {
+            memory.friendViewDropped(view.size());
+        }
+    }
+
+    /**
+     * Builds the name-then-ID ordered view of a user's friends.
+     *
+     * @param user the ordinal of the user
+     * @return the immutable view
+     */
+    private FriendSet buildFriendView(int user) {
+        AdaptiveIntSet friends = adjacency.get(user);
+        Persona[] sorted = new Persona[friends.size()];
+        int count = 0;
+        for (int slot = 0; slot < friends.slotCount(); slot++) {
+            int friend = friends.slotAt(slot);
+            if (friend != AdaptiveIntSet.EMPTY_SLOT) {
+                sorted[count++] = users.get(friend);
+            }
+        }
+        Arrays.sort(sorted, PERSONA_COMPARATOR);
+        return new FriendSet(sorted);
+    }
+
+    /**
+     * Returns the time at which two users were connected.
+     * <p>
+     * Time Complexity: O(d) for a first user with d friends.
+     * </p>
+     *
+     * @param id1 the ID of the first user
+     * @param id2 the ID of the second user
+     * @return the creation time of the connection, or null if the users are not connected
+     * @throws UserNotFoundException if either user does not exist
+     */
+    public Instant getConnectionTime(String id1, String id2) {
+        int user1 = findOrdinalById(id1);
+        int user2 = findOrdinalById(id2);
+        if (!adjacency.get(user1).contains(user2)) {
+            return null;
+        }
+        return Instant.ofEpochMilli(timelines.get(user1).timeOf(user2));
+    }
+
+    /**
+     * Returns the friends a user had at the end of a past day.
+     * <p>
+     * The connections created up to the end of {@code asOf}, in the zone of the network's
+     * clock, are the first entries of the user's time-sorted connections. They are found
+     * with a binary search and then resolved and sorted like {@link #getFriends(String)}.
+     * </p>
+     * <p>
+     * Time Complexity: O(log d + k log k) for a user with d friends today and k on that day.
+     * </p>
+     *
+     * @param id   the ID of the user
+     * @param asOf the day whose end state to return
+     * @return the friends on that day, ordered by name and then by ID
+     * @throws UserNotFoundException if the user does not exist or registered after {@code asOf}
+     * @throws NullPointerException if the date is null
+     */
+    public Set<Persona> getFriends(String id, LocalDate asOf) {
+        long cutoff = cutoffOf(asOf);
+        TimestampedIntList timeline = timelines.get(findOrdinalAsOf(id, asOf));
+        Persona[] sorted = new Persona[timeline.countUpTo(cutoff)];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = users.get(timeline.valueAt(i));
+        }
+        Arrays.sort(sorted, PERSONA_COMPARATOR);
+        return new FriendSet(sorted);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The implementation intersects the two connection sets of ordinals directly, with the
+     * kernel that suits their sizes and forms (see {@link AdaptiveIntSet#intersect}), and only
+     * resolves and sorts the common friends. No {@code Persona} is hashed or compared for the
+     * friends that are not shared.
+     */
+    @Override
+    public Set<Persona> getMutualFriends(String id1, String id2) {
+        AdaptiveIntSet friends1 = adjacency.get(findOrdinalById(id1));
+        AdaptiveIntSet friends2 = adjacency.get(findOrdinalById(id2));
+        int[] common = new int[Math.min(friends1.size(), friends2.size())];
+        int found = friends1.intersect(friends2, common);
+        Persona[] mutual = new Persona[found];
+        for (int i = 0; i < found; i++) {
+            mutual[i] = users.get(common[i]);
+        }
+        Arrays.sort(mutual, PERSONA_COMPARATOR);
+        return new FriendSet(mutual);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The implementation counts the common ordinals of the two connection sets without
+     * materializing them, so it allocates nothing. Two sorted sets are merged or galloped
+     * depending on their size ratio; with a hub, the smaller set is probed against the hub's
+     * hash set, in O(min(d1, d2)).
+     */
+    @Override
+    public int countMutualFriends(String id1, String id2) {
+        return adjacency.get(findOrdinalById(id1)).countCommon(adjacency.get(findOrdinalById(id2)));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * For a batch of at least {@value #BITMAP_MIN_BATCH} users, the friends of {@code id} are
+     * marked once in a bitmap spanning the range of their ordinals. Every other user with no
+     * more friends than {@code id} is then checked with one bit test per friend, in O(d'),
+     * instead of being intersected again. Larger users are intersected pair by pair, which
+     * iterates the smaller side. The bitmap is skipped when the friends are too sparse for it
+     * to stay within {@value #BITMAP_WORDS_PER_FRIEND} words per friend.
+     */
+    @Override
+    public int[] countMutualFriends(String id, List<String> others) {
+        AdaptiveIntSet friends = adjacency.get(findOrdinalById(id));
+        long[] bitmap = null;
+        int base = 0;
+        if (others.size() >= BITMAP_MIN_BATCH && friends.size() > 0) {
+            base = friends.min();
+            long words = ((long) (friends.max() - base) >>> 6) + 1;
+            if (words <= (long) friends.size() * BITMAP_WORDS_PER_FRIEND) {
+                bitmap = new long[(int) words];
+                friends.markInto(bitmap, base);
+            }
+        }
+
+        int[] counts = new int[others.size()];
+        for (int i = 0; i < counts.length; i++) {
+            AdaptiveIntSet other = adjacency.get(findOrdinalById(others.get(i)));
+            counts[i] = bitmap != null && other.size() <= friends.size()
+                    ? other.countMarked(bitmap, base)
+                    : friends.countCommon(other);
+        }
+        return counts;
     }
 
     /**
@@ -117,100 +619,1115 @@ public class SocialNetworkImpl implements SocialNetwork {
      * The implementation uses Breadth-First Search (BFS) to find the shortest path
      * between two users. BFS has a time complexity of O(V + E) where V is the number
      * of vertices (users) and E is the number of edges (connections).
+     * <p>
+     * The search checks the interrupt status of the current thread every
+     * {@value #INTERRUPT_CHECK_INTERVAL} visited users, and gives up with a
+     * {@link CancellationException} if the thread has been interrupted. This lets callers such
+     * as {@link AsyncSocialNetwork} stop traversals nobody is waiting for any more.
+     * </p>
+     * <p>
+     * The queue and the parent table come from a pooled {@link TraversalContext}, whose
+     * generation stamps make resetting them O(1). Apart from the returned path, a query in a
+     * steady-state network allocates nothing.
+     * </p>
+     * <p>
+     * The search runs with the {@linkplain #setDefaultTraversalBudget(TraversalBudget) default
+     * traversal budget}, which is unlimited unless configured otherwise.
+     * </p>
+     *
+     * @throws TraversalBudgetExceededException if the default budget runs out before the search
+     *                                          can tell whether a path exists
      */
     @Override
     public List<Persona> getConnectionPathBetween(String id1, String id2) {
-        Persona start = findUserById(id1);
-        Persona end = findUserById(id2);
-        
-        if (start.equals(end)) {
-            return List.of(start);
+        return getConnectionPathBetween(id1, id2, defaultTraversalBudget);
+    }
+
+    /**
+     * Finds the shortest path between two users without exceeding a traversal budget.
+     * <p>
+     * The search stops as soon as it would visit more than {@link TraversalBudget#getMaxVisited()}
+     * users, expand users at {@link TraversalBudget#getMaxDepth()} hops, or run past
+     * {@link TraversalBudget#getTimeout()}. The deadline is checked every
+     * {@value #INTERRUPT_CHECK_INTERVAL} visited users. A search that stops early is counted in
+     * {@link #getBudgetExceededCount(TraversalBudget.Limit)} and reported with a
+     * {@link TraversalBudgetExceededException}, which carries no stack trace, so hitting a
+     * budget costs no more than the bounded work already done.
+     * </p>
+     * <p>
+     * Time Complexity: O(min(V + E, work allowed by the budget)).
+     * </p>
+     *
+     * @param id1    the ID of the first user
+     * @param id2    the ID of the second user
+     * @param budget the limits of the search
+     * @return a list of users representing the shortest path from id1 to id2 (inclusive)
+     * @throws UserNotFoundException if either user does not exist
+     * @throws NoPathException if the search exhausted the component of id1 without reaching id2
+     * @throws TraversalBudgetExceededException if the budget runs out first
+     * @throws NullPointerException if the budget is null
+     */
+    public List<Persona> getConnectionPathBetween(String id1, String id2, TraversalBudget budget) {
+        Objects.requireNonNull(budget, "Budget cannot be null");
+        int source = findOrdinalById(id1);
+        int target = findOrdinalById(id2);
+        return findPath(source, target, budget, NOW);
+    }
+
+    /**
+     * Finds the shortest path between two users over the connections that existed at the end
+     * of a past day.
+     * <p>
+     * The BFS is the one of {@link #getConnectionPathBetween(String, String)}, with the
+     * {@linkplain #setDefaultTraversalBudget(TraversalBudget) default traversal budget}, but
+     * it only follows the first entries of each user's time-sorted connections, up to a cutoff
+     * found by binary search. The day ends at midnight in the zone of the network's clock.
+     * </p>
+     * <p>
+     * Time Complexity: O(V' + E' + V' log d) for the V' users and E' connections reached on
+     * that day, where d is the largest degree today.
+     * </p>
+     *
+     * @param id1  the ID of the first user
+     * @param id2  the ID of the second user
+     * @param asOf the day whose end state to search
+     * @return a list of users representing the shortest path on that day (inclusive)
+     * @throws UserNotFoundException if either user does not exist or registered after {@code asOf}
+     * @throws NoPathException if the users were not connected on that day
+     * @throws TraversalBudgetExceededException if the default budget runs out first
+     * @throws NullPointerException if the date is null
+     */
+    public List<Persona> getConnectionPathBetween(String id1, String id2, LocalDate asOf) {
+        long cutoff = cutoffOf(asOf);
+        int source = findOrdinalAsOf(id1, asOf);
+        int target = findOrdinalAsOf(id2, asOf);
+        return findPath(source, target, defaultTraversalBudget, cutoff);
+    }
+
+    /**
+     * Runs a path search and materializes the path or throws.
+     */
+    private List<Persona> findPath(int source, int target, TraversalBudget budget, long cutoff) {
+        if (source == target) {
+            return List.of(users.get(source));
         }
-        
-        Queue<Persona> queue = new LinkedList<>();
-        Map<Persona, Persona> previous = new HashMap<>();
-        Set<Persona> visited = new HashSet<>();
-        
-        queue.add(start);
-        visited.add(start);
-        
-        boolean pathFound = false;
-        
-        while (!queue.isEmpty() && !pathFound) {
-            Persona current = queue.poll();
-            
-            for (Persona neighbor : connections.get(current)) {
-                if (!visited.contains(neighbor)) {
-                    queue.add(neighbor);
-                    visited.add(neighbor);
-                    previous.put(neighbor, current);
-                    
-                    if (neighbor.equals(end)) {
-                        pathFound = true;
-                        break;
-                    }
-                }
+        TraversalContext context = traversalContexts.acquire();
+        try {
+            TraversalBudget.Limit exceeded = searchPath(context, source, target, budget, cutoff);
+            if (exceeded != null) {
+                throw budgetExceeded(exceeded, context.reached(), source, target);
             }
+            if (!context.isVisited(target)) {
+                throw noPathException(source, target);
+            }
+            return buildPath(context, source, target);
+        } finally {
+            traversalContexts.release(context);
         }
-        
-        if (!pathFound) {
-            throw new NoPathException("No path exists between user " + id1 + " and user " + id2);
-        }
-        
-        // Reconstruct the path from end to start
-        List<Persona> path = new ArrayList<>();
-        Persona current = end;
-        
-        while (current != null) {
-            path.add(current);
-            current = previous.get(current);
-        }
-        
-        // Reverse the path to get from start to end
-        Collections.reverse(path);
-        return path;
     }
 
     /**
      * {@inheritDoc}
      * 
      * @implNote 
-     * The implementation finds the shortest path using BFS and then returns
-     * the length of the path minus 1, which gives the number of edges in the path.
+     * The implementation runs the same BFS as {@link #getConnectionPathBetween(String, String)}
+     * and counts the hops along the parent chain instead of materializing the path, so a
+     * query allocates nothing at all in a steady-state network. The search runs with the
+     * {@linkplain #setDefaultTraversalBudget(TraversalBudget) default traversal budget}.
+     *
+     * @throws TraversalBudgetExceededException if the default budget runs out before the search
+     *                                          can tell whether a path exists
      */
     @Override
     public int getConnectionLevelBetween(String id1, String id2) {
-        List<Persona> path = getConnectionPathBetween(id1, id2);
-        // The connection level is the number of edges, which is the number of vertices - 1
-        return path.size() - 1;
+        return getConnectionLevelBetween(id1, id2, defaultTraversalBudget);
     }
 
     /**
-     * {@inheritDoc}
-     * 
-     * @implNote 
-     * Since LinkedHashMap maintains insertion order and users are registered in 
-     * order of their registration date, simply returning the key set provides
-     * the users ordered by registration.
+     * Calculates the degree of connection between two users without exceeding a traversal
+     * budget.
+     * <p>
+     * The budget is enforced as in {@link #getConnectionPathBetween(String, String, TraversalBudget)};
+     * in particular, a level above {@link TraversalBudget#getMaxDepth()} is never returned.
+     * </p>
+     * <p>
+     * Time Complexity: O(min(V + E, work allowed by the budget)).
+     * </p>
+     *
+     * @param id1    the ID of the first user
+     * @param id2    the ID of the second user
+     * @param budget the limits of the search
+     * @return the degree of connection between the users
+     * @throws UserNotFoundException if either user does not exist
+     * @throws NoPathException if the search exhausted the component of id1 without reaching id2
+     * @throws TraversalBudgetExceededException if the budget runs out first
+     * @throws NullPointerException if the budget is null
      */
-    @Override
-    public Set<Persona> getUsersOrderedByRegistration() {
-        return Collections.unmodifiableSet(connections.keySet());
+    public int getConnectionLevelBetween(String id1, String id2, TraversalBudget budget) {
+        Objects.requireNonNull(budget, "Budget cannot be null");
+        int source = findOrdinalById(id1);
+        int target = findOrdinalById(id2);
+        return findLevel(source, target, budget, NOW);
     }
-    
+
     /**
-     * Helper method to find a user by ID.
+     * Calculates the degree of connection between two users over the connections that
+     * existed at the end of a past day.
+     * <p>
+     * The search is the one of {@link #getConnectionPathBetween(String, String, LocalDate)},
+     * counting hops instead of materializing the path.
+     * </p>
+     * <p>
+     * Time Complexity: O(V' + E' + V' log d) for the V' users and E' connections reached on
+     * that day, where d is the largest degree today.
+     * </p>
      *
-     * @param id the ID of the user to find
-     * @return the user with the given ID
-     * @throws UserNotFoundException if no user with the given ID exists
+     * @param id1  the ID of the first user
+     * @param id2  the ID of the second user
+     * @param asOf the day whose end state to search
+     * @return the degree of connection between the users on that day
+     * @throws UserNotFoundException if either user does not exist or registered after {@code asOf}
+     * @throws NoPathException if the users were not connected on that day
+     * @throws TraversalBudgetExceededException if the default budget runs out first
+     * @throws NullPointerException if the date is null
      */
-    private Persona findUserById(String id) {
-        for (Persona user : connections.keySet()) {
-            if (user.getId().equals(id)) {
-                return user;
+    public int getConnectionLevelBetween(String id1, String id2, LocalDate asOf) {
+        long cutoff = cutoffOf(asOf);
+        int source = findOrdinalAsOf(id1, asOf);
+        int target = findOrdinalAsOf(id2, asOf);
+        return findLevel(source, target, defaultTraversalBudget, cutoff);
+    }
+
+    /**
+     * Runs a path search and counts the hops of the path or throws.
+     */
+    private int findLevel(int source, int target, TraversalBudget budget, long cutoff) {
+        if (source == target) {
+            return 0;
+        }
+        TraversalContext context = traversalContexts.acquire();
+        try {
+            TraversalBudget.Limit exceeded = searchPath(context, source, target, budget, cutoff);
+            if (exceeded != null) {
+                throw budgetExceeded(exceeded, context.reached(), source, target);
+            }
+            if (!context.isVisited(target)) {
+                throw noPathException(source, target);
+            }
+            // The connection level is the number of edges on the path
+            return countHops(context, source, target);
+        } finally {
+            traversalContexts.release(context);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The implementation runs the same search as {@link #getConnectionPathBetween(String, String)},
+     * with the default traversal budget, but resolves the users with plain map lookups and
+     * returns every outcome as a value. No exception, message string or stack trace is created.
+     */
+    @Override
+    public ConnectionResult<List<Persona>> findConnectionPath(String id1, String id2) {
+        return findConnectionPath(id1, id2, defaultTraversalBudget);
+    }
+
+    /**
+     * Finds the shortest path between two users without exceeding a traversal budget,
+     * reporting every outcome as a value.
+     * <p>
+     * Time Complexity: O(min(V + E, work allowed by the budget)).
+     * </p>
+     *
+     * @param id1    the ID of the first user
+     * @param id2    the ID of the second user
+     * @param budget the limits of the search
+     * @return the path from id1 to id2 (inclusive), or the reason there is none
+     * @throws NullPointerException if the budget is null
+     */
+    public ConnectionResult<List<Persona>> findConnectionPath(String id1, String id2, TraversalBudget budget) {
+        Objects.requireNonNull(budget, "Budget cannot be null");
+        Integer source = ordinals.get(id1);
+        if (source == null) {
+            return new ConnectionResult.UnknownUser<>(id1);
+        }
+        Integer target = ordinals.get(id2);
+        if (target == null) {
+            return new ConnectionResult.UnknownUser<>(id2);
+        }
+        if (source.equals(target)) {
+            return new ConnectionResult.Found<>(List.of(users.get(source)));
+        }
+
+        TraversalContext context = traversalContexts.acquire();
+        try {
+            TraversalBudget.Limit exceeded = searchPath(context, source, target, budget, NOW);
+            if (exceeded != null) {
+                return new ConnectionResult.BudgetExceeded<>(exceeded, context.reached());
+            }
+            if (!context.isVisited(target)) {
+                return noPath();
+            }
+            return new ConnectionResult.Found<>(buildPath(context, source, target));
+        } finally {
+            traversalContexts.release(context);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The implementation runs the same search as {@link #getConnectionLevelBetween(String, String)},
+     * with the default traversal budget, and returns every outcome as a value. Found results
+     * for the first {@value #CACHED_LEVEL_RESULTS} levels and the no-path result are shared
+     * instances, so in a steady-state network most queries allocate nothing at all.
+     */
+    @Override
+    public ConnectionResult<Integer> findConnectionLevel(String id1, String id2) {
+        return findConnectionLevel(id1, id2, defaultTraversalBudget);
+    }
+
+    /**
+     * Calculates the degree of connection between two users without exceeding a traversal
+     * budget, reporting every outcome as a value.
+     * <p>
+     * Time Complexity: O(min(V + E, work allowed by the budget)).
+     * </p>
+     *
+     * @param id1    the ID of the first user
+     * @param id2    the ID of the second user
+     * @param budget the limits of the search
+     * @return the degree of connection between the users, or the reason there is none
+     * @throws NullPointerException if the budget is null
+     */
+    public ConnectionResult<Integer> findConnectionLevel(String id1, String id2, TraversalBudget budget) {
+        Objects.requireNonNull(budget, "Budget cannot be null");
+        Integer source = ordinals.get(id1);
+        if (source == null) {
+            return new ConnectionResult.UnknownUser<>(id1);
+        }
+        Integer target = ordinals.get(id2);
+        if (target == null) {
+            return new ConnectionResult.UnknownUser<>(id2);
+        }
+        if (source.equals(target)) {
+            return levelResult(0);
+        }
+
+        TraversalContext context = traversalContexts.acquire();
+        try {
+            TraversalBudget.Limit exceeded = searchPath(context, source, target, budget, NOW);
+            if (exceeded != null) {
+                return new ConnectionResult.BudgetExceeded<>(exceeded, context.reached());
+            }
+            if (!context.isVisited(target)) {
+                return noPath();
+            }
+            return levelResult(countHops(context, source, target));
+        } finally {
+            traversalContexts.release(context);
+        }
+    }
+
+    /**
+     * Returns the budget applied to path and level queries that do not pass one.
+     *
+     * @return the default budget, {@link TraversalBudget#UNLIMITED} unless configured otherwise
+     */
+    public TraversalBudget getDefaultTraversalBudget() {
+        return defaultTraversalBudget;
+    }
+
+    /**
+     * Sets the budget applied to {@link #getConnectionPathBetween(String, String)} and
+     * {@link #getConnectionLevelBetween(String, String)}.
+     * <p>
+     * This is the network-wide guard against queries that would scan a huge component: with a
+     * budget in place, those methods may throw {@link TraversalBudgetExceededException}. The new
+     * budget applies to queries started after the call.
+     * </p>
+     *
+     * @param budget the new default budget
+     * @throws NullPointerException if the budget is null
+     */
+    public void setDefaultTraversalBudget(TraversalBudget budget) {
+        defaultTraversalBudget = Objects.requireNonNull(budget, "Budget cannot be null");
+    }
+
+    /**
+     * Returns how many path and level queries have been stopped by a limit.
+     *
+     * @param limit the limit to report
+     * @return the number of queries that ran into the limit since the network was created
+     */
+    public long getBudgetExceededCount(TraversalBudget.Limit limit) {
+        return budgetHits[limit.ordinal()].sum();
+    }
+
+    /**
+     * Estimates the heap used by the network, per component, with the distribution of the
+     * per-user adjacency cost.
+     * <p>
+     * Time Complexity: O(1) - every component is a running total, updated as users register,
+     * connections are added, connection structures grow and friend lists are cached or
+     * invalidated, so nothing is scanned. Only the few pooled traversal contexts are read.
+     * The method is meant to be polled by a metrics thread: it is safe to call at any time,
+     * even while another thread mutates the network, in which case that mutation may be
+     * reflected in some figures and not yet in others.
+     * </p>
+     *
+     * @return the estimated footprint
+     * @see MemoryStats
+     */
+    public MemoryStats memoryStats() {
+        int[] order = registrationOrder;
+        RegistrationIndex index = registrationIndex;
+        return memory.snapshot(traversalContexts.idleBytes(), order == null ? -1 : order.length,
+                index == null ? -1 : index.positions().length);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The implementation runs a single BFS over ordinals. The queue and the distance table are
+     * plain {@code int} arrays sized to the number of users, and each user is enqueued at most
+     * once, so no boxing or per-node allocation takes place. After a reordering, the table is
+     * copied into registration order at the end.
+     */
+    @Override
+    public int[] getDistancesFrom(String id, int maxDepth) {
+        int[] distances = new int[users.size()];
+        Arrays.fill(distances, UNREACHABLE);
+        breadthFirstSearch(id, maxDepth, distances);
+        if (registrationOrder == null) {
+            return distances;
+        }
+        int[] inRegistrationOrder = new int[distances.length];
+        for (int position = 0; position < distances.length; position++) {
+            inRegistrationOrder[position] = distances[ordinalAt(position)];
+        }
+        return inRegistrationOrder;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The implementation runs the same ordinal-based BFS as {@link #getDistancesFrom(String, int)}.
+     * Because a BFS dequeues users level by level, the queue array itself already holds the
+     * neighborhood in level order, and the level boundaries are recorded as the traversal goes.
+     */
+    @Override
+    public Neighborhood getNeighborhood(String id, int maxDepth) {
+        int[] distances = new int[users.size()];
+        Arrays.fill(distances, UNREACHABLE);
+        int[] queue = new int[users.size()];
+        int reached = breadthFirstSearch(id, maxDepth, distances, queue);
+
+        Persona[] members = new Persona[reached];
+        int depth = 0;
+        int[] levelStarts = new int[distances[queue[reached - 1]] + 2];
+        for (int i = 0; i < reached; i++) {
+            members[i] = users.get(queue[i]);
+            while (distances[queue[i]] >= depth) {
+                levelStarts[depth++] = i;
+            }
+        }
+        levelStarts[depth] = reached;
+        return new Neighborhood(maxDepth, members, levelStarts);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The candidates are resolved to ordinals once and kept in an {@link AdaptiveIntSet}, so
+     * checking each visited user against them is a primitive binary search or hash probe. The
+     * search runs on pooled {@link TraversalContext} memory like the path queries, and the
+     * witness path of each candidate is read from the context's parent table when it is found.
+     * Apart from the results, the search allocates only the candidate set.
+     */
+    @Override
+    public void findClosestConnections(String id, Collection<String> targetIds, int maxDepth,
+                                       Consumer<? super ClosestConnection> consumer) {
+        Objects.requireNonNull(targetIds, "Target IDs cannot be null");
+        Objects.requireNonNull(consumer, "Consumer cannot be null");
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Maximum depth cannot be negative: " + maxDepth);
+        }
+        int source = findOrdinalById(id);
+        AdaptiveIntSet pending = new AdaptiveIntSet();
+        for (String targetId : targetIds) {
+            Integer ordinal = ordinals.get(targetId);
+            if (ordinal != null) {
+                pending.add(ordinal);
+            }
+        }
+        int remaining = pending.size();
+        if (pending.contains(source)) {
+            consumer.accept(new ClosestConnection(users.get(source), 0, List.of(users.get(source))));
+            remaining--;
+        }
+        if (remaining == 0) {
+            return;
+        }
+
+        TraversalContext context = traversalContexts.acquire();
+        try {
+            context.reset(users.size());
+            int[] queue = context.queue();
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            context.visit(source, source);
+            // Users in queue[head, levelEnd) are depth hops away from the source
+            int depth = 0;
+            int levelEnd = tail;
+
+            while (head < tail) {
+                if (head == levelEnd) {
+                    depth++;
+                    levelEnd = tail;
+                }
+                if (depth == maxDepth) {
+                    return;
+                }
+                int current = queue[head++];
+                checkInterrupted(head);
+
+                AdaptiveIntSet neighbors = adjacency.get(current);
+                for (int slot = 0; slot < neighbors.slotCount(); slot++) {
+                    int neighbor = neighbors.slotAt(slot);
+                    if (neighbor != AdaptiveIntSet.EMPTY_SLOT && !context.isVisited(neighbor)) {
+                        context.visit(neighbor, current);
+                        queue[tail++] = neighbor;
+                        if (pending.contains(neighbor)) {
+                            consumer.accept(new ClosestConnection(users.get(neighbor), depth + 1,
+                                    buildPath(context, source, neighbor)));
+                            if (--remaining == 0) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            traversalContexts.release(context);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The connection sets already hold ordinals, so each row of the snapshot is a plain copy
+     * of the set's elements. After a reordering, the rows are relabeled with registration
+     * positions.
+     */
+    @Override
+    public GraphSnapshot snapshot() {
+        if (registrationOrder == null) {
+            return internalSnapshot();
+        }
+        List<Persona> registered = new ArrayList<>(users.size());
+        List<int[]> neighbors = new ArrayList<>(users.size());
+        for (int position = 0; position < users.size(); position++) {
+            int ordinal = ordinalAt(position);
+            registered.add(users.get(ordinal));
+            int[] row = adjacency.get(ordinal).toArray();
+            for (int i = 0; i < row.length; i++) {
+                row[i] = positionOf(row[i]);
+            }
+            neighbors.add(row);
+        }
+        return GraphSnapshot.fromAdjacency(registered, neighbors);
+    }
+
+    /**
+     * Copies the graph into a snapshot numbered by the current ordinals.
+     */
+    private GraphSnapshot internalSnapshot() {
+        List<int[]> neighbors = new ArrayList<>(users.size());
+        for (AdaptiveIntSet friends : adjacency) {
+            neighbors.add(friends.toArray());
+        }
+        return GraphSnapshot.fromAdjacency(users, neighbors);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @implNote 
+     * Since the ordinal-indexed list maintains insertion order and users are registered in
+     * order of their registration date, copying the list into a LinkedHashSet provides
+     * the users ordered by registration. After a reordering, the users are copied in
+     * registration order through the recorded positions instead.
+     */
+    @Override
+    public Set<Persona> getUsersOrderedByRegistration() {
+        if (registrationOrder == null) {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(users));
+        }
+        Set<Persona> registered = new LinkedHashSet<>();
+        for (int position = 0; position < users.size(); position++) {
+            registered.add(users.get(ordinalAt(position)));
+        }
+        return Collections.unmodifiableSet(registered);
+    }
+
+    /**
+     * Returns the users registered on or before a past day, ordered by registration.
+     * <p>
+     * Time Complexity: O(log V + k) for a result of k users - a binary search over the
+     * registration dates finds the prefix of users registered up to {@code asOf}, so users
+     * registered later are never read. If some users were registered with an earlier date
+     * than users before them, the first listing after such registrations sorts the positions
+     * by date once, in O(V + b log b) for b users registered out of date order, and the
+     * result is sorted back into registration order, in O(k log k).
+     * </p>
+     *
+     * @param asOf the last registration date to include
+     * @return the users registered up to {@code asOf}, in registration order
+     * @throws NullPointerException if the date is null
+     */
+    public Set<Persona> getUsersOrderedByRegistration(LocalDate asOf) {
+        Objects.requireNonNull(asOf, "Date cannot be null");
+        int userCount = users.size();
+        long day = asOf.toEpochDay();
+        int[] positions;
+        if (registrationDaysSorted == userCount) {
+            positions = new int[countUpTo(registrationDays, userCount, day)];
+            Arrays.setAll(positions, i -> i);
+        } else {
+            RegistrationIndex index = registrationIndex;
+            if (index == null || index.positions().length != userCount) {
+                index = RegistrationIndex.of(registrationDays, registrationDaysSorted, userCount);
+                registrationIndex = index;
+            }
+            positions = Arrays.copyOf(index.positions(), countUpTo(index.days(), userCount, day));
+            Arrays.sort(positions);
+        }
+        Set<Persona> registered = new LinkedHashSet<>(Math.max(16, positions.length * 4 / 3 + 1));
+        for (int position : positions) {
+            registered.add(users.get(ordinalAt(position)));
+        }
+        return Collections.unmodifiableSet(registered);
+    }
+
+    /**
+     * Returns the number of leading days up to a day in an ascending array.
+     */
+    private static int countUpTo(long[] days, int size, long day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] <= day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Renumbers the users so that friends get nearby ordinals, using reverse Cuthill-McKee.
+     *
+     * @see #reorderForLocality(GraphReordering.Strategy)
+     */
+    public void reorderForLocality() {
+        reorderForLocality(GraphReordering.Strategy.REVERSE_CUTHILL_MCKEE);
+    }
+
+    /**
+     * Renumbers the users so that traversals touch fewer cache lines.
+     * <p>
+     * Registration ordinals scatter the friends of a user over the whole ordinal range, so
+     * the visited marks, parents and connection sets a BFS reads for consecutive neighbors
+     * are far apart in memory. This pass computes a locality-preserving order of the current
+     * users with {@link GraphReordering}, relabels every connection set and rebuilds it in
+     * the new order, which also lays the sets out in the heap in traversal-friendly order.
+     * The observable behavior of the network does not change:
+     * {@link #getUsersOrderedByRegistration()}, {@link #getDistancesFrom(String, int)} and
+     * {@link #snapshot()} still follow registration order. Among several shortest paths, a
+     * path query may return a different one afterwards.
+     * </p>
+     * <p>
+     * Users registered later are appended to the new order. The pass can be repeated, for
+     * example from a maintenance job once many new connections have accumulated. It is a
+     * mutation: like {@link #connect(String, String)}, it must not run concurrently with any
+     * other operation. Nothing is published to the change feed, as no user or connection
+     * changes.
+     * </p>
+     * <p>
+     * Time Complexity: O(V + E log d) for a network with V users, E connections and a largest
+     * degree of d. The pass needs O(V + E) temporary memory for a snapshot of the graph.
+     * </p>
+     *
+     * @param strategy the ordering algorithm
+     */
+    public void reorderForLocality(GraphReordering.Strategy strategy) {
+        GraphSnapshot graph = internalSnapshot();
+        int[] order = GraphReordering.computeOrder(graph, strategy);
+        int[] rank = GraphReordering.inverse(order);
+
+        int n = order.length;
+        int[] row = new int[n];
+        for (int ordinal = 0; ordinal < n; ordinal++) {
+            int previous = order[ordinal];
+            Persona user = graph.user(previous);
+            int degree = 0;
+            for (int edge = graph.edgeStart(previous); edge < graph.edgeEnd(previous); edge++) {
+                row[degree++] = rank[graph.target(edge)];
+            }
+            // Ascending inserts append to the sorted array of an ordinary user
+            Arrays.sort(row, 0, degree);
+            AdaptiveIntSet friends = new AdaptiveIntSet();
+            for (int i = 0; i < degree; i++) {
+                friends.add(row[i]);
+            }
+            users.set(ordinal, user);
+            memory.adjacencyResized(adjacency.get(ordinal).capacity(), friends.capacity());
+            adjacency.set(ordinal, friends);
+            ordinals.put(user.getId(), ordinal);
+        }
+
+        // The cached friend views hold users, not ordinals, so they stay valid once moved
+        FriendSet[] views = new FriendSet[n];
+        for (int ordinal = 0; ordinal < n; ordinal++) {
+            views[ordinal] = friendViews.get(ordinal);
+        }
+        TimestampedIntList[] history = timelines.toArray(new TimestampedIntList[0]);
+        for (int ordinal = 0; ordinal < n; ordinal++) {
+            friendViews.set(ordinal, views[order[ordinal]]);
+            TimestampedIntList timeline = history[order[ordinal]];
+            timeline.relabel(rank);
+            timelines.set(ordinal, timeline);
+        }
+
+        int[] reorderedRegistration = new int[n];
+        int[] reorderedPositions = new int[n];
+        for (int position = 0; position < n; position++) {
+            int ordinal = rank[ordinalAt(position)];
+            reorderedRegistration[position] = ordinal;
+            reorderedPositions[ordinal] = position;
+        }
+        registrationOrder = reorderedRegistration;
+        registrationPositions = reorderedPositions;
+    }
+
+    /**
+     * Returns the ordinal of the user at a registration position.
+     */
+    private int ordinalAt(int position) {
+        return registrationOrder == null || position >= registrationOrder.length
+                ? position
+                : registrationOrder[position];
+    }
+
+    /**
+     * Returns the registration position of the user with an ordinal.
+     */
+    private int positionOf(int ordinal) {
+        return registrationPositions == null || ordinal >= registrationPositions.length
+                ? ordinal
+                : registrationPositions[ordinal];
+    }
+    
+    /**
+     * Aborts a traversal if the current thread has been interrupted.
+     * <p>
+     * Only every {@value #INTERRUPT_CHECK_INTERVAL}-th call actually reads the interrupt status,
+     * so the check costs next to nothing inside the BFS loop. The interrupt status is left set.
+     * </p>
+     *
+     * @param visited the number of users visited so far
+     * @throws CancellationException if the current thread has been interrupted
+     */
+    private static void checkInterrupted(int visited) {
+        if ((visited & (INTERRUPT_CHECK_INTERVAL - 1)) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Traversal interrupted");
+        }
+    }
+
+    /**
+     * Returns the found result for a connection level, shared for small levels.
+     */
+    @SuppressWarnings("unchecked")
+    private static ConnectionResult<Integer> levelResult(int level) {
+        return level < CACHED_LEVEL_RESULTS
+                ? (ConnectionResult<Integer>) LEVEL_RESULTS[level]
+                : new ConnectionResult.Found<>(level);
+    }
+
+    /**
+     * Returns the shared no-path result.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ConnectionResult<T> noPath() {
+        return (ConnectionResult<T>) NO_PATH;
+    }
+
+    /**
+     * Helper method to find a user by ID.
+     *
+     * @param id the ID of the user to find
+     * @return the user with the given ID
+     * @throws UserNotFoundException if no user with the given ID exists
+     */
+    private Persona findUserById(String id) {
+        return users.get(findOrdinalById(id));
+    }
+
+    /**
+     * Helper method to find the ordinal of a user by ID.
+     * <p>
+     * Time Complexity: O(1) - a single HashMap lookup.
+     * </p>
+     *
+     * @param id the ID of the user to find
+     * @return the ordinal of the user
+     * @throws UserNotFoundException if no user with the given ID exists
+     */
+    private int findOrdinalById(String id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal == null) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        return ordinal;
+    }
+
+    /**
+     * Helper method to find the ordinal of a user that was registered on a past day.
+     *
+     * @param id   the ID of the user to find
+     * @param asOf the day of the query
+     * @return the ordinal of the user
+     * @throws UserNotFoundException if no user with the given ID exists, or if its registration
+     *                               date is after {@code asOf}
+     */
+    private int findOrdinalAsOf(String id, LocalDate asOf) {
+        int ordinal = findOrdinalById(id);
+        if (users.get(ordinal).getRegistrationDate().isAfter(asOf)) {
+            throw new UserNotFoundException("User with ID " + id + " was not registered on " + asOf);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Returns the last epoch millisecond of a day in the zone of the network's clock.
+     *
+     * @throws NullPointerException if the date is null
+     */
+    /**
+     * Returns the start of the registration day of a user, in epoch milliseconds.
+     */
+    private long registeredAt(int ordinal) {
+        return users.get(ordinal).getRegistrationDate().atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private long cutoffOf(LocalDate asOf) {
+        Objects.requireNonNull(asOf, "Date cannot be null");
+        return asOf.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli() - 1;
+    }
+
+    /**
+     * Runs a BFS from {@code source} until {@code target} is reached or the budget runs out.
+     * <p>
+     * When the search completes, the target is {@linkplain TraversalContext#isVisited(int)
+     * visited} if and only if a path exists, and the parent chain of {@code context} then leads
+     * from the target back to the source. Either way, the number of visited users is recorded
+     * in the context. Nothing is thrown for an exhausted budget, so the exception-free queries
+     * can share this search.
+     * </p>
+     *
+     * @param context the traversal context to use; it is reset first
+     * @param source  the ordinal of the source user
+     * @param target  the ordinal of the target user, different from the source
+     * @param budget  the limits of the search
+     * @param cutoff  the latest creation time, in epoch milliseconds, of the connections to
+     *                follow, or {@link #NOW} to follow all of them through {@link #adjacency}
+     * @return null if the search completed, or the limit that stopped it
+     * @throws CancellationException if the current thread is interrupted during the search
+     */
+    private TraversalBudget.Limit searchPath(TraversalContext context, int source, int target,
+                                             TraversalBudget budget, long cutoff) {
+        SocialNetworkEvents.PathSearch event = new SocialNetworkEvents.PathSearch();
+        event.begin();
+        context.reset(users.size());
+        int maxVisited = budget.getMaxVisited();
+        int maxDepth = budget.getMaxDepth();
+        long timeoutNanos = budget.getTimeoutNanos();
+        boolean timed = timeoutNanos != Long.MAX_VALUE;
+        long startNanos = timed ? System.nanoTime() : 0L;
+
+        int[] queue = context.queue();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        context.visit(source, source);
+        // Users in queue[head, levelEnd) are depth hops away from the source
+        int depth = 0;
+        int levelEnd = tail;
+        TraversalBudget.Limit exceeded = null;
+        int pathLength = -1;
+        
+        search:
+        while (head < tail) {
+            if (head == levelEnd) {
+                depth++;
+                levelEnd = tail;
+            }
+            if (depth == maxDepth) {
+                exceeded = TraversalBudget.Limit.DEPTH;
+                break;
+            }
+            int current = queue[head++];
+            checkInterrupted(head);
+            if (timed && (head & (INTERRUPT_CHECK_INTERVAL - 1)) == 0
+                    && System.nanoTime() - startNanos >= timeoutNanos) {
+                exceeded = TraversalBudget.Limit.DEADLINE;
+                break;
+            }
+            
+            // A historical search reads the prefix of the time-sorted connections instead
+            AdaptiveIntSet neighbors = null;
+            TimestampedIntList timeline = null;
+            int slots;
+            if (cutoff == NOW) {
+                neighbors = adjacency.get(current);
+                slots = neighbors.slotCount();
+            } else {
+                timeline = timelines.get(current);
+                slots = timeline.countUpTo(cutoff);
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                int neighbor = neighbors != null ? neighbors.slotAt(slot) : timeline.valueAt(slot);
+                if (neighbor != AdaptiveIntSet.EMPTY_SLOT && !context.isVisited(neighbor)) {
+                    if (tail == maxVisited) {
+                        exceeded = TraversalBudget.Limit.VISITED;
+                        break search;
+                    }
+                    context.visit(neighbor, current);
+                    if (neighbor == target) {
+                        pathLength = depth + 1;
+                        tail++;
+                        break search;
+                    }
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        context.setReached(tail);
+        if (exceeded != null) {
+            budgetHits[exceeded.ordinal()].increment();
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.sourceId = users.get(source).getId();
+            event.targetId = users.get(target).getId();
+            event.visited = tail;
+            event.pathLength = pathLength;
+            event.outcome = exceeded != null ? "BUDGET_EXCEEDED" : pathLength >= 0 ? "FOUND" : "NO_PATH";
+            event.budgetLimit = exceeded != null ? exceeded.name() : null;
+            event.commit();
+        }
+        return exceeded;
+    }
+
+    /**
+     * Creates the exception reporting that two users are not connected.
+     */
+    private NoPathException noPathException(int source, int target) {
+        return new NoPathException("No path exists between user " + users.get(source).getId()
+                + " and user " + users.get(target).getId());
+    }
+
+    /**
+     * Creates the exception reporting a budget hit.
+     *
+     * @param limit   the limit the search ran into
+     * @param visited the number of users visited
+     * @param source  the ordinal of the source user
+     * @param target  the ordinal of the target user
+     * @return the exception to throw
+     */
+    private TraversalBudgetExceededException budgetExceeded(TraversalBudget.Limit limit, int visited,
+                                                            int source, int target) {
+        return new TraversalBudgetExceededException(limit, visited,
+                "Traversal budget exceeded (" + limit + ") after visiting " + visited
+                        + " users between user " + users.get(source).getId()
+                        + " and user " + users.get(target).getId());
+    }
+
+    /**
+     * Materializes the path found by {@link #searchPath(TraversalContext, int, int, TraversalBudget, long)}.
+     * <p>
+     * The parents are walked once to size the path, which is then filled from end to start.
+     * </p>
+     */
+    private List<Persona> buildPath(TraversalContext context, int source, int target) {
+        Persona[] path = new Persona[countHops(context, source, target) + 1];
+        int current = target;
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i] = users.get(current);
+            current = context.parentOf(current);
+        }
+        return Arrays.asList(path);
+    }
+
+    /**
+     * Counts the edges on the path found by
+     * {@link #searchPath(TraversalContext, int, int, TraversalBudget, long)}.
+     */
+    private static int countHops(TraversalContext context, int source, int target) {
+        int hops = 0;
+        for (int current = target; current != source; current = context.parentOf(current)) {
+            hops++;
+        }
+        return hops;
+    }
+
+    /**
+     * Runs a depth-capped BFS from a user, recording the hop count of every reached user.
+     *
+     * @param id        the ID of the source user
+     * @param maxDepth  the maximum number of hops to follow
+     * @param distances the distance table indexed by ordinal, pre-filled with {@link #UNREACHABLE}
+     * @return the number of users reached, including the source
+     */
+    private int breadthFirstSearch(String id, int maxDepth, int[] distances) {
+        TraversalContext context = traversalContexts.acquire();
+        try {
+            context.reset(users.size());
+            return breadthFirstSearch(id, maxDepth, distances, context.queue());
+        } finally {
+            traversalContexts.release(context);
+        }
+    }
+
+    /**
+     * Runs a depth-capped BFS from a user, recording the hop count of every reached user.
+     * <p>
+     * On return, the first entries of {@code queue} hold the ordinals of the reached users
+     * in the order they were discovered.
+     * </p>
+     *
+     * @param id        the ID of the source user
+     * @param maxDepth  the maximum number of hops to follow
+     * @param distances the distance table indexed by ordinal, pre-filled with {@link #UNREACHABLE}
+     * @param queue     the BFS queue, with room for every user
+     * @return the number of users reached, including the source
+     * @throws UserNotFoundException if the user does not exist
+     * @throws IllegalArgumentException if {@code maxDepth} is negative
+     * @throws CancellationException if the current thread is interrupted during the search
+     */
+    private int breadthFirstSearch(String id, int maxDepth, int[] distances, int[] queue) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Maximum depth cannot be negative: " + maxDepth);
+        }
+        int source = findOrdinalById(id);
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distances[source] = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            checkInterrupted(head);
+            int depth = distances[current];
+            if (depth == maxDepth) {
+                // BFS dequeues in level order, so every remaining entry is at the cap too
+                break;
+            }
+
+            AdaptiveIntSet neighbors = adjacency.get(current);
+            for (int slot = 0; slot < neighbors.slotCount(); slot++) {
+                int next = neighbors.slotAt(slot);
+                if (next != AdaptiveIntSet.EMPTY_SLOT && distances[next] == UNREACHABLE) {
+                    distances[next] = depth + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Immutable friend set returned by {@link #getFriends(String)}.
+     * <p>
+     * Iteration follows the array, which is sorted by name and then by ID. Membership is a
+     * binary search for the registered user with the requested ID, so
+     * {@link #contains(Object)} honors {@link Persona#equals(Object)}, which compares IDs only,
+     * in O(log d).
+     * </p>
+     */
+    private final class FriendSet extends AbstractSet<Persona> {
+        private final Persona[] sorted;
+
+        FriendSet(Persona[] sorted) {
+            this.sorted = sorted;
+        }
+
+        @Override
+        public Iterator<Persona> iterator() {
+            return Arrays.asList(sorted).iterator();
+        }
+
+        @Override
+        public int size() {
+            return sorted.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Persona persona)) {
+                return false;
+            }
+            // Users are equal by ID, so search for the registered user, whose name is the sort key
+            Integer ordinal = ordinals.get(persona.getId());
+            return ordinal != null && Arrays.binarySearch(sorted, users.get(ordinal), PERSONA_COMPARATOR) >= 0;
+        }
+    }
+
+    /**
+     * Registration positions sorted by registration date, with the date of each.
+     * <p>
+     * The index is immutable, so listings racing to build it each publish a complete one.
+     * </p>
+     */
+    private record RegistrationIndex(int[] positions, long[] days) {
+
+        /**
+         * Sorts the first {@code size} registration positions by date. The dates of the first
+         * {@code sortedPrefix} positions are already in order, so only the rest are sorted
+         * before the two runs are merged.
+         */
+        static RegistrationIndex of(long[] registrationDays, int sortedPrefix, int size) {
+            Integer[] backdated = new Integer[size - sortedPrefix];
+            Arrays.setAll(backdated, i -> sortedPrefix + i);
+            Arrays.sort(backdated, Comparator.comparingLong(position -> registrationDays[position]));
+
+            int[] positions = new int[size];
+            long[] days = new long[size];
+            int inOrder = 0;
+            int other = 0;
+            for (int i = 0; i < size; i++) {
+                int position = other == backdated.length
+                        || inOrder < sortedPrefix && registrationDays[inOrder] <= registrationDays[backdated[other]]
+                        ? inOrder++
+                        : backdated[other++];
+                positions[i] = position;
+                days[i] = registrationDays[position];
             }
+            return new RegistrationIndex(positions, days);
         }
-        throw new UserNotFoundException("User with ID " + id + " not found");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Limits on the work a single path or level query may do.
+ * <p>
+ * Between two distant users of a large component, a BFS may visit most of the network before
+ * it finds the target or proves that there is none. A budget bounds that cost in three ways:
+ * the number of users the search may visit, the number of hops it may follow, and the
+ * wall-clock time it may run. A search that runs out of budget stops immediately and reports
+ * which {@link Limit} it hit, instead of finishing the scan.
+ * </p>
+ * <p>
+ * Budgets are immutable and can be shared freely between threads.
+ * </p>
+ *
+ * @see SocialNetworkImpl#setDefaultTraversalBudget(TraversalBudget)
+ */
+public final class TraversalBudget {
+
+    /**
+     * The limits a search can run into.
+     */
+    public enum Limit {
+        /** The search visited the maximum number of users. */
+        VISITED,
+        /** The search explored every user up to the maximum depth. */
+        DEPTH,
+        /** The search ran past its deadline. */
+        DEADLINE
+    }
+
+    /**
+     * A budget without any limit: searches run until they find the target or exhaust the
+     * component.
+     */
+    public static final TraversalBudget UNLIMITED =
+            new TraversalBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+
+    private final int maxVisited;
+    private final int maxDepth;
+    private final Duration timeout;
+    private final long timeoutNanos;
+
+    /**
+     * Creates a budget.
+     *
+     * @param maxVisited the maximum number of users a search may visit, including the source;
+     *                   use {@link Integer#MAX_VALUE} for no limit
+     * @param maxDepth   the maximum number of hops a search may follow; use
+     *                   {@link Integer#MAX_VALUE} for no limit
+     * @param timeout    the maximum time a search may run, or null for no deadline
+     * @throws IllegalArgumentException if {@code maxVisited} or {@code maxDepth} is not positive,
+     *                                  or if the timeout is negative
+     */
+    public TraversalBudget(int maxVisited, int maxDepth, Duration timeout) {
+        if (maxVisited < 1) {
+            throw new IllegalArgumentException("Maximum visited users must be positive: " + maxVisited);
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Maximum depth must be positive: " + maxDepth);
+        }
+        if (timeout != null && timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout cannot be negative: " + timeout);
+        }
+        this.maxVisited = maxVisited;
+        this.maxDepth = maxDepth;
+        this.timeout = timeout;
+        this.timeoutNanos = timeout == null ? Long.MAX_VALUE : saturatedNanos(timeout);
+    }
+
+    /**
+     * Returns a copy of this budget with another deadline.
+     *
+     * @param timeout the maximum time a search may run, or null for no deadline
+     * @return the new budget
+     */
+    public TraversalBudget withTimeout(Duration timeout) {
+        return new TraversalBudget(maxVisited, maxDepth, timeout);
+    }
+
+    /**
+     * Returns the maximum number of users a search may visit, including the source.
+     *
+     * @return the visit limit, {@link Integer#MAX_VALUE} if unlimited
+     */
+    public int getMaxVisited() {
+        return maxVisited;
+    }
+
+    /**
+     * Returns the maximum number of hops a search may follow.
+     *
+     * @return the depth limit, {@link Integer#MAX_VALUE} if unlimited
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns the maximum time a search may run.
+     *
+     * @return the timeout, or null if searches have no deadline
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns the timeout in nanoseconds, saturated to {@link Long#MAX_VALUE}.
+     *
+     * @return the timeout, or {@link Long#MAX_VALUE} if there is no deadline
+     */
+    long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TraversalBudget that)) {
+            return false;
+        }
+        return maxVisited == that.maxVisited && maxDepth == that.maxDepth
+                && Objects.equals(timeout, that.timeout);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxVisited, maxDepth, timeout);
+    }
+
+    @Override
+    public String toString() {
+        return "TraversalBudget{maxVisited=" + maxVisited + ", maxDepth=" + maxDepth
+                + ", timeout=" + timeout + "}";
+    }
+}
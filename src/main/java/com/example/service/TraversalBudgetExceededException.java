@@ -0,0 +1,62 @@
+package com.example.service;
+
+import com.example.exceptions.NoPathException;
+
+/**
+ * Exception thrown when a path or level query runs out of its traversal budget before it can
+ * tell whether a path exists.
+ * <p>
+ * Unlike {@link NoPathException}, this is not an answer about the graph: a path may well
+ * exist beyond the explored part. Budgets are hit on purpose under load, so the exception is
+ * cheap to throw: it captures no stack trace and records no suppressed exceptions.
+ * </p>
+ * <p>
+ * The exception lives next to {@link TraversalBudget}, whose {@link TraversalBudget.Limit} it
+ * reports, rather than in {@code com.example.exceptions}, which does not depend on the service
+ * layer.
+ * </p>
+ *
+ * <pre>
+ * Example usage:
+ *     if (visited == budget.getMaxVisited()) {
+ *         throw new TraversalBudgetExceededException(TraversalBudget.Limit.VISITED, visited,
+ *                 "Visited " + visited + " users without reaching user " + userId);
+ *     }
+ * </pre>
+ */
+public class TraversalBudgetExceededException extends RuntimeException {
+
+    private final TraversalBudget.Limit limit;
+    private final int visited;
+
+    /**
+     * Constructs a new TraversalBudgetExceededException.
+     *
+     * @param limit   the limit the search ran into
+     * @param visited the number of users the search visited before it stopped
+     * @param message the detail message
+     */
+    public TraversalBudgetExceededException(TraversalBudget.Limit limit, int visited, String message) {
+        super(message, null, false, false);
+        this.limit = limit;
+        this.visited = visited;
+    }
+
+    /**
+     * Returns the limit the search ran into.
+     *
+     * @return the exceeded limit
+     */
+    public TraversalBudget.Limit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of users the search visited before it stopped.
+     *
+     * @return the visited count, including the source
+     */
+    public int getVisited() {
+        return visited;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reusable working memory for a breadth-first search over user ordinals.
+ * <p>
+ * A context holds an {@code int} queue and a parent table indexed by ordinal. Instead of
+ * clearing the parent table before every search, each entry is paired with the generation of
+ * the search that wrote it: {@link #reset(int)} simply increments the generation, which marks
+ * every user as unvisited in O(1). Arrays are only reallocated when the network has grown past
+ * their length, so a search in a steady-state network allocates nothing.
+ * </p>
+ * <p>
+ * A context is confined to one thread at a time. Searches borrow one from a {@link Pool} and
+ * give it back when they are done.
+ * </p>
+ */
+final class TraversalContext {
+
+    private int[] queue = new int[0];
+    private int[] parents = new int[0];
+    private int[] generations = new int[0];
+    private int generation;
+    private int reached;
+
+    /**
+     * Prepares the context for a new search over a network of the given size.
+     *
+     * @param userCount the number of registered users
+     */
+    void reset(int userCount) {
+        if (queue.length < userCount) {
+            int capacity = Math.max(userCount, queue.length + (queue.length >> 1));
+            queue = new int[capacity];
+            parents = new int[capacity];
+            generations = new int[capacity];
+            generation = 0;
+        }
+        reached = 0;
+        if (++generation == 0) {
+            // The counter wrapped around: stale stamps could match again, so clear them once
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Records how many users the current search has reached so far.
+     *
+     * @param count the number of visited users, including the source
+     */
+    void setReached(int count) {
+        reached = count;
+    }
+
+    /**
+     * Returns the count recorded by {@link #setReached(int)} for the current search.
+     *
+     * @return the number of visited users, including the source
+     */
+    int reached() {
+        return reached;
+    }
+
+    /**
+     * Returns the BFS queue, with room for every user.
+     *
+     * @return the queue array
+     */
+    int[] queue() {
+        return queue;
+    }
+
+    /**
+     * Returns whether a user has been reached by the current search.
+     *
+     * @param user the ordinal of the user
+     * @return true if the user has been visited
+     */
+    boolean isVisited(int user) {
+        return generations[user] == generation;
+    }
+
+    /**
+     * Marks a user as reached by the current search.
+     *
+     * @param user   the ordinal of the user
+     * @param parent the ordinal of the user it was reached from; the source is its own parent
+     */
+    void visit(int user, int parent) {
+        generations[user] = generation;
+        parents[user] = parent;
+    }
+
+    /**
+     * Returns the user a visited user was reached from.
+     *
+     * @param user the ordinal of a visited user
+     * @return the ordinal of its parent
+     */
+    int parentOf(int user) {
+        return parents[user];
+    }
+
+    /**
+     * Returns the estimated heap size of the context and its arrays.
+     *
+     * @return the size in bytes
+     */
+    long sizeInBytes() {
+        return MemoryStats.OBJECT_HEADER_BYTES + 3 * MemoryStats.REFERENCE_BYTES + 2 * 4
+                + 3 * MemoryStats.arrayBytes(queue.length, 4);
+    }
+
+    /**
+     * Bounded, lock-free pool of contexts.
+     * <p>
+     * Contexts are kept in a small array of slots, one per processor. A thread first tries the
+     * slot picked by its ID, so a platform thread tends to get back the context it used last,
+     * and concurrent threads rarely contend for the same slot. When every slot is
+     * empty, a new context is created; when every slot is full, a returned context is dropped,
+     * which bounds the memory held by idle contexts.
+     * </p>
+     */
+    static final class Pool {
+        private final AtomicReferenceArray<TraversalContext> slots =
+                new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors());
+
+        /**
+         * Takes a context from the pool, or creates one if the pool is empty.
+         *
+         * @return a context owned by the caller until it is {@linkplain #release released}
+         */
+        TraversalContext acquire() {
+            int start = home();
+            for (int i = 0; i < slots.length(); i++) {
+                int slot = (start + i) % slots.length();
+                TraversalContext context = slots.get(slot);
+                if (context != null && slots.compareAndSet(slot, context, null)) {
+                    return context;
+                }
+            }
+            return new TraversalContext();
+        }
+
+        /**
+         * Returns a context to the pool. The caller must not use it afterwards.
+         *
+         * @param context the context to return
+         */
+        void release(TraversalContext context) {
+            int start = home();
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.compareAndSet((start + i) % slots.length(), null, context)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns the total size of the contexts currently waiting in the pool. Contexts that
+         * are in use by a search are not counted.
+         *
+         * @return the estimated size in bytes
+         */
+        long idleBytes() {
+            long bytes = 0;
+            for (int slot = 0; slot < slots.length(); slot++) {
+                TraversalContext context = slots.get(slot);
+                if (context != null) {
+                    bytes += context.sizeInBytes();
+                }
+            }
+            return bytes;
+        }
+
+        private int home() {
+            return (int) (Thread.currentThread().threadId() % slots.length());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.shard;
+
+import com.example.domain.Persona;
+import com.example.exceptions.UserAlreadyExistsException;
+import com.example.exceptions.UserNotFoundException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Shard} that keeps its partition in the heap of the current process.
+ * <p>
+ * The adjacency of each user is a {@link TreeSet} ordered by name and then by ID, whereas
+ * {@code SocialNetworkImpl} stores the friends of a user as an {@code AdaptiveIntSet} of
+ * ordinals and sorts them by name only when they are read. The users keep their registration
+ * order in a list. Mutations must
+ * not run concurrently with each other or with reads; any number of searches may run at the
+ * same time, as each one has its own state.
+ * </p>
+ */
+public class InMemoryShard implements Shard {
+
+    private static final Comparator<Persona> PERSONA_COMPARATOR = Comparator
+            .comparing(Persona::getName)
+            .thenComparing(Persona::getId);
+
+    private final Map<String, Persona> users = new HashMap<>();
+    private final Map<String, Set<Persona>> friends = new HashMap<>();
+    private final List<Registration> registrations = new ArrayList<>();
+
+    /**
+     * Per-search map from each reached owned user to its parent. The inner maps are only
+     * touched by one coordinator step at a time.
+     */
+    private final Map<Long, Map<String, String>> searches = new ConcurrentHashMap<>();
+
+    @Override
+    public void addUser(Persona user, long sequence) {
+        if (users.putIfAbsent(user.getId(), user) != null) {
+            throw new UserAlreadyExistsException("User with ID " + user.getId() + " already exists");
+        }
+        friends.put(user.getId(), new TreeSet<>(PERSONA_COMPARATOR));
+        registrations.add(new Registration(sequence, user));
+    }
+
+    @Override
+    public Persona getUser(String id) {
+        Persona user = users.get(id);
+        if (user == null) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        return user;
+    }
+
+    @Override
+    public boolean addFriend(String id, Persona friend) {
+        return friendsOf(id).add(friend);
+    }
+
+    @Override
+    public Set<Persona> getFriends(String id) {
+        return Collections.unmodifiableSet(friendsOf(id));
+    }
+
+    @Override
+    public List<Registration> getRegistrations() {
+        return Collections.unmodifiableList(registrations);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Time Complexity: O(b) where b is the size of the batch.
+     * </p>
+     */
+    @Override
+    public String[] visit(long searchId, EdgeBatch candidates) {
+        Map<String, String> parents = searches.computeIfAbsent(searchId, id -> new HashMap<>());
+        List<String> reached = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            String target = candidates.targets()[i];
+            if (parents.putIfAbsent(target, candidates.sources()[i]) == null) {
+                reached.add(target);
+            }
+        }
+        return reached.toArray(String[]::new);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Time Complexity: O(f + e) where f is the size of the frontier and e is the number of
+     * connections of the frontier users.
+     * </p>
+     */
+    @Override
+    public EdgeBatch expand(long searchId, String[] frontier) {
+        Map<String, String> parents = searches.getOrDefault(searchId, Map.of());
+        Set<String> discovered = new HashSet<>();
+        List<String> targets = new ArrayList<>();
+        List<String> sources = new ArrayList<>();
+        for (String id : frontier) {
+            for (Persona friend : friendsOf(id)) {
+                String target = friend.getId();
+                if (!parents.containsKey(target) && discovered.add(target)) {
+                    targets.add(target);
+                    sources.add(id);
+                }
+            }
+        }
+        return new EdgeBatch(targets.toArray(String[]::new), sources.toArray(String[]::new));
+    }
+
+    @Override
+    public String getParent(long searchId, String id) {
+        Map<String, String> parents = searches.get(searchId);
+        String parent = parents == null ? null : parents.get(id);
+        if (parent == null) {
+            throw new IllegalStateException("User " + id + " was not reached by search " + searchId);
+        }
+        return parent;
+    }
+
+    @Override
+    public void endSearch(long searchId) {
+        searches.remove(searchId);
+    }
+
+    private Set<Persona> friendsOf(String id) {
+        Set<Persona> set = friends.get(id);
+        if (set == null) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        return set;
+    }
+}
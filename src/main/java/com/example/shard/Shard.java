@@ -0,0 +1,148 @@
+package com.example.shard;
+
+import com.example.domain.Persona;
+import com.example.exceptions.UserAlreadyExistsException;
+import com.example.exceptions.UserNotFoundException;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One partition of a {@link ShardedSocialNetwork}.
+ * <p>
+ * A shard owns the users whose ID hashes to it, together with their adjacency: for every
+ * owned user it stores the full {@link Persona} of each friend, whether that friend lives on
+ * this shard or on another one. Cross-shard connections are therefore stored twice, once on
+ * each side.
+ * </p>
+ * <p>
+ * The contract only exchanges plain values (IDs, users and arrays of IDs), so a shard can be
+ * an in-process {@link InMemoryShard} or a stand-in that forwards each call to another
+ * process. Traversals are expressed as whole-frontier batches: a search costs a constant
+ * number of calls per shard and BFS level rather than one call per visited user.
+ * </p>
+ * <p>
+ * The traversal methods keep per-search state on the shard, identified by a search ID chosen
+ * by the coordinator. That state holds, for every owned user reached by the search, the user
+ * it was reached from. It lives until {@link #endSearch(long)} is called.
+ * </p>
+ */
+public interface Shard {
+
+    /**
+     * A batch of edges discovered during a traversal, as two parallel arrays.
+     *
+     * @param targets the IDs of the discovered users
+     * @param sources the ID of the user each target was reached from
+     */
+    record EdgeBatch(String[] targets, String[] sources) {
+
+        /**
+         * Returns the number of edges in the batch.
+         *
+         * @return the batch size
+         */
+        public int size() {
+            return targets.length;
+        }
+    }
+
+    /**
+     * A user together with its global registration sequence number.
+     *
+     * @param sequence the position of the user in the network-wide registration order
+     * @param user     the user
+     */
+    record Registration(long sequence, Persona user) {
+    }
+
+    /**
+     * Stores a new user on this shard.
+     *
+     * @param user     the user to add
+     * @param sequence the network-wide registration sequence number of the user
+     * @throws UserAlreadyExistsException if a user with the same ID already exists
+     */
+    void addUser(Persona user, long sequence);
+
+    /**
+     * Returns an owned user.
+     *
+     * @param id the ID of the user
+     * @return the user
+     * @throws UserNotFoundException if this shard does not own a user with that ID
+     */
+    Persona getUser(String id);
+
+    /**
+     * Adds one side of a connection: {@code friend} becomes a friend of the owned user {@code id}.
+     *
+     * @param id     the ID of the owned user
+     * @param friend the new friend, which may live on another shard
+     * @return true if the connection was added, false if it already existed
+     * @throws UserNotFoundException if this shard does not own a user with that ID
+     */
+    boolean addFriend(String id, Persona friend);
+
+    /**
+     * Returns the friends of an owned user, ordered by name and then by ID.
+     *
+     * @param id the ID of the owned user
+     * @return an unmodifiable view of the friends
+     * @throws UserNotFoundException if this shard does not own a user with that ID
+     */
+    Set<Persona> getFriends(String id);
+
+    /**
+     * Returns the owned users in registration order.
+     *
+     * @return the registrations of this shard, ordered by sequence number
+     */
+    List<Registration> getRegistrations();
+
+    /**
+     * Marks a batch of users as reached by a search and returns those reached for the first time.
+     * <p>
+     * Every target must be owned by this shard. A target that the search has already reached
+     * is ignored; otherwise its source is recorded as its parent.
+     * </p>
+     *
+     * @param searchId   the search
+     * @param candidates the reached users and the users they were reached from
+     * @return the IDs of the users reached for the first time, which form this shard's part of
+     *         the next frontier
+     */
+    String[] visit(long searchId, EdgeBatch candidates);
+
+    /**
+     * Expands this shard's part of a frontier by one level.
+     * <p>
+     * Every frontier user must be owned by this shard. The result holds each neighbor that
+     * is not known to have been reached already, at most once per call, paired with the
+     * frontier user it was found from. Neighbors owned by other shards cannot be checked
+     * locally and are always included; the coordinator routes them to their owners'
+     * {@link #visit(long, EdgeBatch)}.
+     * </p>
+     *
+     * @param searchId the search
+     * @param frontier the IDs of the frontier users owned by this shard
+     * @return the discovered edges
+     */
+    EdgeBatch expand(long searchId, String[] frontier);
+
+    /**
+     * Returns the user an owned user was reached from during a search.
+     *
+     * @param searchId the search
+     * @param id       the ID of an owned user reached by the search
+     * @return the ID of its parent, or {@code id} itself for the source of the search
+     */
+    String getParent(long searchId, String id);
+
+    /**
+     * Discards the state of a search. Calling it for an unknown search has no effect.
+     *
+     * @param searchId the search
+     */
+    void endSearch(long searchId);
+}
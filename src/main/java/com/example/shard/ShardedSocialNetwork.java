@@ -0,0 +1,335 @@
+package com.example.shard;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.exceptions.NoPathException;
+import com.example.service.SocialNetwork;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * {@link SocialNetwork} whose users are partitioned across several {@link Shard}s by ID hash.
+ * <p>
+ * Every user lives on exactly one shard, chosen by {@link #shardOf(String)}, and each shard
+ * stores the adjacency of its own users. A connection between users on different shards is
+ * recorded on both of them, so {@link #getFriends(String)} is answered by a single shard.
+ * </p>
+ * <p>
+ * Path queries run as a distributed, level-synchronous BFS. In each round, every shard that
+ * holds part of the current frontier expands it in one call; the discovered edges are then
+ * grouped by the shard that owns their target and delivered to that shard in one batch, which
+ * marks the targets it had not seen yet and thereby builds its part of the next frontier. A
+ * round therefore costs at most two calls per shard, however many users the frontier holds,
+ * and the shards work in parallel within each step. Once the target is reached, the path is
+ * rebuilt by following the parent pointers recorded on the owning shards.
+ * </p>
+ * <p>
+ * Like {@code SocialNetworkImpl}, the network is not safe for concurrent mutations; concurrent
+ * path queries are supported, each with its own search state on the shards.
+ * </p>
+ */
+public class ShardedSocialNetwork implements SocialNetwork {
+
+    private final List<Shard> shards;
+    private final AtomicLong registrations = new AtomicLong();
+    private final AtomicLong searches = new AtomicLong();
+
+    /**
+     * Creates a network with the given number of empty in-process shards.
+     *
+     * @param shardCount the number of shards
+     * @throws IllegalArgumentException if {@code shardCount} is not positive
+     */
+    public ShardedSocialNetwork(int shardCount) {
+        this(IntStream.range(0, requirePositive(shardCount)).<Shard>mapToObj(i -> new InMemoryShard()).toList());
+    }
+
+    /**
+     * Creates a network over the given shards, which must be empty.
+     *
+     * @param shards the shards; users are assigned to them by position
+     * @throws IllegalArgumentException if the list is empty
+     */
+    public ShardedSocialNetwork(List<? extends Shard> shards) {
+        Objects.requireNonNull(shards, "Shards cannot be null");
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the index of the shard that owns a user ID.
+     *
+     * @param id the user ID
+     * @return the index of the owning shard
+     */
+    public int shardOf(String id) {
+        return Math.floorMod(id.hashCode(), shards.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The user is stored on its owning shard only, together with a network-wide sequence
+     * number that preserves the registration order across shards.
+     */
+    @Override
+    public void registerUser(Persona user) {
+        Objects.requireNonNull(user, "User cannot be null");
+        shards.get(shardOf(user.getId())).addUser(user, registrations.getAndIncrement());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * Both users are looked up before anything is written. The connection is then added on
+     * the first user's shard and, only if it was new, on the second user's shard.
+     */
+    @Override
+    public void connect(String id1, String id2) {
+        if (id1.equals(id2)) {
+            throw new IllegalArgumentException("Cannot connect a user to themselves");
+        }
+
+        Shard shard1 = shards.get(shardOf(id1));
+        Shard shard2 = shards.get(shardOf(id2));
+        Persona user1 = shard1.getUser(id1);
+        Persona user2 = shard2.getUser(id2);
+
+        if (!shard1.addFriend(id1, user2)) {
+            throw new ConnectionAlreadyExistsException(
+                    "Connection between users " + id1 + " and " + id2 + " already exists");
+        }
+        shard2.addFriend(id2, user1);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * Answered by the owning shard alone, since it stores the friends of its users in full.
+     */
+    @Override
+    public Set<Persona> getFriends(String id) {
+        return shards.get(shardOf(id)).getFriends(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The implementation runs the distributed, level-synchronous BFS described in the class
+     * documentation. Time Complexity: O(V + E) work spread over the shards, in O(d) rounds of
+     * at most two batched calls per shard, where d is the length of the path.
+     */
+    @Override
+    public List<Persona> getConnectionPathBetween(String id1, String id2) {
+        Persona start = shards.get(shardOf(id1)).getUser(id1);
+        Persona end = shards.get(shardOf(id2)).getUser(id2);
+
+        if (start.equals(end)) {
+            return List.of(start);
+        }
+
+        long searchId = searches.getAndIncrement();
+        try {
+            String[][] frontier = new String[shards.size()][0];
+            int sourceShard = shardOf(id1);
+            frontier[sourceShard] = shards.get(sourceShard)
+                    .visit(searchId, new Shard.EdgeBatch(new String[]{id1}, new String[]{id1}));
+            int targetShard = shardOf(id2);
+
+            while (!isEmpty(frontier)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Traversal interrupted");
+                }
+                Shard.EdgeBatch[] outgoing = expand(searchId, frontier);
+                Shard.EdgeBatch[] incoming = route(outgoing);
+                visit(searchId, incoming, frontier);
+                if (contains(frontier[targetShard], id2)) {
+                    return buildPath(searchId, id1, id2);
+                }
+            }
+            throw new NoPathException("No path exists between user " + id1 + " and user " + id2);
+        } finally {
+            for (Shard shard : shards) {
+                shard.endSearch(searchId);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * The implementation finds the shortest path using the distributed BFS and then returns
+     * the length of the path minus 1, which gives the number of edges in the path.
+     */
+    @Override
+    public int getConnectionLevelBetween(String id1, String id2) {
+        return getConnectionPathBetween(id1, id2).size() - 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote
+     * Each shard returns its users in registration order, and the per-shard lists are merged
+     * by sequence number with a priority queue. Time Complexity: O(n log s) where s is the
+     * number of shards.
+     */
+    @Override
+    public Set<Persona> getUsersOrderedByRegistration() {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>();
+        for (Shard shard : shards) {
+            List<Shard.Registration> list = shard.getRegistrations();
+            if (!list.isEmpty()) {
+                heads.add(new Cursor(list));
+            }
+        }
+        Set<Persona> ordered = new LinkedHashSet<>();
+        while (!heads.isEmpty()) {
+            Cursor head = heads.poll();
+            ordered.add(head.current().user());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return Collections.unmodifiableSet(ordered);
+    }
+
+    /**
+     * Expands every non-empty part of the frontier, with the shards working in parallel.
+     */
+    private Shard.EdgeBatch[] expand(long searchId, String[][] frontier) {
+        Shard.EdgeBatch[] outgoing = new Shard.EdgeBatch[shards.size()];
+        IntStream.range(0, shards.size()).parallel()
+                .filter(s -> frontier[s].length > 0)
+                .forEach(s -> outgoing[s] = shards.get(s).expand(searchId, frontier[s]));
+        return outgoing;
+    }
+
+    /**
+     * Regroups the discovered edges by the shard that owns their target.
+     */
+    private Shard.EdgeBatch[] route(Shard.EdgeBatch[] outgoing) {
+        List<List<String>> targets = new ArrayList<>();
+        List<List<String>> sources = new ArrayList<>();
+        for (int s = 0; s < shards.size(); s++) {
+            targets.add(new ArrayList<>());
+            sources.add(new ArrayList<>());
+        }
+        for (Shard.EdgeBatch batch : outgoing) {
+            if (batch == null) {
+                continue;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                int owner = shardOf(batch.targets()[i]);
+                targets.get(owner).add(batch.targets()[i]);
+                sources.get(owner).add(batch.sources()[i]);
+            }
+        }
+        Shard.EdgeBatch[] incoming = new Shard.EdgeBatch[shards.size()];
+        for (int s = 0; s < shards.size(); s++) {
+            incoming[s] = new Shard.EdgeBatch(targets.get(s).toArray(String[]::new),
+                    sources.get(s).toArray(String[]::new));
+        }
+        return incoming;
+    }
+
+    /**
+     * Delivers each batch to its shard and stores the resulting next frontier.
+     */
+    private void visit(long searchId, Shard.EdgeBatch[] incoming, String[][] frontier) {
+        IntStream.range(0, shards.size()).parallel()
+                .forEach(s -> frontier[s] = incoming[s].size() == 0
+                        ? new String[0]
+                        : shards.get(s).visit(searchId, incoming[s]));
+    }
+
+    private List<Persona> buildPath(long searchId, String id1, String id2) {
+        List<Persona> path = new ArrayList<>();
+        String current = id2;
+        while (true) {
+            Shard owner = shards.get(shardOf(current));
+            path.add(owner.getUser(current));
+            if (current.equals(id1)) {
+                break;
+            }
+            current = owner.getParent(searchId, current);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static boolean isEmpty(String[][] frontier) {
+        for (String[] part : frontier) {
+            if (part.length > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(String[] ids, String id) {
+        for (String candidate : ids) {
+            if (candidate.equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int requirePositive(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        return shardCount;
+    }
+
+    /**
+     * Position in one shard's registration list during the k-way merge.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final List<Shard.Registration> registrations;
+        private int index;
+
+        Cursor(List<Shard.Registration> registrations) {
+            this.registrations = registrations;
+        }
+
+        Shard.Registration current() {
+            return registrations.get(index);
+        }
+
+        boolean advance() {
+            return ++index < registrations.size();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(current().sequence(), other.current().sequence());
+        }
+    }
+}
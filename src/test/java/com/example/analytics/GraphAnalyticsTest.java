@@ -0,0 +1,151 @@
+package com.example.analytics;
+
+import com.example.domain.Persona;
+import com.example.exceptions.UserNotFoundException;
+import com.example.graph.GraphSnapshot;
+import com.example.service.SocialNetwork;
+import com.example.service.SocialNetworkImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link GraphAnalytics}.
+ * <p>
+ * The small fixture graph is a four-clique (users 1-4) with a tail (4-5), an isolated user (6)
+ * and a separate pair (7-8), so every metric can be checked by hand. A larger random graph
+ * exercises the parallel block processing against a brute-force reference.
+ * </p>
+ */
+@DisplayName("GraphAnalytics Tests")
+class GraphAnalyticsTest {
+
+    private SocialNetwork network;
+
+    @BeforeEach
+    void setUp() {
+        network = new SocialNetworkImpl();
+        for (int i = 1; i <= 8; i++) {
+            network.registerUser(user(i));
+        }
+        network.connect("1", "2");
+        network.connect("1", "3");
+        network.connect("1", "4");
+        network.connect("2", "3");
+        network.connect("2", "4");
+        network.connect("3", "4");
+        network.connect("4", "5");
+        network.connect("7", "8");
+    }
+
+    @Test
+    @DisplayName("Should compute the degree histogram")
+    void shouldComputeDegreeHistogram() {
+        NetworkMetrics metrics = new GraphAnalytics(network.snapshot()).computeMetrics();
+
+        // degree 0: user 6; degree 1: users 5, 7, 8; degree 3: users 1, 2, 3; degree 4: user 4
+        assertArrayEquals(new long[]{1, 3, 0, 3, 1}, metrics.getDegreeHistogram());
+        assertEquals(8, metrics.getUserCount());
+        assertEquals(8, metrics.getEdgeCount());
+    }
+
+    @Test
+    @DisplayName("Should count triangles and clustering coefficients")
+    void shouldCountTrianglesAndClustering() {
+        NetworkMetrics metrics = new GraphAnalytics(network.snapshot()).computeMetrics();
+
+        assertEquals(4, metrics.getTriangleCount());
+        assertEquals(3, metrics.getTriangles("1"));
+        assertEquals(3, metrics.getTriangles("4"));
+        assertEquals(1.0, metrics.getLocalClustering("1"), 1e-9);
+        assertEquals(0.5, metrics.getLocalClustering("4"), 1e-9);
+        assertEquals(0.0, metrics.getLocalClustering("5"), 1e-9);
+        assertEquals(3.5 / 8, metrics.getAverageClustering(), 1e-9);
+        // 12 closed triples out of 3 * 3 + 6 = 15 connected triples
+        assertEquals(12.0 / 15, metrics.getGlobalClustering(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should find connected components")
+    void shouldFindConnectedComponents() {
+        NetworkMetrics metrics = new GraphAnalytics(network.snapshot()).computeMetrics();
+
+        assertEquals(5, metrics.getLargestComponentSize());
+        assertEquals(3, metrics.getComponentCount());
+    }
+
+    @Test
+    @DisplayName("Should report progress for every phase")
+    void shouldReportProgress() {
+        Set<GraphAnalytics.Phase> completed = ConcurrentHashMap.newKeySet();
+        ProgressListener listener = (phase, done, total) -> {
+            if (done == total) {
+                completed.add(phase);
+            }
+        };
+
+        new GraphAnalytics(network.snapshot(), listener).computeMetrics();
+
+        assertEquals(EnumSet.range(GraphAnalytics.Phase.DEGREES, GraphAnalytics.Phase.COMPONENTS), completed);
+    }
+
+    @Test
+    @DisplayName("Should match a brute-force triangle count on a large random graph")
+    void shouldMatchBruteForceOnRandomGraph() {
+        SocialNetwork large = new SocialNetworkImpl();
+        int n = 10_000;
+        for (int i = 0; i < n; i++) {
+            large.registerUser(user(i));
+        }
+        Random random = new Random(42);
+        Set<Long> edges = new HashSet<>();
+        while (edges.size() < 40_000) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(u < 100 ? n : 300);
+            if (u != v && edges.add((long) Math.min(u, v) * n + Math.max(u, v))) {
+                large.connect(String.valueOf(u), String.valueOf(v));
+            }
+        }
+
+        GraphSnapshot snapshot = large.snapshot();
+        NetworkMetrics metrics = new GraphAnalytics(snapshot).computeMetrics();
+
+        long expected = 0;
+        for (int u = 0; u < n; u++) {
+            Set<Integer> neighborsOfU = new HashSet<>();
+            for (int v : snapshot.neighbors(u)) {
+                neighborsOfU.add(v);
+            }
+            for (int v : snapshot.neighbors(u)) {
+                for (int w : snapshot.neighbors(v)) {
+                    if (u < v && v < w && neighborsOfU.contains(w)) {
+                        expected++;
+                    }
+                }
+            }
+        }
+        assertEquals(expected, metrics.getTriangleCount());
+    }
+
+    @Test
+    @DisplayName("Should throw UserNotFoundException for a user outside the snapshot")
+    void shouldThrowForUnknownUser() {
+        NetworkMetrics metrics = new GraphAnalytics(network.snapshot()).computeMetrics();
+
+        assertThrows(UserNotFoundException.class, () -> metrics.getLocalClustering("999"));
+    }
+
+    private static Persona user(int id) {
+        return new Persona(String.valueOf(id), "User " + id, LocalDate.of(1990, 1, 1),
+                "Barcelona", LocalDate.of(2023, 1, 1));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.analytics;
+
+import com.example.domain.Persona;
+import com.example.exceptions.UserNotFoundException;
+import com.example.service.SocialNetwork;
+import com.example.service.SocialNetworkImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link PageRank}.
+ * <p>
+ * The fixture is a star centered on user 1 with five leaves (2-6), a chain 6-7-8, and an
+ * isolated user 9.
+ * </p>
+ */
+@DisplayName("PageRank Tests")
+class PageRankTest {
+
+    private SocialNetwork network;
+
+    @BeforeEach
+    void setUp() {
+        network = new SocialNetworkImpl();
+        for (int i = 1; i <= 9; i++) {
+            network.registerUser(new Persona(String.valueOf(i), "User " + i, LocalDate.of(1990, 1, 1),
+                    "Madrid", LocalDate.of(2023, 1, 1)));
+        }
+        for (int leaf = 2; leaf <= 6; leaf++) {
+            network.connect("1", String.valueOf(leaf));
+        }
+        network.connect("6", "7");
+        network.connect("7", "8");
+    }
+
+    @Test
+    @DisplayName("Should converge to scores that sum to one")
+    void shouldConvergeToProbabilityDistribution() {
+        InfluenceScores scores = new PageRank(network.snapshot()).compute();
+
+        assertTrue(scores.isConverged());
+        assertEquals(1.0, Arrays.stream(scores.toArray()).sum(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should rank the hub of the star first")
+    void shouldRankHubFirst() {
+        InfluenceScores scores = new PageRank(network.snapshot()).compute();
+
+        List<InfluenceScores.Entry> top = scores.topK(2);
+        assertEquals(2, top.size());
+        assertEquals("1", top.get(0).user().getId());
+        assertTrue(top.get(0).score() > top.get(1).score());
+        assertTrue(scores.getScore("1") > scores.getScore("2"));
+        assertTrue(scores.getScore("6") > scores.getScore("2"));
+    }
+
+    @Test
+    @DisplayName("Should return every user when k exceeds the number of users")
+    void shouldReturnAllUsersForLargeK() {
+        InfluenceScores scores = new PageRank(network.snapshot()).compute();
+
+        List<InfluenceScores.Entry> all = scores.topK(100);
+        assertEquals(9, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).score() >= all.get(i).score());
+        }
+    }
+
+    @Test
+    @DisplayName("Should concentrate personalized scores around the seed")
+    void shouldConcentratePersonalizedScores() {
+        InfluenceScores scores = new PageRank(network.snapshot()).computePersonalized("8");
+
+        assertEquals(1.0, Arrays.stream(scores.toArray()).sum(), 1e-9);
+        assertTrue(scores.getScore("8") > scores.getScore("1"));
+        assertTrue(scores.getScore("7") > scores.getScore("2"));
+        assertEquals(0.0, scores.getScore("9"), 1e-12);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters and unknown seeds")
+    void shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PageRank(network.snapshot(), 1.0, 1e-9, 10, ProgressListener.NONE));
+        assertThrows(UserNotFoundException.class,
+                () -> new PageRank(network.snapshot()).computePersonalized("999"));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.analytics;
+
+import com.example.domain.Persona;
+import com.example.events.ChangeEventRingBuffer;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.exceptions.UserNotFoundException;
+import com.example.graph.GraphSnapshot;
+import com.example.service.SocialNetwork;
+import com.example.service.SocialNetworkImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link ReachSketches}.
+ */
+@DisplayName("ReachSketches Tests")
+class ReachSketchesTest {
+
+    private static Persona user(int i) {
+        return new Persona(String.valueOf(i), "User " + i, LocalDate.of(1990, 1, 1),
+                "Madrid", LocalDate.of(2023, 1, 1));
+    }
+
+    /**
+     * Builds a network of {@code n} users with a ring of nearby friendships and a few random
+     * shortcuts, connected in a deterministic order.
+     */
+    private static List<int[]> randomEdges(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<int[]> edges = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            edges.add(new int[]{u, (u + 1) % n});
+            edges.add(new int[]{u, (u + 2 + random.nextInt(5)) % n});
+            if (random.nextInt(20) == 0) {
+                edges.add(new int[]{u, random.nextInt(n)});
+            }
+        }
+        return edges;
+    }
+
+    private static void connectAll(SocialNetwork network, List<int[]> edges) {
+        for (int[] edge : edges) {
+            if (edge[0] != edge[1]) {
+                try {
+                    network.connect(String.valueOf(edge[0]), String.valueOf(edge[1]));
+                } catch (ConnectionAlreadyExistsException e) {
+                    // Random shortcuts may repeat a ring edge
+                }
+            }
+        }
+    }
+
+    private static int exactReach(GraphSnapshot graph, int source, int hops) {
+        int[] distances = new int[graph.userCount()];
+        Arrays.fill(distances, -1);
+        int[] queue = new int[graph.userCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distances[source] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            if (distances[current] == hops) {
+                continue;
+            }
+            for (int edge = graph.edgeStart(current); edge < graph.edgeEnd(current); edge++) {
+                int next = graph.target(edge);
+                if (distances[next] < 0) {
+                    distances[next] = distances[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail - 1;
+    }
+
+    @Test
+    @DisplayName("Should estimate reach within a few standard errors of an exact BFS")
+    void shouldApproximateExactReach() {
+        SocialNetwork network = new SocialNetworkImpl();
+        for (int i = 0; i < 5000; i++) {
+            network.registerUser(user(i));
+        }
+        connectAll(network, randomEdges(5000, 3));
+        GraphSnapshot graph = network.snapshot();
+
+        AtomicInteger progress = new AtomicInteger();
+        ReachSketches reach = ReachSketches.fromSnapshot(graph, 4, 10,
+                (phase, completed, total) -> progress.incrementAndGet());
+
+        assertEquals(4, progress.get());
+        assertEquals(4L * 5000 * 1024, reach.sizeInBytes());
+        double tolerance = 4 * reach.getRelativeStandardError();
+        for (int u = 0; u < 5000; u += 97) {
+            for (int hops = 1; hops <= 4; hops++) {
+                int exact = exactReach(graph, u, hops);
+                long estimate = reach.estimateReach(String.valueOf(u), hops);
+                assertEquals(exact, estimate, Math.max(2, exact * tolerance), "user " + u + ", hops " + hops);
+            }
+        }
+        assertEquals(0, reach.estimateReach("0", 0));
+    }
+
+    @Test
+    @DisplayName("Should match a full rebuild after incremental updates from the change feed")
+    void shouldMatchRebuildAfterIncrementalUpdates() {
+        ChangeEventRingBuffer feed = new ChangeEventRingBuffer(1 << 14, ChangeEventRingBuffer.BackpressurePolicy.BLOCK);
+        ChangeEventRingBuffer.Subscription subscription = feed.subscribe();
+        SocialNetwork network = new SocialNetworkImpl(feed);
+        List<int[]> edges = randomEdges(800, 9);
+        for (int i = 0; i < 600; i++) {
+            network.registerUser(user(i));
+        }
+        connectAll(network, edges.stream().filter(e -> e[0] < 600 && e[1] < 600).limit(700).toList());
+
+        ReachSketches reach = ReachSketches.fromSnapshot(network.snapshot(), 3);
+        // Replaying events the snapshot already includes changes nothing
+        while (subscription.poll(reach, 256) > 0) {
+            // drain
+        }
+        for (int i = 600; i < 800; i++) {
+            network.registerUser(user(i));
+        }
+        connectAll(network, edges);
+        while (subscription.poll(reach, 256) > 0) {
+            // drain
+        }
+
+        ReachSketches rebuilt = ReachSketches.fromSnapshot(network.snapshot(), 3);
+        for (int u = 0; u < 800; u++) {
+            for (int hops = 1; hops <= 3; hops++) {
+                assertEquals(rebuilt.estimateReach(String.valueOf(u), hops),
+                        reach.estimateReach(String.valueOf(u), hops), "user " + u + ", hops " + hops);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters and unknown users")
+    void shouldRejectInvalidArguments() {
+        SocialNetwork network = new SocialNetworkImpl();
+        network.registerUser(user(1));
+        network.registerUser(user(2));
+        ReachSketches reach = ReachSketches.fromSnapshot(network.snapshot(), 2);
+
+        assertThrows(IllegalArgumentException.class, () -> ReachSketches.fromSnapshot(network.snapshot(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReachSketches.fromSnapshot(network.snapshot(), 2, 3, ProgressListener.NONE));
+        assertThrows(IllegalArgumentException.class, () -> reach.estimateReach("1", 3));
+        assertThrows(UserNotFoundException.class, () -> reach.estimateReach("3", 1));
+        assertThrows(UserNotFoundException.class, () -> reach.addConnection("1", "3"));
+        assertThrows(IllegalArgumentException.class, () -> reach.addConnection("1", "1"));
+
+        reach.addUser("3");
+        reach.addConnection("1", "3");
+        reach.addConnection("2", "3");
+        assertEquals(1, reach.estimateReach("1", 1));
+        assertEquals(2, reach.estimateReach("1", 2));
+    }
+}
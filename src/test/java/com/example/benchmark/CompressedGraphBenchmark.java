@@ -0,0 +1,159 @@
+package com.example.benchmark;
+
+import com.example.domain.Persona;
+import com.example.graph.CompressedGraph;
+import com.example.graph.GraphSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a full BFS over the four-byte CSR targets of a {@link GraphSnapshot} with the same
+ * BFS over the varint-encoded rows of a {@link CompressedGraph}.
+ * <p>
+ * Friends are drawn mostly from a window of nearby ordinals, as after a locality reordering,
+ * with a share of long-range friendships set by {@code remoteShare}. The setup prints the size
+ * of both layouts, so the memory saved can be weighed against the traversal slowdown:
+ * </p>
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.example.benchmark.CompressedGraphBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressedGraphBenchmark {
+
+    @Param({"200000"})
+    public int users;
+
+    @Param({"16"})
+    public int friendsPerUser;
+
+    @Param({"0.1"})
+    public double remoteShare;
+
+    private GraphSnapshot snapshot;
+    private CompressedGraph compressed;
+    private CompressedGraph.Cursor cursor;
+    private int[] distances;
+    private int[] queue;
+
+    @Setup(Level.Trial)
+    public void createGraphs() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<int[]> neighbors = new ArrayList<>(users);
+        int[][] rows = new int[users][];
+        int[] sizes = new int[users];
+        for (int u = 0; u < users; u++) {
+            rows[u] = new int[friendsPerUser * 2];
+        }
+        for (int u = 0; u < users; u++) {
+            for (int k = 0; k < friendsPerUser / 2; k++) {
+                int v = random.nextDouble() < remoteShare
+                        ? random.nextInt(users)
+                        : Math.floorMod(u + random.nextInt(-64, 65), users);
+                if (v != u) {
+                    rows[u] = append(rows[u], sizes[u]++, v);
+                    rows[v] = append(rows[v], sizes[v]++, u);
+                }
+            }
+        }
+        List<Persona> personas = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            personas.add(new Persona(Integer.toString(u), "User " + u, LocalDate.of(1990, 1, 1),
+                    "Barcelona", LocalDate.of(2023, 1, 1)));
+            neighbors.add(Arrays.stream(rows[u], 0, sizes[u]).sorted().distinct().toArray());
+        }
+        snapshot = GraphSnapshot.fromAdjacency(personas, neighbors);
+        compressed = CompressedGraph.fromSnapshot(snapshot);
+        cursor = compressed.cursor();
+        distances = new int[users];
+        queue = new int[users];
+
+        long csrBytes = (snapshot.userCount() + 1L) * Integer.BYTES + 2 * snapshot.edgeCount() * Integer.BYTES;
+        System.out.printf("%nCSR: %,d bytes, compressed: %,d bytes (%.2fx smaller)%n",
+                csrBytes, compressed.sizeInBytes(), (double) csrBytes / compressed.sizeInBytes());
+    }
+
+    private static int[] append(int[] row, int size, int value) {
+        int[] result = size == row.length ? Arrays.copyOf(row, size * 2) : row;
+        result[size] = value;
+        return result;
+    }
+
+    @Benchmark
+    public int csrBfs() {
+        Arrays.fill(distances, -1);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        distances[0] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int edge = snapshot.edgeStart(current); edge < snapshot.edgeEnd(current); edge++) {
+                int next = snapshot.target(edge);
+                if (distances[next] < 0) {
+                    distances[next] = distances[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    @Benchmark
+    public int compressedBfs() {
+        Arrays.fill(distances, -1);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        distances[0] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            cursor.reset(current);
+            for (int next = cursor.next(); next != CompressedGraph.NO_MORE; next = cursor.next()) {
+                if (distances[next] < 0) {
+                    distances[next] = distances[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args ignored
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompressedGraphBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
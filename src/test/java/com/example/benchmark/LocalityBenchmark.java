@@ -0,0 +1,174 @@
+package com.example.benchmark;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.graph.GraphReordering;
+import com.example.graph.GraphSnapshot;
+import com.example.service.ConnectionResult;
+import com.example.service.SocialNetworkImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures traversals over users numbered in registration order against the same graph after
+ * a locality reordering.
+ * <p>
+ * The graph has mostly local friendships - each user befriends users whose position in a
+ * hidden "community" layout is close to its own - but users register in random order, so
+ * registration ordinals scatter every community over the whole range. {@code snapshotBfs}
+ * runs a full BFS over a {@link GraphSnapshot} renumbered with each strategy, and
+ * {@code networkLevels} runs level queries on a {@link SocialNetworkImpl}, reordered with
+ * {@link SocialNetworkImpl#reorderForLocality(GraphReordering.Strategy)} unless the ordering
+ * is {@code REGISTRATION}. Add {@code -prof perfnorm} on Linux to see the cache misses per
+ * operation:
+ * </p>
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     org.openjdk.jmh.Main LocalityBenchmark -prof perfnorm
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalityBenchmark {
+
+    private static final int QUERIES = 16;
+
+    @Param({"500000"})
+    public int users;
+
+    @Param({"12"})
+    public int friendsPerUser;
+
+    @Param({"REGISTRATION", "REVERSE_CUTHILL_MCKEE", "DEGREE"})
+    public String ordering;
+
+    private GraphSnapshot snapshot;
+    private SocialNetworkImpl network;
+    private String[] sources;
+    private String[] targets;
+    private int[] distances;
+    private int[] queue;
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        SplittableRandom random = new SplittableRandom(42);
+        // layout[p] is the registration ordinal of the user at community position p
+        int[] layout = new int[users];
+        for (int p = 0; p < users; p++) {
+            layout[p] = p;
+        }
+        for (int p = users - 1; p > 0; p--) {
+            int q = random.nextInt(p + 1);
+            int swap = layout[p];
+            layout[p] = layout[q];
+            layout[q] = swap;
+        }
+
+        network = new SocialNetworkImpl();
+        for (int u = 0; u < users; u++) {
+            network.registerUser(new Persona(Integer.toString(u), "User " + u, LocalDate.of(1990, 1, 1),
+                    "Barcelona", LocalDate.of(2023, 1, 1)));
+        }
+        for (int p = 0; p < users; p++) {
+            for (int k = 0; k < friendsPerUser / 2; k++) {
+                int q = random.nextInt(100) == 0
+                        ? random.nextInt(users)
+                        : Math.floorMod(p + random.nextInt(-256, 257), users);
+                if (q != p) {
+                    tryConnect(Integer.toString(layout[p]), Integer.toString(layout[q]));
+                }
+            }
+        }
+
+        snapshot = network.snapshot();
+        if (!ordering.equals("REGISTRATION")) {
+            GraphReordering.Strategy strategy = GraphReordering.Strategy.valueOf(ordering);
+            snapshot = snapshot.reorder(GraphReordering.computeOrder(snapshot, strategy));
+            network.reorderForLocality(strategy);
+        }
+        System.out.printf("%n%s: average edge span %.0f%n", ordering, GraphReordering.averageEdgeSpan(snapshot));
+
+        sources = new String[QUERIES];
+        targets = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            sources[i] = Integer.toString(random.nextInt(users));
+            targets[i] = Integer.toString(random.nextInt(users));
+        }
+        distances = new int[users];
+        queue = new int[users];
+    }
+
+    private void tryConnect(String id1, String id2) {
+        try {
+            network.connect(id1, id2);
+        } catch (ConnectionAlreadyExistsException e) {
+            // Random pairs repeat now and then
+        }
+    }
+
+    @Benchmark
+    public int snapshotBfs() {
+        Arrays.fill(distances, -1);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        distances[0] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int edge = snapshot.edgeStart(current); edge < snapshot.edgeEnd(current); edge++) {
+                int next = snapshot.target(edge);
+                if (distances[next] < 0) {
+                    distances[next] = distances[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    @Benchmark
+    public int networkLevels() {
+        int total = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            if (network.findConnectionLevel(sources[i], targets[i])
+                    instanceof ConnectionResult.Found<Integer> found) {
+                total += found.value();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args ignored
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocalityBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
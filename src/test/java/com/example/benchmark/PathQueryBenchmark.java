@@ -0,0 +1,127 @@
+package com.example.benchmark;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.service.ConnectionResult;
+import com.example.service.SocialNetwork;
+import com.example.service.SocialNetworkImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time and the allocation rate of path and level queries on a random network.
+ * <p>
+ * Run it with the GC profiler to check that queries do not allocate per visited user:
+ * {@code gc.alloc.rate.norm} should stay at zero bytes per level query and at the size of the
+ * returned path per path query, regardless of {@code users}. From the project root:
+ * </p>
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.example.benchmark.PathQueryBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathQueryBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"8"})
+    public int friendsPerUser;
+
+    private SocialNetwork network;
+    private String[] sources;
+    private String[] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createNetwork() {
+        network = new SocialNetworkImpl();
+        for (int i = 0; i < users; i++) {
+            network.registerUser(new Persona(Integer.toString(i), "User " + i,
+                    LocalDate.of(1990, 1, 1), "Barcelona", LocalDate.of(2023, 1, 1)));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 1; i < users; i++) {
+            // A random spanning tree keeps every pair connected, so no query throws NoPathException
+            tryConnect(i, random.nextInt(i));
+            for (int k = 1; k < friendsPerUser / 2; k++) {
+                tryConnect(i, random.nextInt(users));
+            }
+        }
+        sources = new String[QUERIES];
+        targets = new String[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            sources[q] = Integer.toString(random.nextInt(users));
+            targets[q] = Integer.toString(random.nextInt(users));
+        }
+    }
+
+    private void tryConnect(int user, int friend) {
+        if (user != friend) {
+            try {
+                network.connect(Integer.toString(user), Integer.toString(friend));
+            } catch (ConnectionAlreadyExistsException e) {
+                // Duplicate random pick; skip it
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Persona> path() {
+        int q = next++ & (QUERIES - 1);
+        return network.getConnectionPathBetween(sources[q], targets[q]);
+    }
+
+    @Benchmark
+    public int level() {
+        int q = next++ & (QUERIES - 1);
+        return network.getConnectionLevelBetween(sources[q], targets[q]);
+    }
+
+    @Benchmark
+    public ConnectionResult<Integer> findLevel() {
+        int q = next++ & (QUERIES - 1);
+        return network.findConnectionLevel(sources[q], targets[q]);
+    }
+
+    /**
+     * Runs the benchmark with the GC profiler enabled.
+     *
+     * @param args ignored
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PathQueryBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.events;
+
+import com.example.domain.Persona;
+import com.example.service.SocialNetworkImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link ChangeEventRingBuffer}.
+ */
+@DisplayName("ChangeEventRingBuffer Tests")
+class ChangeEventRingBufferTest {
+
+    private static Persona user(String id) {
+        return new Persona(id, "User " + id, LocalDate.of(1990, 1, 1), "Barcelona", LocalDate.of(2023, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Should publish every mutation of the network to each subscriber")
+    void shouldPublishNetworkMutations() {
+        ChangeEventRingBuffer feed = new ChangeEventRingBuffer(16, ChangeEventRingBuffer.BackpressurePolicy.BLOCK);
+        ChangeEventRingBuffer.Subscription first = feed.subscribe();
+        ChangeEventRingBuffer.Subscription second = feed.subscribe();
+        SocialNetworkImpl network = new SocialNetworkImpl(feed);
+
+        network.registerUser(user("1"));
+        network.registerUser(user("2"));
+        network.connect("1", "2");
+
+        List<String> received = new ArrayList<>();
+        int delivered = first.poll((event, endOfBatch) ->
+                received.add(event.getSequence() + ":" + event.getType() + ":" + event.getId1() + ":"
+                        + event.getId2() + ":" + endOfBatch), 10);
+
+        assertEquals(3, delivered);
+        assertEquals(List.of(
+                "0:USER_REGISTERED:1:null:false",
+                "1:USER_REGISTERED:2:null:false",
+                "2:CONNECTION_CREATED:1:2:true"), received);
+        assertEquals(0, first.getLag());
+        assertEquals(3, second.getLag());
+        assertEquals(2, second.poll((event, endOfBatch) -> { }, 2));
+        assertEquals(1, second.getLag());
+    }
+
+    @Test
+    @DisplayName("Should skip overwritten events and count them as missed")
+    void shouldSkipOverwrittenEvents() {
+        ChangeEventRingBuffer feed = new ChangeEventRingBuffer(4, ChangeEventRingBuffer.BackpressurePolicy.OVERWRITE);
+        ChangeEventRingBuffer.Subscription subscription = feed.subscribe();
+
+        for (int i = 0; i < 10; i++) {
+            feed.publishConnectionCreated("a" + i, "b" + i);
+        }
+
+        List<Long> sequences = new ArrayList<>();
+        assertEquals(4, subscription.poll((event, endOfBatch) -> sequences.add(event.getSequence()), 100));
+        assertEquals(List.of(6L, 7L, 8L, 9L), sequences);
+        assertEquals(6, subscription.getMissedEvents());
+    }
+
+    @Test
+    @DisplayName("Should block the producer until slow subscribers catch up")
+    void shouldBlockProducerOnFullBuffer() throws InterruptedException {
+        ChangeEventRingBuffer feed = new ChangeEventRingBuffer(8, ChangeEventRingBuffer.BackpressurePolicy.BLOCK);
+        ChangeEventRingBuffer.Subscription subscription = feed.subscribe();
+        int events = 10_000;
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < events; i++) {
+                feed.publishConnectionCreated(Integer.toString(i), "x");
+            }
+        });
+        producer.start();
+
+        AtomicLong expected = new AtomicLong();
+        while (expected.get() < events) {
+            subscription.poll((event, endOfBatch) -> {
+                assertEquals(expected.get(), event.getSequence());
+                assertEquals(Long.toString(expected.getAndIncrement()), event.getId1());
+            }, 3);
+        }
+        producer.join();
+
+        assertEquals(0, subscription.getMissedEvents());
+        assertEquals(events - 1, feed.getPublishedSequence());
+    }
+
+    @Test
+    @DisplayName("Should block for a subscriber that joins after events were published without one")
+    void shouldBlockForLateSubscriber() throws InterruptedException {
+        ChangeEventRingBuffer feed = new ChangeEventRingBuffer(4, ChangeEventRingBuffer.BackpressurePolicy.BLOCK);
+        feed.publishUserRegistered(user("0"));
+        ChangeEventRingBuffer.Subscription subscription = feed.subscribe();
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                feed.publishConnectionCreated(Integer.toString(i), "x");
+            }
+        });
+        producer.start();
+
+        // The first event predates the subscription, so the subscriber receives the next ten
+        List<String> delivered = new ArrayList<>();
+        while (producer.isAlive()) {
+            subscription.poll((event, endOfBatch) -> delivered.add(event.getId1()), 100);
+        }
+        producer.join();
+        subscription.poll((event, endOfBatch) -> delivered.add(event.getId1()), 100);
+
+        assertEquals(List.of("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), delivered);
+        assertEquals(0, subscription.getMissedEvents());
+    }
+
+    @Test
+    @DisplayName("Should not wait for closed subscriptions")
+    void shouldIgnoreClosedSubscriptions() {
+        ChangeEventRingBuffer feed = new ChangeEventRingBuffer(2, ChangeEventRingBuffer.BackpressurePolicy.BLOCK);
+        feed.subscribe().close();
+
+        for (int i = 0; i < 5; i++) {
+            feed.publishUserRegistered(user(Integer.toString(i)));
+        }
+
+        assertEquals(4, feed.getPublishedSequence());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ChangeEventRingBuffer(3, ChangeEventRingBuffer.BackpressurePolicy.BLOCK));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link AdaptiveIntSet}.
+ */
+@DisplayName("AdaptiveIntSet Tests")
+class AdaptiveIntSetTest {
+
+    @Test
+    @DisplayName("Should keep small sets as sorted arrays")
+    void shouldKeepSmallSetsSorted() {
+        AdaptiveIntSet set = new AdaptiveIntSet();
+        for (int value : new int[]{42, 7, 19, 7, 0}) {
+            set.add(value);
+        }
+
+        assertEquals(4, set.size());
+        assertFalse(set.isHashed());
+        assertArrayEquals(new int[]{0, 7, 19, 42}, set.toArray());
+        assertEquals(4, set.slotCount());
+        assertEquals(19, set.slotAt(2));
+        assertFalse(set.add(19));
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(8));
+        assertFalse(set.contains(-1));
+        assertThrows(IllegalArgumentException.class, () -> set.add(-3));
+    }
+
+    @Test
+    @DisplayName("Should promote large sets to a hash table without losing elements")
+    void shouldPromoteLargeSets() {
+        AdaptiveIntSet set = new AdaptiveIntSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(3);
+        while (expected.size() < 10_000) {
+            int value = random.nextInt(1_000_000);
+            assertEquals(expected.add(value), set.add(value));
+            if (expected.size() == AdaptiveIntSet.PROMOTION_THRESHOLD) {
+                assertFalse(set.isHashed());
+            }
+        }
+
+        assertTrue(set.isHashed());
+        assertEquals(expected.size(), set.size());
+        for (int value : expected) {
+            assertTrue(set.contains(value));
+        }
+        int scanned = 0;
+        for (int slot = 0; slot < set.slotCount(); slot++) {
+            int value = set.slotAt(slot);
+            if (value != AdaptiveIntSet.EMPTY_SLOT) {
+                assertTrue(expected.contains(value));
+                scanned++;
+            }
+        }
+        assertEquals(expected.size(), scanned);
+        int[] sorted = set.toArray();
+        Arrays.sort(sorted);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), sorted);
+    }
+
+    @Test
+    @DisplayName("Should intersect sorted and hashed sets with each other and through a bitmap")
+    void shouldIntersectAcrossForms() {
+        Random random = new Random(5);
+        AdaptiveIntSet small = new AdaptiveIntSet();
+        AdaptiveIntSet otherSmall = new AdaptiveIntSet();
+        AdaptiveIntSet hub = new AdaptiveIntSet();
+        AdaptiveIntSet otherHub = new AdaptiveIntSet();
+        random.ints(40, 0, 200).forEach(small::add);
+        random.ints(40, 0, 200).forEach(otherSmall::add);
+        random.ints(3000, 0, 5000).forEach(hub::add);
+        random.ints(3000, 0, 5000).forEach(otherHub::add);
+        AdaptiveIntSet[] sets = {small, otherSmall, hub, otherHub};
+
+        for (AdaptiveIntSet a : sets) {
+            long[] bitmap = new long[((a.max() - a.min()) >>> 6) + 1];
+            a.markInto(bitmap, a.min());
+            for (AdaptiveIntSet b : sets) {
+                Set<Integer> expected = new HashSet<>();
+                Arrays.stream(a.toArray()).filter(b::contains).forEach(expected::add);
+
+                int[] out = new int[Math.min(a.size(), b.size())];
+                int found = a.intersect(b, out);
+
+                assertEquals(expected.size(), found);
+                assertEquals(expected, new HashSet<>(Arrays.stream(out, 0, found).boxed().toList()));
+                assertEquals(expected.size(), a.countCommon(b));
+                assertEquals(expected.size(), b.countMarked(bitmap, a.min()));
+            }
+        }
+        assertEquals(Integer.MAX_VALUE, new AdaptiveIntSet().min());
+        assertEquals(AdaptiveIntSet.EMPTY_SLOT, new AdaptiveIntSet().max());
+    }
+}
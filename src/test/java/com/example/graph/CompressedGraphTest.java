@@ -0,0 +1,151 @@
+package com.example.graph;
+
+import com.example.domain.Persona;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link CompressedGraph}.
+ */
+@DisplayName("CompressedGraph Tests")
+class CompressedGraphTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Builds a random undirected graph whose friends mostly have nearby ordinals, with a few
+     * hubs connected across the whole range.
+     */
+    private static GraphSnapshot randomGraph(int users, int friendsPerUser, int window, long seed) {
+        Random random = new Random(seed);
+        List<Set<Integer>> rows = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            rows.add(new HashSet<>());
+        }
+        for (int u = 0; u < users; u++) {
+            boolean hub = u % 97 == 0;
+            for (int k = 0; k < (hub ? friendsPerUser * 20 : friendsPerUser); k++) {
+                int v = hub ? random.nextInt(users)
+                        : Math.floorMod(u + random.nextInt(2 * window + 1) - window, users);
+                if (v != u) {
+                    rows.get(u).add(v);
+                    rows.get(v).add(u);
+                }
+            }
+        }
+        List<Persona> personas = new ArrayList<>();
+        List<int[]> neighbors = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            personas.add(new Persona(Integer.toString(u), "User " + u, LocalDate.of(1990, 1, 1),
+                    "Barcelona", LocalDate.of(2023, 1, 1)));
+            neighbors.add(rows.get(u).stream().mapToInt(Integer::intValue).toArray());
+        }
+        return GraphSnapshot.fromAdjacency(personas, neighbors);
+    }
+
+    private static void assertSameAdjacency(GraphSnapshot expected, CompressedGraph actual) {
+        assertEquals(expected.userCount(), actual.userCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int u = 0; u < expected.userCount(); u++) {
+            assertEquals(expected.degree(u), actual.degree(u));
+            assertArrayEquals(expected.neighbors(u), actual.neighbors(u), "row " + u);
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode every row, across chunk boundaries and skip pointers")
+    void shouldRoundTripRows() {
+        GraphSnapshot graph = randomGraph(2000, 6, 50, 1);
+
+        assertSameAdjacency(graph, CompressedGraph.fromSnapshot(graph));
+        // 1 KiB chunks force rows to be moved to the next chunk
+        assertSameAdjacency(graph, CompressedGraph.fromSnapshot(graph, 4, 10));
+        assertThrows(IllegalArgumentException.class, () -> CompressedGraph.fromSnapshot(graph, 4, 6));
+    }
+
+    @Test
+    @DisplayName("Should seek and intersect like sorted arrays")
+    void shouldSeekAndIntersect() {
+        GraphSnapshot graph = randomGraph(3000, 8, 2000, 2);
+        CompressedGraph compressed = CompressedGraph.fromSnapshot(graph, 8, 12);
+        Random random = new Random(3);
+
+        CompressedGraph.Cursor cursor = compressed.cursor();
+        int[] hub = graph.neighbors(0);
+        assertTrue(hub.length > 100);
+        for (int q = 0; q < 200; q++) {
+            cursor.reset(0);
+            int first = random.nextInt(3000);
+            int second = first + random.nextInt(300);
+            int expectedFirst = firstAtLeast(hub, first);
+            assertEquals(expectedFirst, cursor.seek(first));
+            if (expectedFirst != CompressedGraph.NO_MORE) {
+                assertEquals(firstAtLeast(hub, Math.max(second, expectedFirst + 1)), cursor.seek(second));
+            }
+        }
+
+        for (int q = 0; q < 500; q++) {
+            int u = q % 3 == 0 ? 97 * random.nextInt(30) : random.nextInt(3000);
+            int v = random.nextInt(3000);
+            int[] a = graph.neighbors(u);
+            int[] b = graph.neighbors(v);
+            assertEquals(SortedIntersection.count(a, 0, a.length, b, 0, b.length), compressed.countCommon(u, v));
+        }
+    }
+
+    private static int firstAtLeast(int[] sorted, int target) {
+        for (int value : sorted) {
+            if (value >= target) {
+                return value;
+            }
+        }
+        return CompressedGraph.NO_MORE;
+    }
+
+    @Test
+    @DisplayName("Should map the same layout from disk")
+    void shouldWriteAndMapLayout() throws IOException {
+        GraphSnapshot graph = randomGraph(1500, 5, 30, 4);
+        CompressedGraph compressed = CompressedGraph.fromSnapshot(graph, 16, 10);
+        Path file = directory.resolve("graph.bin");
+
+        compressed.writeTo(file);
+        CompressedGraph mapped = CompressedGraph.open(file);
+
+        assertEquals(compressed.sizeInBytes(), Files.size(file));
+        assertEquals(compressed.sizeInBytes(), mapped.sizeInBytes());
+        assertSameAdjacency(graph, mapped);
+        Path copy = directory.resolve("copy.bin");
+        mapped.writeTo(copy);
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy));
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> CompressedGraph.open(file));
+    }
+
+    @Test
+    @DisplayName("Should need less than half the memory of four-byte targets when friends are close")
+    void shouldCompressLocalGraphs() {
+        GraphSnapshot graph = randomGraph(20_000, 10, 100, 5);
+        CompressedGraph compressed = CompressedGraph.fromSnapshot(graph);
+
+        long csrTargetBytes = 2 * graph.edgeCount() * Integer.BYTES;
+        long csrBytes = csrTargetBytes + (graph.userCount() + 1L) * Integer.BYTES;
+        assertTrue(compressed.sizeInBytes() * 2 < csrBytes,
+                compressed.sizeInBytes() + " bytes compressed, " + csrBytes + " as CSR");
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.graph;
+
+import com.example.domain.Persona;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link GraphExporter}.
+ */
+@DisplayName("GraphExporter Tests")
+class GraphExporterTest {
+
+    @TempDir
+    Path directory;
+
+    private static GraphSnapshot tricky() {
+        List<Persona> users = List.of(
+                new Persona("a", "Ana, \"la jefa\"", LocalDate.of(1990, 1, 2), "Madrid", LocalDate.of(2023, 3, 4)),
+                new Persona("b", "José <Ñ> & 'co'", LocalDate.of(1985, 12, 31), "Zürich", LocalDate.of(2023, 3, 5)),
+                new Persona("c", "Emoji 😀", LocalDate.of(2001, 7, 9), "東京", LocalDate.of(2024, 1, 1)),
+                new Persona("d", "Line\nbreak", LocalDate.of(1970, 1, 1), "Lima", LocalDate.of(2024, 2, 29)));
+        List<int[]> neighbors = List.of(new int[]{1, 2}, new int[]{0, 2}, new int[]{0, 1}, new int[0]);
+        return GraphSnapshot.fromAdjacency(users, neighbors);
+    }
+
+    private static GraphSnapshot ring(int n) {
+        List<Persona> users = new ArrayList<>();
+        List<int[]> neighbors = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            users.add(new Persona("u" + i, "User " + i, LocalDate.of(1990, 1, 1), "Madrid", LocalDate.of(2023, 1, 1)));
+            neighbors.add(new int[]{(i + 1) % n, (i + n - 1) % n});
+        }
+        return GraphSnapshot.fromAdjacency(users, neighbors);
+    }
+
+    @Test
+    @DisplayName("Should write users as CSV with quoting and UTF-8, whatever the buffer size")
+    void shouldWriteUsersCsv() throws Exception {
+        String expected = """
+                id,name,birthDate,city,registrationDate
+                a,"Ana, ""la jefa""\",1990-01-02,Madrid,2023-03-04
+                b,José <Ñ> & 'co',1985-12-31,Zürich,2023-03-05
+                c,Emoji 😀,2001-07-09,東京,2024-01-01
+                d,"Line
+                break",1970-01-01,Lima,2024-02-29
+                """;
+        for (int bufferSize : new int[]{64, GraphExporter.DEFAULT_BUFFER_SIZE}) {
+            Path file = directory.resolve("users-" + bufferSize + ".csv");
+            long written = new GraphExporter(tricky(), bufferSize).writeUsersCsv(file);
+
+            assertEquals(expected, Files.readString(file, StandardCharsets.UTF_8));
+            assertEquals(Files.size(file), written);
+        }
+    }
+
+    @Test
+    @DisplayName("Should write every friendship exactly once across partitions")
+    void shouldWriteEachEdgeOnce() throws Exception {
+        int n = 3 * GraphExporter.PARTITION_SIZE + 17;
+        Path file = directory.resolve("edges.csv");
+        // Write over a longer file to check that it is truncated
+        Files.writeString(file, "x".repeat(1 << 20));
+
+        long written = new GraphExporter(ring(n), 64).writeEdgeList(file);
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(Files.size(file), written);
+        assertEquals("source,target", lines.get(0));
+        assertEquals(n + 1, lines.size());
+        Set<String> edges = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] ends = line.split(",");
+            int u = Integer.parseInt(ends[0].substring(1));
+            int v = Integer.parseInt(ends[1].substring(1));
+            assertTrue(u < v, line);
+            assertTrue(edges.add(line), "duplicate " + line);
+        }
+        assertTrue(edges.contains("u0,u" + (n - 1)));
+
+        assertEquals("source,target\n", writeEdges(GraphSnapshot.fromAdjacency(List.of(), List.of())));
+    }
+
+    private String writeEdges(GraphSnapshot graph) throws Exception {
+        Path file = directory.resolve("empty.csv");
+        new GraphExporter(graph).writeEdgeList(file);
+        return Files.readString(file);
+    }
+
+    @Test
+    @DisplayName("Should write a well-formed undirected GraphML document")
+    void shouldWriteGraphMl() throws Exception {
+        Path file = directory.resolve("graph.graphml");
+        long written = new GraphExporter(tricky(), 64).writeGraphMl(file);
+        assertEquals(Files.size(file), written);
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+        Element graph = (Element) document.getElementsByTagName("graph").item(0);
+        assertEquals("undirected", graph.getAttribute("edgedefault"));
+
+        NodeList nodes = document.getElementsByTagName("node");
+        assertEquals(4, nodes.getLength());
+        Element b = (Element) nodes.item(1);
+        assertEquals("b", b.getAttribute("id"));
+        NodeList data = b.getElementsByTagName("data");
+        assertEquals("José <Ñ> & 'co'", data.item(0).getTextContent());
+        assertEquals("1985-12-31", data.item(1).getTextContent());
+        assertEquals("Zürich", data.item(2).getTextContent());
+        assertEquals("2023-03-05", data.item(3).getTextContent());
+        assertEquals("Emoji 😀", ((Element) nodes.item(2)).getElementsByTagName("data").item(0).getTextContent());
+
+        NodeList edges = document.getElementsByTagName("edge");
+        Set<String> pairs = new HashSet<>();
+        for (int i = 0; i < edges.getLength(); i++) {
+            Element edge = (Element) edges.item(i);
+            pairs.add(edge.getAttribute("source") + "-" + edge.getAttribute("target"));
+        }
+        assertEquals(Set.of("a-b", "a-c", "b-c"), pairs);
+        assertEquals(3, edges.getLength());
+    }
+
+    @Test
+    @DisplayName("Should replace characters that XML 1.0 does not allow")
+    void shouldReplaceIllegalXmlCharacters() throws Exception {
+        List<Persona> users = List.of(
+                new Persona("x\u0000", "Bell\u0007 Esc\u001B", LocalDate.of(1990, 1, 1), "Tab\there",
+                        LocalDate.of(2023, 1, 1)),
+                new Persona("y", "Not\uFFFE chars\uFFFF", LocalDate.of(1990, 1, 1), "Lima", LocalDate.of(2023, 1, 1)));
+        GraphSnapshot graph = GraphSnapshot.fromAdjacency(users, List.of(new int[]{1}, new int[]{0}));
+        Path file = directory.resolve("controls.graphml");
+        long written = new GraphExporter(graph, 64).writeGraphMl(file);
+        assertEquals(Files.size(file), written);
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+        NodeList nodes = document.getElementsByTagName("node");
+        Element x = (Element) nodes.item(0);
+        assertEquals("x?", x.getAttribute("id"));
+        assertEquals("Bell? Esc?", x.getElementsByTagName("data").item(0).getTextContent());
+        assertEquals("Tab\there", x.getElementsByTagName("data").item(2).getTextContent());
+        assertEquals("Not? chars?",
+                ((Element) nodes.item(1)).getElementsByTagName("data").item(0).getTextContent());
+        assertEquals("x?", ((Element) document.getElementsByTagName("edge").item(0)).getAttribute("source"));
+    }
+
+    @Test
+    @DisplayName("Should reject buffers too small for a single encoded character")
+    void shouldRejectTinyBuffers() {
+        assertThrows(IllegalArgumentException.class, () -> new GraphExporter(tricky(), 8));
+        assertThrows(NullPointerException.class, () -> new GraphExporter(null));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.graph;
+
+import com.example.domain.Persona;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link GraphReordering}.
+ */
+@DisplayName("GraphReordering Tests")
+class GraphReorderingTest {
+
+    /**
+     * Builds a grid of {@code side * side} users whose ordinals are shuffled, so that
+     * neighbors in the grid are scattered over the ordinal range.
+     */
+    private static GraphSnapshot shuffledGrid(int side, long seed) {
+        int n = side * side;
+        List<Integer> labels = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            labels.add(i);
+        }
+        Collections.shuffle(labels, new Random(seed));
+
+        List<Persona> users = new ArrayList<>(n);
+        List<List<Integer>> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            users.add(new Persona(Integer.toString(i), "User " + i, LocalDate.of(1990, 1, 1),
+                    "Barcelona", LocalDate.of(2023, 1, 1)));
+            rows.add(new ArrayList<>());
+        }
+        for (int cell = 0; cell < n; cell++) {
+            int u = labels.get(cell);
+            if (cell % side + 1 < side) {
+                int v = labels.get(cell + 1);
+                rows.get(u).add(v);
+                rows.get(v).add(u);
+            }
+            if (cell + side < n) {
+                int v = labels.get(cell + side);
+                rows.get(u).add(v);
+                rows.get(v).add(u);
+            }
+        }
+        List<int[]> neighbors = new ArrayList<>(n);
+        for (List<Integer> row : rows) {
+            neighbors.add(row.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return GraphSnapshot.fromAdjacency(users, neighbors);
+    }
+
+    private static Set<String> edgesById(GraphSnapshot graph) {
+        Set<String> edges = new HashSet<>();
+        for (int u = 0; u < graph.userCount(); u++) {
+            for (int v : graph.neighbors(u)) {
+                edges.add(graph.user(u).getId() + "-" + graph.user(v).getId());
+            }
+        }
+        return edges;
+    }
+
+    @Test
+    @DisplayName("Should place grid neighbors at nearby ordinals with reverse Cuthill-McKee")
+    void shouldReduceEdgeSpan() {
+        GraphSnapshot graph = shuffledGrid(40, 5);
+
+        int[] order = GraphReordering.computeOrder(graph, GraphReordering.Strategy.REVERSE_CUTHILL_MCKEE);
+        GraphSnapshot reordered = graph.reorder(order);
+
+        assertEquals(graph.userCount(), GraphReordering.inverse(order).length);
+        assertEquals(edgesById(graph), edgesById(reordered));
+        assertTrue(GraphReordering.averageEdgeSpan(graph) > 400);
+        // Bandwidth of a 40 x 40 grid ordered by diagonals is about 40
+        assertTrue(GraphReordering.averageEdgeSpan(reordered) < 45);
+        for (int u = 0; u < reordered.userCount(); u++) {
+            assertEquals(graph.degree(order[u]), reordered.degree(u));
+        }
+    }
+
+    @Test
+    @DisplayName("Should put hubs first and order every component with the degree strategy")
+    void shouldOrderByDegreeAcrossComponents() {
+        List<Persona> users = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            users.add(new Persona(Integer.toString(i), "User " + i, LocalDate.of(1990, 1, 1),
+                    "Barcelona", LocalDate.of(2023, 1, 1)));
+        }
+        // Star around 4, plus the isolated pair 0-2 and the isolated user 5
+        GraphSnapshot graph = GraphSnapshot.fromAdjacency(users, List.of(
+                new int[]{2}, new int[]{4}, new int[]{0}, new int[]{4}, new int[]{1, 3}, new int[0]));
+
+        assertArrayEquals(new int[]{4, 0, 1, 2, 3, 5},
+                GraphReordering.computeOrder(graph, GraphReordering.Strategy.DEGREE));
+        int[] rcm = GraphReordering.computeOrder(graph, GraphReordering.Strategy.REVERSE_CUTHILL_MCKEE);
+        assertEquals(6, GraphReordering.inverse(rcm).length);
+        assertEquals(edgesById(graph), edgesById(graph.reorder(rcm)));
+    }
+
+    @Test
+    @DisplayName("Should reject orderings that are not permutations")
+    void shouldRejectInvalidOrderings() {
+        assertThrows(IllegalArgumentException.class, () -> GraphReordering.inverse(new int[]{0, 0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> GraphReordering.inverse(new int[]{0, 3, 1}));
+        GraphSnapshot graph = shuffledGrid(3, 1);
+        assertThrows(IllegalArgumentException.class, () -> graph.reorder(new int[]{0, 1}));
+    }
+}
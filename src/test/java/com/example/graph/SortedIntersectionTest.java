@@ -0,0 +1,58 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link SortedIntersection}.
+ */
+@DisplayName("SortedIntersection Tests")
+class SortedIntersectionTest {
+
+    private static int[] sortedSample(Random random, int size, int bound) {
+        return random.ints(0, bound).distinct().limit(size).sorted().toArray();
+    }
+
+    private static int[] naiveIntersection(int[] a, int[] b) {
+        return Arrays.stream(a).filter(value -> Arrays.binarySearch(b, value) >= 0).toArray();
+    }
+
+    @Test
+    @DisplayName("Should match a naive intersection for every size ratio")
+    void shouldMatchNaiveIntersection() {
+        Random random = new Random(11);
+        for (int[] sizes : new int[][]{{0, 10}, {1, 1}, {50, 60}, {3, 5000}, {40, 40_000}, {700, 800}}) {
+            int[] a = sortedSample(random, sizes[0], 100_000);
+            int[] b = sortedSample(random, sizes[1], 100_000);
+            int[] expected = naiveIntersection(a, b);
+
+            int[] out = new int[Math.min(a.length, b.length)];
+            int found = SortedIntersection.intersect(a, 0, a.length, b, 0, b.length, out);
+
+            assertArrayEquals(expected, Arrays.copyOf(out, found));
+            assertEquals(expected.length, SortedIntersection.count(a, 0, a.length, b, 0, b.length));
+            assertEquals(expected.length, SortedIntersection.count(b, 0, b.length, a, 0, a.length));
+            assertEquals(expected.length, SortedIntersection.mergeCount(a, 0, a.length, b, 0, b.length));
+            assertEquals(expected.length, SortedIntersection.gallop(a, 0, a.length, b, 0, b.length, null));
+        }
+    }
+
+    @Test
+    @DisplayName("Should only look at the given ranges")
+    void shouldRespectRanges() {
+        int[] a = {1, 3, 5, 7, 9, 11};
+        int[] b = {0, 3, 4, 7, 11, 12};
+
+        assertEquals(3, SortedIntersection.count(a, 0, a.length, b, 0, b.length));
+        assertEquals(1, SortedIntersection.count(a, 2, 4, b, 0, b.length));
+        assertEquals(0, SortedIntersection.count(a, 0, 6, b, 5, 6));
+        int[] out = new int[2];
+        assertEquals(2, SortedIntersection.gallop(a, 1, 6, b, 2, 6, out));
+        assertArrayEquals(new int[]{7, 11}, out);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link TimestampedIntList}.
+ */
+@DisplayName("TimestampedIntList Tests")
+class TimestampedIntListTest {
+
+    @Test
+    @DisplayName("Should keep elements sorted by time and count prefixes by binary search")
+    void shouldKeepTimeOrder() {
+        TimestampedIntList list = new TimestampedIntList();
+        list.add(7, 100);
+        list.add(3, 200);
+        list.add(9, 200);
+        list.add(5, 150); // out of order
+        list.add(1, 50);  // before everything
+        list.add(4, 300);
+
+        assertEquals(6, list.size());
+        int[] expectedValues = {1, 7, 5, 3, 9, 4};
+        long[] expectedTimes = {50, 100, 150, 200, 200, 300};
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(expectedValues[i], list.valueAt(i));
+            assertEquals(expectedTimes[i], list.timeAt(i));
+        }
+        assertEquals(0, list.countUpTo(49));
+        assertEquals(1, list.countUpTo(50));
+        assertEquals(3, list.countUpTo(199));
+        assertEquals(5, list.countUpTo(200));
+        assertEquals(6, list.countUpTo(Long.MAX_VALUE));
+        assertEquals(150, list.timeOf(5));
+        assertEquals(Long.MIN_VALUE, list.timeOf(8));
+    }
+
+    @Test
+    @DisplayName("Should relabel values without changing the order")
+    void shouldRelabel() {
+        TimestampedIntList list = new TimestampedIntList();
+        list.add(0, 10);
+        list.add(2, 20);
+        list.add(1, 30);
+
+        list.relabel(new int[]{2, 0, 1});
+
+        assertEquals(2, list.valueAt(0));
+        assertEquals(1, list.valueAt(1));
+        assertEquals(0, list.valueAt(2));
+        assertEquals(30, list.timeOf(0));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link LatencyHistogram}.
+ */
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Should report percentiles within the bucket precision")
+    void shouldReportPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertEquals(5_000_000, histogram.getPercentileNanos(50), 5_000_000 * 0.04);
+        assertEquals(9_900_000, histogram.getPercentileNanos(99), 9_900_000 * 0.04);
+        assertEquals(10_000_000, histogram.getPercentileNanos(100));
+        assertEquals(5_000_500, histogram.getMeanNanos(), 1.0);
+    }
+
+    @Test
+    @DisplayName("Should record exact values for small latencies")
+    void shouldRecordSmallValuesExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+        histogram.record(-5);
+
+        assertEquals(0, histogram.getPercentileNanos(0));
+        assertEquals(3, histogram.getPercentileNanos(50));
+        assertEquals(7, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    @DisplayName("Should record concurrently and merge histograms")
+    void shouldRecordConcurrentlyAndMerge() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        IntStream.range(0, 100_000).parallel().forEach(i -> first.record(i));
+        second.record(Long.MAX_VALUE);
+
+        first.add(second);
+
+        assertEquals(100_001, first.getCount());
+        assertEquals(Long.MAX_VALUE, first.getMaxNanos());
+        assertThrows(IllegalArgumentException.class, () -> first.getPercentileNanos(101));
+    }
+}
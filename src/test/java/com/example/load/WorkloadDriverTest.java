@@ -0,0 +1,73 @@
+package com.example.load;
+
+import com.example.domain.Persona;
+import com.example.service.SocialNetworkImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link WorkloadDriver}.
+ */
+@DisplayName("WorkloadDriver Tests")
+class WorkloadDriverTest {
+
+    @Test
+    @DisplayName("Should replay every operation of a mixed trace on platform and virtual threads")
+    void shouldReplayMixedTrace() throws Exception {
+        WorkloadTrace trace = WorkloadTrace.synthetic(WorkloadTrace.Mix.DEFAULT, 500, 20_000,
+                Duration.ofMillis(250), 3);
+
+        for (WorkloadDriver.ThreadMode mode : WorkloadDriver.ThreadMode.values()) {
+            SocialNetworkImpl network = new SocialNetworkImpl();
+            WorkloadDriver.populate(network, 500, 4, 11);
+            WorkloadDriver.Report report = new WorkloadDriver(network, mode, 4, true).run(trace);
+
+            assertEquals(trace.size(), report.getOperations(), mode.name());
+            for (WorkloadTrace.Type type : WorkloadTrace.Type.values()) {
+                long expected = trace.getOperations().stream().filter(o -> o.type() == type).count();
+                assertEquals(expected, report.getLatencies(type).getCount(), mode + " " + type);
+                assertEquals(expected, report.getServiceTimes(type).getCount(), mode + " " + type);
+                assertEquals(0, report.getErrors(type), mode + " " + type);
+            }
+            assertTrue(report.getElapsed().compareTo(trace.getDuration()) >= 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should charge queueing behind slow operations to latency, not omit it")
+    void shouldAvoidCoordinatedOmission() throws Exception {
+        SocialNetworkImpl slow = new SocialNetworkImpl() {
+            @Override
+            public Set<Persona> getFriends(String id) {
+                LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+                return super.getFriends(id);
+            }
+        };
+        WorkloadDriver.populate(slow, 10, 2, 1);
+        List<WorkloadTrace.Operation> burst = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // Twenty requests arrive within 2 ms, far more than one thread can serve
+            burst.add(new WorkloadTrace.Operation(i * 100_000L, WorkloadTrace.Type.GET_FRIENDS, "1", null));
+        }
+        burst.add(new WorkloadTrace.Operation(3_000_000, WorkloadTrace.Type.PATH, "1", "404"));
+
+        WorkloadDriver.Report report = new WorkloadDriver(slow, WorkloadDriver.ThreadMode.PLATFORM, 1, false)
+                .run(WorkloadTrace.of(burst));
+
+        LatencyHistogram latency = report.getLatencies(WorkloadTrace.Type.GET_FRIENDS);
+        LatencyHistogram service = report.getServiceTimes(WorkloadTrace.Type.GET_FRIENDS);
+        assertTrue(service.getPercentileNanos(99) < Duration.ofMillis(50).toNanos());
+        assertTrue(latency.getPercentileNanos(99) > Duration.ofMillis(80).toNanos(), latency.summary());
+        assertEquals(1, report.getRejected(WorkloadTrace.Type.PATH));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WorkloadDriver(slow, WorkloadDriver.ThreadMode.VIRTUAL, 0, true));
+    }
+}
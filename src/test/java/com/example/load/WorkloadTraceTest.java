@@ -0,0 +1,74 @@
+package com.example.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link WorkloadTrace}.
+ */
+@DisplayName("WorkloadTrace Tests")
+class WorkloadTraceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should generate the requested mix at the requested Poisson rate")
+    void shouldGenerateSyntheticTrace() {
+        WorkloadTrace trace = WorkloadTrace.synthetic(WorkloadTrace.Mix.DEFAULT, 1000, 20_000,
+                Duration.ofSeconds(2), 1);
+
+        assertEquals(40_000, trace.size(), 40_000 * 0.03);
+        Map<WorkloadTrace.Type, Integer> counts = new EnumMap<>(WorkloadTrace.Type.class);
+        long previous = 0;
+        for (WorkloadTrace.Operation operation : trace.getOperations()) {
+            counts.merge(operation.type(), 1, Integer::sum);
+            assertTrue(operation.offsetNanos() >= previous);
+            assertTrue(operation.offsetNanos() < 2_000_000_000L);
+            assertNotEquals(operation.id1(), operation.id2());
+            assertEquals(operation.type() == WorkloadTrace.Type.GET_FRIENDS, operation.id2() == null);
+            previous = operation.offsetNanos();
+        }
+        assertEquals(0.05, counts.get(WorkloadTrace.Type.CONNECT) / (double) trace.size(), 0.01);
+        assertEquals(0.60, counts.get(WorkloadTrace.Type.GET_FRIENDS) / (double) trace.size(), 0.01);
+        assertEquals(0.175, counts.get(WorkloadTrace.Type.PATH) / (double) trace.size(), 0.01);
+
+        WorkloadTrace faster = trace.speedUp(4);
+        assertEquals(trace.size(), faster.size());
+        assertEquals(trace.getDuration().toNanos() / 4.0, faster.getDuration().toNanos(), 1);
+        assertThrows(IllegalArgumentException.class, () -> new WorkloadTrace.Mix(-1, 1, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Should write and read back a recorded trace")
+    void shouldRoundTripFiles() throws Exception {
+        WorkloadTrace trace = WorkloadTrace.of(List.of(
+                new WorkloadTrace.Operation(0, WorkloadTrace.Type.CONNECT, "a", "b"),
+                new WorkloadTrace.Operation(1_000, WorkloadTrace.Type.GET_FRIENDS, "a", null),
+                new WorkloadTrace.Operation(1_000, WorkloadTrace.Type.LEVEL, "b", "c")));
+        Path file = directory.resolve("trace.csv");
+
+        trace.write(file);
+
+        assertEquals(trace.getOperations(), WorkloadTrace.read(file).getOperations());
+        assertEquals("1000,GET_FRIENDS,a,", Files.readAllLines(file).get(1));
+
+        Files.writeString(file, "5,PATH,a,b\n4,PATH,a,b\n");
+        assertThrows(IllegalArgumentException.class, () -> WorkloadTrace.read(file));
+        Files.writeString(file, "5,JUMP,a,b\n");
+        assertThrows(IllegalArgumentException.class, () -> WorkloadTrace.read(file));
+        WorkloadTrace comma = WorkloadTrace.of(List.of(
+                new WorkloadTrace.Operation(0, WorkloadTrace.Type.GET_FRIENDS, "a,b", null)));
+        assertThrows(IllegalArgumentException.class, () -> comma.write(file));
+    }
+}
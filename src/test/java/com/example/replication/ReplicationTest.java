@@ -0,0 +1,161 @@
+package com.example.replication;
+
+import com.example.Main;
+import com.example.domain.Persona;
+import com.example.exceptions.UserAlreadyExistsException;
+import com.example.service.ConnectionResult;
+import com.example.service.SocialNetworkImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link MutationLog}, {@link ReplicationLeader}, {@link ReadReplica} and
+ * {@link ReplicatedSocialNetwork}.
+ */
+@DisplayName("Replication Tests")
+class ReplicationTest {
+
+    @TempDir
+    Path directory;
+
+    private static Persona user(String id) {
+        return new Persona(id, "User " + id, LocalDate.of(1990, 1, 1), "Barcelona", LocalDate.of(2023, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Should replay the leader's accepted mutations in batches and report lag")
+    void shouldReplayMutationsAndReportLag() throws Exception {
+        Path log = directory.resolve("mutations.log");
+        try (ReplicationLeader leader = new ReplicationLeader(new SocialNetworkImpl(), new MutationLog.Writer(log));
+             ReadReplica replica = new ReadReplica(log, 2)) {
+            leader.registerUser(new Persona("1", "Zoë \"Z\" Ñúñez", LocalDate.of(1990, 5, 15), "Göteborg",
+                    LocalDate.of(2023, 1, 10)));
+            leader.registerUser(user("2"));
+            leader.registerUser(user("3"));
+            assertThrows(UserAlreadyExistsException.class, () -> leader.registerUser(user("3")));
+            leader.connect("1", "2");
+            leader.connect("2", "3");
+
+            assertEquals(5, leader.getLastLsn());
+            assertEquals(5, replica.getReplicationLag());
+
+            assertEquals(5, replica.catchUp());
+            assertEquals(5, replica.getAppliedLsn());
+            assertEquals(0, replica.getReplicationLag());
+            assertEquals(leader.getUsersOrderedByRegistration().stream().map(Persona::getName).toList(),
+                    replica.getUsersOrderedByRegistration().stream().map(Persona::getName).toList());
+            assertEquals(LocalDate.of(1990, 5, 15),
+                    replica.getFriends("2").stream().filter(p -> p.getId().equals("1")).findFirst()
+                            .orElseThrow().getBirthDate());
+            assertEquals(2, replica.getConnectionLevelBetween("1", "3"));
+            assertEquals(new ConnectionResult.Found<>(2), replica.findConnectionLevel("1", "3"));
+            assertEquals(Set.of(user("2")), replica.getMutualFriends("1", "3"));
+            assertEquals(1, replica.countMutualFriends("1", "3"));
+            assertArrayEquals(new int[]{1, 0}, replica.countMutualFriends("1", List.of("3", "2")));
+            assertEquals(new ConnectionResult.UnknownUser<>("9"), replica.findConnectionPath("1", "9"));
+            assertThrows(UnsupportedOperationException.class, () -> replica.connect("1", "3"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should read its own writes through round-robin replicas")
+    void shouldReadYourWrites() throws Exception {
+        Path log = directory.resolve("mutations.log");
+        try (ReplicationLeader leader = new ReplicationLeader(new SocialNetworkImpl(), new MutationLog.Writer(log));
+             ReadReplica first = new ReadReplica(log);
+             ReadReplica second = new ReadReplica(log)) {
+            first.start(Duration.ofMillis(50));
+            ReplicatedSocialNetwork network = new ReplicatedSocialNetwork(leader, List.of(first, second),
+                    Duration.ofSeconds(5));
+
+            for (int i = 0; i < 20; i++) {
+                network.registerUser(user(Integer.toString(i)));
+                if (i > 0) {
+                    network.connect(Integer.toString(i - 1), Integer.toString(i));
+                    // Every read observes the write just made, whichever replica serves it
+                    assertTrue(network.getFriends(Integer.toString(i)).contains(user(Integer.toString(i - 1))));
+                }
+                assertEquals(i + 1, network.getUsersOrderedByRegistration().size());
+            }
+
+            assertEquals(39, network.getSessionLsn());
+            assertEquals(19, network.getConnectionLevelBetween("0", "19"));
+            assertEquals(new ConnectionResult.Found<>(19), network.findConnectionLevel("0", "19"));
+            assertEquals(Set.of(user("1")), network.getMutualFriends("0", "2"));
+            assertArrayEquals(new int[]{1, 0}, network.countMutualFriends("0", List.of("2", "3")));
+            assertEquals(new ConnectionResult.UnknownUser<>("x"), leader.findConnectionLevel("x", "0"));
+            assertEquals(39, second.getAppliedLsn());
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve reads from a replica running in another JVM")
+    void shouldFollowLeaderFromAnotherProcess() throws Exception {
+        Path log = directory.resolve("mutations.log");
+        try (ReplicationLeader leader = new ReplicationLeader(new SocialNetworkImpl(), new MutationLog.Writer(log))) {
+            leader.registerUser(user("1"));
+            leader.registerUser(user("2"));
+            leader.connect("1", "2");
+
+            Process process = new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    Main.class.getName(), "replica", log.toString(), "0")
+                    .redirectErrorStream(true)
+                    .start();
+            try {
+                BufferedReader output = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = output.readLine();
+                assertNotNull(line, "Replica process exited without starting");
+                int port = Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1));
+
+                HttpClient client = HttpClient.newHttpClient();
+                URI friends = URI.create("http://localhost:" + port + "/users/2/friends");
+                String body = awaitBody(client, friends, "\"id\":\"1\"");
+                assertTrue(body.contains("\"id\":\"1\""), body);
+
+                // Writes made after the replica started are shipped as well
+                leader.registerUser(user("3"));
+                leader.connect("2", "3");
+                body = awaitBody(client, friends, "\"id\":\"3\"");
+                assertTrue(body.contains("\"id\":\"3\""), body);
+                assertEquals(Set.of(user("1"), user("3")), leader.getFriends("2"));
+            } finally {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+    }
+
+    private static String awaitBody(HttpClient client, URI uri, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        String body = "";
+        while (System.nanoTime() < deadline) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            body = response.body();
+            if (response.statusCode() == 200 && body.contains(expected)) {
+                return body;
+            }
+            Thread.sleep(20);
+        }
+        return body;
+    }
+}
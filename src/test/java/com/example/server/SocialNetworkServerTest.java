@@ -0,0 +1,114 @@
+package com.example.server;
+
+import com.example.service.AsyncSocialNetwork;
+import com.example.service.SocialNetworkImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link SocialNetworkServer}.
+ * <p>
+ * Each test starts a server on an ephemeral port and talks to it with the JDK HTTP client.
+ * </p>
+ */
+@DisplayName("SocialNetworkServer Tests")
+class SocialNetworkServerTest {
+
+    private AsyncSocialNetwork network;
+    private SocialNetworkServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        network = new AsyncSocialNetwork(new SocialNetworkImpl());
+        server = new SocialNetworkServer(network, new InetSocketAddress("localhost", 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+
+        register("1", "Alice Johnson");
+        register("2", "Bob \"The Builder\" Smith");
+        register("3", "Çharlie Brown");
+        register("4", "Diana Prince");
+        assertEquals(201, post("/connections", "{\"id1\":\"1\",\"id2\":\"2\"}").statusCode());
+        assertEquals(201, post("/connections", "{\"id1\":\"2\",\"id2\":\"3\"}").statusCode());
+        assertEquals(201, post("/connections", "{\"id1\":\"1\",\"id2\":\"4\"}").statusCode());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        network.close();
+    }
+
+    @Test
+    @DisplayName("Should return a page of friends with escaped JSON strings")
+    void shouldReturnPageOfFriends() throws Exception {
+        HttpResponse<String> response = get("/users/1/friends?offset=1&limit=1");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("{\"total\":2,\"offset\":1,\"friends\":[{\"id\":\"4\""));
+        assertTrue(response.body().endsWith("\"registrationDate\":\"2023-01-01\"}]}"));
+
+        String bob = get("/users/2/friends").body();
+        assertTrue(bob.contains("\"name\":\"Çharlie Brown\""));
+        assertTrue(get("/users/1/friends").body().contains("\"name\":\"Bob \\\"The Builder\\\" Smith\""));
+    }
+
+    @Test
+    @DisplayName("Should return the shortest path and level")
+    void shouldReturnPathAndLevel() throws Exception {
+        HttpResponse<String> path = get("/path?from=3&to=4");
+        assertEquals(200, path.statusCode());
+        assertTrue(path.body().startsWith("{\"level\":3,\"path\":[{\"id\":\"3\""));
+
+        HttpResponse<String> level = get("/level?from=1&to=3");
+        assertEquals(200, level.statusCode());
+        assertEquals("{\"level\":2}", level.body());
+    }
+
+    @Test
+    @DisplayName("Should map domain exceptions to HTTP status codes")
+    void shouldMapErrors() throws Exception {
+        assertEquals(404, get("/users/999/friends").statusCode());
+        assertEquals(409, post("/connections", "{\"id1\":\"1\",\"id2\":\"2\"}").statusCode());
+        assertEquals(400, post("/connections", "{\"id1\":\"1\"}").statusCode());
+        assertEquals(400, post("/users", "{\"id\":\"9\",\"name\":\"X\",\"birthDate\":\"not-a-date\","
+                + "\"city\":\"Y\",\"registrationDate\":\"2023-01-01\"}").statusCode());
+        assertEquals(405, get("/connections").statusCode());
+
+        register("5", "Eve Isolated");
+        HttpResponse<String> noPath = get("/level?from=1&to=5");
+        assertEquals(404, noPath.statusCode());
+        assertTrue(noPath.body().startsWith("{\"error\":\"NO_PATH\""));
+    }
+
+    private void register(String id, String name) throws Exception {
+        String escapedName = name.replace("\"", "\\\"");
+        HttpResponse<String> response = post("/users", "{\"id\":\"" + id + "\",\"name\":\"" + escapedName
+                + "\",\"birthDate\":\"1990-05-15\",\"city\":\"Girona\",\"registrationDate\":\"2023-01-01\"}");
+        assertEquals(201, response.statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
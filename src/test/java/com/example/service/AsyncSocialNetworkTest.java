@@ -0,0 +1,148 @@
+package com.example.service;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.exceptions.NoPathException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link AsyncSocialNetwork}.
+ * <p>
+ * Coalescing and cancellation are verified with a {@link SocialNetworkImpl} subclass whose path
+ * queries count their invocations and block until released, so the tests control exactly how
+ * many traversals are in flight.
+ * </p>
+ */
+@DisplayName("AsyncSocialNetwork Tests")
+class AsyncSocialNetworkTest {
+
+    private BlockingNetwork network;
+    private AsyncSocialNetwork async;
+
+    @BeforeEach
+    void setUp() {
+        network = new BlockingNetwork();
+        for (int i = 1; i <= 4; i++) {
+            network.registerUser(new Persona(String.valueOf(i), "User " + i, LocalDate.of(1990, 1, 1),
+                    "Valencia", LocalDate.of(2023, 1, i)));
+        }
+        network.connect("1", "2");
+        network.connect("2", "3");
+        async = new AsyncSocialNetwork(network, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        network.release.countDown();
+        async.close();
+    }
+
+    @Test
+    @DisplayName("Should connect users and return friends asynchronously")
+    void shouldConnectAndGetFriends() throws Exception {
+        async.connect("3", "4").get(5, TimeUnit.SECONDS);
+
+        Set<Persona> friends = async.getFriends("3").get(5, TimeUnit.SECONDS);
+        assertEquals(2, friends.size());
+        assertThrows(UnsupportedOperationException.class, () -> friends.clear());
+    }
+
+    @Test
+    @DisplayName("Should complete exceptionally with the domain exception")
+    void shouldCompleteExceptionally() {
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> async.connect("1", "2").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ConnectionAlreadyExistsException.class, failure.getCause());
+
+        network.release.countDown();
+        failure = assertThrows(ExecutionException.class,
+                () -> async.getConnectionLevelBetween("1", "4").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NoPathException.class, failure.getCause());
+    }
+
+    @Test
+    @DisplayName("Should coalesce identical in-flight path and level queries into one traversal")
+    void shouldCoalesceIdenticalQueries() throws Exception {
+        List<CompletableFuture<List<Persona>>> paths = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            paths.add(async.getConnectionPathBetween("1", "3"));
+        }
+        CompletableFuture<Integer> level = async.getConnectionLevelBetween("1", "3");
+        assertTrue(network.started.await(5, TimeUnit.SECONDS));
+
+        network.release.countDown();
+
+        for (CompletableFuture<List<Persona>> path : paths) {
+            assertEquals(3, path.get(5, TimeUnit.SECONDS).size());
+        }
+        assertEquals(2, level.get(5, TimeUnit.SECONDS));
+        assertEquals(1, network.pathQueries.get());
+    }
+
+    @Test
+    @DisplayName("Should interrupt the traversal once every caller has timed out")
+    void shouldInterruptAbandonedTraversal() throws Exception {
+        CompletableFuture<List<Persona>> first = async.getConnectionPathBetween("1", "3", Duration.ofMillis(50));
+        CompletableFuture<Integer> second = async.getConnectionLevelBetween("1", "3", Duration.ofMillis(50));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertTrue(network.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should keep a shared traversal running while one caller is still waiting")
+    void shouldKeepTraversalForRemainingCaller() throws Exception {
+        CompletableFuture<List<Persona>> cancelled = async.getConnectionPathBetween("1", "3");
+        CompletableFuture<List<Persona>> remaining = async.getConnectionPathBetween("1", "3");
+        assertTrue(network.started.await(5, TimeUnit.SECONDS));
+
+        cancelled.cancel(true);
+        network.release.countDown();
+
+        assertEquals(3, remaining.get(5, TimeUnit.SECONDS).size());
+        assertEquals(1, network.interrupted.getCount());
+    }
+
+    /**
+     * Network whose path queries block until released, recording starts and interruptions.
+     */
+    private static final class BlockingNetwork extends SocialNetworkImpl {
+        final AtomicInteger pathQueries = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public List<Persona> getConnectionPathBetween(String id1, String id2) {
+            pathQueries.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+                throw new java.util.concurrent.CancellationException("Interrupted");
+            }
+            return super.getConnectionPathBetween(id1, id2);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.service;
+
+import com.example.domain.Persona;
+import com.example.exceptions.NoPathException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link SocialNetworkEvents}.
+ */
+@DisplayName("SocialNetworkEvents Tests")
+class SocialNetworkEventsTest {
+
+    @TempDir
+    Path directory;
+
+    private static SocialNetworkImpl chainOf(int users) {
+        SocialNetworkImpl network = new SocialNetworkImpl();
+        for (int i = 0; i < users; i++) {
+            network.registerUser(new Persona(Integer.toString(i), "User " + i, LocalDate.of(1990, 1, 1),
+                    "Barcelona", LocalDate.of(2023, 1, 1)));
+        }
+        for (int i = 1; i < users - 1; i++) {
+            network.connect(Integer.toString(i - 1), Integer.toString(i));
+        }
+        return network;
+    }
+
+    private List<RecordedEvent> record(Duration threshold, Runnable workload) throws IOException {
+        Path file = directory.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of(SocialNetworkEvents.PATH_SEARCH, SocialNetworkEvents.CONNECT,
+                    SocialNetworkEvents.REGISTER_USER)) {
+                recording.enable(name).withThreshold(threshold);
+            }
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.example."))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Should record searches and mutations with their domain fields")
+    void shouldRecordOperations() throws IOException {
+        List<RecordedEvent> events = record(Duration.ZERO, () -> {
+            SocialNetworkImpl network = chainOf(6);
+            network.getConnectionLevelBetween("0", "4");
+            assertThrows(NoPathException.class, () -> network.getConnectionPathBetween("0", "5"));
+            network.findConnectionLevel("0", "4", new TraversalBudget(2, Integer.MAX_VALUE, null));
+        });
+
+        assertEquals(6, events.stream()
+                .filter(e -> e.getEventType().getName().equals(SocialNetworkEvents.REGISTER_USER))
+                .count());
+        RecordedEvent connect = events.stream()
+                .filter(e -> e.getEventType().getName().equals(SocialNetworkEvents.CONNECT))
+                .reduce((first, second) -> second).orElseThrow();
+        assertEquals("3", connect.getString("userId1"));
+        assertEquals(2, connect.getInt("degree1"));
+        assertEquals(1, connect.getInt("degree2"));
+
+        List<RecordedEvent> searches = events.stream()
+                .filter(e -> e.getEventType().getName().equals(SocialNetworkEvents.PATH_SEARCH))
+                .toList();
+        assertEquals(3, searches.size());
+        RecordedEvent found = searches.get(0);
+        assertEquals("0", found.getString("sourceId"));
+        assertEquals("4", found.getString("targetId"));
+        assertEquals("FOUND", found.getString("outcome"));
+        assertEquals(4, found.getInt("pathLength"));
+        assertEquals(5, found.getInt("visited"));
+        assertEquals("NO_PATH", searches.get(1).getString("outcome"));
+        assertEquals(-1, searches.get(1).getInt("pathLength"));
+        assertEquals("BUDGET_EXCEEDED", searches.get(2).getString("outcome"));
+        assertEquals("VISITED", searches.get(2).getString("budgetLimit"));
+    }
+
+    @Test
+    @DisplayName("Should skip operations faster than the threshold")
+    void shouldHonorThreshold() throws IOException {
+        List<RecordedEvent> events = record(Duration.ofHours(1), () -> {
+            SocialNetworkImpl network = chainOf(100);
+            network.getConnectionLevelBetween("0", "98");
+        });
+
+        assertTrue(events.isEmpty());
+    }
+}
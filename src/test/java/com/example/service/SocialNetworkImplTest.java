@@ -3,16 +3,31 @@ package com.example.service;
 import com.example.domain.Persona;
 import com.example.exceptions.ConnectionAlreadyExistsException;
 import com.example.exceptions.NoPathException;
+import com.example.exceptions.StackTraces;
 import com.example.exceptions.UserAlreadyExistsException;
 import com.example.exceptions.UserNotFoundException;
+import com.example.graph.GraphReordering;
+import com.example.graph.GraphSnapshot;
+import com.example.shard.ShardedSocialNetwork;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Nested;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -210,6 +225,78 @@ class SocialNetworkImplTest {
         void shouldThrowExceptionForNonExistentUser() {
             assertThrows(UserNotFoundException.class, () -> network.getFriends("999"));
         }
+
+        @Test
+        @DisplayName("Should reuse the sorted friend view until the user gets a new connection")
+        void shouldCacheSortedViewUntilConnectionChanges() {
+            Set<Persona> before = network.getFriends("2");
+            assertSame(before, network.getFriends("2"));
+            assertThrows(UnsupportedOperationException.class, () -> before.add(tina));
+
+            network.connect("2", "20");
+            Set<Persona> after = network.getFriends("2");
+
+            assertNotSame(before, after);
+            assertEquals(3, before.size());
+            assertEquals(List.of(alice, charlie, edward, tina), List.copyOf(after));
+            assertEquals(Set.of(bob), network.getFriends("20"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Mutual Friends Tests")
+    class MutualFriendsTests {
+
+        @BeforeEach
+        void setUpConnections() {
+            registerAllUsers();
+            createTestNetwork();
+        }
+
+        @Test
+        @DisplayName("Should return mutual friends ordered by name and then by ID")
+        void shouldReturnMutualFriends() {
+            network.connect("5", "3");  // Edward -> Charlie
+
+            assertEquals(List.of(bob, charlie), List.copyOf(network.getMutualFriends("1", "5")));
+            assertEquals(2, network.countMutualFriends("1", "5"));
+            assertEquals(Set.of(diana), network.getMutualFriends("6", "7"));
+            assertTrue(network.getMutualFriends("1", "20").isEmpty());
+            assertEquals(0, network.countMutualFriends("17", "1"));
+            assertThrows(UnsupportedOperationException.class, () -> network.getMutualFriends("1", "5").clear());
+            assertThrows(UserNotFoundException.class, () -> network.countMutualFriends("1", "999"));
+        }
+
+        @Test
+        @DisplayName("Should count mutual friends of one user with many, hubs included")
+        void shouldCountMutualFriendsInBatch() {
+            List<String> everyone = new ArrayList<>();
+            for (int i = 1; i <= 20; i++) {
+                everyone.add(Integer.toString(i));
+            }
+            // Make Alice a hub whose friends are stored in a hash set
+            for (int i = 100; i < 300; i++) {
+                network.registerUser(new Persona(Integer.toString(i), "User " + i, LocalDate.of(1990, 1, 1),
+                        "Madrid", LocalDate.of(2024, 1, 1)));
+                network.connect("1", Integer.toString(i));
+                if (i % 3 == 0) {
+                    network.connect("4", Integer.toString(i));
+                }
+                everyone.add(Integer.toString(i));
+            }
+
+            for (String id : List.of("1", "4", "20", "150")) {
+                int[] counts = network.countMutualFriends(id, everyone);
+                for (int i = 0; i < everyone.size(); i++) {
+                    Set<Persona> expected = new HashSet<>(network.getFriends(id));
+                    expected.retainAll(network.getFriends(everyone.get(i)));
+                    assertEquals(expected.size(), counts[i], id + " and " + everyone.get(i));
+                    assertEquals(expected, network.getMutualFriends(id, everyone.get(i)));
+                }
+            }
+            assertEquals(66, network.countMutualFriends("1", "4"));
+            assertArrayEquals(new int[0], network.countMutualFriends("1", List.of()));
+        }
     }
 
     @Nested
@@ -314,6 +401,270 @@ class SocialNetworkImplTest {
         void shouldThrowExceptionWhenNoPathExists() {
             assertThrows(NoPathException.class, () -> network.getConnectionLevelBetween("1", "20"));
         }
+
+        @Test
+        @DisplayName("Should not leak visited users between reused searches as the network grows")
+        void shouldReuseSearchStateAcrossQueries() {
+            assertThrows(NoPathException.class, () -> network.getConnectionLevelBetween("1", "20"));
+            assertEquals(2, network.getConnectionLevelBetween("1", "6"));
+
+            Persona previous = tina;
+            for (int i = 100; i < 200; i++) {
+                Persona user = new Persona(Integer.toString(i), "User " + i, LocalDate.of(1990, 1, 1),
+                        "Madrid", LocalDate.of(2024, 1, 1));
+                network.registerUser(user);
+                network.connect(previous.getId(), user.getId());
+                previous = user;
+            }
+            network.connect("1", "199");
+
+            assertEquals(100, network.getConnectionLevelBetween("199", "20"));
+            assertEquals(102, network.getConnectionPathBetween("1", "20").size());
+            assertEquals(2, network.getConnectionLevelBetween("1", "6"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Traversal Budget Tests")
+    class TraversalBudgetTests {
+
+        private SocialNetworkImpl budgeted;
+
+        @BeforeEach
+        void setUpConnections() {
+            registerAllUsers();
+            createTestNetwork();
+            budgeted = (SocialNetworkImpl) network;
+        }
+
+        @Test
+        @DisplayName("Should stop at the maximum depth without scanning further")
+        void shouldStopAtMaximumDepth() {
+            TraversalBudget budget = new TraversalBudget(Integer.MAX_VALUE, 3, null);
+
+            assertEquals(2, budgeted.getConnectionLevelBetween("1", "6", budget));
+            assertEquals(List.of(alice, diana, oscar, patricia), budgeted.getConnectionPathBetween("1", "16", budget));
+            TraversalBudgetExceededException exceeded = assertThrows(TraversalBudgetExceededException.class,
+                    () -> budgeted.getConnectionLevelBetween("1", "10", budget));
+
+            assertEquals(TraversalBudget.Limit.DEPTH, exceeded.getLimit());
+            assertEquals(1, budgeted.getBudgetExceededCount(TraversalBudget.Limit.DEPTH));
+            assertEquals(0, budgeted.getBudgetExceededCount(TraversalBudget.Limit.VISITED));
+        }
+
+        @Test
+        @DisplayName("Should stop after visiting the maximum number of users, without a stack trace")
+        void shouldStopAtMaximumVisited() {
+            TraversalBudget budget = new TraversalBudget(4, Integer.MAX_VALUE, null);
+
+            assertEquals(1, budgeted.getConnectionLevelBetween("1", "2", budget));
+            TraversalBudgetExceededException exceeded = assertThrows(TraversalBudgetExceededException.class,
+                    () -> budgeted.getConnectionPathBetween("1", "13", budget));
+
+            assertEquals(TraversalBudget.Limit.VISITED, exceeded.getLimit());
+            assertEquals(4, exceeded.getVisited());
+            assertEquals(0, exceeded.getStackTrace().length);
+            assertEquals(1, budgeted.getBudgetExceededCount(TraversalBudget.Limit.VISITED));
+        }
+
+        @Test
+        @DisplayName("Should stop a long traversal at its deadline")
+        void shouldStopAtDeadline() {
+            Persona previous = tina;
+            for (int i = 100; i < 5100; i++) {
+                Persona user = new Persona(Integer.toString(i), "User " + i, LocalDate.of(1990, 1, 1),
+                        "Madrid", LocalDate.of(2024, 1, 1));
+                network.registerUser(user);
+                network.connect(previous.getId(), user.getId());
+                previous = user;
+            }
+            TraversalBudget budget = TraversalBudget.UNLIMITED.withTimeout(Duration.ZERO);
+
+            TraversalBudgetExceededException exceeded = assertThrows(TraversalBudgetExceededException.class,
+                    () -> budgeted.getConnectionLevelBetween("20", "1", budget));
+
+            assertEquals(TraversalBudget.Limit.DEADLINE, exceeded.getLimit());
+            assertEquals(1, budgeted.getBudgetExceededCount(TraversalBudget.Limit.DEADLINE));
+            assertEquals(5000, budgeted.getConnectionLevelBetween("20", "5099", TraversalBudget.UNLIMITED));
+        }
+
+        @Test
+        @DisplayName("Should still report no path when the component is exhausted within budget")
+        void shouldReportNoPathWithinBudget() {
+            TraversalBudget budget = new TraversalBudget(10, 5, Duration.ofSeconds(10));
+
+            assertThrows(NoPathException.class, () -> budgeted.getConnectionLevelBetween("17", "1", budget));
+            for (TraversalBudget.Limit limit : TraversalBudget.Limit.values()) {
+                assertEquals(0, budgeted.getBudgetExceededCount(limit));
+            }
+        }
+
+        @Test
+        @DisplayName("Should apply the default budget to queries without an explicit one")
+        void shouldApplyDefaultBudget() {
+            assertEquals(TraversalBudget.UNLIMITED, budgeted.getDefaultTraversalBudget());
+            assertEquals(4, network.getConnectionLevelBetween("1", "10"));
+
+            budgeted.setDefaultTraversalBudget(new TraversalBudget(Integer.MAX_VALUE, 2, null));
+
+            assertThrows(TraversalBudgetExceededException.class, () -> network.getConnectionPathBetween("1", "10"));
+            assertThrows(TraversalBudgetExceededException.class, () -> network.getConnectionLevelBetween("1", "10"));
+            assertEquals(2, budgeted.getBudgetExceededCount(TraversalBudget.Limit.DEPTH));
+            assertThrows(IllegalArgumentException.class, () -> new TraversalBudget(0, 1, null));
+            assertThrows(NullPointerException.class, () -> budgeted.setDefaultTraversalBudget(null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Exception-Free Query Tests")
+    class ResultQueryTests {
+
+        @BeforeEach
+        void setUpConnections() {
+            registerAllUsers();
+            createTestNetwork();
+        }
+
+        @Test
+        @DisplayName("Should return found results matching the throwing queries")
+        void shouldReturnFoundResults() {
+            assertEquals(new ConnectionResult.Found<>(network.getConnectionPathBetween("1", "16")),
+                    network.findConnectionPath("1", "16"));
+            assertEquals(new ConnectionResult.Found<>(List.of(alice)), network.findConnectionPath("1", "1"));
+            assertEquals(new ConnectionResult.Found<>(3), network.findConnectionLevel("1", "16"));
+            assertEquals(new ConnectionResult.Found<>(0), network.findConnectionLevel("1", "1"));
+            assertTrue(network.findConnectionLevel("1", "2").isFound());
+            assertEquals(1, network.findConnectionLevel("1", "2").orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should report missing users and missing paths as values")
+        void shouldReportFailuresAsValues() {
+            assertEquals(new ConnectionResult.NoPath<>(), network.findConnectionPath("1", "20"));
+            assertEquals(new ConnectionResult.NoPath<>(), network.findConnectionLevel("17", "1"));
+            assertEquals(new ConnectionResult.UnknownUser<>("999"), network.findConnectionPath("999", "1"));
+            assertEquals(new ConnectionResult.UnknownUser<>("998"), network.findConnectionLevel("1", "998"));
+            assertFalse(network.findConnectionLevel("1", "20").isFound());
+            assertThrows(NoPathException.class, () -> network.findConnectionLevel("1", "20").orElseThrow());
+            assertThrows(UserNotFoundException.class, () -> network.findConnectionPath("1", "998").orElseThrow());
+        }
+
+        @Test
+        @DisplayName("Should report an exhausted budget as a value and count it")
+        void shouldReportBudgetAsValue() {
+            SocialNetworkImpl budgeted = (SocialNetworkImpl) network;
+            TraversalBudget budget = new TraversalBudget(Integer.MAX_VALUE, 3, null);
+
+            ConnectionResult<Integer> result = budgeted.findConnectionLevel("1", "10", budget);
+
+            assertInstanceOf(ConnectionResult.BudgetExceeded.class, result);
+            assertEquals(TraversalBudget.Limit.DEPTH, ((ConnectionResult.BudgetExceeded<Integer>) result).limit());
+            assertEquals(1, budgeted.getBudgetExceededCount(TraversalBudget.Limit.DEPTH));
+            budgeted.setDefaultTraversalBudget(new TraversalBudget(4, Integer.MAX_VALUE, null));
+            assertEquals(new ConnectionResult.BudgetExceeded<>(TraversalBudget.Limit.VISITED, 4),
+                    network.findConnectionPath("1", "13"));
+        }
+
+        @Test
+        @DisplayName("Should skip stack traces of query exceptions when capture is disabled")
+        void shouldSkipStackTracesWhenDisabled() {
+            assertTrue(StackTraces.isCaptureEnabled());
+            NoPathException withTrace = assertThrows(NoPathException.class,
+                    () -> network.getConnectionLevelBetween("1", "20"));
+            assertTrue(withTrace.getStackTrace().length > 0);
+
+            StackTraces.setCaptureEnabled(false);
+            try {
+                NoPathException noPath = assertThrows(NoPathException.class,
+                        () -> network.getConnectionLevelBetween("1", "20"));
+                UserNotFoundException notFound = assertThrows(UserNotFoundException.class,
+                        () -> network.getFriends("999"));
+                assertEquals(0, noPath.getStackTrace().length);
+                assertEquals(0, notFound.getStackTrace().length);
+                assertEquals("User with ID 999 not found", notFound.getMessage());
+            } finally {
+                StackTraces.setCaptureEnabled(true);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Single-Source Distance Tests")
+    class SingleSourceDistanceTests {
+
+        @BeforeEach
+        void setUpConnections() {
+            registerAllUsers();
+            createTestNetwork();
+        }
+
+        @Test
+        @DisplayName("Should return the distance to every user in registration order")
+        void shouldReturnDistancesInRegistrationOrder() {
+            int[] distances = network.getDistancesFrom("1", Integer.MAX_VALUE);
+
+            assertEquals(20, distances.length);
+            assertEquals(0, distances[0]);  // Alice
+            assertEquals(1, distances[1]);  // Bob
+            assertEquals(2, distances[5]);  // Frank
+            assertEquals(3, distances[15]); // Patricia
+            assertEquals(SocialNetwork.UNREACHABLE, distances[16]); // Quentin
+            assertEquals(SocialNetwork.UNREACHABLE, distances[19]); // Tina
+        }
+
+        @Test
+        @DisplayName("Should agree with getConnectionLevelBetween for every reachable user")
+        void shouldAgreeWithConnectionLevel() {
+            int[] distances = network.getDistancesFrom("4", Integer.MAX_VALUE);
+
+            int index = 0;
+            for (Persona user : network.getUsersOrderedByRegistration()) {
+                if (distances[index] != SocialNetwork.UNREACHABLE) {
+                    assertEquals(network.getConnectionLevelBetween("4", user.getId()), distances[index]);
+                }
+                index++;
+            }
+        }
+
+        @Test
+        @DisplayName("Should not report users beyond the depth cap")
+        void shouldRespectDepthCap() {
+            int[] distances = network.getDistancesFrom("1", 1);
+
+            assertEquals(1, distances[3]);  // Diana
+            assertEquals(SocialNetwork.UNREACHABLE, distances[5]); // Frank is 2 hops away
+        }
+
+        @Test
+        @DisplayName("Should group the neighborhood by level")
+        void shouldGroupNeighborhoodByLevel() {
+            Neighborhood neighborhood = network.getNeighborhood("1", 2);
+
+            assertEquals(alice, neighborhood.getSource());
+            assertEquals(2, neighborhood.getDepth());
+            assertArrayEquals(new int[]{1, 3, 4}, neighborhood.getCountsPerLevel());
+            assertEquals(Set.of(bob, charlie, diana), Set.copyOf(neighborhood.getLevel(1)));
+            assertEquals(Set.of(edward, frank, grace, oscar), Set.copyOf(neighborhood.getLevel(2)));
+            assertEquals(7, neighborhood.size());
+            assertEquals(7, neighborhood.stream().count());
+        }
+
+        @Test
+        @DisplayName("Should return only the source for an isolated user")
+        void shouldReturnOnlySourceForIsolatedUser() {
+            Neighborhood neighborhood = network.getNeighborhood("20", 3);
+
+            assertEquals(0, neighborhood.getDepth());
+            assertEquals(0, neighborhood.size());
+            assertEquals(List.of(tina), neighborhood.getLevel(0));
+        }
+
+        @Test
+        @DisplayName("Should throw for a negative depth or a non-existent user")
+        void shouldRejectInvalidArguments() {
+            assertThrows(IllegalArgumentException.class, () -> network.getDistancesFrom("1", -1));
+            assertThrows(UserNotFoundException.class, () -> network.getNeighborhood("999", 2));
+        }
     }
 
     @Nested
@@ -347,6 +698,428 @@ class SocialNetworkImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Locality Reordering Tests")
+    class LocalityReorderingTests {
+
+        @BeforeEach
+        void setUpConnections() {
+            registerAllUsers();
+            createTestNetwork();
+        }
+
+        private List<Object> observe() {
+            List<Object> observed = new ArrayList<>();
+            observed.add(List.copyOf(network.getUsersOrderedByRegistration()));
+            Set<String> edges = new HashSet<>();
+            GraphSnapshot snapshot = network.snapshot();
+            for (int u = 0; u < snapshot.userCount(); u++) {
+                for (int v : snapshot.neighbors(u)) {
+                    edges.add(snapshot.user(u).getId() + "-" + snapshot.user(v).getId());
+                }
+            }
+            observed.add(edges);
+            for (Persona user : network.getUsersOrderedByRegistration()) {
+                observed.add(List.copyOf(network.getFriends(user.getId())));
+                observed.add(Arrays.toString(network.getDistancesFrom(user.getId(), Integer.MAX_VALUE)));
+                for (Persona other : network.getUsersOrderedByRegistration()) {
+                    if (!user.equals(other)) {
+                        observed.add(network.findConnectionLevel(user.getId(), other.getId()));
+                        observed.add(network.countMutualFriends(user.getId(), other.getId()));
+                    }
+                }
+            }
+            return observed;
+        }
+
+        @Test
+        @DisplayName("Should answer every query the same way after reordering")
+        void shouldPreserveQueryResults() {
+            List<Object> before = observe();
+
+            ((SocialNetworkImpl) network).reorderForLocality();
+
+            assertEquals(before, observe());
+            List<Persona> path = network.getConnectionPathBetween("1", "10");
+            assertEquals(5, path.size());
+            assertEquals(alice, path.get(0));
+            assertEquals(julia, path.get(4));
+        }
+
+        @Test
+        @DisplayName("Should append later registrations and support repeated reordering")
+        void shouldAppendLaterRegistrations() {
+            SocialNetworkImpl impl = (SocialNetworkImpl) network;
+            impl.reorderForLocality();
+            Persona uma = new Persona("21", "Uma Thurman", LocalDate.of(1990, 4, 29), "Dallas", LocalDate.of(2023, 11, 1));
+            network.registerUser(uma);
+            network.connect("21", "20");
+            network.connect("21", "1");
+
+            List<Persona> expectedOrder = List.copyOf(network.getUsersOrderedByRegistration());
+            assertEquals(uma, expectedOrder.get(20));
+            assertEquals(alice, expectedOrder.get(0));
+            int[] distances = network.getDistancesFrom("20", Integer.MAX_VALUE);
+            assertEquals(1, distances[20]);
+            assertEquals(2, distances[0]);
+
+            impl.reorderForLocality(GraphReordering.Strategy.DEGREE);
+
+            assertEquals(expectedOrder, List.copyOf(network.getUsersOrderedByRegistration()));
+            assertArrayEquals(distances, network.getDistancesFrom("20", Integer.MAX_VALUE));
+            assertEquals(Set.of(tina, alice), network.getFriends("21"));
+            assertEquals(3, network.getConnectionLevelBetween("20", "2"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Temporal Query Tests")
+    class TemporalQueryTests {
+
+        private SocialNetworkImpl impl;
+
+        @BeforeEach
+        void setUpTimeline() {
+            impl = new SocialNetworkImpl(null, Clock.fixed(Instant.parse("2023-06-01T12:00:00Z"), ZoneOffset.UTC));
+            network = impl;
+            registerAllUsers();
+            impl.connect("1", "2", Instant.parse("2023-01-20T10:00:00Z"));
+            impl.connect("2", "3", Instant.parse("2023-02-25T08:00:00Z"));
+            impl.connect("3", "4", Instant.parse("2023-02-25T23:59:59Z"));
+            impl.connect("1", "4", Instant.parse("2023-03-05T00:00:00Z"));
+        }
+
+        @Test
+        @DisplayName("Should return the friends a user had at the end of a past day")
+        void shouldReturnFriendsAsOf() {
+            // Backfilled connection, older than the ones already recorded
+            impl.connect("1", "3", Instant.parse("2023-02-10T23:59:59.999Z"));
+
+            assertEquals(Set.of(), impl.getFriends("1", LocalDate.of(2023, 1, 19)));
+            assertEquals(Set.of(bob), impl.getFriends("1", LocalDate.of(2023, 1, 20)));
+            assertEquals(List.of(bob, charlie), List.copyOf(impl.getFriends("1", LocalDate.of(2023, 2, 10))));
+            assertEquals(Set.of(bob, charlie, diana), impl.getFriends("1", LocalDate.of(2023, 3, 5)));
+            assertEquals(network.getFriends("1"), impl.getFriends("1", LocalDate.of(2030, 1, 1)));
+            assertTrue(impl.getFriends("1", LocalDate.of(2023, 2, 10)).contains(charlie));
+            assertThrows(UserNotFoundException.class, () -> impl.getFriends("4", LocalDate.of(2023, 2, 1)));
+        }
+
+        @Test
+        @DisplayName("Should move connection times before a registration to the registration day")
+        void shouldClampConnectionsBeforeRegistration() {
+            impl.connect("1", "5", Instant.parse("2023-01-20T10:00:00Z"));
+
+            assertEquals(Instant.parse("2023-03-01T00:00:00Z"), impl.getConnectionTime("1", "5"));
+            assertEquals(Set.of(bob), impl.getFriends("1", LocalDate.of(2023, 2, 28)));
+            assertEquals(List.of(alice, bob), impl.getConnectionPathBetween("1", "2", LocalDate.of(2023, 2, 28)));
+            assertEquals(Set.of(diana, edward, bob), impl.getFriends("1", LocalDate.of(2023, 3, 5)));
+            assertEquals(Set.of(alice), impl.getFriends("5", LocalDate.of(2023, 3, 1)));
+        }
+
+        @Test
+        @DisplayName("Should find paths and levels over the connections of a past day")
+        void shouldSearchAsOf() {
+            LocalDate february = LocalDate.of(2023, 2, 28);
+            assertEquals(List.of(alice, bob, charlie, diana), impl.getConnectionPathBetween("1", "4", february));
+            assertEquals(3, impl.getConnectionLevelBetween("1", "4", february));
+            assertThrows(NoPathException.class,
+                    () -> impl.getConnectionLevelBetween("1", "4", LocalDate.of(2023, 2, 24)));
+            assertThrows(UserNotFoundException.class,
+                    () -> impl.getConnectionPathBetween("1", "4", LocalDate.of(2023, 2, 1)));
+            assertEquals(1, impl.getConnectionLevelBetween("1", "4", LocalDate.of(2023, 3, 5)));
+            assertEquals(1, network.getConnectionLevelBetween("1", "4"));
+
+            impl.reorderForLocality();
+
+            assertEquals(List.of(alice, bob, charlie, diana), impl.getConnectionPathBetween("1", "4", february));
+            assertEquals(Set.of(bob), impl.getFriends("1", LocalDate.of(2023, 2, 28)));
+            assertEquals(Instant.parse("2023-02-25T08:00:00Z"), impl.getConnectionTime("3", "2"));
+        }
+
+        @Test
+        @DisplayName("Should stamp connections with the clock and list users registered by a date")
+        void shouldStampConnectionsAndFilterRegistrations() {
+            network.connect("5", "6");
+
+            assertEquals(Instant.parse("2023-06-01T12:00:00Z"), impl.getConnectionTime("6", "5"));
+            assertNull(impl.getConnectionTime("5", "7"));
+            assertEquals(Set.of(), impl.getFriends("5", LocalDate.of(2023, 5, 31)));
+            assertEquals(Set.of(frank), impl.getFriends("5", LocalDate.of(2023, 6, 1)));
+            assertEquals(List.of(alice, bob, charlie),
+                    List.copyOf(impl.getUsersOrderedByRegistration(LocalDate.of(2023, 2, 5))));
+            assertEquals(network.getUsersOrderedByRegistration(),
+                    impl.getUsersOrderedByRegistration(LocalDate.of(2024, 1, 1)));
+        }
+
+        @Test
+        @DisplayName("Should keep registration order for backdated registrations and after reordering")
+        void shouldListBackdatedRegistrationsInOrder() {
+            Persona late = new Persona("30", "Late", LocalDate.of(1990, 1, 1), "Lima", LocalDate.of(2025, 1, 1));
+            Persona backdated = new Persona("31", "Backdated", LocalDate.of(1990, 1, 1), "Lima",
+                    LocalDate.of(2023, 2, 1));
+            network.registerUser(late);
+            network.registerUser(backdated);
+
+            assertEquals(List.of(alice, bob, charlie, backdated),
+                    List.copyOf(impl.getUsersOrderedByRegistration(LocalDate.of(2023, 2, 5))));
+            assertEquals(List.of(), List.copyOf(impl.getUsersOrderedByRegistration(LocalDate.of(2000, 1, 1))));
+
+            impl.reorderForLocality();
+            assertEquals(List.of(alice, bob, charlie, backdated),
+                    List.copyOf(impl.getUsersOrderedByRegistration(LocalDate.of(2023, 2, 5))));
+            assertEquals(network.getUsersOrderedByRegistration(),
+                    impl.getUsersOrderedByRegistration(LocalDate.of(2025, 1, 1)));
+        }
+
+        @Test
+        @DisplayName("Should list an import in reverse date order and index it once per batch")
+        void shouldListReverseDateImport() {
+            SocialNetworkImpl imported = new SocialNetworkImpl();
+            LocalDate last = LocalDate.of(2024, 1, 1);
+            for (int i = 0; i < 1000; i++) {
+                imported.registerUser(new Persona(String.valueOf(i), "User " + i, LocalDate.of(1990, 1, 1),
+                        "Lima", last.minusDays(i)));
+            }
+            long dates = imported.memoryStats().getRegistrationIndexBytes();
+
+            List<Persona> lastTen = List.copyOf(imported.getUsersOrderedByRegistration(last.minusDays(990)));
+            assertEquals(10, lastTen.size());
+            assertEquals("990", lastTen.get(0).getId());
+            assertEquals("999", lastTen.get(9).getId());
+            assertEquals(1000, imported.getUsersOrderedByRegistration(last).size());
+            assertEquals(24 + (16 + 4 * 1000) + (16 + 8 * 1000),
+                    imported.memoryStats().getRegistrationIndexBytes() - dates);
+
+            imported.registerUser(new Persona("late", "Late", LocalDate.of(1990, 1, 1), "Lima", last));
+            List<Persona> all = List.copyOf(imported.getUsersOrderedByRegistration(last));
+            assertEquals(1001, all.size());
+            assertEquals("0", all.get(0).getId());
+            assertEquals("late", all.get(1000).getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Memory Stats Tests")
+    class MemoryStatsTests {
+
+        private SocialNetworkImpl impl;
+
+        @BeforeEach
+        void setUpNetwork() {
+            registerAllUsers();
+            createTestNetwork();
+            impl = (SocialNetworkImpl) network;
+        }
+
+        @Test
+        @DisplayName("Should report every component and an adjacency histogram over all users")
+        void shouldReportComponents() {
+            MemoryStats stats = impl.memoryStats();
+
+            assertEquals(20, stats.getUserCount());
+            assertEquals(network.snapshot().edgeCount(), stats.getConnectionCount());
+            assertTrue(stats.getUserRecordBytes() > 0);
+            assertTrue(stats.getIdIndexBytes() > 0);
+            assertTrue(stats.getAdjacencyBytes() > 0);
+            assertTrue(stats.getConnectionHistoryBytes() > stats.getAdjacencyBytes());
+            // Only the index by registration date, as the users have not been reordered
+            assertEquals(16 + 8 * 32, stats.getRegistrationIndexBytes());
+            assertEquals(20, Arrays.stream(stats.getAdjacencyHistogram()).sum());
+            assertEquals(stats.getUserRecordBytes() + stats.getIdIndexBytes() + stats.getAdjacencyBytes()
+                    + stats.getConnectionHistoryBytes() + stats.getFriendCacheBytes()
+                    + stats.getTraversalCacheBytes() + stats.getRegistrationIndexBytes(), stats.getTotalBytes());
+
+            assertThrows(IllegalArgumentException.class, () -> stats.getAdjacencyBytesAtPercentile(101));
+            assertEquals(0, new SocialNetworkImpl().memoryStats().getAdjacencyBytesAtPercentile(50));
+        }
+
+        @Test
+        @DisplayName("Should track caches, hubs, reordering and wide characters")
+        void shouldTrackChanges() {
+            long emptyCache = impl.memoryStats().getFriendCacheBytes();
+            network.getFriends("1");
+            long filledCache = impl.memoryStats().getFriendCacheBytes();
+            assertTrue(filledCache > emptyCache);
+            network.connect("1", "20");
+            assertEquals(emptyCache, impl.memoryStats().getFriendCacheBytes());
+
+            for (int i = 100; i < 300; i++) {
+                network.registerUser(new Persona(String.valueOf(i), "Fan " + i, LocalDate.of(2000, 1, 1),
+                        "Lima", LocalDate.of(2024, 1, 1)));
+                network.connect("1", String.valueOf(i));
+            }
+            MemoryStats stats = impl.memoryStats();
+            assertTrue(stats.getMaxAdjacencyBytes() > 4 * 200);
+            assertTrue(stats.getAdjacencyBytesAtPercentile(50) < 4 * 64);
+            assertEquals(stats.getMaxAdjacencyBytes(), stats.getAdjacencyBytesAtPercentile(100));
+
+            long dateIndex = impl.memoryStats().getRegistrationIndexBytes();
+            impl.reorderForLocality();
+            assertEquals(2 * (16 + 4 * 220), impl.memoryStats().getRegistrationIndexBytes() - dateIndex);
+
+            SocialNetworkImpl latin = new SocialNetworkImpl();
+            latin.registerUser(new Persona("x", "abcdefgh", LocalDate.of(2000, 1, 1), "Lima", LocalDate.of(2024, 1, 1)));
+            SocialNetworkImpl wide = new SocialNetworkImpl();
+            wide.registerUser(new Persona("x", "東京大阪京都札幌", LocalDate.of(2000, 1, 1), "Lima", LocalDate.of(2024, 1, 1)));
+            assertEquals(8, wide.memoryStats().getUserRecordBytes() - latin.memoryStats().getUserRecordBytes());
+        }
+
+        @Test
+        @DisplayName("Should count a friend view once when concurrent readers race to build it")
+        void shouldCountRacingFriendViewsOnce() throws Exception {
+            SocialNetworkImpl hub = new SocialNetworkImpl();
+            for (int i = 0; i < 2_200; i++) {
+                hub.registerUser(new Persona(String.valueOf(i), "User " + i, LocalDate.of(2000, 1, 1),
+                        "Lima", LocalDate.of(2024, 1, 1)));
+            }
+            for (int i = 1; i < 200; i++) {
+                hub.connect("0", String.valueOf(i));
+            }
+            long empty = hub.memoryStats().getFriendCacheBytes();
+            int readers = 8;
+            CyclicBarrier start = new CyclicBarrier(readers + 1);
+            CyclicBarrier end = new CyclicBarrier(readers + 1);
+            int rounds = 2_000;
+            List<Thread> threads = new ArrayList<>();
+            List<Set<Persona>> seen = Collections.synchronizedList(new ArrayList<>());
+            for (int t = 0; t < readers; t++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        for (int round = 0; round < rounds; round++) {
+                            start.await();
+                            Set<Persona> friends = hub.getFriends("0");
+                            if (round == rounds - 1) {
+                                seen.add(friends);
+                            }
+                            end.await();
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            for (int round = 0; round < rounds; round++) {
+                start.await();
+                end.await();
+                if (round < rounds - 1) {
+                    // Invalidate the view the readers just built, as a write between read batches would
+                    hub.connect("0", String.valueOf(200 + round));
+                }
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // Every reader of the last round got the single installed view
+            assertEquals(readers, seen.stream().filter(friends -> friends == seen.get(0)).count());
+            long cachedView = hub.memoryStats().getFriendCacheBytes() - empty;
+            assertEquals(24 + 16 + 4 * (199 + rounds - 1), cachedView);
+        }
+
+        @Test
+        @DisplayName("Should keep running totals that a metrics thread can poll during mutations")
+        void shouldPollDuringMutations() throws InterruptedException {
+            SocialNetworkImpl polled = new SocialNetworkImpl();
+            SocialNetworkImpl quiet = new SocialNetworkImpl();
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicLong polls = new AtomicLong();
+            Thread poller = Thread.ofPlatform().start(() -> {
+                while (!done.get()) {
+                    assertTrue(polled.memoryStats().getTotalBytes() > 0);
+                    polls.incrementAndGet();
+                }
+            });
+            for (SocialNetworkImpl target : List.of(polled, quiet)) {
+                for (int i = 0; i < 2_000; i++) {
+                    target.registerUser(new Persona(String.valueOf(i), "User " + i, LocalDate.of(2000, 1, 1),
+                            "Lima", LocalDate.of(2024, 1, 1)));
+                    if (i > 0) {
+                        target.connect(String.valueOf(i), String.valueOf(i / 2));
+                    }
+                    if (i > 2) {
+                        target.connect(String.valueOf(i), String.valueOf(i - 1));
+                        target.connect(String.valueOf(i), "0");
+                    }
+                }
+            }
+            done.set(true);
+            poller.join();
+            assertTrue(polls.get() > 0);
+
+            MemoryStats stats = polled.memoryStats();
+            assertEquals(quiet.memoryStats().toString(), stats.toString());
+            assertEquals(2_000, Arrays.stream(stats.getAdjacencyHistogram()).sum());
+
+            // Rebuilding the connection sets in a new order keeps their capacities
+            polled.reorderForLocality();
+            assertEquals(stats.getAdjacencyBytes(), polled.memoryStats().getAdjacencyBytes());
+            assertArrayEquals(stats.getAdjacencyHistogram(), polled.memoryStats().getAdjacencyHistogram());
+        }
+    }
+
+    @Nested
+    @DisplayName("Closest Connection Tests")
+    class ClosestConnectionTests {
+
+        private final List<String> candidates = List.of("10", "2", "16", "99", "19", "1", "2");
+
+        @BeforeEach
+        void setUpConnections() {
+            registerAllUsers();
+            createTestNetwork();
+        }
+
+        @Test
+        @DisplayName("Should report reachable candidates nearest first with a shortest witness path")
+        void shouldStreamCandidatesByDistance() {
+            List<ClosestConnection> streamed = new ArrayList<>();
+            network.findClosestConnections("1", candidates, Integer.MAX_VALUE, streamed::add);
+
+            assertEquals(List.of(
+                    new ClosestConnection(alice, 0, List.of(alice)),
+                    new ClosestConnection(bob, 1, List.of(alice, bob)),
+                    new ClosestConnection(patricia, 3, List.of(alice, diana, oscar, patricia)),
+                    new ClosestConnection(julia, 4, List.of(alice, diana, oscar, nancy, julia))), streamed);
+
+            List<ClosestConnection> capped = network.getClosestConnections("1", candidates, 3);
+            assertEquals(List.of(alice, bob, patricia), capped.stream().map(ClosestConnection::target).toList());
+            assertEquals(List.of(), network.getClosestConnections("20", List.of("1", "2"), Integer.MAX_VALUE));
+
+            assertThrows(UserNotFoundException.class, () -> network.getClosestConnections("99", candidates, 2));
+            assertThrows(IllegalArgumentException.class, () -> network.getClosestConnections("1", candidates, -1));
+        }
+
+        @Test
+        @DisplayName("Should agree with the generic traversal and with one path query per candidate")
+        void shouldMatchDefaultImplementation() {
+            SocialNetwork generic = new ShardedSocialNetwork(3);
+            SocialNetwork impl = network;
+            network = generic;
+            registerAllUsers();
+            createTestNetwork();
+
+            List<String> everyone = new ArrayList<>();
+            for (int i = 1; i <= 21; i++) {
+                everyone.add(Integer.toString(i));
+            }
+            for (String source : List.of("1", "7", "13", "17")) {
+                List<ClosestConnection> expected = impl.getClosestConnections(source, everyone, Integer.MAX_VALUE);
+                List<ClosestConnection> actual = generic.getClosestConnections(source, everyone, Integer.MAX_VALUE);
+                assertEquals(expected.stream().map(ClosestConnection::level).toList(),
+                        actual.stream().map(ClosestConnection::level).toList());
+                assertEquals(Set.copyOf(expected.stream().map(ClosestConnection::target).toList()),
+                        Set.copyOf(actual.stream().map(ClosestConnection::target).toList()));
+                for (ClosestConnection result : expected) {
+                    assertEquals(impl.getConnectionLevelBetween(source, result.target().getId()), result.level());
+                    assertEquals(result.level() + 1, result.path().size());
+                    for (int i = 1; i < result.path().size(); i++) {
+                        assertTrue(impl.getFriends(result.path().get(i - 1).getId()).contains(result.path().get(i)));
+                    }
+                }
+            }
+        }
+    }
+
     @Nested
     @DisplayName("TreeSet Ordering Tests")
     class TreeSetOrderingTests {
@@ -384,6 +1157,33 @@ class SocialNetworkImplTest {
             assertEquals("21", friendsArray[1].getId());
             assertEquals("22", friendsArray[2].getId());
         }
+
+        @Test
+        @DisplayName("Should keep the order for users promoted to hashed connection sets")
+        void shouldOrderConnectionsOfHubs() {
+            network.registerUser(alice);
+            int friendCount = 500;
+            for (int i = friendCount; i > 0; i--) {
+                // Names are registered in reverse order, so ordinal order differs from name order
+                network.registerUser(new Persona("f" + i, String.format("Friend %04d", i % 250),
+                        LocalDate.of(1990, 1, 1), "Madrid", LocalDate.of(2023, 1, 1)));
+                network.connect("1", "f" + i);
+            }
+
+            List<Persona> friends = List.copyOf(network.getFriends("1"));
+
+            assertEquals(friendCount, friends.size());
+            for (int i = 1; i < friends.size(); i++) {
+                Persona previous = friends.get(i - 1);
+                Persona current = friends.get(i);
+                int byName = previous.getName().compareTo(current.getName());
+                assertTrue(byName < 0 || (byName == 0 && previous.getId().compareTo(current.getId()) < 0));
+            }
+            assertTrue(network.getFriends("1").contains(
+                    new Persona("f7", "Other name", LocalDate.of(2000, 1, 1), "Paris", LocalDate.of(2024, 1, 1))));
+            assertThrows(ConnectionAlreadyExistsException.class, () -> network.connect("f300", "1"));
+            assertEquals(Set.of(alice), network.getFriends("f300"));
+        }
     }
 
     // Helper methods
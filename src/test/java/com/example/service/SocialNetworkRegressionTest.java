@@ -0,0 +1,249 @@
+package com.example.service;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Performance regression tests for {@link SocialNetworkImpl}.
+ * <p>
+ * Every {@link SocialNetwork} operation is measured on networks of several sizes, for its time
+ * and for the bytes it allocates, read from the per-thread counter of
+ * {@link com.sun.management.ThreadMXBean}. The tests then check two things that behavior tests
+ * cannot see. Allocation per operation must stay within a fixed budget, which catches a change
+ * that makes a query allocate ten times more; allocation counts are exact and do not depend on
+ * the machine, so these budgets are tight. Time per operation must follow the expected curve
+ * across sizes: flat for point operations, at most linear for traversals. Timing is noisy on
+ * shared machines, so those bounds only catch a change of complexity class, such as
+ * {@code connect} going back to O(n).
+ * </p>
+ * <p>
+ * Each operation runs once to warm up and then in several rounds; the reported time is the
+ * median round and the reported allocation the smallest one.
+ * </p>
+ */
+@DisplayName("SocialNetwork Performance Regression Tests")
+class SocialNetworkRegressionTest {
+
+    private static final int[] SIZES = {2_000, 16_000, 128_000};
+    private static final int[] RING_OFFSETS = {1, 7, 31, 127};
+    private static final int ROUNDS = 5;
+    private static final int POINT_OPERATIONS = 10_000;
+    private static final int TRAVERSAL_VISITS = 2_000_000;
+
+    /**
+     * Largest growth of the time per point operation from the smallest to the largest network.
+     * Constant-time operations get slower on larger networks from cache misses alone, so the
+     * bound leaves room for that while still failing for linear growth, which would be 64x.
+     */
+    private static final double FLAT_GROWTH = 10;
+
+    /**
+     * Largest growth of the time per traversal divided by the growth of the network.
+     */
+    private static final double LINEAR_GROWTH = 4;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Operations under test, with the bytes each may allocate per call, or -1 for an operation
+     * whose result is an array with one element per user.
+     */
+    private enum Operation {
+        REGISTER_USER(256),
+        CONNECT(384),
+        GET_FRIENDS_CACHED(16),
+        GET_FRIENDS_AFTER_CONNECT(1_024),
+        COUNT_MUTUAL_FRIENDS(16),
+        CONNECTION_LEVEL(16),
+        CONNECTION_PATH(256),
+        DISTANCES_FROM(-1);
+
+        private final long budget;
+
+        Operation(long budget) {
+            this.budget = budget;
+        }
+
+        boolean isTraversal() {
+            return this == CONNECTION_LEVEL || this == CONNECTION_PATH || this == DISTANCES_FROM;
+        }
+    }
+
+    private record Cost(double nanos, double bytes) {
+    }
+
+    private static final List<Map<Operation, Cost>> costs = new ArrayList<>();
+    private static long sink;
+
+    @BeforeAll
+    static void measureAllSizes() {
+        for (int size : SIZES) {
+            costs.add(measure(size));
+        }
+    }
+
+    private static Persona user(int i) {
+        return new Persona(String.valueOf(i), "User " + i, LocalDate.of(1990, 1, 1), "Madrid",
+                LocalDate.of(2023, 1, 1));
+    }
+
+    /**
+     * Builds a network of {@code size} users, each linked to the users a few fixed offsets
+     * ahead on a ring plus one random shortcut, and measures every operation on it.
+     */
+    private static Map<Operation, Cost> measure(int size) {
+        SocialNetworkImpl network = new SocialNetworkImpl();
+        String[] ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = String.valueOf(i);
+            network.registerUser(user(i));
+        }
+        SplittableRandom random = new SplittableRandom(size);
+        for (int u = 0; u < size; u++) {
+            for (int offset : RING_OFFSETS) {
+                network.connect(ids[u], ids[(u + offset) % size]);
+            }
+            try {
+                network.connect(ids[u], ids[random.nextInt(size)]);
+            } catch (ConnectionAlreadyExistsException | IllegalArgumentException e) {
+                // The shortcut repeats a ring link or loops back to the user
+            }
+        }
+        int[] sources = random.ints(POINT_OPERATIONS * (ROUNDS + 1), 0, size).toArray();
+        int[] targets = random.ints(sources.length, 0, size).toArray();
+        int traversals = Math.max(10, TRAVERSAL_VISITS / size);
+
+        Map<Operation, Cost> result = new EnumMap<>(Operation.class);
+        result.put(Operation.CONNECTION_LEVEL, run(traversals,
+                i -> network.getConnectionLevelBetween(ids[sources[i]], ids[targets[i]])));
+        result.put(Operation.CONNECTION_PATH, run(traversals,
+                i -> network.getConnectionPathBetween(ids[sources[i]], ids[targets[i]]).size()));
+        result.put(Operation.DISTANCES_FROM, run(traversals,
+                i -> network.getDistancesFrom(ids[sources[i]], Integer.MAX_VALUE).length));
+        result.put(Operation.COUNT_MUTUAL_FRIENDS, run(POINT_OPERATIONS,
+                i -> network.countMutualFriends(ids[sources[i]], ids[(sources[i] + 1) % size])));
+        network.getFriends(ids[0]);
+        result.put(Operation.GET_FRIENDS_CACHED, run(POINT_OPERATIONS, i -> network.getFriends(ids[0]).size()));
+
+        // Mutations come last, so that the queries above run on a network of exactly size users
+        Persona[] newcomers = new Persona[POINT_OPERATIONS * (ROUNDS + 1)];
+        for (int i = 0; i < newcomers.length; i++) {
+            newcomers[i] = user(size + i);
+        }
+        result.put(Operation.REGISTER_USER, run(POINT_OPERATIONS, i -> {
+            network.registerUser(newcomers[i]);
+            return i;
+        }));
+        result.put(Operation.CONNECT, run(POINT_OPERATIONS, i -> {
+            network.connect(newcomers[i].getId(), ids[sources[i]]);
+            return i;
+        }));
+        result.put(Operation.GET_FRIENDS_AFTER_CONNECT, run(POINT_OPERATIONS, i -> {
+            // Connecting a newcomer invalidates the cached list of the user it befriends
+            String friend = ids[(sources[i] + 1) % size];
+            network.connect(newcomers[i].getId(), friend);
+            return network.getFriends(friend).size();
+        }));
+        return result;
+    }
+
+    /**
+     * Runs an operation {@code operations} times per round, for a warm-up round and then
+     * {@value #ROUNDS} measured rounds. The operation receives a call index that is distinct
+     * across all rounds.
+     */
+    private static Cost run(int operations, IntUnaryOperator operation) {
+        long[] nanos = new long[ROUNDS];
+        long minBytes = Long.MAX_VALUE;
+        for (int round = -1; round < ROUNDS; round++) {
+            int first = (round + 1) * operations;
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = first; i < first + operations; i++) {
+                sink += operation.applyAsInt(i);
+            }
+            long elapsed = System.nanoTime() - start;
+            long bytes = THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            if (round >= 0) {
+                nanos[round] = elapsed;
+                minBytes = Math.min(minBytes, bytes);
+            }
+        }
+        Arrays.sort(nanos);
+        return new Cost((double) nanos[ROUNDS / 2] / operations, (double) minBytes / operations);
+    }
+
+    private static String describe(Operation operation) {
+        StringBuilder description = new StringBuilder(operation.name());
+        for (int s = 0; s < SIZES.length; s++) {
+            Cost cost = costs.get(s).get(operation);
+            description.append(String.format(" | n=%d: %.0f ns/op, %.1f B/op", SIZES[s], cost.nanos(), cost.bytes()));
+        }
+        return description.toString();
+    }
+
+    @Test
+    @DisplayName("Should allocate no more than the budget of each operation at every size")
+    void shouldStayWithinAllocationBudgets() {
+        assertTrue(THREADS.isThreadAllocatedMemorySupported(), "Per-thread allocation counters unavailable");
+        List<Executable> checks = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            for (int s = 0; s < SIZES.length; s++) {
+                double bytes = costs.get(s).get(operation).bytes();
+                // An O(V) result, such as a distance array, is budgeted per user
+                double budget = operation.budget >= 0 ? operation.budget : 4.0 * SIZES[s] + 64;
+                checks.add(() -> assertTrue(bytes <= budget,
+                        "Allocation budget of " + budget + " B/op exceeded: " + describe(operation)));
+            }
+        }
+        assertAll(checks);
+    }
+
+    @Test
+    @DisplayName("Should keep point operations flat as the network grows")
+    void shouldKeepPointOperationsFlat() {
+        List<Executable> checks = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            if (!operation.isTraversal()) {
+                double growth = costs.get(SIZES.length - 1).get(operation).nanos() / costs.get(0).get(operation).nanos();
+                checks.add(() -> assertTrue(growth <= FLAT_GROWTH,
+                        String.format("Grew %.1fx instead of staying flat: %s", growth, describe(operation))));
+            }
+        }
+        assertAll(checks);
+    }
+
+    @Test
+    @DisplayName("Should keep traversals at most linear in the size of the network")
+    void shouldScaleTraversalsLinearly() {
+        double sizeGrowth = (double) SIZES[SIZES.length - 1] / SIZES[0];
+        List<Executable> checks = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            if (operation.isTraversal()) {
+                double growth = costs.get(SIZES.length - 1).get(operation).nanos() / costs.get(0).get(operation).nanos();
+                checks.add(() -> assertTrue(growth <= LINEAR_GROWTH * sizeGrowth,
+                        String.format("Grew %.1fx for a %.0fx larger network: %s", growth, sizeGrowth,
+                                describe(operation))));
+            }
+        }
+        assertAll(checks);
+        assertNotEquals(0, sink);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.shard;
+
+import com.example.domain.Persona;
+import com.example.exceptions.ConnectionAlreadyExistsException;
+import com.example.exceptions.NoPathException;
+import com.example.exceptions.UserAlreadyExistsException;
+import com.example.exceptions.UserNotFoundException;
+import com.example.service.ConnectionResult;
+import com.example.service.SocialNetwork;
+import com.example.service.SocialNetworkImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link ShardedSocialNetwork}.
+ */
+@DisplayName("ShardedSocialNetwork Tests")
+class ShardedSocialNetworkTest {
+
+    private static Persona user(String id) {
+        return new Persona(id, "User " + id, LocalDate.of(1990, 1, 1), "Barcelona", LocalDate.of(2023, 1, 1));
+    }
+
+    @Test
+    @DisplayName("Should store users and cross-shard connections like the single-heap network")
+    void shouldHandleCrossShardConnections() {
+        ShardedSocialNetwork network = new ShardedSocialNetwork(3);
+        for (int i = 0; i < 9; i++) {
+            network.registerUser(user(Integer.toString(i)));
+        }
+        assertNotEquals(network.shardOf("0"), network.shardOf("1"));
+
+        network.connect("0", "1");
+        network.connect("0", "2");
+
+        assertEquals(Set.of(user("1"), user("2")), network.getFriends("0"));
+        assertEquals(Set.of(user("0")), network.getFriends("1"));
+        assertEquals(List.of("0", "1", "2", "3", "4", "5", "6", "7", "8"),
+                network.getUsersOrderedByRegistration().stream().map(Persona::getId).toList());
+        assertThrows(ConnectionAlreadyExistsException.class, () -> network.connect("1", "0"));
+        assertThrows(UserAlreadyExistsException.class, () -> network.registerUser(user("4")));
+        assertThrows(UserNotFoundException.class, () -> network.connect("0", "missing"));
+        assertEquals(new ConnectionResult.UnknownUser<>("missing"), network.findConnectionPath("0", "missing"));
+        assertEquals(new ConnectionResult.UnknownUser<>("missing"), network.findConnectionLevel("missing", "0"));
+        assertThrows(IllegalArgumentException.class, () -> network.connect("3", "3"));
+    }
+
+    @Test
+    @DisplayName("Should find shortest paths that match the single-heap network")
+    void shouldMatchSingleHeapPathLengths() {
+        ShardedSocialNetwork sharded = new ShardedSocialNetwork(4);
+        SocialNetwork reference = new SocialNetworkImpl();
+        int users = 300;
+        for (int i = 0; i < users; i++) {
+            sharded.registerUser(user(Integer.toString(i)));
+            reference.registerUser(user(Integer.toString(i)));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < users; i++) {
+            for (int k = 0; k < 2; k++) {
+                String a = Integer.toString(i);
+                String b = Integer.toString(random.nextInt(users));
+                if (!a.equals(b) && !reference.getFriends(a).contains(user(b))) {
+                    sharded.connect(a, b);
+                    reference.connect(a, b);
+                }
+            }
+        }
+
+        for (int q = 0; q < 50; q++) {
+            String from = Integer.toString(random.nextInt(users));
+            String to = Integer.toString(random.nextInt(users));
+            assertEquals(reference.findConnectionLevel(from, to), sharded.findConnectionLevel(from, to));
+            int expected;
+            try {
+                expected = reference.getConnectionLevelBetween(from, to);
+            } catch (NoPathException e) {
+                assertThrows(NoPathException.class, () -> sharded.getConnectionPathBetween(from, to));
+                continue;
+            }
+            List<Persona> path = sharded.getConnectionPathBetween(from, to);
+            assertEquals(expected, path.size() - 1);
+            assertEquals(from, path.get(0).getId());
+            assertEquals(to, path.get(path.size() - 1).getId());
+            for (int i = 1; i < path.size(); i++) {
+                assertTrue(sharded.getFriends(path.get(i - 1).getId()).contains(path.get(i)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should exchange one batch per shard and level instead of one call per user")
+    void shouldBatchFrontierExchanges() {
+        List<CountingShard> shards = IntStream.range(0, 2).mapToObj(i -> new CountingShard()).toList();
+        ShardedSocialNetwork network = new ShardedSocialNetwork(shards);
+        // A hub with 100 friends, each of which is connected to the target "t"
+        network.registerUser(user("hub"));
+        network.registerUser(user("t"));
+        for (int i = 0; i < 100; i++) {
+            network.registerUser(user("f" + i));
+            network.connect("hub", "f" + i);
+            network.connect("f" + i, "t");
+        }
+
+        assertEquals(2, network.getConnectionLevelBetween("hub", "t"));
+
+        int expandCalls = shards.stream().mapToInt(s -> s.expands.get()).sum();
+        int visitCalls = shards.stream().mapToInt(s -> s.visits.get()).sum();
+        assertTrue(expandCalls <= 2 * 2, "expand calls: " + expandCalls);
+        assertTrue(visitCalls <= 1 + 2 * 2, "visit calls: " + visitCalls);
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid shard configuration")
+    void shouldRejectInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedSocialNetwork(0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedSocialNetwork(new ArrayList<Shard>()));
+    }
+
+    /**
+     * In-process stand-in that counts the traversal calls a remote shard would receive.
+     */
+    private static final class CountingShard extends InMemoryShard {
+        final AtomicInteger expands = new AtomicInteger();
+        final AtomicInteger visits = new AtomicInteger();
+
+        @Override
+        public EdgeBatch expand(long searchId, String[] frontier) {
+            expands.incrementAndGet();
+            return super.expand(searchId, frontier);
+        }
+
+        @Override
+        public String[] visit(long searchId, EdgeBatch candidates) {
+            visits.incrementAndGet();
+            return super.visit(searchId, candidates);
+        }
+    }
+}